@@ -0,0 +1,144 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.limit.AdaptiveLimiter;
+import reactive.limit.AimdLimit;
+import reactive.limit.FixedLimit;
+import reactive.limit.Limit;
+import reactive.limit.VegasLimit;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// flatMap() with a hard-coded concurrency (JavaReactor 0.9) vs. an adaptive limit, against a dependency that
+// degrades under load (SimulatedDependency.overloadable: 5ms up to 32 calls in flight, failures over 128)
+//   FIXED_256: a too-high hard-coded concurrency overloads the dependency (slow calls, failures)
+//   FIXED_8: a too-low hard-coded concurrency under-uses it
+//   AIMD, VEGAS: the limit converges near the dependency's capacity
+//   the calls go through the limiter as they are (a failure must reach the Limit to make it back off): the failed
+//   elements are dropped and counted by the onError of limiter.flatMap(), outside the limiter
+//   the aux counters: failed calls, the calls the limiter saw fail (dropped), and the final limit (limit / ops, as
+//   JMH sums the counters)
+// main() is the validation run: it prints the limit, the dependency's in-flight calls and the failures over time
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdaptiveLimiterBenchmark {
+
+    public enum Strategy {
+        FIXED_8, FIXED_256, AIMD, VEGAS;
+
+        Limit create() {
+            switch (this) {
+                case FIXED_8:
+                    return new FixedLimit(8);
+                case FIXED_256:
+                    return new FixedLimit(256);
+                case AIMD:
+                    return new AimdLimit(10, 1, 256, 0.9, Duration.ofMillis(10));
+                default:
+                    return new VegasLimit(10, 1, 256, 1000);
+            }
+        }
+    }
+
+    @Param({"FIXED_8", "FIXED_256", "AIMD", "VEGAS"})
+    public Strategy strategy;
+
+    @Param({"2048"})
+    public int elements;
+
+    private Scheduler timer;
+    private SimulatedDependency dependency;
+    private AdaptiveLimiter limiter;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long failures;
+        public long dropped;
+        public long limit;
+    }
+
+    @Setup
+    public void setup() {
+        timer = Schedulers.newParallel("timer");
+        dependency = SimulatedDependency.overloadable(timer, 5000, 32);
+        limiter = new AdaptiveLimiter(strategy.create()); // the default maxQueued, well under elements
+    }
+
+    @TearDown
+    public void tearDown() {
+        timer.dispose();
+    }
+
+    @Benchmark
+    public Long limited(Counters counters) {
+        LongAdder failures = new LongAdder();
+        long droppedBefore = limiter.dropped();
+        Long count = Flux.range(0, elements)
+            .transform(limiter.flatMap(dependency::call, 256, e -> failures.increment()))
+            .count()
+            .block();
+        checkNoneLost(elements, count, failures.sum());
+        counters.failures += failures.sum();
+        counters.dropped += limiter.dropped() - droppedBefore;
+        counters.limit += limiter.limit();
+        return count;
+    }
+
+    // every element is either emitted or failed: none is rejected by the limiter (the calls over the limit wait)
+    private static void checkNoneLost(long elements, long emitted, long failed) {
+        if (emitted + failed != elements) {
+            throw new IllegalStateException((elements - emitted - failed) + " of " + elements + " elements lost");
+        }
+    }
+
+    public static void main(String[] args) {
+        for (Strategy strategy : Strategy.values()) {
+            Scheduler timer = Schedulers.newParallel("timer");
+            SimulatedDependency dependency = SimulatedDependency.overloadable(timer, 5000, 32);
+            AdaptiveLimiter limiter = new AdaptiveLimiter(strategy.create());
+            LongAdder failures = new LongAdder();
+            long start = System.nanoTime();
+            long emitted = Flux.range(0, 50000)
+                .transform(limiter.flatMap(dependency::call, 256, e -> failures.increment()))
+                .index()
+                .doOnNext(indexed -> {
+                    if (indexed.getT1() % 5000 == 0) {
+                        System.out.printf("%s: %6d calls, limit=%3d, dependency in flight=%3d, failures=%d%n",
+                            strategy, indexed.getT1(), limiter.limit(), dependency.inFlight(), failures.sum());
+                    }
+                })
+                .count()
+                .block();
+            checkNoneLost(50000, emitted, failures.sum());
+            System.out.printf("%s: %.0f calls/s, %d failures (%d dropped by the limiter), %d rejected%n%n", strategy,
+                50000 * 1e9 / (System.nanoTime() - start), failures.sum(), limiter.dropped(), limiter.rejected());
+            timer.dispose();
+        }
+    }
+}
+// validation run:
+//   sbt "benchmark/Jmh/runMain benchmark.AdaptiveLimiterBenchmark"
+// benchmark:
+//   sbt "benchmark/Jmh/run AdaptiveLimiterBenchmark"
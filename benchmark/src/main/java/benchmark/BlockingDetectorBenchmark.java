@@ -0,0 +1,80 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.trace.BlockingDetector;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+// the overhead of the BlockingDetector on non-blocking pipelines (nothing to find): many small tasks on a parallel
+// scheduler, the worst case for the per-task tracking
+//   OFF: no detector, CANARY: 1% of the tasks tracked, STRICT: every task tracked and every operator wrapped
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockingDetectorBenchmark {
+
+    public enum Detector {
+        OFF,
+        CANARY,
+        STRICT
+    }
+
+    @Param({"OFF", "CANARY", "STRICT"})
+    public Detector detector;
+
+    @Param({"1024"})
+    public int elements;
+
+    private Scheduler scheduler;
+    private BlockingDetector installed;
+
+    @Setup
+    public void setup() {
+        scheduler = Schedulers.newParallel("bench");
+        if (detector == Detector.CANARY) installed = BlockingDetector.installCanary(0.01, call -> {});
+        if (detector == Detector.STRICT) installed = BlockingDetector.installStrict(call -> {});
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (installed != null) installed.uninstall();
+        scheduler.dispose();
+    }
+
+    // one task per element: each inner Mono is subscribed on the scheduler
+    @Benchmark
+    public Integer tasks() {
+        return Flux.range(0, elements)
+            .flatMap(x -> Mono.just(x).subscribeOn(scheduler).map(y -> y + 1))
+            .blockLast();
+    }
+
+    // a few long tasks: publishOn drains the elements in batches
+    @Benchmark
+    public Integer drain() {
+        return Flux.range(0, elements)
+            .publishOn(scheduler)
+            .map(x -> x + 1)
+            .blockLast();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run BlockingDetectorBenchmark"
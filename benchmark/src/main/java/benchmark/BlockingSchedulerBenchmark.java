@@ -0,0 +1,91 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.VirtualThreadSchedulers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+// boundedElastic vs. virtual threads for N concurrent blocking calls (JavaReactor 1.3, 3.1-3.5)
+//   each invocation subscribes `calls` inner Monos at once (flatMap concurrency = calls),
+//   each of them blocks for `blockMillis` on the scheduler, and waits until all of them complete
+//   Mode.SingleShotTime: the time to complete all the calls (calls / time = throughput)
+// memory:
+//   run with `-prof gc` for the allocation rate, the peak heap (all heap pools) is printed after each trial
+// note:
+//   the boundedElastic queue is made unbounded here, otherwise the default 100000-task queue rejects 1M calls
+//   the VIRTUAL_THREAD trials fail in @Setup on a JDK without virtual threads (JDK < 21)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BlockingSchedulerBenchmark {
+
+    public enum SchedulerMode {
+        BOUNDED_ELASTIC,
+        VIRTUAL_THREAD
+    }
+
+    @Param({"BOUNDED_ELASTIC", "VIRTUAL_THREAD"})
+    public SchedulerMode mode;
+
+    @Param({"10000", "100000", "1000000"})
+    public int calls;
+
+    @Param({"10"})
+    public long blockMillis;
+
+    private Scheduler scheduler;
+
+    @Setup
+    public void setup() {
+        scheduler = mode == SchedulerMode.VIRTUAL_THREAD ?
+            VirtualThreadSchedulers.newVirtualThreadPerTask("virtual") :
+            Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Integer.MAX_VALUE, "boundedElastic");
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.dispose();
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .mapToLong(pool -> pool.getPeakUsage().getUsed())
+            .sum();
+        System.out.printf("%n%s, calls=%d: peak heap=%d MB, peak threads=%d%n",
+            mode, calls, peakHeap >> 20, ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+
+    @Benchmark
+    public Long blockingCalls() {
+        return Flux.range(0, calls)
+            .flatMap(x -> Mono.fromCallable(() -> {
+                Thread.sleep(blockMillis);
+                return x;
+            }).subscribeOn(scheduler), calls)
+            .count()
+            .block();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc BlockingSchedulerBenchmark"
+//   sbt "benchmark/Jmh/run -prof gc -p calls=10000 BlockingSchedulerBenchmark"
@@ -0,0 +1,353 @@
+package benchmark;
+
+import org.apache.http.entity.ContentType;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.html.BulkParser;
+import reactive.html.Extracted;
+import reactive.html.Page;
+import reactive.html.PageSource;
+import reactive.http.FetchEngine;
+import reactive.http.HttpStub;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// `pages` generated HTML pages (16 to 48 KB: a nav of links, a title, paragraphs with inline links, a table) parsed
+// by Jsoup, and 4 fields extracted from each (title, meta description, h1, the absolute URLs of the links):
+//   sequential: the pattern of JsoupBasics, a page at a time on the calling thread: Jsoup.parse(file, null) or
+//     Jsoup.connect(uri).get(), then the fields selected from the Document
+//   documents: BulkParser.documents(), the subscriber selects the fields from the Documents
+//   extract: BulkParser.extract(), the streaming selector mode (the fields copied out on the parse thread)
+// source: files (the corpus in java.io.tmpdir, generated once) or http (the corpus served from memory by an HttpStub
+//   with latencyMillis per response, fetched by a FetchEngine)
+// the counters report pages/s, MB/s, the peak live heap, and the heap retained by one page in flight (a Document,
+// or an Extracted: measured by holding 200 of them across a GC, see retainedBytes)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class BulkParserBenchmark {
+
+    private static final String[] WORDS = ("the of and to in is was for on that with as by at from his her an were "
+        + "which are this be has had not also first one their its after new who they two her she been other when "
+        + "there all during into school time may years more most only over city some world would where later up "
+        + "such used many can state about national out known university united then made").split(" ");
+
+    @Param({"sequential", "documents", "extract"})
+    public String approach;
+
+    @Param({"files", "http"})
+    public String source;
+
+    @Param({"10000"})
+    public int pages;
+
+    @Param({"5"})
+    public int latencyMillis;
+
+    @Param({"64"})
+    public int fetchConcurrency;
+
+    private Path corpus;
+    private HttpStub stub;
+    private FetchEngine engine;
+    private long retainedBytesPerPage;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public double pagesPerSecond;
+        public double megabytesPerSecond;
+        public long peakLiveHeapMb;
+        public long heapPerPageKb;
+        public long failures;
+        long pages;
+        long bytes;
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pages = 0;
+            bytes = 0;
+            GcMonitor.reset();
+            start = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pagesPerSecond = pages / seconds;
+            megabytesPerSecond = bytes / 1e6 / seconds;
+            peakLiveHeapMb = GcMonitor.peakLiveHeap() >> 20;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        corpus = corpus(pages);
+        if (source.equals("http")) {
+            List<byte[]> bodies = new ArrayList<>(pages);
+            for (int i = 0; i < pages; i++) {
+                bodies.add(Files.readAllBytes(corpus.resolve(path(i))));
+            }
+            stub = HttpStub.builder()
+                .content(path -> bodies.get(Integer.parseInt(path.substring(path.lastIndexOf('-') + 1, path.length() - 5))))
+                .contentType(ContentType.TEXT_HTML.withCharset(StandardCharsets.UTF_8))
+                .latency(Duration.ofMillis(latencyMillis))
+                .start();
+            engine = FetchEngine.builder().maxConnPerRoute(fetchConcurrency).build();
+        }
+        retainedBytesPerPage = retainedBytes(200);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (engine != null) engine.close();
+        if (stub != null) stub.close();
+    }
+
+    @Benchmark
+    public long parse(Counters counters) {
+        counters.heapPerPageKb = retainedBytesPerPage >> 10;
+        if (approach.equals("sequential")) {
+            long links = 0;
+            for (int i = 0; i < pages; i++) {
+                links += select(sequential(i)).length;
+                counters.bytes += pageBytes(i);
+            }
+            counters.pages = pages;
+            return links;
+        }
+        try (BulkParser parser = parser(pages)) {
+            Flux<String[]> fields = approach.equals("documents")
+                ? parser.documents().map(BulkParserBenchmark::select)
+                : parser.extract().map(BulkParserBenchmark::fields);
+            long links = fields.reduce(0L, (sum, page) -> sum + page.length).block();
+            BulkParser.Stats stats = parser.stats();
+            counters.pages = stats.parsedCount();
+            counters.bytes = stats.fetchedBytes();
+            counters.failures = stats.fetchFailureCount() + stats.parseFailureCount();
+            return links;
+        }
+    }
+
+    private long pageBytes(int i) {
+        try {
+            return Files.size(corpus.resolve(path(i)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Document sequential(int i) {
+        try {
+            return source.equals("http")
+                ? Jsoup.connect(stub.uri("/" + path(i))).get()
+                : Jsoup.parse(corpus.resolve(path(i)).toFile(), null, corpus.resolve(path(i)).toUri().toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BulkParser parser(int pages) {
+        PageSource pageSource = source.equals("http")
+            ? PageSource.http(engine, Flux.range(0, pages).map(i -> stub.uri("/" + path(i))))
+            : limit(PageSource.files(corpus), pages);
+        return BulkParser.builder(pageSource)
+            .fetchConcurrency(fetchConcurrency)
+            .select("title", "title")
+            .selectAttribute("description", "meta[name=description]", "content")
+            .select("h1", "h1")
+            .selectAttribute("links", "a[href]", "abs:href")
+            .build();
+    }
+
+    // the first pages of the source
+    private static PageSource limit(PageSource source, int pages) {
+        return new PageSource() {
+            @Override
+            public Flux<String> uris() {
+                return source.uris().take(pages);
+            }
+
+            @Override
+            public Mono<Page> fetch(String uri) {
+                return source.fetch(uri);
+            }
+        };
+    }
+
+    // the fields of a Document, as the subscriber of documents() or the loop of sequential gets them
+    private static String[] select(Document document) {
+        List<String> fields = new ArrayList<>();
+        fields.add(document.title());
+        fields.add(document.select("meta[name=description]").attr("content"));
+        fields.add(document.select("h1").text());
+        document.select("a[href]").forEach(link -> fields.add(link.attr("abs:href")));
+        return fields.toArray(new String[0]);
+    }
+
+    private static String[] fields(Extracted page) {
+        List<String> fields = new ArrayList<>();
+        fields.add(page.value("title"));
+        fields.add(page.value("description"));
+        fields.add(page.value("h1"));
+        fields.addAll(page.values("links"));
+        return fields.toArray(new String[0]);
+    }
+
+    // the heap retained by one page in flight: count Documents (sequential, documents) or Extracted (extract) held
+    // across a full GC
+    private long retainedBytes(int count) {
+        long before = usedHeap();
+        List<Object> kept = new ArrayList<>(count);
+        if (approach.equals("extract")) {
+            try (BulkParser parser = parser(count)) {
+                kept.addAll(parser.extract().collectList().block());
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                kept.add(sequential(i));
+            }
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(kept);
+        return (after - before) / count;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String path(int i) {
+        return String.format("%03d/page-%d.html", i / 1000, i);
+    }
+
+    // the corpus of `pages` pages, generated once in java.io.tmpdir (complete once its marker file exists)
+    static Path corpus(int pages) throws IOException {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "html-corpus-" + pages);
+        Path complete = directory.resolve("complete");
+        if (Files.exists(complete)) return directory;
+        for (int i = 0; i < pages; i++) {
+            Path file = directory.resolve(path(i));
+            Files.createDirectories(file.getParent());
+            Files.write(file, page(i, pages).getBytes(StandardCharsets.UTF_8));
+        }
+        Files.createFile(complete);
+        return directory;
+    }
+
+    private static String page(int index, int pages) {
+        Random random = new Random(index);
+        int target = 16 * 1024 + random.nextInt(32 * 1024);
+        StringBuilder html = new StringBuilder(target + 4096);
+        html.append("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n<title>Page ").append(index)
+            .append(": ").append(words(random, 6)).append("</title>\n<meta name=\"description\" content=\"")
+            .append(words(random, 20)).append("\">\n<link rel=\"stylesheet\" href=\"/style.css\">\n</head>\n<body>\n")
+            .append("<div class=\"nav\"><ul>\n");
+        for (int i = 0; i < 20; i++) {
+            html.append("<li><a href=\"../").append(path(random.nextInt(pages))).append("\">")
+                .append(words(random, 2)).append("</a></li>\n");
+        }
+        html.append("</ul></div>\n<div id=\"content\"><h1>").append(words(random, 5)).append("</h1>\n<article>\n");
+        while (html.length() < target) {
+            html.append("<p>");
+            for (int sentence = 0; sentence < 5; sentence++) {
+                html.append(words(random, 8)).append(' ');
+                if (random.nextInt(3) == 0) {
+                    html.append("<a href=\"/wiki/").append(WORDS[random.nextInt(WORDS.length)]).append("\">")
+                        .append(words(random, 2)).append("</a> ");
+                }
+                html.append(random.nextBoolean() ? "<em>" + words(random, 3) + "</em>" : words(random, 6)).append(". ");
+            }
+            html.append("</p>\n");
+            if (random.nextInt(8) == 0) {
+                html.append("<table class=\"data\">\n");
+                for (int row = 0; row < 8; row++) {
+                    html.append("<tr>");
+                    for (int cell = 0; cell < 4; cell++) {
+                        html.append("<td>").append(random.nextInt(100_000)).append("</td>");
+                    }
+                    html.append("</tr>\n");
+                }
+                html.append("</table>\n");
+            }
+        }
+        return html.append("</article></div>\n</body>\n</html>\n").toString();
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) words.append(' ');
+            words.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return words.toString();
+    }
+
+    // quick run without JMH: java ... benchmark.BulkParserBenchmark [pages] [source] [approach...]
+    public static void main(String[] args) throws Exception {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        String source = args.length > 1 ? args[1] : "files";
+        List<String> approaches = args.length > 2 ? Arrays.asList(args).subList(2, args.length)
+            : Arrays.asList("sequential", "documents", "extract");
+        for (String approach : approaches) {
+            BulkParserBenchmark benchmark = new BulkParserBenchmark();
+            benchmark.approach = approach;
+            benchmark.source = source;
+            benchmark.pages = pages;
+            benchmark.latencyMillis = 5;
+            benchmark.fetchConcurrency = 64;
+            benchmark.setup();
+            for (int iteration = 0; iteration < 2; iteration++) {
+                Counters counters = new Counters();
+                counters.reset();
+                benchmark.parse(counters);
+                counters.record();
+                System.out.printf("%-10s %-5s %,7d pages  %,7.0f pages/s  %,6.1f MB/s  peak live heap %,5d MB  "
+                        + "heap per page in flight %,5d KB  failures %d%n", approach, source, counters.pages,
+                    counters.pagesPerSecond, counters.megabytesPerSecond, counters.peakLiveHeapMb,
+                    counters.heapPerPageKb, counters.failures);
+            }
+            benchmark.tearDown();
+        }
+        System.exit(0);
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run BulkParserBenchmark"
+//   sbt "benchmark/runMain benchmark.BulkParserBenchmark 10000 files"
@@ -0,0 +1,186 @@
+package benchmark;
+
+import bridge.CollectionBridge;
+import bridge.IntSeqList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import scala.collection.Iterator;
+import scala.collection.JavaConverters;
+import scala.collection.immutable.ArraySeq;
+import scala.collection.immutable.Seq;
+import scala.collection.immutable.Vector;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// a sequence of `size` elements handed between Java and Scala, then read once by the receiving side:
+//   javaToScala: a java.util.List<Integer> passed to a Scala API that takes an immutable Seq (sum of its iterator)
+//     converters: JavaConverters.asScalaBuffer(list).toList() (ScalaListInJava), bridge: CollectionBridge.asScala
+//   roundTrip: the same list to Scala and back to Java (JavaConversionsTest: list.asScala, then seq.asJava), read
+//     by Java with a for-each and 16 get(i) spread over the list
+//     converters: seqAsJavaList(asScalaBuffer(list).toList()) (get(i) walks the List), bridge: asJava(asScala(list))
+//   scalaToJava: a Vector<Integer> returned to Java, read with a for-each
+//     converters: JavaConverters.seqAsJavaList(vector) (for-each by get(i)), bridge: CollectionBridge.asJava (for-each
+//     by the Vector iterator)
+//   intsToScala: an int[] passed as a Seq[Int], read by index
+//     converters: Arrays.stream(ints).boxed().collect(toList()) then asScalaBuffer(...).toList(), bridge: asScala(int[])
+//   intsToJava: an ArraySeq[Int] returned to Java, read by index
+//     converters: seqAsJavaList(seq).get(i) (an Integer per element), bridge: asJavaInts(seq).getInt(i)
+// -prof gc: gc.alloc.rate.norm is the bytes allocated per op (the copies), 0 for the views but a few wrappers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class CollectionBridgeBenchmark {
+
+    private static final int PROBES = 16;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private List<Integer> list;
+    private Vector<Integer> vector;
+    private int[] ints;
+    private ArraySeq.ofInt intSeq;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(i);
+        vector = (Vector<Integer>) (Object) JavaConverters.asScalaBuffer(list).toVector();
+        ints = new int[size];
+        Arrays.setAll(ints, i -> i);
+        intSeq = CollectionBridge.asScala(ints);
+    }
+
+    // the Scala API: reads the Seq once
+    private static long sum(Seq<Integer> seq) {
+        long sum = 0;
+        for (Iterator<Integer> elements = seq.iterator(); elements.hasNext(); ) sum += elements.next();
+        return sum;
+    }
+
+    // the Java reader of a returned list
+    private static long sum(List<Integer> list) {
+        long sum = 0;
+        for (int element : list) sum += element;
+        return sum;
+    }
+
+    private static long probe(List<Integer> list) {
+        long sum = 0;
+        int step = Math.max(1, list.size() / PROBES);
+        for (int i = 0; i < list.size(); i += step) sum += list.get(i);
+        return sum;
+    }
+
+    @Benchmark
+    public long javaToScalaConverters() {
+        return sum(JavaConverters.asScalaBuffer(list).toList());
+    }
+
+    @Benchmark
+    public long javaToScalaBridge() {
+        return sum(CollectionBridge.asScala(list));
+    }
+
+    @Benchmark
+    public long roundTripConverters() {
+        List<Integer> back = JavaConverters.seqAsJavaList(JavaConverters.asScalaBuffer(list).toList());
+        return sum(back) + probe(back);
+    }
+
+    @Benchmark
+    public long roundTripBridge() {
+        List<Integer> back = CollectionBridge.asJava(CollectionBridge.asScala(list));
+        return sum(back) + probe(back);
+    }
+
+    @Benchmark
+    public long scalaToJavaConverters() {
+        return sum(JavaConverters.seqAsJavaList(vector));
+    }
+
+    @Benchmark
+    public long scalaToJavaBridge() {
+        return sum(CollectionBridge.asJava(vector));
+    }
+
+    @Benchmark
+    public long intsToScalaConverters() {
+        List<Integer> boxed = Arrays.stream(ints).boxed().collect(Collectors.toList());
+        scala.collection.immutable.List<Integer> seq = JavaConverters.asScalaBuffer(boxed).toList();
+        return sum(seq);
+    }
+
+    @Benchmark
+    public long intsToScalaBridge() {
+        ArraySeq.ofInt seq = CollectionBridge.asScala(ints);
+        long sum = 0;
+        for (int i = 0; i < seq.length(); i++) sum += seq.apply(i);
+        return sum;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long intsToJavaConverters() {
+        List<Integer> list = (List<Integer>) (Object) JavaConverters.seqAsJavaList(intSeq);
+        long sum = 0;
+        for (int i = 0; i < list.size(); i++) sum += list.get(i);
+        return sum;
+    }
+
+    @Benchmark
+    public long intsToJavaBridge() {
+        IntSeqList list = CollectionBridge.asJavaInts(intSeq);
+        long sum = 0;
+        for (int i = 0; i < list.size(); i++) sum += list.getInt(i);
+        return sum;
+    }
+
+    // quick run without JMH: java ... benchmark.CollectionBridgeBenchmark [size...]
+    //   the average time and the bytes allocated per op of each benchmark, after a warmup
+    public static void main(String[] args) throws Exception {
+        List<Integer> sizes = args.length > 0
+            ? Arrays.stream(args).map(Integer::valueOf).collect(Collectors.toList())
+            : Arrays.asList(1000, 100_000, 1_000_000, 10_000_000);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int size : sizes) {
+            CollectionBridgeBenchmark benchmark = new CollectionBridgeBenchmark();
+            benchmark.size = size;
+            benchmark.setup();
+            int ops = (int) Math.max(3, Math.min(10_000, 20_000_000L / size));
+            for (Method method : CollectionBridgeBenchmark.class.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(Benchmark.class)) continue;
+                for (int i = 0; i < ops; i++) method.invoke(benchmark);
+                long allocated = threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                for (int i = 0; i < ops; i++) method.invoke(benchmark);
+                double micros = (System.nanoTime() - start) / 1e3 / ops;
+                double bytes = (double) (threads.getThreadAllocatedBytes(thread) - allocated) / ops;
+                System.out.printf("%,11d  %-22s %,14.1f us/op %,16.0f B/op%n", size, method.getName(), micros, bytes);
+            }
+        }
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc CollectionBridgeBenchmark"
+//   sbt "benchmark/runMain benchmark.CollectionBridgeBenchmark 1000 100000 1000000 10000000"
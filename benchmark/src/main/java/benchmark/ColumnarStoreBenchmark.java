@@ -0,0 +1,154 @@
+package benchmark;
+
+import columnar.Bitmap;
+import columnar.MemberDefaultValueTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// scans of `rows` records of the JavaMemberDefaultValue shape: ArrayList<MemberRecord> vs. MemberDefaultValueTable
+//   the records: aInteger unset in 10% of the rows, aDouble in 20%, aBoolean in 30%, aString one of 8 values or unset
+//   sumWhere: sum of aInteger where aBoolean == true, average: average of the set aDouble,
+//   countString: the rows where aString equals one of the values
+// memory: main() builds the same records as objects and as columns, and prints the heap used by each (after a GC)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ColumnarStoreBenchmark {
+
+    private static final String[] STRINGS = {"red", "white", "blue", "green", "yellow", "black", "pink", "grey"};
+
+    @Param({"10000000"})
+    public int rows;
+
+    private List<MemberRecord> objects;
+    private MemberDefaultValueTable table;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        objects = objects(rows);
+        table = table(rows);
+    }
+
+    static MemberRecord record(SplittableRandom random, int row) {
+        MemberRecord r = new MemberRecord();
+        r.aInteger = random.nextInt(10) == 0 ? null : random.nextInt(1_000_000);
+        r.aDouble = random.nextInt(5) == 0 ? null : random.nextDouble();
+        r.aBoolean = random.nextInt(10) < 3 ? null : random.nextBoolean();
+        int s = random.nextInt(STRINGS.length + 1);
+        r.aString = s == STRINGS.length ? null : STRINGS[s];
+        r.i = row;
+        r.d = row * 0.5;
+        r.b = (row & 1) == 0;
+        r.c = (char) ('a' + row % 26);
+        return r;
+    }
+
+    static List<MemberRecord> objects(int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<MemberRecord> objects = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) objects.add(record(random, row));
+        return objects;
+    }
+
+    // the same records (same seed), appended to the columns without keeping the objects
+    static MemberDefaultValueTable table(int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        MemberDefaultValueTable table = new MemberDefaultValueTable(rows);
+        for (int row = 0; row < rows; row++) {
+            MemberRecord r = record(random, row);
+            table.append(r.aInteger, r.aDouble, r.aBoolean, r.aString, r.i, r.d, r.b, r.c);
+        }
+        return table;
+    }
+
+    @Benchmark
+    public long objectsSumWhere() {
+        long sum = 0;
+        for (MemberRecord r : objects) {
+            if (r.aBoolean != null && r.aBoolean && r.aInteger != null) sum += r.aInteger;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long columnarSumWhere() {
+        return table.aInteger.sum(table.size(), table.aBoolean.trueRows());
+    }
+
+    @Benchmark
+    public double objectsAverage() {
+        double sum = 0;
+        int count = 0;
+        for (MemberRecord r : objects) {
+            if (r.aDouble != null) {
+                sum += r.aDouble;
+                count++;
+            }
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    @Benchmark
+    public double columnarAverage() {
+        return table.aDouble.average(table.size());
+    }
+
+    @Benchmark
+    public int objectsCountString() {
+        int count = 0;
+        for (MemberRecord r : objects) {
+            if ("blue".equals(r.aString) || "green".equals(r.aString)) count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int columnarCountString() {
+        Bitmap rows = table.aString.filter(table.size(), s -> s.equals("blue") || s.equals("green"));
+        return rows.cardinality(table.size());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // the memory footprint: run with -Xmx4g
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        long base = usedHeap();
+        List<MemberRecord> objects = objects(rows);
+        long objectsBytes = usedHeap() - base;
+        System.out.printf("ArrayList<MemberRecord>: %d MB, %.1f bytes per record%n",
+            objectsBytes >> 20, (double) objectsBytes / rows);
+        objects.clear();
+        objects = null;
+        base = usedHeap();
+        MemberDefaultValueTable table = table(rows);
+        long tableBytes = usedHeap() - base;
+        System.out.printf("MemberDefaultValueTable: %d MB, %.1f bytes per record (columns: %d MB)%n",
+            tableBytes >> 20, (double) tableBytes / rows, table.memoryBytes() >> 20);
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run ColumnarStoreBenchmark"
+//   sbt -J-Xmx4g "benchmark/runMain benchmark.ColumnarStoreBenchmark 10000000"
@@ -0,0 +1,62 @@
+package benchmark;
+
+import concurrent.Counter;
+import concurrent.CounterStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// contention of the Counter strategies (JavaThread 2, 3): all the benchmark threads increment one shared counter
+//   Mode.Throughput: increments per microsecond, summed over all the threads
+// note: JMH runs a benchmark with a fixed number of threads (-t), so main() runs it for 1 to 64 threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+
+    @Param({"SYNCHRONIZED", "ATOMIC", "STRIPED", "BATCHED"})
+    public CounterStrategy strategy;
+
+    private Counter counter;
+
+    @Setup
+    public void setup() {
+        counter = strategy.create();
+    }
+
+    @Benchmark
+    public void increment() {
+        counter.increment();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            Options options = new OptionsBuilder()
+                .include(CounterBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
+// run for 1, 2, 4, ..., 64 threads:
+//   sbt "benchmark/Jmh/runMain benchmark.CounterBenchmark"
+// run for a given number of threads:
+//   sbt "benchmark/Jmh/run -t 16 CounterBenchmark"
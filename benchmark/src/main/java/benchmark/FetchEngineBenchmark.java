@@ -0,0 +1,234 @@
+package benchmark;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.http.FetchEngine;
+import reactive.http.FetchResponse;
+import reactive.http.HttpStub;
+import reactive.metrics.LatencyHistogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import scala.io.Source;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// `requests` GETs of a bodyBytes body from a local HttpStub that answers after latencyMillis, `concurrency` at a time:
+//   blocking: the pattern of HttpAsyncClientTest: a client built by HttpAsyncClients.custom() (its default pool: 2
+//     connections per route), client.execute(request, null).get and Source.fromInputStream(...).mkString, on a
+//     thread per concurrent request (a pool of `concurrency` threads)
+//   blockingPooled: the same threads, on a client with the connection pool of the engine (256 per route)
+//   engine: FetchEngine (256 connections per route, the other requests in its per-host queue), Mono per request,
+//     flatMap(concurrency), the bodies in pooled buffers, no thread per request
+// the latency of a request is measured from its start (a thread takes it, or flatMap subscribes it) to its body, so
+// it includes the wait for a connection (blocking) or for the host limit (engine)
+// the counters report req/s, p50/p99/max latency, the failures and the peak thread count of the JVM
+// the stub and the clients share the machine: with few cores, the CPU of the stub is part of the cost
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class FetchEngineBenchmark {
+
+    @Param({"blocking", "blockingPooled", "engine"})
+    public String approach;
+
+    @Param({"1000", "10000"})
+    public int concurrency;
+
+    @Param({"20000"})
+    public int requests;
+
+    @Param({"5"})
+    public int latencyMillis;
+
+    @Param({"16384"})
+    public int bodyBytes;
+
+    private HttpStub stub;
+    private String uri;
+    private CloseableHttpAsyncClient client;
+    private ThreadPoolExecutor threads;
+    private FetchEngine engine;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public double requestsPerSecond;
+        public double p50Millis;
+        public double p99Millis;
+        public double maxMillis;
+        public long failures;
+        public long peakThreads;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong failed = new AtomicLong();
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            start = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            LatencyHistogram.Snapshot snapshot = latency.snapshot();
+            requestsPerSecond = snapshot.count() / ((System.nanoTime() - start) / 1e9);
+            p50Millis = snapshot.percentile(0.50) / 1e6;
+            p99Millis = snapshot.percentile(0.99) / 1e6;
+            maxMillis = snapshot.max() / 1e6;
+            failures = failed.get();
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            peakThreads = threadMXBean.getPeakThreadCount();
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        stub = HttpStub.builder().fixedBody(bodyBytes).latency(Duration.ofMillis(latencyMillis)).start();
+        uri = stub.uri("/body");
+        switch (approach) {
+            case "blocking":
+                client = HttpAsyncClients.custom().build();
+                break;
+            case "blockingPooled":
+                PoolingNHttpClientConnectionManager connections = new PoolingNHttpClientConnectionManager(
+                    new DefaultConnectingIOReactor(IOReactorConfig.custom().setTcpNoDelay(true).build()));
+                connections.setMaxTotal(1024);
+                connections.setDefaultMaxPerRoute(256);
+                client = HttpAsyncClients.custom().setConnectionManager(connections).build();
+                break;
+            case "engine":
+                engine = FetchEngine.builder().maxConnPerRoute(256).maxQueuedPerHost(concurrency).build();
+                return;
+            default:
+                throw new IllegalArgumentException(approach);
+        }
+        client.start();
+        threads = new ThreadPoolExecutor(concurrency, concurrency, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+        threads.prestartAllCoreThreads();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (threads != null) threads.shutdownNow();
+        if (client != null) client.close();
+        if (engine != null) engine.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public long fetch(Counters counters) throws InterruptedException {
+        return engine != null ? engine(counters) : blocking(counters, threads);
+    }
+
+    private long blocking(Counters counters, ExecutorService threads) throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            threads.execute(() -> {
+                try {
+                    while (next.getAndIncrement() < requests) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse response = client.execute(new HttpGet(uri), null).get();
+                            String body = Source.fromInputStream(response.getEntity().getContent(), "UTF-8").mkString();
+                            bytes.addAndGet(body.length());
+                        } catch (Exception e) {
+                            counters.failed.incrementAndGet();
+                        }
+                        counters.latency.record(System.nanoTime() - start);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return bytes.get();
+    }
+
+    private long engine(Counters counters) {
+        return Flux.range(0, requests)
+            .flatMap(i -> Mono.defer(() -> {
+                long start = System.nanoTime();
+                return engine.fetch(new HttpGet(uri), FetchResponse::bodyLength)
+                    .onErrorResume(e -> {
+                        counters.failed.incrementAndGet();
+                        return Mono.just(0L);
+                    })
+                    .doOnNext(length -> counters.latency.record(System.nanoTime() - start));
+            }), concurrency)
+            .reduce(0L, Long::sum)
+            .block();
+    }
+
+    // quick run without JMH: java ... benchmark.FetchEngineBenchmark [requests] [concurrency] [approach...]
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        List<String> approaches = args.length > 2 ? Arrays.asList(args).subList(2, args.length)
+            : Arrays.asList("engine", "blockingPooled", "blocking");
+        for (String approach : approaches) {
+            FetchEngineBenchmark benchmark = new FetchEngineBenchmark();
+            benchmark.approach = approach;
+            benchmark.concurrency = concurrency;
+            benchmark.requests = requests;
+            benchmark.latencyMillis = 5;
+            benchmark.bodyBytes = 16384;
+            benchmark.setup();
+            for (int iteration = 0; iteration < 2; iteration++) {
+                Counters counters = new Counters();
+                counters.reset();
+                benchmark.fetch(counters);
+                counters.record();
+                System.out.printf("%-15s concurrency %,6d  %,8.0f req/s  p50 %,8.1f ms  p99 %,8.1f ms  max %,8.1f ms  "
+                        + "failures %d  peak threads %,6d%n", approach, concurrency, counters.requestsPerSecond,
+                    counters.p50Millis, counters.p99Millis, counters.maxMillis, counters.failures, counters.peakThreads);
+            }
+            benchmark.tearDown();
+        }
+        System.exit(0);
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run FetchEngineBenchmark"
+//   sbt "benchmark/runMain benchmark.FetchEngineBenchmark 20000 1000"
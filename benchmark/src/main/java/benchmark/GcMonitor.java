@@ -0,0 +1,88 @@
+package benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+// the live heap and the GC pauses of the benchmarks, from the GC notifications
+//   live heap: the heap after each GC (the peak usage of the pools would count the garbage in the young generation)
+//   pauses: the durations of the stop-the-world collections (the concurrent cycles of G1 or ZGC are not pauses)
+// GcMonitor.reset() at the start of a measurement, then peakLiveHeap(), pauseMillis(), maxPauseMillis()
+public final class GcMonitor {
+
+    private static final AtomicLong PEAK_LIVE_HEAP = new AtomicLong();
+    private static final AtomicLong PAUSES = new AtomicLong();
+    private static final AtomicLong PAUSE_MILLIS = new AtomicLong();
+    private static final AtomicLong MAX_PAUSE_MILLIS = new AtomicLong();
+    private static final Set<String> HEAP_POOLS = ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .map(MemoryPoolMXBean::getName)
+        .collect(Collectors.toSet());
+
+    static {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                long live = 0;
+                for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+                    if (HEAP_POOLS.contains(pool.getKey())) live += pool.getValue().getUsed();
+                }
+                PEAK_LIVE_HEAP.accumulateAndGet(live, Math::max);
+                if (!isConcurrent(info.getGcName())) {
+                    long millis = info.getGcInfo().getDuration();
+                    PAUSES.incrementAndGet();
+                    PAUSE_MILLIS.addAndGet(millis);
+                    MAX_PAUSE_MILLIS.accumulateAndGet(millis, Math::max);
+                }
+            }, null, null);
+        }
+    }
+
+    private GcMonitor() {
+    }
+
+    private static boolean isConcurrent(String gcName) {
+        return gcName.contains("Concurrent") || gcName.contains("Cycles");
+    }
+
+    public static void reset() {
+        PEAK_LIVE_HEAP.set(0);
+        PAUSES.set(0);
+        PAUSE_MILLIS.set(0);
+        MAX_PAUSE_MILLIS.set(0);
+    }
+
+    // the peak live heap since reset(), or the current heap if no GC ran since
+    public static long peakLiveHeap() {
+        long current = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        return PEAK_LIVE_HEAP.get() == 0 ? current : PEAK_LIVE_HEAP.get();
+    }
+
+    // the stop-the-world collections since reset()
+    public static long pauses() {
+        return PAUSES.get();
+    }
+
+    public static long pauseMillis() {
+        return PAUSE_MILLIS.get();
+    }
+
+    public static long maxPauseMillis() {
+        return MAX_PAUSE_MILLIS.get();
+    }
+}
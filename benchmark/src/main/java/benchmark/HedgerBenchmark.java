@@ -0,0 +1,87 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.Hedger;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// hedged vs. plain calls to a heavy-tailed dependency (JavaReactor 3.1: one slow blockingCall stalls the whole Mono)
+//   the dependency answers in 1ms, but 1 call in 20 (tailProbability) takes 20x longer
+//   dependency: async (SimulatedDependency.call, a Mono.delay) or blocking (blockingCall, a Thread.sleep in
+//     Mono.fromCallable: the call runs on the thread that subscribes it, the case where a primary subscribed on the
+//     caller's thread would complete before its hedge is armed)
+//   Mode.SampleTime: compare the p0.99 of plain and hedged; the hedges fired & won are printed after each trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class HedgerBenchmark {
+
+    @Param({"0.05"})
+    public double tailProbability;
+
+    @Param({"20"})
+    public double tailFactor;
+
+    @Param({"0.05", "0.1"})
+    public double maxHedgeRatio;
+
+    @Param({"async", "blocking"})
+    public String dependencyKind;
+
+    private Scheduler timer;
+    private Scheduler hedgeScheduler;
+    private SimulatedDependency dependency;
+    private Hedger hedger;
+
+    @Setup
+    public void setup() {
+        timer = Schedulers.newParallel("timer");
+        hedgeScheduler = Schedulers.newBoundedElastic(64, 10_000, "hedge");  // blocking calls run on it
+        dependency = SimulatedDependency.heavyTailed(timer, 1000, tailProbability, tailFactor);
+        hedger = new Hedger(0.9, Duration.ofMillis(1), maxHedgeRatio, 10, 1000, hedgeScheduler);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%ncalls=%d, hedges fired=%d, won=%d, denied=%d, hedge delay=%s%n", hedger.calls(),
+            hedger.hedgesFired(), hedger.hedgesWon(), hedger.hedgesDenied(), hedger.hedgeDelay());
+        timer.dispose();
+        hedgeScheduler.dispose();
+    }
+
+    @Benchmark
+    public Integer plain() {
+        return call().block();
+    }
+
+    @Benchmark
+    public Integer hedged() {
+        return hedger.hedge(this::call).block();
+    }
+
+    private Mono<Integer> call() {
+        return dependencyKind.equals("blocking") ? dependency.blockingCall(1) : dependency.call(1);
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run HedgerBenchmark"
@@ -0,0 +1,59 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.metrics.Instrumentation;
+import reactive.metrics.MetricsRegistry;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+// the per-element overhead of observing a pipeline (JavaReactor 0.2): no observation vs. Instrumentation.stage() vs. log()
+//   log() goes through slf4j-simple, which writes to System.err: redirect stderr when running it (2>/dev/null)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"1024"})
+    public int elements;
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Benchmark
+    public Integer plain() {
+        return Flux.range(0, elements)
+            .map(x -> x + 1)
+            .blockLast();
+    }
+
+    @Benchmark
+    public Integer instrumented() {
+        return Flux.range(0, elements)
+            .map(x -> x + 1)
+            .transform(Instrumentation.stage("map", registry))
+            .blockLast();
+    }
+
+    @Benchmark
+    public Integer logged() {
+        return Flux.range(0, elements)
+            .map(x -> x + 1)
+            .log("map", Level.INFO)
+            .blockLast();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc InstrumentationBenchmark" 2>/dev/null
@@ -0,0 +1,219 @@
+package benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import json.JsonArrayReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ingesting a generated JSON array of Records (~100 bytes each) of sizeMb from a file:
+//   tree: mapper.readTree(file), then treeToValue() for each element (the whole document as a JsonNode tree)
+//   list: mapper.readValue(file, List[Record]) (the whole document as objects)
+//   stream: JsonArrayReader, the elements bound one at a time by the reader thread
+//   streamParallel: JsonArrayReader, the element slices bound on one rail per core
+// each invocation ingests the whole file (SingleShotTime), the counters report records/s and the peak live heap (the
+// largest heap after a GC during the iteration)
+// the tree and list approaches need several times the file size of heap: with sizeMb=2048, give the fork a large
+// heap (-jvmArgs -Xmx16g) or expect OutOfMemoryError; the stream approaches run in a few MB of heap
+// the files are generated once into java.io.tmpdir (json-ingest-<sizeMb>mb.json) and reused
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class JsonIngestBenchmark {
+
+    public static class Record {
+        public long id;
+        public String name;
+        public double price;
+        public boolean active;
+        public List<String> tags;
+        public Attributes attributes;
+    }
+
+    public static class Attributes {
+        public String region;
+        public int quantity;
+    }
+
+    @Param({"64", "2048"})
+    public int sizeMb;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Path file;
+    private long records;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long records;
+        public double recordsPerSecond;
+        public double peakHeapMb;
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            GcMonitor.reset();
+            records = 0;
+            start = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            recordsPerSecond = records / ((System.nanoTime() - start) / 1e9);
+            peakHeapMb = GcMonitor.peakLiveHeap() / (1024.0 * 1024.0);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        file = generate(sizeMb);
+        records = Long.parseLong(Files.readAllLines(countFile(file)).get(0));
+    }
+
+    @Benchmark
+    public long tree(Counters counters) throws IOException {
+        JsonNode root = mapper.readTree(file.toFile());
+        long sum = 0;
+        for (Iterator<JsonNode> elements = root.elements(); elements.hasNext(); ) {
+            sum += consume(mapper.treeToValue(elements.next(), Record.class), counters);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long list(Counters counters) throws IOException {
+        List<Record> list = mapper.readValue(file.toFile(),
+            mapper.getTypeFactory().constructCollectionType(List.class, Record.class));
+        long sum = 0;
+        for (Record record : list) {
+            sum += consume(record, counters);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long stream(Counters counters) {
+        return JsonArrayReader.builder(mapper, Record.class).build()
+            .read(file)
+            .reduce(0L, (sum, record) -> sum + consume(record, counters))
+            .block();
+    }
+
+    @Benchmark
+    public long streamParallel(Counters counters) {
+        return JsonArrayReader.builder(mapper, Record.class)
+            .parallelism(Runtime.getRuntime().availableProcessors())
+            .build()
+            .read(file)
+            .reduce(0L, (sum, record) -> sum + consume(record, counters))
+            .block();
+    }
+
+    private static long consume(Record record, Counters counters) {
+        counters.records++;
+        return record.id + record.attributes.quantity;
+    }
+
+    private static Path countFile(Path file) {
+        return Paths.get(file + ".count");
+    }
+
+    // a JSON array of Records of at least sizeMb, and its record count in <file>.count
+    static Path generate(int sizeMb) throws IOException {
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "json-ingest-" + sizeMb + "mb.json");
+        long size = sizeMb * 1024L * 1024L;
+        if (Files.exists(countFile(file)) && Files.size(file) >= size) return file;
+        long records = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            String[] regions = {"emea", "apac", "amer"};
+            for (;;) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", records);
+                generator.writeStringField("name", "record-" + records);
+                generator.writeNumberField("price", (records % 10_000) / 100.0);
+                generator.writeBooleanField("active", records % 3 != 0);
+                generator.writeArrayFieldStart("tags");
+                generator.writeString("tag-" + records % 7);
+                generator.writeString("tag-" + records % 11);
+                generator.writeEndArray();
+                generator.writeObjectFieldStart("attributes");
+                generator.writeStringField("region", regions[(int) (records % 3)]);
+                generator.writeNumberField("quantity", (int) (records % 1000));
+                generator.writeEndObject();
+                generator.writeEndObject();
+                records++;
+                if (records % 10_000 == 0) {
+                    generator.flush();
+                    if (Files.size(file) >= size) break;
+                }
+            }
+            generator.writeEndArray();
+        }
+        Files.write(countFile(file), String.valueOf(records).getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    // quick run without JMH: java -Xmx16g ... benchmark.JsonIngestBenchmark [sizeMb] [approach...]
+    public static void main(String[] args) throws IOException {
+        JsonIngestBenchmark benchmark = new JsonIngestBenchmark();
+        benchmark.sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        List<String> approaches = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+            : Arrays.asList("stream", "streamParallel", "list", "tree");
+        benchmark.setup();
+        System.out.printf("%s: %d MB, %d records%n", benchmark.file, Files.size(benchmark.file) >> 20, benchmark.records);
+        for (String approach : approaches) {
+            Counters counters = new Counters();
+            counters.reset();
+            try {
+                switch (approach) {
+                    case "tree": benchmark.tree(counters); break;
+                    case "list": benchmark.list(counters); break;
+                    case "stream": benchmark.stream(counters); break;
+                    case "streamParallel": benchmark.streamParallel(counters); break;
+                    default: throw new IllegalArgumentException(approach);
+                }
+                counters.record();
+                System.out.printf("%-15s %,12.0f records/s  peak heap %,8.0f MB%n", approach, counters.recordsPerSecond,
+                    counters.peakHeapMb);
+            } catch (OutOfMemoryError e) {
+                System.out.printf("%-15s OutOfMemoryError after %,d records (-Xmx%d MB)%n", approach, counters.records,
+                    Runtime.getRuntime().maxMemory() >> 20);
+            }
+        }
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -jvmArgs -Xmx16g JsonIngestBenchmark"
+//   sbt "benchmark/runMain benchmark.JsonIngestBenchmark 2048"
@@ -0,0 +1,11 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// the shape of MapClass1 (a Java class in the default package of src/test, which cannot be imported from here)
+public class MapRecord1 {
+    public Integer num = 0;
+    public String str = "default";
+    public List<String> list = new ArrayList<>();
+}
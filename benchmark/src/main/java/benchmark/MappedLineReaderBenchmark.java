@@ -0,0 +1,261 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import scala.io.BufferedSource;
+import scala.io.Source;
+import text.LineView;
+import text.MappedLineReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// reading the lines of a generated log file of sizeMb (~90 bytes a line) and counting the ERROR ones:
+//   mkString: Source.fromFile(file).mkString, then the lines of the String (the whole file as one String: 2 bytes a
+//     char on the heap while it is built, and no String longer than 2^31 - 1 chars, so it fails on the 10GB file)
+//   getLines: Source.fromFile(file).getLines(), one String a line, decoded by the benchmark thread
+//   mapped: MappedLineReader, the chunks one after the other on the benchmark thread (LineViews, no String)
+//   mappedParallel: MappedLineReader.mapChunks(), the chunks on the ForkJoinPool
+//   flux: MappedLineReader.flux(), the chunks on Schedulers.parallel(), ordered, backpressured
+// each invocation reads the whole file (SingleShotTime), the counters report lines/s, MB/s and the peak live heap
+// the first read of a file larger than the RAM is bound by the disk, the following ones by the page cache if it fits
+// the files are generated once into java.io.tmpdir (lines-<sizeMb>mb.log) and reused
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MappedLineReaderBenchmark {
+
+    @Param({"1024", "10240"})
+    public int sizeMb;
+
+    private Path file;
+    private long fileBytes;  // copied into the Counters by each benchmark (a setup of this state cannot take them)
+    private long lines;
+    private MappedLineReader reader;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long lines;
+        public long errors;
+        public double linesPerSecond;
+        public double mbPerSecond;
+        public double peakHeapMb;
+        private long bytes;
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            GcMonitor.reset();
+            lines = 0;
+            errors = 0;
+            start = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            linesPerSecond = lines / seconds;
+            mbPerSecond = (bytes >> 20) / seconds;
+            peakHeapMb = GcMonitor.peakLiveHeap() / (1024.0 * 1024.0);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        file = generate(sizeMb);
+        lines = Long.parseLong(Files.readAllLines(countFile(file)).get(0));
+        reader = MappedLineReader.open(file);
+        fileBytes = Files.size(file);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        reader.close();
+    }
+
+    // "2026-10-17T12:34:56.789 ERROR ...": the level is at column 24
+    private static boolean isError(CharSequence line) {
+        return line.length() > 25 && line.charAt(24) == 'E' && line.charAt(25) == 'R';
+    }
+
+    @Benchmark
+    public long mkString(Counters counters) {
+        counters.bytes = fileBytes;
+        BufferedSource source = Source.fromFile(file.toFile(), "UTF-8");
+        String content;
+        try {
+            content = source.mkString();
+        } finally {
+            source.close();
+        }
+        int start = 0;
+        while (start < content.length()) {
+            int end = content.indexOf('\n', start);
+            if (end < 0) end = content.length();
+            counters.lines++;
+            if (end - start > 25 && content.charAt(start + 24) == 'E' && content.charAt(start + 25) == 'R') {
+                counters.errors++;
+            }
+            start = end + 1;
+        }
+        return counters.errors;
+    }
+
+    @Benchmark
+    public long getLines(Counters counters) {
+        counters.bytes = fileBytes;
+        BufferedSource source = Source.fromFile(file.toFile(), "UTF-8");
+        try {
+            for (scala.collection.Iterator<String> lines = source.getLines(); lines.hasNext(); ) {
+                counters.lines++;
+                if (isError(lines.next())) counters.errors++;
+            }
+        } finally {
+            source.close();
+        }
+        return counters.errors;
+    }
+
+    // {lines, errors} of a chunk
+    private static long[] count(MappedLineReader.Chunk chunk) {
+        long[] counts = new long[2];
+        chunk.forEachLine((LineView line) -> {
+            counts[0]++;
+            if (isError(line)) counts[1]++;
+        });
+        return counts;
+    }
+
+    private static long add(long[] counts, Counters counters) {
+        counters.lines += counts[0];
+        counters.errors += counts[1];
+        return counters.errors;
+    }
+
+    @Benchmark
+    public long mapped(Counters counters) {
+        counters.bytes = fileBytes;
+        for (MappedLineReader.Chunk chunk : reader.chunks()) {
+            add(count(chunk), counters);
+        }
+        return counters.errors;
+    }
+
+    @Benchmark
+    public long mappedParallel(Counters counters) {
+        counters.bytes = fileBytes;
+        for (long[] counts : reader.mapChunks(MappedLineReaderBenchmark::count)) {
+            add(counts, counters);
+        }
+        return counters.errors;
+    }
+
+    @Benchmark
+    public long flux(Counters counters) {
+        counters.bytes = fileBytes;
+        return reader.flux(MappedLineReaderBenchmark::count)
+            .reduce(0L, (errors, counts) -> add(counts, counters))
+            .block();
+    }
+
+    private static Path countFile(Path file) {
+        return Paths.get(file + ".count");
+    }
+
+    // a log file of at least sizeMb, ~2% ERROR lines and ~2% non-ASCII ones, and its line count in <file>.count
+    static Path generate(int sizeMb) throws IOException {
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "lines-" + sizeMb + "mb.log");
+        long size = sizeMb * 1024L * 1024L;
+        if (Files.exists(countFile(file)) && Files.size(file) >= size) return file;
+        long lines = 0;
+        long written = 0;
+        String[] levels = {"INFO ", "INFO ", "INFO ", "DEBUG", "WARN "};
+        StringBuilder line = new StringBuilder(128);
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            while (written < size) {
+                long millis = lines % 1000;
+                long seconds = lines / 1000;
+                line.setLength(0);
+                line.append("2026-10-17T")
+                    .append(two(seconds / 3600 % 24)).append(':').append(two(seconds / 60 % 60)).append(':')
+                    .append(two(seconds % 60)).append('.').append(millis < 10 ? "00" : millis < 100 ? "0" : "")
+                    .append(millis).append(' ')
+                    .append(lines % 50 == 7 ? "ERROR" : levels[(int) (lines % levels.length)])
+                    .append(" [worker-").append(lines % 16).append("] ")
+                    .append(lines % 50 == 13 ? "requête servie à l'utilisateur " : "request served to user ")
+                    .append(lines * 2654435761L % 100_000).append(" in ").append(lines % 97).append(" ms");
+                out.write(line.append('\n').toString());
+                written += line.length() + (lines % 50 == 13 ? 2 : 0); // ê and à are 2 bytes each
+                lines++;
+            }
+        }
+        Files.write(countFile(file), String.valueOf(lines).getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static String two(long value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+
+    // quick run without JMH: java -Xmx4g ... benchmark.MappedLineReaderBenchmark [sizeMb] [approach...]
+    public static void main(String[] args) throws IOException {
+        MappedLineReaderBenchmark benchmark = new MappedLineReaderBenchmark();
+        benchmark.sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        List<String> approaches = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+            : Arrays.asList("mapped", "mappedParallel", "flux", "getLines", "mkString");
+        benchmark.setup();
+        System.out.printf("%s: %d MB, %d lines, %d chunks, %d cores%n", benchmark.file,
+            Files.size(benchmark.file) >> 20, benchmark.lines, benchmark.reader.chunks().size(),
+            Runtime.getRuntime().availableProcessors());
+        for (String approach : approaches) {
+            Counters counters = new Counters();
+            counters.reset();
+            try {
+                switch (approach) {
+                    case "mkString": benchmark.mkString(counters); break;
+                    case "getLines": benchmark.getLines(counters); break;
+                    case "mapped": benchmark.mapped(counters); break;
+                    case "mappedParallel": benchmark.mappedParallel(counters); break;
+                    case "flux": benchmark.flux(counters); break;
+                    default: throw new IllegalArgumentException(approach);
+                }
+                counters.record();
+                System.out.printf("%-15s %,12.0f lines/s  %,7.0f MB/s  peak heap %,7.0f MB  (%d lines, %d errors)%n",
+                    approach, counters.linesPerSecond, counters.mbPerSecond, counters.peakHeapMb, counters.lines,
+                    counters.errors);
+            } catch (OutOfMemoryError | NegativeArraySizeException e) {
+                System.out.printf("%-15s %s after %,d lines (-Xmx%d MB)%n", approach, e, counters.lines,
+                    Runtime.getRuntime().maxMemory() >> 20);
+            }
+        }
+        benchmark.tearDown();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run MappedLineReaderBenchmark"
+//   sbt "benchmark/runMain benchmark.MappedLineReaderBenchmark 1024"
@@ -0,0 +1,15 @@
+package benchmark;
+
+// the record shape of JavaMemberDefaultValue (which is in the default package, and cannot be imported from here)
+public class MemberRecord {
+
+    public Integer aInteger;
+    public Double aDouble;
+    public Boolean aBoolean;
+    public String aString;
+
+    public int i;
+    public double d;
+    public boolean b;
+    public char c;
+}
@@ -0,0 +1,115 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.MicroBatcher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// one downstream call per element (JavaReactor 0.9) vs. MicroBatcher
+//   the simulated downstream call costs callMicros + elementMicros per element, i.e. a batch amortizes callMicros
+//   Mode.Throughput + Mode.SampleTime: the throughput/latency curve of a pipeline of `elements`, per maxWait
+//   the `calls` aux counter: the number of downstream calls (compare with elements x ops to see the calls saved)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MicroBatchBenchmark {
+
+    @Param({"1024"})
+    public int elements;
+
+    @Param({"64"})
+    public int concurrency;
+
+    @Param({"200"})
+    public long callMicros;
+
+    @Param({"2"})
+    public long elementMicros;
+
+    @Param({"1", "5"})
+    public long maxWaitMillis;
+
+    private final AtomicLong downstreamCalls = new AtomicLong();
+    private Scheduler scheduler;
+    private MicroBatcher<Integer, Integer> batcher;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Calls {
+        public long calls;
+    }
+
+    @Setup
+    public void setup() {
+        scheduler = Schedulers.newBoundedElastic(concurrency, Integer.MAX_VALUE, "downstream");
+        batcher = MicroBatcher.builder(this::call)
+            .maxBatchSize(256)
+            .maxWait(Duration.ofMillis(maxWaitMillis))
+            .targetLatency(Duration.ofMillis(5))
+            .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batcher.dispose();
+        scheduler.dispose();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetCalls() {
+        downstreamCalls.set(0);
+    }
+
+    private Mono<List<Integer>> call(List<Integer> batch) {
+        return Mono.fromCallable(() -> {
+            downstreamCalls.incrementAndGet();
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(callMicros + elementMicros * batch.size()));
+            return batch;
+        }).subscribeOn(scheduler);
+    }
+
+    @Benchmark
+    public Integer perElement(Calls calls) {
+        Integer last = Flux.range(0, elements)
+            .flatMapSequential(x -> call(Collections.singletonList(x)).map(results -> results.get(0)), concurrency)
+            .blockLast();
+        calls.calls += downstreamCalls.get();
+        return last;
+    }
+
+    @Benchmark
+    public Integer batched(Calls calls) {
+        Integer last = Flux.range(0, elements)
+            .transform(batcher::transform)
+            .blockLast();
+        calls.calls += downstreamCalls.get();
+        return last;
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run MicroBatchBenchmark"
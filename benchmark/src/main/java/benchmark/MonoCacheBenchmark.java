@@ -0,0 +1,205 @@
+package benchmark;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.cache.MonoCache;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// a load test of the caches in front of a slow dependency (2ms, degrading over 64 calls in flight), with a skewed
+// key distribution: the keys of the requests follow a Zipf law (exponent skew) over `keys` keys, i.e. a few hot keys
+// get most of the requests
+// each invocation is a burst of `requests` gets with `concurrency` gets in flight, the entries expire after ttlMillis
+// of a virtual clock that advances by 1 / requestsPerSecond per request (with the real clock, a faster approach would
+// see fewer expirations per burst, and make fewer calls because it is faster)
+//   noCache: every get calls the dependency
+//   getOrLoad: the ScaffeineTest pattern, getIfPresent() and on a miss call the dependency and put(): the concurrent
+//     misses of a hot key each call the dependency (a stampede when it expires)
+//   monoCache: MonoCache, the concurrent misses of a key share one load
+//   monoCacheRefresh: MonoCache with refreshAfterWrite at ttl / 2, the hot keys are reloaded before they expire
+// the counters report the dependency calls and the coalesced gets per burst
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonoCacheBenchmark {
+
+    @Param({"1.1", "1.5"})
+    public double skew;
+
+    @Param({"10000"})
+    public int keys;
+
+    @Param({"10000"})
+    public int requests;
+
+    @Param({"512"})
+    public int concurrency;
+
+    @Param({"1000"})
+    public int ttlMillis;
+
+    @Param({"100000"})
+    public int requestsPerSecond;
+
+    private Scheduler timer;
+    private SimulatedDependency dependency;
+    private Cache<Integer, Integer> cache;
+    private MonoCache<Integer, Integer> monoCache;
+    private MonoCache<Integer, Integer> refreshingCache;
+    private int[] requestKeys;
+    private int next;
+    private final AtomicLong clock = new AtomicLong();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long dependencyCalls;
+        public long coalesced;
+    }
+
+    @Setup
+    public void setup() {
+        timer = Schedulers.newParallel("timer");
+        dependency = new SimulatedDependency(timer, 2000, 64, 4.0, Double.MAX_VALUE, 0.0, 1.0); // slower, never fails
+        Duration ttl = Duration.ofMillis(ttlMillis);
+        cache = Caffeine.newBuilder().maximumSize(keys).expireAfterWrite(ttl).ticker(clock::get).build();
+        monoCache = MonoCache.<Integer, Integer>builder(dependency::call)
+            .maximumSize(keys).expireAfterWrite(ttl).ticker(clock::get).recordStats().build();
+        refreshingCache = MonoCache.<Integer, Integer>builder(dependency::call)
+            .maximumSize(keys).expireAfterWrite(ttl).refreshAfterWrite(ttl.dividedBy(2)).ticker(clock::get)
+            .recordStats().build();
+        requestKeys = zipf(keys, skew, 16 * requests, new Random(42));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%nmonoCache: %s%nmonoCacheRefresh: %s%n", monoCache.stats(), refreshingCache.stats());
+        timer.dispose();
+    }
+
+    // n keys in [0, keys): key k is drawn with a probability proportional to 1 / (k + 1)^skew
+    static int[] zipf(int keys, double skew, int n, Random random) {
+        double[] cdf = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cdf[k] = sum;
+        }
+        int[] drawn = new int[n];
+        for (int i = 0; i < n; i++) {
+            int k = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            drawn[i] = k >= 0 ? k : Math.min(-k - 1, keys - 1);
+        }
+        return drawn;
+    }
+
+    // the keys of the next burst (the bursts cycle over the drawn keys)
+    private Flux<Integer> burst() {
+        int from = next;
+        next = (next + requests) % (requestKeys.length - requests);
+        long tick = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        return Flux.range(from, requests).map(i -> {
+            clock.addAndGet(tick);
+            return requestKeys[i];
+        });
+    }
+
+    private long run(Flux<Integer> burst, java.util.function.Function<Integer, Mono<Integer>> get, Counters counters) {
+        long calls = dependency.calls();
+        long sum = burst.flatMap(get, concurrency).reduce(0L, Long::sum).block();
+        counters.dependencyCalls += dependency.calls() - calls;
+        return sum;
+    }
+
+    @Benchmark
+    public long noCache(Counters counters) {
+        return run(burst(), dependency::call, counters);
+    }
+
+    @Benchmark
+    public long getOrLoad(Counters counters) {
+        return run(burst(), key -> {
+            Integer value = cache.getIfPresent(key);
+            if (value != null) return Mono.just(value);
+            return dependency.call(key).doOnNext(loaded -> cache.put(key, loaded));
+        }, counters);
+    }
+
+    @Benchmark
+    public long monoCache(Counters counters) {
+        long coalesced = monoCache.stats().coalescedCount();
+        long sum = run(burst(), monoCache::get, counters);
+        counters.coalesced += monoCache.stats().coalescedCount() - coalesced;
+        return sum;
+    }
+
+    @Benchmark
+    public long monoCacheRefresh(Counters counters) {
+        long coalesced = refreshingCache.stats().coalescedCount();
+        long sum = run(burst(), refreshingCache::get, counters);
+        counters.coalesced += refreshingCache.stats().coalescedCount() - coalesced;
+        return sum;
+    }
+
+    // quick run without JMH: ... benchmark.MonoCacheBenchmark [seconds] [ttlMillis] [approach...]
+    // the approaches run one after the other in one JVM: compare the times of runs with one approach each
+    public static void main(String[] args) {
+        MonoCacheBenchmark benchmark = new MonoCacheBenchmark();
+        benchmark.skew = 1.1;
+        benchmark.keys = 10_000;
+        benchmark.requests = 10_000;
+        benchmark.concurrency = 512;
+        benchmark.ttlMillis = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        benchmark.requestsPerSecond = 100_000;
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        benchmark.setup();
+        List<String> approaches = args.length > 2 ? Arrays.asList(args).subList(2, args.length)
+            : Arrays.asList("noCache", "getOrLoad", "monoCache", "monoCacheRefresh");
+        for (String approach : approaches) {
+            Counters counters = new Counters();
+            long bursts = 0;
+            long start = System.nanoTime();
+            while (System.nanoTime() - start < TimeUnit.SECONDS.toNanos(seconds)) {
+                switch (approach) {
+                    case "noCache": benchmark.noCache(counters); break;
+                    case "getOrLoad": benchmark.getOrLoad(counters); break;
+                    case "monoCache": benchmark.monoCache(counters); break;
+                    default: benchmark.monoCacheRefresh(counters); break;
+                }
+                bursts++;
+            }
+            double millis = (System.nanoTime() - start) / 1e6 / bursts;
+            System.out.printf("%-17s %8.2f ms/burst  %,8.0f dependency calls/burst  %,8.0f coalesced/burst%n", approach,
+                millis, (double) counters.dependencyCalls / bursts, (double) counters.coalesced / bursts);
+        }
+        benchmark.tearDown();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run MonoCacheBenchmark"
+//   sbt "benchmark/runMain benchmark.MonoCacheBenchmark 5"
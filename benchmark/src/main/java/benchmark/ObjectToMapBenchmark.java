@@ -0,0 +1,103 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.scala.DefaultScalaModule;
+import json.ObjectToMapConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// objectMapper.convertValue[Map[String, Any]] (serialize to a TokenBuffer, deserialize the tokens) vs.
+// ObjectToMapConverter (generated accessors, the map built directly) on
+//   javaBean: MapRecord1, the shape of MapClass1 (public fields)
+//   scalaClass: MapRecord2, the shape of MapClass2 (Scala vals: getter methods)
+//   nested: a bean with a list of 10 Java beans, a list of 10 Scala classes and a list of lists of ints
+// run with -prof gc to compare the allocation per conversion
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectToMapBenchmark {
+
+    public static class Nested {
+        public String id = "nested";
+        public List<MapRecord1> javaBeans = new ArrayList<>();
+        public List<MapRecord2> scalaClasses = new ArrayList<>();
+        public List<List<Integer>> matrix = Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5, 6));
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private JavaType mapType;
+    private ObjectToMapConverter converter;
+    private MapRecord1 javaBean;
+    private MapRecord2 scalaClass;
+    private Nested nested;
+
+    @Setup
+    public void setup() {
+        mapper.registerModule(new DefaultScalaModule());
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        // the type of convertValue[Map[String, Any]] of ScalaObjectMapper
+        mapType = mapper.getTypeFactory().constructMapLikeType(scala.collection.immutable.Map.class, String.class, Object.class);
+        converter = new ObjectToMapConverter(mapper);
+        javaBean = new MapRecord1();
+        javaBean.list.addAll(Arrays.asList("a", "b", "c"));
+        scalaClass = new MapRecord2();
+        nested = new Nested();
+        for (int i = 0; i < 10; i++) {
+            nested.javaBeans.add(javaBean);
+            nested.scalaClasses.add(scalaClass);
+        }
+        if (!converter.convert(nested).equals(mapper.convertValue(nested, mapType))) {
+            throw new IllegalStateException("the converter and convertValue disagree");
+        }
+    }
+
+    @Benchmark
+    public Object javaBeanConvertValue() {
+        return mapper.convertValue(javaBean, mapType);
+    }
+
+    @Benchmark
+    public Object javaBeanConverter() {
+        return converter.convert(javaBean);
+    }
+
+    @Benchmark
+    public Object scalaClassConvertValue() {
+        return mapper.convertValue(scalaClass, mapType);
+    }
+
+    @Benchmark
+    public Object scalaClassConverter() {
+        return converter.convert(scalaClass);
+    }
+
+    @Benchmark
+    public Object nestedConvertValue() {
+        return mapper.convertValue(nested, mapType);
+    }
+
+    @Benchmark
+    public Object nestedConverter() {
+        return converter.convert(nested);
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc ObjectToMapBenchmark"
@@ -0,0 +1,90 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.OrderedParallel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+// an ordered CPU-bound map() over `elements` elements: plain map() (one thread) vs. flatMapSequential (one Mono per
+// element, `cores` in parallel) vs. OrderedParallel on `cores` rails, on a parallel scheduler or a work-stealing pool
+//   `cores` is the size of the scheduler (and the rail count / concurrency): on a machine with fewer cores the
+//   larger values measure the overhead of the extra rails, not their speedup
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderedParallelBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    public int cores;
+
+    @Param({"100", "10000"})
+    public int cpuTokens;
+
+    @Param({"10000"})
+    public int elements;
+
+    private Scheduler parallel;
+    private Scheduler workStealing;
+
+    @Setup
+    public void setup() {
+        parallel = Schedulers.newParallel("rails", cores);
+        workStealing = OrderedParallel.workStealing("stealing", cores);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallel.dispose();
+        workStealing.dispose();
+    }
+
+    @Benchmark
+    public Integer map() {
+        return Flux.range(0, elements)
+            .map(x -> Work.apply(x, cpuTokens, 0))
+            .blockLast();
+    }
+
+    @Benchmark
+    public Integer flatMapSequential() {
+        return Flux.range(0, elements)
+            .flatMapSequential(x -> Mono.fromCallable(() -> Work.apply(x, cpuTokens, 0)).subscribeOn(parallel), cores)
+            .blockLast();
+    }
+
+    @Benchmark
+    public Integer orderedParallel() {
+        return Flux.range(0, elements)
+            .transform(OrderedParallel.<Integer, Integer>map(x -> Work.apply(x, cpuTokens, 0), cores,
+                OrderedParallel.DEFAULT_BATCH_SIZE, parallel))
+            .blockLast();
+    }
+
+    @Benchmark
+    public Integer orderedParallelWorkStealing() {
+        return Flux.range(0, elements)
+            .transform(OrderedParallel.<Integer, Integer>map(x -> Work.apply(x, cpuTokens, 0), cores,
+                OrderedParallel.DEFAULT_BATCH_SIZE, workStealing))
+            .blockLast();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run OrderedParallelBenchmark"
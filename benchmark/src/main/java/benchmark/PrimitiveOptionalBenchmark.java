@@ -0,0 +1,117 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import primitive.IntMaybe;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// the map() -> filter(present) -> findFirst() -> orElse() chain of JavaOptional 3, over `ids` ids
+//   the ids are odd (absent) except the last one, so findFirst() goes through all of them
+//   boxed: Optional<Integer> per id (JavaOptional.optionalMethod), optionalInt: OptionalInt per id,
+//   maybeStream / maybeLoop: IntMaybe (a long) per id, in a LongStream / a plain loop
+//   the *Sum benchmarks go through the ids without stopping (sum of the present ids, 1 id in 2 present)
+//   -prof gc: gc.alloc.rate.norm is the bytes allocated per op, i.e. per `ids` ids
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveOptionalBenchmark {
+
+    @Param({"1000000"})
+    public int ids;
+
+    private int[] lastEven;  // 1, 3, 5, ..., the last one is even
+    private int[] halfEven;  // 1000, 1001, 1002, ...
+
+    @Setup
+    public void setup() {
+        lastEven = new int[ids];
+        for (int i = 0; i < ids; i++) lastEven[i] = 1000 + 2 * i + 1;
+        lastEven[ids - 1]++;
+        halfEven = new int[ids];
+        Arrays.setAll(halfEven, i -> 1000 + i);
+    }
+
+    static Optional<Integer> optionalMethod(Integer number) {
+        return (number % 2 == 0) ? Optional.of(number) : Optional.empty();
+    }
+
+    static OptionalInt optionalIntMethod(int number) {
+        return (number % 2 == 0) ? OptionalInt.of(number) : OptionalInt.empty();
+    }
+
+    static long maybeMethod(int number) {
+        return (number % 2 == 0) ? IntMaybe.of(number) : IntMaybe.empty();
+    }
+
+    @Benchmark
+    public int boxed() {
+        return IntStream.of(lastEven).boxed()
+            .map(PrimitiveOptionalBenchmark::optionalMethod)
+            .flatMap(opt -> opt.isPresent() ? Stream.of(opt.get()) : Stream.empty())
+            .findFirst()
+            .orElse(100);
+    }
+
+    @Benchmark
+    public int optionalInt() {
+        return IntStream.of(lastEven)
+            .mapToObj(PrimitiveOptionalBenchmark::optionalIntMethod)
+            .filter(OptionalInt::isPresent)
+            .mapToInt(OptionalInt::getAsInt)
+            .findFirst()
+            .orElse(100);
+    }
+
+    @Benchmark
+    public int maybeStream() {
+        return IntStream.of(lastEven)
+            .mapToLong(PrimitiveOptionalBenchmark::maybeMethod)
+            .filter(IntMaybe::isPresent)
+            .mapToInt(IntMaybe::get)
+            .findFirst()
+            .orElse(100);
+    }
+
+    @Benchmark
+    public int maybeLoop() {
+        return IntMaybe.firstPresent(lastEven, PrimitiveOptionalBenchmark::maybeMethod, 100);
+    }
+
+    @Benchmark
+    public int boxedSum() {
+        return IntStream.of(halfEven).boxed()
+            .map(PrimitiveOptionalBenchmark::optionalMethod)
+            .filter(Optional::isPresent)
+            .mapToInt(Optional::get)
+            .sum();
+    }
+
+    @Benchmark
+    public int maybeSum() {
+        return IntStream.of(halfEven)
+            .mapToLong(PrimitiveOptionalBenchmark::maybeMethod)
+            .filter(IntMaybe::isPresent)
+            .mapToInt(IntMaybe::get)
+            .sum();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc PrimitiveOptionalBenchmark"
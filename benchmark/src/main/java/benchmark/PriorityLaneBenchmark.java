@@ -0,0 +1,110 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactive.PriorityLaneScheduler;
+import reactive.PriorityLaneScheduler.Lane;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// the latency of interactive calls while a bulk backfill saturates the same threads (JavaReactor 0.7 / 0.8)
+//   the backfill keeps `backlog` bulk tasks queued at all times, each one `bulkTokens` of CPU
+//   SHARED: one FIFO executor for both (an interactive call waits behind the whole backlog)
+//   LANES_8_1 / LANES_STRICT: a PriorityLaneScheduler with interactive:bulk weights 8:1 / 1:0 (+ starvation guard)
+//   Mode.SampleTime: compare the p0.99 of interactive(); the queue times of the lanes are printed after each trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriorityLaneBenchmark {
+
+    public enum Kind {
+        SHARED,
+        LANES_8_1,
+        LANES_STRICT
+    }
+
+    @Param({"SHARED", "LANES_8_1", "LANES_STRICT"})
+    public Kind kind;
+
+    @Param({"256"})
+    public int backlog;
+
+    @Param({"10000"})
+    public int bulkTokens;
+
+    @Param({"1000"})
+    public int interactiveTokens;
+
+    private ExecutorService shared;
+    private PriorityLaneScheduler lanes;
+    private Scheduler interactive;
+    private Scheduler bulk;
+    private Disposable backfill;
+
+    @Setup
+    public void setup() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        switch (kind) {
+            case SHARED:
+                shared = Executors.newFixedThreadPool(threads);
+                interactive = bulk = Schedulers.fromExecutorService(shared);
+                break;
+            case LANES_8_1:
+                lanes = new PriorityLaneScheduler("lanes", threads, 8, 1, Duration.ofMillis(100));
+                break;
+            case LANES_STRICT:
+                lanes = new PriorityLaneScheduler("lanes", threads, 1, 0, Duration.ofMillis(100));
+                break;
+        }
+        if (lanes != null) {
+            interactive = lanes.lane(Lane.INTERACTIVE);
+            bulk = lanes.lane(Lane.BULK);
+        }
+        backfill = Flux.range(0, Integer.MAX_VALUE)
+            .flatMap(i -> Mono.fromCallable(() -> Work.apply(i, bulkTokens, 0)).subscribeOn(bulk), backlog)
+            .subscribe();
+    }
+
+    @TearDown
+    public void tearDown() {
+        backfill.dispose();
+        if (lanes != null) {
+            System.out.printf("%nqueue time interactive p99=%dus, bulk p99=%dus, bulk executed=%d, promoted=%d%n",
+                TimeUnit.NANOSECONDS.toMicros(lanes.queueTime(Lane.INTERACTIVE).percentile(0.99)),
+                TimeUnit.NANOSECONDS.toMicros(lanes.queueTime(Lane.BULK).percentile(0.99)),
+                lanes.executed(Lane.BULK), lanes.promoted(Lane.BULK));
+            lanes.dispose();
+        }
+        if (shared != null) shared.shutdownNow();
+    }
+
+    @Benchmark
+    public Integer interactive() {
+        return Mono.fromCallable(() -> Work.apply(1, interactiveTokens, 0))
+            .subscribeOn(interactive)
+            .block();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run PriorityLaneBenchmark"
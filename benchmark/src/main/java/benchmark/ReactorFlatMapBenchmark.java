@@ -0,0 +1,83 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+// flatMap() fan-out with varying concurrency & prefetch (JavaReactor 0.3 and 0.9)
+//   each element is mapped to an inner Mono that runs the work on the scheduler (subscribeOn)
+//   concurrency: the max number of inner Monos subscribed at the same time
+//   prefetch: the number of elements requested from each inner publisher (the inner queue size)
+// note: run with `-prof gc` to also report the allocation rate (gc.alloc.rate.norm: bytes allocated per pipeline)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactorFlatMapBenchmark {
+
+    @Param({"1", "8", "32", "256"})
+    public int concurrency;
+
+    @Param({"1", "32"})
+    public int prefetch;
+
+    @Param({"BOUNDED_ELASTIC", "PARALLEL"})
+    public SchedulerKind scheduler;
+
+    @Param({"1024"})
+    public int elements;
+
+    @Param({"100"})
+    public int cpuTokens;
+
+    @Param({"0", "10000"})
+    public long blockNanos;
+
+    private Scheduler innerScheduler;
+
+    @Setup
+    public void setup() {
+        innerScheduler = scheduler.create("inner");
+    }
+
+    @TearDown
+    public void tearDown() {
+        innerScheduler.dispose();
+    }
+
+    @Benchmark
+    public Integer flatMap() {
+        return Flux.range(0, elements)
+            .flatMap(x -> Mono.fromCallable(() -> Work.apply(x, cpuTokens, blockNanos)).subscribeOn(innerScheduler),
+                concurrency, prefetch)
+            .blockLast();
+    }
+
+    // 0.9) the inner publisher is a Flux.range(), so prefetch matters
+    @Benchmark
+    public Integer flatMapInnerFlux() {
+        return Flux.range(0, elements / 16)
+            .flatMap(x -> Flux.range(x, 16).map(y -> Work.apply(y, cpuTokens, blockNanos)).subscribeOn(innerScheduler),
+                concurrency, prefetch)
+            .blockLast();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc ReactorFlatMapBenchmark"
+//   sbt "benchmark/Jmh/run -prof gc -p blockNanos=0 -p scheduler=PARALLEL ReactorFlatMapBenchmark"
@@ -0,0 +1,93 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+// publishOn vs. subscribeOn placement (JavaReactor 0.4, 0.5 and 3.1-3.4)
+//   each invocation runs a Flux of `elements` through map(work) -> map(work), and blocks until the last element
+//   Mode.Throughput: pipelines per second
+//   Mode.SampleTime: the latency distribution of a whole pipeline, including the p0.99 percentile
+// note: run with `-prof gc` to also report the allocation rate (gc.alloc.rate.norm: bytes allocated per pipeline)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReactorSchedulerBenchmark {
+
+    public enum Placement {
+        NONE,         // 3.1) everything runs on the subscribing thread
+        PUBLISH_ON,   // 3.2) the source runs on the subscribing thread, the work after publishOn on the scheduler
+        SUBSCRIBE_ON, // 3.3) the whole pipeline runs on the scheduler
+        BOTH          // 3.4) subscribeOn + publishOn: two hops, i.e. 2 scheduler workers per pipeline
+    }
+
+    @Param({"NONE", "PUBLISH_ON", "SUBSCRIBE_ON", "BOTH"})
+    public Placement placement;
+
+    @Param({"BOUNDED_ELASTIC", "PARALLEL"})
+    public SchedulerKind scheduler;
+
+    @Param({"1024"})
+    public int elements;
+
+    @Param({"100"})
+    public int cpuTokens;
+
+    @Param({"0"})
+    public long blockNanos;
+
+    private Scheduler publishScheduler;
+    private Scheduler subscribeScheduler;
+
+    @Setup
+    public void setup() {
+        publishScheduler = scheduler.create("pub");
+        subscribeScheduler = scheduler.create("sub");
+    }
+
+    @TearDown
+    public void tearDown() {
+        publishScheduler.dispose();
+        subscribeScheduler.dispose();
+    }
+
+    @Benchmark
+    public Integer pipeline() {
+        Flux<Integer> source = Flux.range(0, elements)
+            .map(x -> Work.apply(x, cpuTokens, blockNanos));
+        switch (placement) {
+            case PUBLISH_ON:
+                source = source.publishOn(publishScheduler);
+                break;
+            case SUBSCRIBE_ON:
+                source = source.subscribeOn(subscribeScheduler);
+                break;
+            case BOTH:
+                source = source.publishOn(publishScheduler).subscribeOn(subscribeScheduler);
+                break;
+            default:
+                break;
+        }
+        return source
+            .map(x -> Work.apply(x, cpuTokens, blockNanos))
+            .blockLast();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc ReactorSchedulerBenchmark"
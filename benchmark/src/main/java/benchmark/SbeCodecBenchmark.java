@@ -0,0 +1,122 @@
+package benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.my.sbe.SampleEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import sbe.codec.BufferPool;
+import sbe.codec.PooledBuffer;
+import sbe.codec.SampleMessage;
+import sbe.codec.SbeCodec;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the SbeCodec stages vs. a Jackson JSON codec stage (ObjectMapper.writeValueAsBytes / readValue) on a Flux of
+// MESSAGES SampleMessages with a group of 2 entries (the scores are messages/s)
+//   encode: to pooled direct buffers (released downstream) vs. to byte[]
+//   roundTrip: encode then decode back to SampleMessage objects
+// run with -prof gc to compare the allocation per message (the SBE encode stage allocates nothing)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SbeCodecBenchmark {
+
+    static final int MESSAGES = 10_000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private BufferPool pool;
+    private Flux<SampleMessage> messages;
+
+    @Setup
+    public void setup() {
+        pool = new BufferPool("bench", 256, 256);
+        List<SampleMessage> list = new ArrayList<>(MESSAGES);
+        for (int i = 0; i < MESSAGES; i++) {
+            list.add(new SampleMessage(i, SampleEnum.VALUE_1, i & 0xFFFF, 20, "a message " + i)
+                .add(1, 2, "group1")
+                .add(3, 4, "group2"));
+        }
+        messages = Flux.fromIterable(list);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.assertNoLeaks();
+    }
+
+    private byte[] toJson(SampleMessage message) {
+        try {
+            return mapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    private SampleMessage fromJson(byte[] json) {
+        try {
+            return mapper.readValue(json, SampleMessage.class);
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long sbeEncode() {
+        return messages
+            .transform(SbeCodec.encode(pool))
+            .doOnNext(PooledBuffer::release)
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long jacksonEncode() {
+        return messages
+            .map(this::toJson)
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long sbeRoundTrip() {
+        return messages
+            .transform(SbeCodec.encode(pool))
+            .transform(SbeCodec.decode())
+            .count()
+            .block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long jacksonRoundTrip() {
+        return messages
+            .map(this::toJson)
+            .map(this::fromJson)
+            .count()
+            .block();
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run -prof gc SbeCodecBenchmark"
@@ -0,0 +1,170 @@
+package benchmark;
+
+import com.my.sbe.MessageHeaderDecoder;
+import com.my.sbe.MessageHeaderEncoder;
+import com.my.sbe.SampleColumnsDecoder;
+import com.my.sbe.SampleColumnsEncoder;
+import com.my.sbe.SampleEnum;
+import com.my.sbe.SampleMessageDecoder;
+import com.my.sbe.SampleMessageEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sbe.group.GroupColumns;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+// decoding a whole repeating group into columns: the flyweight iterator (next() and one accessor per field and entry)
+// vs. GroupColumns (one bulk read per field)
+//   fixed*: SampleColumns.rows (id, price: int64, quantity: int32, venue, side: uint16), into 5 arrays (or off-heap
+//     columns for the int64/int32 fields)
+//   varData*: SampleMessage.group (groupField1, groupField2: uint16, groupField3: var data), the 2 uint16 fields
+// entries: up to 65534 (numInGroup of groupSizeEncoding is a uint16)
+// expect the bulk reads to win on the fixed-width group (no per-entry limit bookkeeping, the loops unroll), and to
+// be about even with the iterator on the var data group (wrap() walks the entries like the iterator does)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SbeGroupDecodeBenchmark {
+
+    @Param({"10", "1000", "65534"})
+    public int entries;
+
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final SampleColumnsDecoder columnsDecoder = new SampleColumnsDecoder();
+    private final SampleMessageDecoder messageDecoder = new SampleMessageDecoder();
+    private final GroupColumns fixedColumns = GroupColumns.fixedWidth();
+    private final GroupColumns varDataColumns = new GroupColumns(1);
+    private UnsafeBuffer fixedMessage;
+    private UnsafeBuffer varDataMessage;
+
+    private long[] ids;
+    private long[] prices;
+    private int[] quantities;
+    private int[] venues;
+    private int[] sides;
+    private UnsafeBuffer offHeapColumns;
+
+    @Setup
+    public void setup() {
+        MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        fixedMessage = new UnsafeBuffer(ByteBuffer.allocateDirect(64 + entries * 24));
+        SampleColumnsEncoder columnsEncoder = new SampleColumnsEncoder()
+            .wrapAndApplyHeader(fixedMessage, 0, headerEncoder)
+            .timestamp(System.currentTimeMillis());
+        SampleColumnsEncoder.RowsEncoder rows = columnsEncoder.rowsCount(entries);
+        for (int i = 0; i < entries; i++) {
+            rows.next().id(i).price(100_000L + i).quantity(i % 1000).venue(i % 7).side(i & 1);
+        }
+
+        varDataMessage = new UnsafeBuffer(ByteBuffer.allocateDirect(64 + entries * 16));
+        SampleMessageEncoder messageEncoder = new SampleMessageEncoder()
+            .wrapAndApplyHeader(varDataMessage, 0, headerEncoder)
+            .sequence(1)
+            .enumField(SampleEnum.VALUE_1);
+        SampleMessageEncoder.GroupEncoder group = messageEncoder.groupCount(entries);
+        for (int i = 0; i < entries; i++) {
+            group.next().groupField1(i & 0xFFFF).groupField2(7).groupField3(i % 2 == 0 ? "ab" : "abcdef");
+        }
+        messageEncoder.message("message");
+
+        ids = new long[entries];
+        prices = new long[entries];
+        quantities = new int[entries];
+        venues = new int[entries];
+        sides = new int[entries];
+        offHeapColumns = new UnsafeBuffer(ByteBuffer.allocateDirect(entries * 20));
+    }
+
+    private SampleColumnsDecoder wrapColumns() {
+        headerDecoder.wrap(fixedMessage, 0);
+        return columnsDecoder.wrap(fixedMessage, MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+            headerDecoder.version());
+    }
+
+    private SampleMessageDecoder wrapMessage() {
+        headerDecoder.wrap(varDataMessage, 0);
+        return messageDecoder.wrap(varDataMessage, MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+            headerDecoder.version());
+    }
+
+    @Benchmark
+    public long fixedIterator() {
+        SampleColumnsDecoder.RowsDecoder rows = wrapColumns().rows();
+        int i = 0;
+        while (rows.hasNext()) {
+            rows.next();
+            ids[i] = rows.id();
+            prices[i] = rows.price();
+            quantities[i] = rows.quantity();
+            venues[i] = rows.venue();
+            sides[i] = rows.side();
+            i++;
+        }
+        return prices[entries - 1];
+    }
+
+    @Benchmark
+    public long fixedBulk() {
+        SampleColumnsDecoder decoder = wrapColumns();
+        fixedColumns.wrap(fixedMessage, decoder.limit());
+        fixedColumns.readLongs(SampleColumnsDecoder.RowsDecoder.idEncodingOffset(), ids);
+        fixedColumns.readLongs(SampleColumnsDecoder.RowsDecoder.priceEncodingOffset(), prices);
+        fixedColumns.readInts(SampleColumnsDecoder.RowsDecoder.quantityEncodingOffset(), quantities);
+        fixedColumns.readUint16(SampleColumnsDecoder.RowsDecoder.venueEncodingOffset(), venues);
+        fixedColumns.readUint16(SampleColumnsDecoder.RowsDecoder.sideEncodingOffset(), sides);
+        decoder.limit(fixedColumns.limit());
+        return prices[entries - 1];
+    }
+
+    // id, price and quantity into one off-heap buffer: 3 columns of entries longs, longs and ints
+    @Benchmark
+    public long fixedBulkOffHeap() {
+        SampleColumnsDecoder decoder = wrapColumns();
+        fixedColumns.wrap(fixedMessage, decoder.limit());
+        fixedColumns.readLongs(SampleColumnsDecoder.RowsDecoder.idEncodingOffset(), offHeapColumns, 0);
+        fixedColumns.readLongs(SampleColumnsDecoder.RowsDecoder.priceEncodingOffset(), offHeapColumns, entries * 8);
+        fixedColumns.readInts(SampleColumnsDecoder.RowsDecoder.quantityEncodingOffset(), offHeapColumns, entries * 16);
+        decoder.limit(fixedColumns.limit());
+        return offHeapColumns.getLong(entries * 16 - 8);
+    }
+
+    @Benchmark
+    public int varDataIterator() {
+        SampleMessageDecoder.GroupDecoder group = wrapMessage().group();
+        int i = 0;
+        while (group.hasNext()) {
+            group.next();
+            venues[i] = group.groupField1();
+            sides[i] = group.groupField2();
+            group.skipGroupField3();
+            i++;
+        }
+        return venues[entries - 1];
+    }
+
+    @Benchmark
+    public int varDataBulk() {
+        SampleMessageDecoder decoder = wrapMessage();
+        varDataColumns.wrap(varDataMessage, decoder.limit());
+        varDataColumns.readUint16(SampleMessageDecoder.GroupDecoder.groupField1EncodingOffset(), venues);
+        varDataColumns.readUint16(SampleMessageDecoder.GroupDecoder.groupField2EncodingOffset(), sides);
+        decoder.limit(varDataColumns.limit());
+        return venues[entries - 1];
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run SbeGroupDecodeBenchmark"
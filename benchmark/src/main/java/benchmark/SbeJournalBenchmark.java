@@ -0,0 +1,224 @@
+package benchmark;
+
+import com.my.sbe.MessageHeaderEncoder;
+import com.my.sbe.SampleEnum;
+import com.my.sbe.SampleMessageDecoder;
+import com.my.sbe.SampleMessageEncoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import sbe.journal.JournalReader;
+import sbe.journal.JournalWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// append and replay throughput of the sbe.journal journal, with the SampleMessage of SBEBasics (64-byte frames)
+//   the scores are messages/s, the `bytes` counter is the frame bytes/s (divide by 1e9 for GB/s)
+//   appendEncode: the message is encoded in place in the mapped segment (claim/commit)
+//   appendCopy: the message is encoded once in a direct buffer and copied (append)
+//   replay*: a reader replays MESSAGES messages written in setup: frames only (frame length and SBE header checks),
+//     with the CRC32C checks, and decoding every field in place with the SampleMessageDecoder
+// the journal is in java.io.tmpdir (-Djava.io.tmpdir=... to measure another disk), the append benchmarks write
+//   a new journal per iteration (about 1 GB/s), and delete it after the iteration
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SbeJournalBenchmark {
+
+    static final int MESSAGES = 1_000_000;
+    static final int SEGMENT_LENGTH = 256 << 20;
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final SampleMessageEncoder encoder = new SampleMessageEncoder();
+    private final UnsafeBuffer encoded = new UnsafeBuffer(ByteBuffer.allocateDirect(128));
+    private int encodedLength;
+    private long sequence;
+
+    private Path appendDirectory;
+    private JournalWriter writer;
+    private Path replayDirectory;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encodedLength = encode(encoded, 0, 0);
+        replayDirectory = directory();
+        try (JournalWriter replayWriter = new JournalWriter(replayDirectory, SEGMENT_LENGTH)) {
+            for (int i = 0; i < MESSAGES; i++) {
+                int offset = replayWriter.claim(encodedLength);
+                replayWriter.commit(encode(replayWriter.buffer(), offset, i));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        delete(replayDirectory);
+    }
+
+    @Setup(Level.Iteration)
+    public void openJournal() {
+        appendDirectory = directory();
+        writer = new JournalWriter(appendDirectory, SEGMENT_LENGTH);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeJournal() {
+        writer.close();
+        delete(appendDirectory);
+    }
+
+    private int encode(UnsafeBuffer buffer, int offset, long sequence) {
+        encoder.wrapAndApplyHeader(buffer, offset, headerEncoder)
+            .sequence(sequence)
+            .enumField(SampleEnum.VALUE_1);
+        encoder.composite().field1(10).field2(20);
+        encoder.groupCount(0);
+        encoder.message("a journal message");
+        return MessageHeaderEncoder.ENCODED_LENGTH + encoder.encodedLength();
+    }
+
+    private static int frameBytes(int messageLength) {
+        return (8 + messageLength + 7) & ~7;
+    }
+
+    @Benchmark
+    public long appendEncode(Bytes bytes) {
+        int offset = writer.claim(encodedLength);
+        int length = encode(writer.buffer(), offset, sequence++);
+        bytes.bytes += frameBytes(length);
+        return writer.commit(length);
+    }
+
+    @Benchmark
+    public long appendCopy(Bytes bytes) {
+        bytes.bytes += frameBytes(encodedLength);
+        return writer.append(encoded, 0, encodedLength);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long replayFrames(Bytes bytes, Blackhole blackhole) {
+        return replay(false, bytes, (buffer, offset, length, position) -> blackhole.consume(length));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long replayChecksums(Bytes bytes, Blackhole blackhole) {
+        return replay(true, bytes, (buffer, offset, length, position) -> blackhole.consume(length));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long replayDecode(Bytes bytes, Blackhole blackhole) {
+        try (JournalReader reader = new JournalReader(replayDirectory, false)) {
+            int frames = reader.poll((SampleMessageDecoder message, long position) -> {
+                blackhole.consume(message.sequence());
+                blackhole.consume(message.enumField());
+                blackhole.consume(message.composite().field1() + message.composite().field2());
+                message.group();
+                blackhole.consume(message.messageLength());
+            }, Integer.MAX_VALUE);
+            bytes.bytes += reader.position();
+            return frames;
+        }
+    }
+
+    // the bytes replayed: the position of the reader at the end of the journal
+    private long replay(boolean verifyChecksums, Bytes bytes, JournalReader.FrameHandler handler) {
+        try (JournalReader reader = new JournalReader(replayDirectory, verifyChecksums)) {
+            int frames = reader.poll(handler, Integer.MAX_VALUE);
+            bytes.bytes += reader.position();
+            return frames;
+        }
+    }
+
+    private static Path directory() {
+        try {
+            return Files.createTempDirectory("sbe-journal-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a quick run without JMH: prints msgs/s and GB/s of each benchmark
+    public static void main(String[] args) {
+        SbeJournalBenchmark benchmark = new SbeJournalBenchmark();
+        benchmark.setup();
+        Bytes bytes = new Bytes();
+        for (int round = 0; round < 3; round++) {
+            benchmark.openJournal();
+            bytes.reset();
+            long start = System.nanoTime();
+            for (int i = 0; i < MESSAGES * 3; i++) benchmark.appendEncode(bytes);
+            report("appendEncode", MESSAGES * 3, bytes.bytes, System.nanoTime() - start);
+            benchmark.closeJournal();
+
+            benchmark.openJournal();
+            bytes.reset();
+            start = System.nanoTime();
+            for (int i = 0; i < MESSAGES * 3; i++) benchmark.appendCopy(bytes);
+            report("appendCopy", MESSAGES * 3, bytes.bytes, System.nanoTime() - start);
+            benchmark.closeJournal();
+
+            bytes.reset();
+            start = System.nanoTime();
+            benchmark.replay(false, bytes, (buffer, offset, length, position) -> { });
+            report("replayFrames", MESSAGES, bytes.bytes, System.nanoTime() - start);
+
+            bytes.reset();
+            start = System.nanoTime();
+            benchmark.replay(true, bytes, (buffer, offset, length, position) -> { });
+            report("replayChecksums", MESSAGES, bytes.bytes, System.nanoTime() - start);
+        }
+        benchmark.tearDown();
+    }
+
+    private static void report(String name, long messages, long bytes, long nanos) {
+        System.out.printf("%-16s %6.2f M msgs/s %6.2f GB/s%n", name, messages * 1e3 / nanos, (double) bytes / nanos);
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run SbeJournalBenchmark"
+//   sbt "benchmark/runMain benchmark.SbeJournalBenchmark"
@@ -0,0 +1,28 @@
+package benchmark;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// the schedulers compared by the Reactor benchmarks
+//   each benchmark trial creates its own scheduler instance (instead of the shared Schedulers.boundedElastic())
+//   so that it can be disposed in @TearDown and the trials do not share warmed-up threads
+public enum SchedulerKind {
+    // Schedulers.boundedElastic(): 10 x cores threads, for blocking work (JavaReactor 0.3, 0.7, 0.8, 1.3, 3.2-3.4)
+    BOUNDED_ELASTIC {
+        @Override
+        public Scheduler create(String name) {
+            return Schedulers.newBoundedElastic(
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, name
+            );
+        }
+    },
+    // Schedulers.newParallel(): 1 thread per core, for non-blocking work (JavaReactor 0.4, 0.5, 0.9)
+    PARALLEL {
+        @Override
+        public Scheduler create(String name) {
+            return Schedulers.newParallel(name, Schedulers.DEFAULT_POOL_SIZE);
+        }
+    };
+
+    public abstract Scheduler create(String name);
+}
@@ -0,0 +1,185 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import text.SentenceSegmenter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.BreakIterator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// segmenting a generated English corpus of sizeMb into sentences:
+//   whole: Files.readString(), one BreakIterator over the String (as BreakIteratorTest: the whole text on the heap,
+//     and no String longer than 2^31 - 1 chars, so it fails on a corpus of more than 2GB)
+//   streaming: SentenceSegmenter with parallelism 1 (the windows one at a time)
+//   parallel: SentenceSegmenter with a window per core in flight
+// each invocation segments the whole corpus (SingleShotTime), the counters report sentences/s, MB/s and the peak live
+// heap; expect BreakIterator to be the bottleneck (tens of MB/s a core): parallel scales with the cores
+// the corpus is generated once into java.io.tmpdir (sentences-<sizeMb>mb.txt) and reused: sentences of the words
+// below, with abbreviations (Dr., T.L.A., e.g.), decimals, quotes and paragraphs
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SentenceSegmenterBenchmark {
+
+    private static final String[] WORDS = {"the", "report", "was", "reviewed", "by", "Dr.", "Smith", "and", "a",
+        "T.L.A.", "committee", "in", "March", "with", "3.14", "percent", "of", "e.g.", "results", "from", "U.S.",
+        "labs", "that", "\"confirmed\"", "earlier", "findings", "on", "Mr.", "Jones", "(see", "appendix)", "data"};
+    private static final String[] ENDS = {".", ".", ".", "?", "!", ".\"", "..."};
+
+    @Param({"2048"})
+    public int sizeMb;
+
+    private Path file;
+    private long fileBytes;  // copied into the Counters by each benchmark (a setup of this state cannot take them)
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long sentences;
+        public double sentencesPerSecond;
+        public double mbPerSecond;
+        public double peakHeapMb;
+        private long bytes;
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            GcMonitor.reset();
+            sentences = 0;
+            start = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            sentencesPerSecond = sentences / seconds;
+            mbPerSecond = (bytes >> 20) / seconds;
+            peakHeapMb = GcMonitor.peakLiveHeap() / (1024.0 * 1024.0);
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        file = generate(sizeMb);
+        fileBytes = Files.size(file);
+    }
+
+    @Benchmark
+    public long whole(Counters counters) throws IOException {
+        counters.bytes = fileBytes;
+        String text = Files.readString(file);
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.US);
+        iterator.setText(text);
+        long sum = 0;
+        for (int end = iterator.next(); end != BreakIterator.DONE; end = iterator.next()) {
+            counters.sentences++;
+            sum += end;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long streaming(Counters counters) {
+        counters.bytes = fileBytes;
+        return segment(SentenceSegmenter.builder(Locale.US).parallelism(1).build(), counters);
+    }
+
+    @Benchmark
+    public long parallel(Counters counters) {
+        counters.bytes = fileBytes;
+        return segment(SentenceSegmenter.builder(Locale.US).build(), counters);
+    }
+
+    private long segment(SentenceSegmenter segmenter, Counters counters) {
+        return segmenter.segment(file)
+            .reduce(0L, (sum, sentences) -> {
+                counters.sentences += sentences.count();
+                return sum + sentences.end(sentences.count() - 1);
+            })
+            .block();
+    }
+
+    // a corpus of at least sizeMb: sentences of 4 to 24 words, 5 to 10 sentences a paragraph
+    static Path generate(int sizeMb) throws IOException {
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "sentences-" + sizeMb + "mb.txt");
+        long size = sizeMb * 1024L * 1024L;
+        if (Files.exists(file) && Files.size(file) >= size) return file;
+        Random random = new Random(42);
+        StringBuilder paragraph = new StringBuilder(4096);
+        long written = 0;
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 16)) {
+            while (written < size) {
+                paragraph.setLength(0);
+                for (int sentence = 5 + random.nextInt(6); sentence > 0; sentence--) {
+                    paragraph.append("The");
+                    for (int word = 4 + random.nextInt(21); word > 0; word--) {
+                        paragraph.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+                    }
+                    paragraph.append(ENDS[random.nextInt(ENDS.length)]).append(sentence > 1 ? " " : "\n\n");
+                }
+                out.write(paragraph.toString());
+                written += paragraph.length();
+            }
+        }
+        return file;
+    }
+
+    // quick run without JMH: java -Xmx4g ... benchmark.SentenceSegmenterBenchmark [sizeMb] [approach...]
+    public static void main(String[] args) throws IOException {
+        SentenceSegmenterBenchmark benchmark = new SentenceSegmenterBenchmark();
+        benchmark.sizeMb = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        List<String> approaches = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+            : Arrays.asList("streaming", "parallel", "whole");
+        benchmark.setup();
+        System.out.printf("%s: %d MB, %d cores%n", benchmark.file, Files.size(benchmark.file) >> 20,
+            Runtime.getRuntime().availableProcessors());
+        for (String approach : approaches) {
+            Counters counters = new Counters();
+            counters.reset();
+            try {
+                switch (approach) {
+                    case "whole": benchmark.whole(counters); break;
+                    case "streaming": benchmark.streaming(counters); break;
+                    case "parallel": benchmark.parallel(counters); break;
+                    default: throw new IllegalArgumentException(approach);
+                }
+                counters.record();
+                System.out.printf("%-10s %,12.0f sentences/s  %,6.1f MB/s  peak heap %,7.0f MB  (%d sentences)%n",
+                    approach, counters.sentencesPerSecond, counters.mbPerSecond, counters.peakHeapMb,
+                    counters.sentences);
+            } catch (OutOfMemoryError e) {
+                System.out.printf("%-10s %s (-Xmx%d MB)%n", approach, e, Runtime.getRuntime().maxMemory() >> 20);
+            }
+        }
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run SentenceSegmenterBenchmark"
+//   sbt "benchmark/runMain benchmark.SentenceSegmenterBenchmark 2048"
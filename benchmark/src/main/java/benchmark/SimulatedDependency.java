@@ -0,0 +1,105 @@
+package benchmark;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// a simulated remote dependency (ex. the blockingCall of JavaReactor 3.1) for the latency-control benchmarks
+//   latency: baseMicros while at most `capacity` calls are in flight, then it grows linearly with the overload
+//            (each call over capacity adds baseMicros / capacity x overloadFactor), i.e. the calls queue in the dependency
+//   failures: a call fails once more than failAt x capacity calls are in flight (the dependency times out)
+//   heavy tail: with probability tailProbability a call is tailFactor times slower (ex. a GC pause or a cold cache)
+// call() does not block a thread: the latency is a Mono.delay() on the timer scheduler
+// blockingCall(): the same latency slept by the subscribing thread (Mono.fromCallable of a blocking client)
+public class SimulatedDependency {
+
+    private final Scheduler timer;
+    private final long baseMicros;
+    private final int capacity;
+    private final double overloadFactor;
+    private final double failAt;
+    private final double tailProbability;
+    private final double tailFactor;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public SimulatedDependency(Scheduler timer, long baseMicros, int capacity, double overloadFactor, double failAt,
+                               double tailProbability, double tailFactor) {
+        this.timer = timer;
+        this.baseMicros = baseMicros;
+        this.capacity = capacity;
+        this.overloadFactor = overloadFactor;
+        this.failAt = failAt;
+        this.tailProbability = tailProbability;
+        this.tailFactor = tailFactor;
+    }
+
+    // a dependency that degrades under load, without a heavy tail
+    public static SimulatedDependency overloadable(Scheduler timer, long baseMicros, int capacity) {
+        return new SimulatedDependency(timer, baseMicros, capacity, 4.0, 4.0, 0.0, 1.0);
+    }
+
+    // a dependency with a heavy latency tail, that does not degrade under load
+    public static SimulatedDependency heavyTailed(Scheduler timer, long baseMicros, double tailProbability, double tailFactor) {
+        return new SimulatedDependency(timer, baseMicros, Integer.MAX_VALUE, 0.0, Double.MAX_VALUE, tailProbability, tailFactor);
+    }
+
+    public <T> Mono<T> call(T value) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            Mono<T> result = current > failAt * capacity ? Mono.error(overloaded(current)) : Mono.just(value);
+            return Mono.delay(Duration.ofNanos((long) (latencyMicros(current) * 1000)), timer)
+                .then(result)
+                .doOnError(e -> failures.incrementAndGet())
+                .doFinally(signal -> inFlight.decrementAndGet());
+        });
+    }
+
+    public <T> Mono<T> blockingCall(T value) {
+        return Mono.fromCallable(() -> {
+            calls.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            try {
+                long nanos = (long) (latencyMicros(current) * 1000);
+                Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+                if (current > failAt * capacity) {
+                    failures.incrementAndGet();
+                    throw overloaded(current);
+                }
+                return value;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private double latencyMicros(int current) {
+        double micros = baseMicros;
+        if (current > capacity) micros += (double) baseMicros * (current - capacity) / capacity * overloadFactor;
+        if (tailProbability > 0 && ThreadLocalRandom.current().nextDouble() < tailProbability) micros *= tailFactor;
+        return micros;
+    }
+
+    private static IllegalStateException overloaded(int current) {
+        return new IllegalStateException("dependency overloaded: " + current + " calls in flight");
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+}
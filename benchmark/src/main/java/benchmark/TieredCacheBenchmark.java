@@ -0,0 +1,201 @@
+package benchmark;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.my.sbe.SampleEnum;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import sbe.cache.OffHeapStore;
+import sbe.cache.SampleMessageCodec;
+import sbe.cache.TieredCache;
+import sbe.codec.SampleMessage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+// an all-on-heap Caffeine cache of `entries` SampleMessages vs. a TieredCache with tier1Fraction of them on the heap
+// and all of them in an OffHeapStore (a direct or a memory-mapped arena)
+//   onHeap: Caffeine maximumSize(entries)
+//   tiered: TieredCache, tier 1 maximumSize(entries x tier1Fraction), tier 2 of entries slots (direct buffers)
+//   tieredMapped: the same, the tier 2 arenas are memory-mapped files in java.io.tmpdir
+// each invocation gets `operations` keys drawn from a Zipf law (exponent skew) over the entries (a miss loads the
+// message), after the cache was filled with every entry
+// the counters report ops/s, the GC pauses during the gets (count, total, max), the heap after a full GC at the end of
+// the iteration (the footprint of the cache) and the time of that full GC (it traces the whole live heap); the hit
+// rates of the tiers and the off-heap bytes are printed after each iteration
+// expect the heap footprint and the full GC to shrink with tier1Fraction, and the tier 2 hits to cost a decode
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+public class TieredCacheBenchmark {
+
+    @Param({"onHeap", "tiered", "tieredMapped"})
+    public String cache;
+
+    @Param({"2000000"})
+    public int entries;
+
+    @Param({"0.1"})
+    public double tier1Fraction;
+
+    @Param({"0.9"})
+    public double skew;
+
+    @Param({"2000000"})
+    public int operations;
+
+    private Cache<Long, SampleMessage> onHeap;
+    private TieredCache<SampleMessage> tiered;
+    private Path directory;
+    private int[] keys;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public double opsPerSecond;
+        public long gcPauses;
+        public long gcPauseMillis;
+        public long maxGcPauseMillis;
+        public double heapMb;
+        public long fullGcMillis;
+        private long operations;
+        private long start;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            System.gc();
+            GcMonitor.reset();
+            operations = 0;
+            start = System.nanoTime();
+        }
+
+        @TearDown(Level.Iteration)
+        public void record() {
+            opsPerSecond = operations / ((System.nanoTime() - start) / 1e9);
+            gcPauses = GcMonitor.pauses();
+            gcPauseMillis = GcMonitor.pauseMillis();
+            maxGcPauseMillis = GcMonitor.maxPauseMillis();
+            long gcStart = System.nanoTime();
+            System.gc();
+            fullGcMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - gcStart);
+            heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0);
+        }
+    }
+
+    static SampleMessage message(long key) {
+        SampleMessage message = new SampleMessage(key, SampleEnum.VALUE_1, (int) (key & 0xFFFF), 7,
+            "a cached message, key " + key);
+        message.add(1, 2, "first-" + key);
+        message.add(3, 4, "second-" + key);
+        return message;
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        switch (cache) {
+            case "onHeap":
+                onHeap = Caffeine.newBuilder().maximumSize(entries).recordStats().build();
+                break;
+            case "tiered":
+            case "tieredMapped":
+                OffHeapStore.Builder<SampleMessage> tier2 = OffHeapStore.builder(SampleMessageCodec::new)
+                    .capacity(entries)
+                    .maxValueLength(176)
+                    .segments(16);
+                if (cache.equals("tieredMapped")) {
+                    directory = Files.createTempDirectory("tiered-cache");
+                    tier2.mapped(directory);
+                }
+                tiered = TieredCache.of(Caffeine.newBuilder().maximumSize((long) (entries * tier1Fraction)),
+                    tier2.build());
+                break;
+            default:
+                throw new IllegalArgumentException(cache);
+        }
+        for (long key = 0; key < entries; key++) {
+            if (onHeap != null) onHeap.put(key, message(key));
+            else tiered.put(key, message(key));
+        }
+        keys = MonoCacheBenchmark.zipf(entries, skew, operations, new Random(42));
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStats() {
+        if (onHeap != null) {
+            System.out.printf("%n%s, size=%d%n", onHeap.stats(), onHeap.estimatedSize());
+        } else {
+            System.out.printf("%n%s, tier1Size=%d, tier2Size=%d, offHeapMb=%d%n", tiered.stats(), tiered.tier1Size(),
+                tiered.tier2Size(), tiered.tier2().memoryBytes() >> 20);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (tiered != null) tiered.close();
+        if (directory != null) Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long get(Counters counters) {
+        LongFunction<SampleMessage> get = onHeap != null ? key -> onHeap.get(key, TieredCacheBenchmark::message)
+            : key -> tiered.get(key, TieredCacheBenchmark::message);
+        long sum = 0;
+        for (int key : keys) {
+            sum += get.apply(key).sequence;
+        }
+        counters.operations += keys.length;
+        return sum;
+    }
+
+    // quick run without JMH: java -Xmx4g -XX:MaxDirectMemorySize=4g ... benchmark.TieredCacheBenchmark [entries] [cache...]
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        List<String> caches = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+            : Arrays.asList("onHeap", "tiered", "tieredMapped");
+        for (String cache : caches) {
+            TieredCacheBenchmark benchmark = new TieredCacheBenchmark();
+            benchmark.cache = cache;
+            benchmark.entries = entries;
+            benchmark.tier1Fraction = 0.1;
+            benchmark.skew = 0.9;
+            benchmark.operations = 2_000_000;
+            benchmark.setup();
+            for (int iteration = 0; iteration < 3; iteration++) {
+                Counters counters = new Counters();
+                counters.reset();
+                benchmark.get(counters);
+                counters.record();
+                System.out.printf("%-13s %,10.0f ops/s  gc pauses %3d (%,5d ms, max %,4d ms)  heap %,6.0f MB  "
+                        + "full gc %,5d ms%n", cache, counters.opsPerSecond, counters.gcPauses, counters.gcPauseMillis,
+                    counters.maxGcPauseMillis, counters.heapMb, counters.fullGcMillis);
+            }
+            benchmark.printStats();
+            benchmark.tearDown();
+        }
+    }
+}
+// run:
+//   sbt "benchmark/Jmh/run TieredCacheBenchmark"
+//   sbt "benchmark/runMain benchmark.TieredCacheBenchmark 2000000"
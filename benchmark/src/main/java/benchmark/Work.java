@@ -0,0 +1,20 @@
+package benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.locks.LockSupport;
+
+// the per-element work of the benchmarked pipelines
+//   JavaReactor.apply() sleeps 1 second, which is far too long for a benchmark
+//   so the work is split into a CPU-bound part (Blackhole.consumeCPU) and a blocking part (parkNanos)
+public final class Work {
+
+    private Work() {
+    }
+
+    public static int apply(int value, int cpuTokens, long blockNanos) {
+        if (cpuTokens > 0) Blackhole.consumeCPU(cpuTokens);
+        if (blockNanos > 0) LockSupport.parkNanos(blockNanos);
+        return value;
+    }
+}
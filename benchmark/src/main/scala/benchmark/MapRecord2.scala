@@ -0,0 +1,6 @@
+package benchmark
+
+// the shape of MapClass2 (a Scala class in src/test/scala/JacksonConvertObjectToMapTest.scala), with a list
+class MapRecord2(val num: Int, val str: String, val list: List[String]) {
+  def this() = this(0, "default", List("a", "b", "c"))
+}
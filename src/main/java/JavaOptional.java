@@ -1,7 +1,11 @@
+import primitive.IntMaybe;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public class JavaOptional {
@@ -10,6 +14,16 @@ public class JavaOptional {
         return (number % 2 == 0)? Optional.of(number): Optional.empty();
     }
 
+    // the same, without boxing the int (but OptionalInt.of still allocates)
+    protected static OptionalInt optionalIntMethod(int number) {
+        return (number % 2 == 0)? OptionalInt.of(number): OptionalInt.empty();
+    }
+
+    // the same, allocation-free: a maybe int (see IntMaybe)
+    protected static long maybeMethod(int number) {
+        return (number % 2 == 0)? IntMaybe.of(number): IntMaybe.empty();
+    }
+
     public static void main(String[] args) {
         // 0)
         // https://www.geeksforgeeks.org/optional-or-method-in-java-with-examples/
@@ -62,5 +76,27 @@ public class JavaOptional {
             findFirst().       // Optional([value])
             orElse(100); // get [value] orElse [default]
         System.out.println(num);  // 2
+
+        // 4) the same as 3) on primitives: IntStream -> OptionalInt, no Integer, no Optional<Integer>
+        int[] numbers = {1, 2, 3};
+        int numInt = IntStream.of(numbers).                        // IntStream(1, 2, 3)
+            mapToObj(number -> optionalIntMethod(number)).         // Stream(OptionalInt, OptionalInt, OptionalInt)
+            filter(OptionalInt::isPresent).
+            mapToInt(OptionalInt::getAsInt).                        // IntStream([value])
+            findFirst().                                            // OptionalInt([value])
+            orElse(100);
+        System.out.println(numInt);  // 2
+
+        // 5) the same as 3) with a maybe int: a long, IntMaybe.EMPTY when absent, nothing allocated per element
+        int numMaybe = IntStream.of(numbers).                      // IntStream(1, 2, 3)
+            mapToLong(number -> maybeMethod(number)).               // LongStream(EMPTY, 2, EMPTY)
+            filter(IntMaybe::isPresent).                            // LongStream([value])
+            mapToInt(IntMaybe::get).
+            findFirst().
+            orElse(100);
+        System.out.println(numMaybe);  // 2
+        // or without a stream (stops at the first value too)
+        System.out.println(IntMaybe.firstPresent(numbers, JavaOptional::maybeMethod, 100));  // 2
+        System.out.println(IntMaybe.firstPresent(new int[]{1, 3}, JavaOptional::maybeMethod, 100));  // 100
     }
 }
@@ -1,7 +1,17 @@
+import reactive.BlockingSchedulerMode;
+import reactive.MicroBatcher;
+import reactive.OrderedParallel;
+import reactive.VirtualThreadSchedulers;
+import reactive.metrics.Instrumentation;
+import reactive.metrics.MetricsRegistry;
+import reactive.metrics.TextExporter;
+import reactive.trace.BlockingDetector;
+import reactive.trace.ThreadHopAgent;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
@@ -72,6 +82,30 @@ public class JavaReactor {
         System.out.println();
         Thread.sleep(2000);
 
+        // 0.2.1) per-stage metrics instead of log()
+        //        log() formats and logs a line for every signal, Instrumentation.stage() only updates counters & a histogram
+        //        the metrics are pulled with MetricsRegistry.snapshot() and exported as text by TextExporter
+        System.out.println("0.2.1)");
+        Flux.just("red", "white", "blue")
+            .map(String::toUpperCase)
+            .transform(Instrumentation.stage("upper"))
+            .subscribe(value ->
+                System.out.println("Consumed: " + value + ", thread name: " + Thread.currentThread().getName())
+            );
+        System.out.print(TextExporter.export(MetricsRegistry.global()));
+        // Consumed: RED, thread name: main
+        // Consumed: WHITE, thread name: main
+        // Consumed: BLUE, thread name: main
+        // reactor_stage_on_next_total{stage="upper"} 3
+        // reactor_stage_requests_total{stage="upper"} 1
+        // reactor_stage_requested_total{stage="upper"} 0
+        // reactor_stage_unbounded_requests_total{stage="upper"} 1
+        // reactor_stage_subscriptions{stage="upper"} 0
+        // reactor_stage_queue_depth{stage="upper"} 0
+        // reactor_stage_latency_nanos{stage="upper",quantile="0.5"} 26623
+        // ...
+        System.out.println();
+
         // 0.3)
         System.out.println("0.3)");
         Flux.just("red", "white", "blue")
@@ -286,6 +320,53 @@ public class JavaReactor {
         System.out.println();
 
         Thread.sleep(2000);
+
+        // 0.9.1) a CPU-bound map() on parallel rails, in the source order (flatMap above emits in completion order)
+        System.out.println("0.9.1)");
+        Flux.just("red", "white", "blue", "green", "yellow")
+            .transform(OrderedParallel.map(String::toUpperCase, 4, 1, Schedulers.parallel()))
+            .subscribe(e -> System.out.println(e + " - " + Thread.currentThread().getName()));
+        // RED - parallel-1
+        // WHITE - parallel-1
+        // BLUE - parallel-1
+        // GREEN - parallel-1
+        // YELLOW - parallel-1
+        // always in this order: each element is emitted by the thread of the rail that completed the next one in order
+        System.out.println();
+
+        Thread.sleep(1000);
+
+        // 0.10) micro-batching: one downstream call per batch instead of one call per element
+        //       the batcher groups the elements by size or by time (maxWait), calls the batch function once per batch,
+        //       and completes each element's Mono with its own result, in order
+        System.out.println("0.10)");
+        MicroBatcher<Integer, String> batcher = MicroBatcher.<Integer, String>builder(batch ->
+                Mono.fromCallable(() -> {
+                    System.out.println("  batch call: " + batch + " - " + Thread.currentThread().getName());
+                    List<String> results = new java.util.ArrayList<>();
+                    for (Integer x : batch) results.add(apply(x.toString())); // a real batch call would be one request
+                    return results;
+                }).subscribeOn(Schedulers.boundedElastic()))
+            .minBatchSize(4)
+            .maxWait(Duration.ofMillis(10))
+            .build();
+        Flux.range(1, 10)
+            .transform(batcher::transform)
+            .doOnNext(e -> System.out.println(e + " - " + Thread.currentThread().getName()))
+            .blockLast();
+        System.out.println("calls saved: " + batcher.callsSaved() + ", next batch size: " + batcher.batchSize());
+        batcher.dispose();
+        //   batch call: [1, 2, 3, 4] - boundedElastic-1
+        //   batch call: [5, 6, 7, 8] - boundedElastic-2
+        //   batch call: [9, 10] - boundedElastic-3       <- sent after maxWait, as the batch is not full
+        //   ...
+        // 1 - boundedElastic-1
+        // 2 - boundedElastic-1
+        // ...
+        // 10 - boundedElastic-3
+        // calls saved: 7, next batch size: 4           <- the 4s batch calls are slower than the 50ms target latency
+        System.out.println();
+
         // 1.1) subscribe
         //    subscribe Consumer to the Mono
         //    i.e. consume all the elements in the sequence, handle errors and react to completion.
@@ -480,6 +561,70 @@ public class JavaReactor {
         //   in mono: tread name: boundedElastic-2    <- continue to work on the separate thread
         // end of main: tread name: main
 
+        // 3.5) offload the blocking call to a virtual thread (JDK 21+)
+        //      boundedElastic has at most 10 x cores threads: the other blocking calls wait in its task queue
+        //      a virtual thread is unmounted from its carrier thread while it sleeps, so each blocking call gets its own thread
+        System.out.println("3.5)");
+        System.out.println("start of main: tread name: " + Thread.currentThread().getName());
+        BlockingSchedulerMode mode = VirtualThreadSchedulers.isSupported() ?
+            BlockingSchedulerMode.VIRTUAL_THREAD : BlockingSchedulerMode.BOUNDED_ELASTIC;
+        Mono.just("123")
+            .doOnNext(input -> System.out.println("  in mono: tread name: " + Thread.currentThread().getName()))
+            .publishOn(mode.scheduler())
+            .map(input -> blockingCall.apply(input))
+            .doOnNext(input -> System.out.println("  in mono: tread name: " + Thread.currentThread().getName()))
+            .block();
+        System.out.println("end of main: tread name: " + Thread.currentThread().getName());
+        System.out.println();
+        // start of main: tread name: main
+        //   in mono: tread name: main
+        //     in blockingCall: tread name: virtual-0    <- publish on a virtual thread
+        //   in mono: tread name: virtual-0
+        // end of main: tread name: main
+
+        // 3.6) the thread hops of 3.4, found at assembly time (AssemblyAnalyzer) and counted at runtime (ThreadHopAgent)
+        System.out.println("3.6)");
+        ThreadHopAgent agent = ThreadHopAgent.install(report -> System.out.print(report));
+        Mono.just("123")
+            .doOnNext(input -> {})
+            .publishOn(Schedulers.boundedElastic())
+            .map(input -> input + "4")
+            .subscribeOn(Schedulers.boundedElastic())
+            .doOnNext(input -> {})
+            .block();
+        agent.stats().forEach(System.out::println);
+        agent.uninstall();
+        System.out.println();
+        // pipeline peek: 1 hop(s) per signal
+        //    0) source(MonoJust)         SYNC         fuseable=true  on Schedulers.boundedElastic()
+        //    1) peek                     SYNC         fuseable=true  on Schedulers.boundedElastic()
+        //    2) publishOn                PUBLISH_ON   fuseable=false on Schedulers.boundedElastic()
+        //    3) map                      SYNC         fuseable=false on Schedulers.boundedElastic()
+        //    4) subscribeOn              SUBSCRIBE_ON fuseable=false on Schedulers.boundedElastic()
+        //    5) peek                     SYNC         fuseable=false on Schedulers.boundedElastic()
+        //   SUBSCRIBE_ON_AND_PUBLISH_ON at step 2: steps 0-1 run on Schedulers.boundedElastic() (subscribeOn) and are handed over to Schedulers.boundedElastic(): remove the subscribeOn unless the source blocks
+        // pipeline peek: 1 signals, 1.00 hops per signal (predicted 1)
+        //   peek -> publishOn: 1
+
+        // 3.7) the blocking call of 3.2 on a non-blocking thread (Schedulers.parallel()), found by the BlockingDetector
+        //      in strict mode: on boundedElastic (3.2) the same call is fine
+        System.out.println("3.7)");
+        BlockingDetector detector = BlockingDetector.installStrict(call -> System.out.print(call));
+        Mono.just("123")
+            .publishOn(Schedulers.parallel())
+            .map(input -> blockingCall.apply(input))
+            .block();
+        detector.uninstall();
+        System.out.println();
+        //     in blockingCall: tread name: parallel-1
+        // blocking call java.lang.Thread.sleep on parallel-1
+        //   in the subscriber of publishOn (assembled at JavaReactor.main(JavaReactor.java:...))
+        //   scheduled from JavaReactor.main(JavaReactor.java:...)
+        //     at java.base/java.lang.Thread.sleep(Native Method)
+        //     at JavaReactor.lambda$main$...(JavaReactor.java:...)
+        //     at reactor.core.publisher.FluxMap$MapSubscriber.onNext(FluxMap.java:106)
+        //     ...
+
         // 4) Mono.fromFuture:
         System.out.println("4)");
         System.out.println("start: thread name: " + Thread.currentThread().getName());
@@ -1,3 +1,7 @@
+import concurrent.BatchedCounter;
+import concurrent.Counter;
+import concurrent.CounterStrategy;
+
 // reference:
 // https://popcornylu.gitbooks.io/java_multithread/content/thread.html
 // https://www.baeldung.com/thread-pool-java-and-guava
@@ -75,5 +79,43 @@ public class JavaThread {
         }
         // Thread 0: 18
         // Thread 1: 19
+
+        try {
+            Thread.sleep(11000);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        System.out.println();
+
+        // 3) contention-free counters
+        //    the monitor of SharedSync serializes all the threads: use a Counter strategy instead
+        //    3.1) sequence-exact: ATOMIC (a CAS loop instead of a lock) still hands out unique sequence numbers
+        //    3.2) exact at quiescence: STRIPED (LongAdder) spreads the increments over several cells
+        //    3.3) eventually-summed: BATCHED counts in a per-thread batch and flushes it to the shared counter
+        for (CounterStrategy strategy : CounterStrategy.values()) {
+            Counter counter = strategy.create();
+            Thread[] threads = new Thread[8];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < 100000; j++) {
+                        counter.increment();
+                    }
+                    if (counter instanceof BatchedCounter) ((BatchedCounter) counter).flush(); // flush the last batch
+                });
+                threads[i].start();
+            }
+            for (Thread t : threads) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+            System.out.format("%s: %s\n", strategy, counter.sum());
+        }
+        // SYNCHRONIZED: 800000
+        // ATOMIC: 800000
+        // STRIPED: 800000
+        // BATCHED: 800000
     }
 }
\ No newline at end of file
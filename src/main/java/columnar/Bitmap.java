@@ -0,0 +1,89 @@
+package columnar;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// a growable bitmap, one bit per row: the null bitmap of a column ("is set"), or a selection of rows (see filters)
+//   64 rows per long: 10M rows = 1.25 MB, vs. 10M Integer boxes = 160 MB
+public final class Bitmap {
+
+    private long[] words;
+
+    public Bitmap(int capacity) {
+        this.words = new long[wordCount(capacity)];
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public boolean get(int row) {
+        int word = row >>> 6;
+        return word < words.length && (words[word] & (1L << row)) != 0;
+    }
+
+    public void set(int row) {
+        ensureCapacity(row + 1);
+        words[row >>> 6] |= 1L << row;
+    }
+
+    public void clear(int row) {
+        int word = row >>> 6;
+        if (word < words.length) words[word] &= ~(1L << row);
+    }
+
+    public void set(int row, boolean value) {
+        if (value) set(row);
+        else clear(row);
+    }
+
+    public void ensureCapacity(int bits) {
+        int needed = wordCount(bits);
+        if (needed > words.length) words = Arrays.copyOf(words, Math.max(needed, words.length * 2));
+    }
+
+    // the number of set bits in [0, rows)
+    public int cardinality(int rows) {
+        int count = 0;
+        int full = rows >>> 6;
+        for (int i = 0; i < full && i < words.length; i++) count += Long.bitCount(words[i]);
+        if ((rows & 63) != 0 && full < words.length) count += Long.bitCount(words[full] & ((1L << rows) - 1));
+        return count;
+    }
+
+    public Bitmap and(Bitmap other) {
+        Bitmap result = new Bitmap(0);
+        result.words = new long[Math.min(words.length, other.words.length)];
+        for (int i = 0; i < result.words.length; i++) result.words[i] = words[i] & other.words[i];
+        return result;
+    }
+
+    public Bitmap or(Bitmap other) {
+        Bitmap result = new Bitmap(0);
+        result.words = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) result.words[i] |= other.words[i];
+        return result;
+    }
+
+    // the set bits in [0, rows), in order, one word at a time
+    public void forEach(int rows, IntConsumer action) {
+        int wordsInRange = Math.min(wordCount(rows), words.length);
+        for (int i = 0; i < wordsInRange; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int row = (i << 6) + Long.numberOfTrailingZeros(word);
+                if (row >= rows) return;
+                action.accept(row);
+                word &= word - 1;
+            }
+        }
+    }
+
+    long[] words() {
+        return words;
+    }
+
+    public long memoryBytes() {
+        return 16L + 8L * words.length;
+    }
+}
@@ -0,0 +1,71 @@
+package columnar;
+
+// a nullable boolean column: two bitmaps, the values and which ones are set (a Boolean field is a reference to one of
+// the two Boolean constants, 4 or 8 bytes per row: here 2 bits)
+public final class BooleanColumn {
+
+    private final Bitmap values;
+    private final Bitmap present;
+
+    public BooleanColumn(int capacity) {
+        this.values = new Bitmap(capacity);
+        this.present = new Bitmap(capacity);
+    }
+
+    void ensureCapacity(int rows) {
+        values.ensureCapacity(rows);
+        present.ensureCapacity(rows);
+    }
+
+    public boolean isSet(int row) {
+        return present.get(row);
+    }
+
+    public boolean get(int row) {
+        return values.get(row);
+    }
+
+    public boolean getOrElse(int row, boolean other) {
+        return present.get(row) ? values.get(row) : other;
+    }
+
+    public Boolean getBoxed(int row) {
+        return present.get(row) ? values.get(row) : null;
+    }
+
+    public void set(int row, boolean value) {
+        values.set(row, value);
+        present.set(row);
+    }
+
+    public void setNull(int row) {
+        values.clear(row);
+        present.clear(row);
+    }
+
+    public void setBoxed(int row, Boolean value) {
+        if (value == null) setNull(row);
+        else set(row, value);
+    }
+
+    public int countSet(int rows) {
+        return present.cardinality(rows);
+    }
+
+    // the rows set to true (an unset value is false in the values bitmap): no per-row loop, a copy of the words
+    public Bitmap trueRows() {
+        return values.and(present);
+    }
+
+    public int countTrue(int rows) {
+        return values.cardinality(rows);
+    }
+
+    public Bitmap presentRows() {
+        return present;
+    }
+
+    public long memoryBytes() {
+        return 16L + values.memoryBytes() + present.memoryBytes();
+    }
+}
@@ -0,0 +1,29 @@
+package columnar;
+
+import java.util.Arrays;
+
+// a char column (not nullable, as a char field)
+public final class CharColumn {
+
+    private char[] values;
+
+    public CharColumn(int capacity) {
+        this.values = new char[capacity];
+    }
+
+    void ensureCapacity(int rows) {
+        if (rows > values.length) values = Arrays.copyOf(values, Math.max(rows, values.length * 2));
+    }
+
+    public char get(int row) {
+        return values[row];
+    }
+
+    public void set(int row, char value) {
+        values[row] = value;
+    }
+
+    public long memoryBytes() {
+        return 16L + 2L * values.length;
+    }
+}
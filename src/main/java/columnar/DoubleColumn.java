@@ -0,0 +1,91 @@
+package columnar;
+
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+
+// a nullable double column: the values in a double[], and which ones are set in a Bitmap (an unset value is 0.0)
+public final class DoubleColumn {
+
+    private double[] values;
+    private final Bitmap present;
+
+    public DoubleColumn(int capacity) {
+        this.values = new double[capacity];
+        this.present = new Bitmap(capacity);
+    }
+
+    void ensureCapacity(int rows) {
+        if (rows > values.length) values = Arrays.copyOf(values, Math.max(rows, values.length * 2));
+        present.ensureCapacity(rows);
+    }
+
+    public boolean isSet(int row) {
+        return present.get(row);
+    }
+
+    public double get(int row) {
+        return values[row];
+    }
+
+    public double getOrElse(int row, double other) {
+        return present.get(row) ? values[row] : other;
+    }
+
+    // boxed, null if unset: only for the compatibility with the object model (allocates)
+    public Double getBoxed(int row) {
+        return present.get(row) ? values[row] : null;
+    }
+
+    public void set(int row, double value) {
+        values[row] = value;
+        present.set(row);
+    }
+
+    public void setNull(int row) {
+        values[row] = 0.0;
+        present.clear(row);
+    }
+
+    public void setBoxed(int row, Double value) {
+        if (value == null) setNull(row);
+        else set(row, value);
+    }
+
+    public int countSet(int rows) {
+        return present.cardinality(rows);
+    }
+
+    public double sum(int rows) {
+        double sum = 0;
+        for (int i = 0; i < rows; i++) sum += values[i];
+        return sum;
+    }
+
+    public double sum(int rows, Bitmap selection) {
+        double[] sum = new double[1];
+        selection.and(present).forEach(rows, row -> sum[0] += values[row]);
+        return sum[0];
+    }
+
+    // the average of the set values, NaN if none is set
+    public double average(int rows) {
+        int count = countSet(rows);
+        return count == 0 ? Double.NaN : sum(rows) / count;
+    }
+
+    public Bitmap filter(int rows, DoublePredicate predicate) {
+        Bitmap result = new Bitmap(rows);
+        for (int i = 0; i < rows; i++) {
+            if (predicate.test(values[i]) && present.get(i)) result.set(i);
+        }
+        return result;
+    }
+
+    public Bitmap presentRows() {
+        return present;
+    }
+
+    public long memoryBytes() {
+        return 16L + 8L * values.length + present.memoryBytes();
+    }
+}
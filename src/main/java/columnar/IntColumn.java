@@ -0,0 +1,87 @@
+package columnar;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// a nullable int column: the values in an int[], and which ones are set in a Bitmap (an unset value is 0 in the array)
+public final class IntColumn {
+
+    private int[] values;
+    private final Bitmap present;
+
+    public IntColumn(int capacity) {
+        this.values = new int[capacity];
+        this.present = new Bitmap(capacity);
+    }
+
+    void ensureCapacity(int rows) {
+        if (rows > values.length) values = Arrays.copyOf(values, Math.max(rows, values.length * 2));
+        present.ensureCapacity(rows);
+    }
+
+    public boolean isSet(int row) {
+        return present.get(row);
+    }
+
+    public int get(int row) {
+        return values[row];
+    }
+
+    public int getOrElse(int row, int other) {
+        return present.get(row) ? values[row] : other;
+    }
+
+    // boxed, null if unset: only for the compatibility with the object model (allocates above 127)
+    public Integer getBoxed(int row) {
+        return present.get(row) ? values[row] : null;
+    }
+
+    public void set(int row, int value) {
+        values[row] = value;
+        present.set(row);
+    }
+
+    public void setNull(int row) {
+        values[row] = 0;
+        present.clear(row);
+    }
+
+    public void setBoxed(int row, Integer value) {
+        if (value == null) setNull(row);
+        else set(row, value);
+    }
+
+    public int countSet(int rows) {
+        return present.cardinality(rows);
+    }
+
+    // the sum of the set values of the first `rows` rows (unset = 0 in the array, so no null check is needed)
+    public long sum(int rows) {
+        long sum = 0;
+        for (int i = 0; i < rows; i++) sum += values[i];
+        return sum;
+    }
+
+    public long sum(int rows, Bitmap selection) {
+        long[] sum = new long[1];
+        selection.and(present).forEach(rows, row -> sum[0] += values[row]);
+        return sum[0];
+    }
+
+    // the rows whose value is set and matches the predicate
+    public Bitmap filter(int rows, IntPredicate predicate) {
+        Bitmap result = new Bitmap(rows);
+        for (int i = 0; i < rows; i++) {
+            if (predicate.test(values[i]) && present.get(i)) result.set(i);
+        }
+        return result;
+    }
+
+    public Bitmap presentRows() {
+        return present;
+    }
+
+    public long memoryBytes() {
+        return 16L + 4L * values.length + present.memoryBytes();
+    }
+}
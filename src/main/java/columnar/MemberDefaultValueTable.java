@@ -0,0 +1,77 @@
+package columnar;
+
+// the records of JavaMemberDefaultValue in columns (struct of arrays) instead of one object per record
+//   an object: 12 bytes of header + 4 references + the primitives, padded to 48 bytes, plus an Integer (16 bytes) and
+//   a Double (16 bytes) box per set field: ~80 bytes per record, and a scan of one field reads all of them
+//   here: aInteger 4 bytes + 1 bit, aDouble 8 bytes + 1 bit, aBoolean 2 bits, aString 4 bytes (dictionary code),
+//   i 4 bytes, d 8 bytes, b 1 bit, c 2 bytes: ~30 bytes per record, and a scan of one field reads one array
+// the nullable (boxed) fields keep their "unset" state in a bitmap, so null is not confused with 0 / 0.0 / false
+// the columns are the typed accessors and the bulk operations:
+//   int row = table.append(42, null, true, "a", 1, 2.0, false, 'x');
+//   table.aInteger.isSet(row); table.aInteger.getOrElse(row, -1); table.aDouble.getBoxed(row); // null
+//   table.aInteger.sum(table.size(), table.aBoolean.trueRows()); // sum of aInteger where aBoolean == true
+// note: not thread-safe, append() from one thread (or synchronize), the columns can be read from several threads once
+//   the appends are done (and published)
+public final class MemberDefaultValueTable {
+
+    public final IntColumn aInteger;
+    public final DoubleColumn aDouble;
+    public final BooleanColumn aBoolean;
+    public final StringColumn aString;
+
+    // the primitive fields are never unset: their columns are always set (1 bit per row for i / d)
+    public final IntColumn i;
+    public final DoubleColumn d;
+    public final BooleanColumn b;
+    public final CharColumn c;
+
+    private int size;
+
+    public MemberDefaultValueTable(int capacity) {
+        aInteger = new IntColumn(capacity);
+        aDouble = new DoubleColumn(capacity);
+        aBoolean = new BooleanColumn(capacity);
+        aString = new StringColumn(capacity);
+        i = new IntColumn(capacity);
+        d = new DoubleColumn(capacity);
+        b = new BooleanColumn(capacity);
+        c = new CharColumn(capacity);
+    }
+
+    public int append(Integer aInteger, Double aDouble, Boolean aBoolean, String aString, int i, double d, boolean b,
+                      char c) {
+        int row = size;
+        ensureCapacity(row + 1);
+        this.aInteger.setBoxed(row, aInteger);
+        this.aDouble.setBoxed(row, aDouble);
+        this.aBoolean.setBoxed(row, aBoolean);
+        this.aString.set(row, aString);
+        this.i.set(row, i);
+        this.d.set(row, d);
+        this.b.set(row, b);
+        this.c.set(row, c);
+        size++;
+        return row;
+    }
+
+    private void ensureCapacity(int rows) {
+        aInteger.ensureCapacity(rows);
+        aDouble.ensureCapacity(rows);
+        aBoolean.ensureCapacity(rows);
+        aString.ensureCapacity(rows);
+        i.ensureCapacity(rows);
+        d.ensureCapacity(rows);
+        b.ensureCapacity(rows);
+        c.ensureCapacity(rows);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // the (approximate) bytes of the arrays of the columns
+    public long memoryBytes() {
+        return aInteger.memoryBytes() + aDouble.memoryBytes() + aBoolean.memoryBytes() + aString.memoryBytes()
+            + i.memoryBytes() + d.memoryBytes() + b.memoryBytes() + c.memoryBytes();
+    }
+}
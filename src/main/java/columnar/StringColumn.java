@@ -0,0 +1,76 @@
+package columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// a nullable String column, dictionary-encoded: each distinct string is stored once, the rows hold its code in an
+// int[] (-1 = null)
+//   the String fields of the records are usually few distinct values (a status, a country, ...): with a dictionary the
+//   column is 4 bytes per row, and a filter tests each distinct string once, not once per row
+public final class StringColumn {
+
+    private static final int NULL = -1;
+
+    private int[] codes;
+    private String[] dictionary = new String[16];
+    private int dictionarySize;
+    private final Map<String, Integer> codeOf = new HashMap<>();
+
+    public StringColumn(int capacity) {
+        this.codes = new int[capacity];
+        Arrays.fill(codes, NULL);
+    }
+
+    void ensureCapacity(int rows) {
+        if (rows > codes.length) {
+            int old = codes.length;
+            codes = Arrays.copyOf(codes, Math.max(rows, codes.length * 2));
+            Arrays.fill(codes, old, codes.length, NULL);
+        }
+    }
+
+    public boolean isSet(int row) {
+        return codes[row] != NULL;
+    }
+
+    public String get(int row) {
+        int code = codes[row];
+        return code == NULL ? null : dictionary[code];
+    }
+
+    public void set(int row, String value) {
+        codes[row] = value == null ? NULL : code(value);
+    }
+
+    private int code(String value) {
+        Integer code = codeOf.get(value);
+        if (code != null) return code;
+        if (dictionarySize == dictionary.length) dictionary = Arrays.copyOf(dictionary, dictionarySize * 2);
+        dictionary[dictionarySize] = value;
+        codeOf.put(value, dictionarySize);
+        return dictionarySize++;
+    }
+
+    public int distinct() {
+        return dictionarySize;
+    }
+
+    // the rows whose value is set and matches the predicate: the predicate runs once per distinct value
+    public Bitmap filter(int rows, Predicate<String> predicate) {
+        boolean[] matches = new boolean[dictionarySize];
+        for (int code = 0; code < dictionarySize; code++) matches[code] = predicate.test(dictionary[code]);
+        Bitmap result = new Bitmap(rows);
+        for (int i = 0; i < rows; i++) {
+            int code = codes[i];
+            if (code != NULL && matches[code]) result.set(i);
+        }
+        return result;
+    }
+
+    // the memory of the codes and of the dictionary array (the strings themselves are shared with the callers)
+    public long memoryBytes() {
+        return 16L + 4L * codes.length + 16L + 4L * dictionary.length;
+    }
+}
@@ -0,0 +1,26 @@
+package concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// a lock-free CAS counter (AtomicLong)
+//   sequence-exact, no thread is ever blocked, but every increment still contends on the same cache line
+//   i.e. a good fit for few writers or when unique sequence numbers are needed
+public class AtomicCounter implements Counter.Sequence {
+
+    private final AtomicLong value = new AtomicLong();
+
+    @Override
+    public long getAndIncrement() {
+        return value.getAndIncrement();
+    }
+
+    @Override
+    public void add(long delta) {
+        value.addAndGet(delta);
+    }
+
+    @Override
+    public long sum() {
+        return value.get();
+    }
+}
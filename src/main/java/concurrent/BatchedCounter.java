@@ -0,0 +1,62 @@
+package concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// a per-thread batched counter
+//   each thread counts in its own (thread-confined) batch, without any atomic instruction, and flushes the batch
+//   into the shared counter once it holds `batchSize` increments, or once `flushInterval` has elapsed since its last flush
+//   eventually-summed: sum() only includes the flushed batches, so it lags behind by at most
+//   (number of threads) x batchSize increments, or the increments of the last flushInterval
+//   a thread should call flush() when it stops counting, otherwise its last batch is never added to the sum
+public class BatchedCounter implements Counter {
+
+    private static final class Batch {
+        long pending;
+        int operations;
+        long lastFlushNanos = System.nanoTime();
+    }
+
+    private final LongAdder flushed = new LongAdder();
+    private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+    private final int batchSize;
+    private final long flushIntervalNanos;
+
+    public BatchedCounter(int batchSize, long flushInterval, TimeUnit unit) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+    }
+
+    public BatchedCounter() {
+        this(1024, 100, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void add(long delta) {
+        Batch batch = batches.get();
+        batch.pending += delta;
+        // the clock is only read every 64 operations, so a batch may be flushed slightly after flushInterval
+        if (++batch.operations >= batchSize ||
+            ((batch.operations & 63) == 0 && System.nanoTime() - batch.lastFlushNanos >= flushIntervalNanos)) {
+            flush(batch);
+        }
+    }
+
+    // flush the batch of the calling thread
+    public void flush() {
+        flush(batches.get());
+    }
+
+    private void flush(Batch batch) {
+        if (batch.pending != 0) flushed.add(batch.pending);
+        batch.pending = 0;
+        batch.operations = 0;
+        batch.lastFlushNanos = System.nanoTime();
+    }
+
+    @Override
+    public long sum() {
+        return flushed.sum();
+    }
+}
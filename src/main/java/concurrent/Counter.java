@@ -0,0 +1,24 @@
+package concurrent;
+
+// a counter of events that is incremented from many threads
+//   the implementations trade exactness for contention (see CounterStrategy):
+//   1) sequence-exact: getAndIncrement() hands out unique, gap-free sequence numbers (like JavaThread.SharedSync)
+//      every increment is a read-modify-write of a single memory location, so all threads contend on one cache line
+//   2) exact at quiescence: sum() is exact once the writers stop, but it is not an atomic snapshot while they run
+//   3) eventually-summed: increments are batched per thread, so sum() lags behind until the batches are flushed
+public interface Counter {
+
+    void add(long delta);
+
+    default void increment() {
+        add(1L);
+    }
+
+    long sum();
+
+    // a counter that can also hand out unique sequence numbers (i.e. it is sequence-exact)
+    interface Sequence extends Counter {
+
+        long getAndIncrement();
+    }
+}
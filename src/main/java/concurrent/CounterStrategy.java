@@ -0,0 +1,31 @@
+package concurrent;
+
+// the pluggable strategies of a Counter, from the most exact to the least contended
+public enum CounterStrategy {
+    SYNCHRONIZED {
+        @Override
+        public Counter create() {
+            return new SynchronizedCounter();
+        }
+    },
+    ATOMIC {
+        @Override
+        public Counter create() {
+            return new AtomicCounter();
+        }
+    },
+    STRIPED {
+        @Override
+        public Counter create() {
+            return new StripedCounter();
+        }
+    },
+    BATCHED {
+        @Override
+        public Counter create() {
+            return new BatchedCounter();
+        }
+    };
+
+    public abstract Counter create();
+}
@@ -0,0 +1,23 @@
+package concurrent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// a striped counter (LongAdder)
+//   a contended increment is moved to one of several cells (padded to separate cache lines), so the threads
+//   mostly update different cells, and sum() adds up all the cells
+//   exact at quiescence, but there is no getAndIncrement(): sum() is not an atomic snapshot while writers are running
+//   a good fit for statistics counted from many threads, which are read much less often than written
+public class StripedCounter implements Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    @Override
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    @Override
+    public long sum() {
+        return value.sum();
+    }
+}
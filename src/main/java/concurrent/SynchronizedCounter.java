@@ -0,0 +1,23 @@
+package concurrent;
+
+// the JavaThread.SharedSync counter: a monitor lock on every increment
+//   sequence-exact, but the threads are serialized on the monitor (and inflate it to a heavyweight lock under contention)
+public class SynchronizedCounter implements Counter.Sequence {
+
+    private long value;
+
+    @Override
+    public synchronized long getAndIncrement() {
+        return value++;
+    }
+
+    @Override
+    public synchronized void add(long delta) {
+        value += delta;
+    }
+
+    @Override
+    public synchronized long sum() {
+        return value;
+    }
+}
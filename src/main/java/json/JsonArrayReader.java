@@ -0,0 +1,331 @@
+package json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import reactive.OrderedParallel;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+// streaming ingestion of a JSON array: each element of a top-level [...] is emitted as a T by a backpressured Flux,
+// instead of mapper.readTree(file) / mapper.readValue(file, List[T]) which hold the whole document in the heap
+//   JsonArrayReader<Record> reader = JsonArrayReader.builder(mapper, Record.class).build();
+//   Flux<Record> records = reader.read(path);                          // or read(() -> inputStream)
+// sequential (parallelism 1): the JsonParser reads the stream token by token, and the ObjectReader binds one element
+//   at a time from the parser (Flux.generate: an element is read only when it is requested)
+// parallel (parallelism n): the reader thread only tokenizes, with the non-blocking parser fed with chunkSize chunks,
+//   to find where each element ends, and emits the raw bytes of each element (a slice); the slices are bound to T on
+//   n rails (OrderedParallel.map: in the source order)
+//   tokenizing is cheaper than data binding, so the reader keeps up with several binding threads
+// bounded read-ahead: the reader runs on readScheduler (blocking I/O) and stays at most readAhead elements (or
+//   slices) ahead of the consumer (publishOn(scheduler, readAhead)), the heap holds the elements in flight, not the
+//   document; OrderedParallel adds its own bounded prefetch of batches per rail
+// the null elements are skipped (a Flux cannot emit null)
+// the stream is opened on subscription and closed on completion, error or cancellation; a document that is not an
+// array, or is truncated, fails the Flux with a JsonParseException (after the elements before the error)
+public final class JsonArrayReader<T> {
+
+    public static final int DEFAULT_READ_AHEAD = 1024;
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final ObjectMapper mapper;
+    private final ObjectReader reader;
+    private final int readAhead;
+    private final int parallelism;
+    private final int batchSize;
+    private final int chunkSize;
+    private final Scheduler readScheduler;
+    private final Scheduler scheduler;
+
+    private JsonArrayReader(Builder<T> builder) {
+        this.mapper = builder.mapper;
+        this.reader = builder.mapper.readerFor(builder.type);
+        this.readAhead = builder.readAhead;
+        this.parallelism = builder.parallelism;
+        this.batchSize = builder.batchSize;
+        this.chunkSize = builder.chunkSize;
+        this.readScheduler = builder.readScheduler;
+        this.scheduler = builder.scheduler;
+    }
+
+    public static <T> Builder<T> builder(ObjectMapper mapper, Class<T> type) {
+        return new Builder<>(mapper, mapper.constructType(type));
+    }
+
+    public static <T> Builder<T> builder(ObjectMapper mapper, JavaType type) {
+        return new Builder<>(mapper, type);
+    }
+
+    public Flux<T> read(Path path) {
+        return read(() -> Files.newInputStream(path));
+    }
+
+    public Flux<T> read(Callable<InputStream> input) {
+        if (parallelism == 1) {
+            return Flux.<T, ElementParser>generate(() -> new ElementParser(input.call()), ElementParser::next,
+                    ElementParser::close)
+                .subscribeOn(readScheduler)
+                .publishOn(scheduler, readAhead);
+        }
+        return Flux.<byte[], ElementSlicer>generate(() -> new ElementSlicer(input.call()), ElementSlicer::next,
+                ElementSlicer::close)
+            .subscribeOn(readScheduler)
+            .publishOn(scheduler, readAhead)
+            .transform(OrderedParallel.map(this::bind, parallelism, batchSize, scheduler));
+    }
+
+    private T bind(byte[] slice) {
+        try {
+            return reader.readValue(slice);
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    public int parallelism() {
+        return parallelism;
+    }
+
+    // the elements bound one at a time from a blocking parser
+    private final class ElementParser {
+
+        private final JsonParser parser;
+        private boolean started;
+
+        ElementParser(InputStream input) throws IOException {
+            this.parser = mapper.getFactory().createParser(input);
+        }
+
+        ElementParser next(SynchronousSink<T> sink) {
+            try {
+                if (!started) {
+                    started = true;
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        throw new JsonParseException(parser, "expected a JSON array, got " + parser.currentToken());
+                    }
+                }
+                for (;;) {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.END_ARRAY) {
+                        sink.complete();
+                        break;
+                    } else if (token == null) {
+                        throw new JsonParseException(parser, "unexpected end of input in the JSON array");
+                    }
+                    T element = reader.readValue(parser);
+                    if (element != null) {
+                        sink.next(element);
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+            return this;
+        }
+
+        void close() {
+            try {
+                parser.close(); // closes the input (AUTO_CLOSE_SOURCE)
+            } catch (IOException ignored) {
+                // the Flux is already terminated
+            }
+        }
+    }
+
+    // the raw bytes of each element, found with the non-blocking parser: the parser is fed chunk by chunk, and an
+    // element ends at the parser's current offset after its last token (its scalar, or its closing bracket at depth 0)
+    // the token start offsets of the non-blocking parser are not exact, so a slice starts where the previous element
+    // ended, and its leading separator (whitespace and the comma) is skipped
+    private final class ElementSlicer {
+
+        private final InputStream input;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final byte[] chunk = new byte[chunkSize];
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream(); // the slice bytes of past chunks
+        private int chunkLength;
+        private long chunkStart;        // the offset of chunk[0] in the stream
+        private long sliceStart;        // the end of the previous element (or of the '[')
+        private boolean started;
+        private int depth;              // of the current element (0: between elements)
+
+        ElementSlicer(InputStream input) throws IOException {
+            this.input = input;
+            this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        ElementSlicer next(SynchronousSink<byte[]> sink) {
+            try {
+                for (;;) {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.NOT_AVAILABLE) {
+                        feed();
+                        continue;
+                    }
+                    if (token == null) {
+                        throw new JsonParseException(parser, "unexpected end of input in the JSON array");
+                    }
+                    if (!started) {
+                        if (token != JsonToken.START_ARRAY) {
+                            throw new JsonParseException(parser, "expected a JSON array, got " + token);
+                        }
+                        started = true;
+                        sliceStart = parser.getCurrentLocation().getByteOffset();
+                        continue;
+                    }
+                    if (token.isStructStart()) {
+                        depth++;
+                    } else if (token.isStructEnd()) {
+                        if (depth == 0) { // the ']' of the array
+                            sink.complete();
+                            return this;
+                        }
+                        depth--;
+                    }
+                    if (depth == 0 && token == JsonToken.VALUE_NULL) {
+                        slice(parser.getCurrentLocation().getByteOffset()); // skipped
+                    } else if (depth == 0 && token != JsonToken.FIELD_NAME) {
+                        sink.next(slice(parser.getCurrentLocation().getByteOffset()));
+                        return this;
+                    }
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+            return this;
+        }
+
+        // the parser consumed the chunk: keep the bytes of the current slice, and read the next chunk
+        private void feed() throws IOException {
+            int from = (int) (sliceStart - chunkStart);
+            if (from < chunkLength) {
+                pending.write(chunk, Math.max(from, 0), chunkLength - Math.max(from, 0));
+            }
+            chunkStart += chunkLength;
+            chunkLength = 0;
+            int read = input.read(chunk);
+            if (read < 0) {
+                feeder.endOfInput();
+            } else {
+                chunkLength = read;
+                feeder.feedInput(chunk, 0, read);
+            }
+        }
+
+        private byte[] slice(long end) {
+            int from = Math.max((int) (sliceStart - chunkStart), 0);
+            int to = (int) (end - chunkStart);
+            byte[] slice;
+            if (pending.size() == 0) {
+                from = skipSeparator(chunk, from, to);
+                slice = Arrays.copyOfRange(chunk, from, to);
+            } else {
+                pending.write(chunk, from, to - from);
+                byte[] bytes = pending.toByteArray();
+                pending.reset();
+                int skip = skipSeparator(bytes, 0, bytes.length);
+                slice = skip == 0 ? bytes : Arrays.copyOfRange(bytes, skip, bytes.length);
+            }
+            sliceStart = end;
+            return slice;
+        }
+
+        void close() {
+            try {
+                parser.close();
+                input.close();
+            } catch (IOException ignored) {
+                // the Flux is already terminated
+            }
+        }
+    }
+
+    private static int skipSeparator(byte[] bytes, int from, int to) {
+        while (from < to) {
+            byte b = bytes[from];
+            if (b != ',' && b != ' ' && b != '\n' && b != '\r' && b != '\t') break;
+            from++;
+        }
+        return from;
+    }
+
+    public static final class Builder<T> {
+
+        private final ObjectMapper mapper;
+        private final JavaType type;
+        private int readAhead = DEFAULT_READ_AHEAD;
+        private int parallelism = 1;
+        private int batchSize = OrderedParallel.DEFAULT_BATCH_SIZE;
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private Scheduler readScheduler = Schedulers.boundedElastic();
+        private Scheduler scheduler = Schedulers.parallel();
+
+        private Builder(ObjectMapper mapper, JavaType type) {
+            this.mapper = mapper;
+            this.type = type;
+        }
+
+        // the elements read ahead of the consumer (the slices ahead of the binding rails with parallelism > 1)
+        public Builder<T> readAhead(int readAhead) {
+            if (readAhead <= 0) throw new IllegalArgumentException("readAhead must be > 0");
+            this.readAhead = readAhead;
+            return this;
+        }
+
+        // the rails binding the element slices, 1: the elements are bound by the reader thread from its parser
+        public Builder<T> parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        // the slices bound by one task of a rail (see OrderedParallel)
+        public Builder<T> batchSize(int batchSize) {
+            if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        // the bytes read from the stream at a time with parallelism > 1
+        public Builder<T> chunkSize(int chunkSize) {
+            if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be > 0");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        // the scheduler of the (blocking) reads
+        public Builder<T> readScheduler(Scheduler readScheduler) {
+            this.readScheduler = readScheduler;
+            return this;
+        }
+
+        // the scheduler the elements are emitted on, and the slices bound on
+        public Builder<T> scheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public JsonArrayReader<T> build() {
+            return new JsonArrayReader<>(this);
+        }
+    }
+}
+// ref:
+//   https://github.com/FasterXML/jackson-core/wiki/Async-parsing (the non-blocking parser)
@@ -0,0 +1,89 @@
+package primitive;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+// an allocation-free Optional<Integer>: a "maybe int" packed in a long
+//   Optional.of(number) boxes the int (Integer.valueOf only caches -128..127) and allocates the Optional,
+//   OptionalInt.of(number) still allocates the OptionalInt (only OptionalInt.empty() is a singleton)
+//   a long can hold every int plus one more value: EMPTY (Long.MIN_VALUE) is outside the int range, so a maybe int is
+//   a plain long on the stack, in a register, or in a long[] / LongStream, and nothing is allocated
+// the same semantics as Optional: of / empty / isPresent / get / orElse / map / filter, as static methods on the long
+//   long maybe = IntMaybe.of(2);
+//   IntMaybe.orElse(IntMaybe.filter(IntMaybe.map(maybe, x -> x * 10), x -> x > 5), 100); // 20
+// note: the maybe is a long, so the compiler does not stop a plain long from being passed as a maybe: keep the maybe
+//   values in local variables / methods named as such, and convert at the API boundary with toOptionalInt()
+public final class IntMaybe {
+
+    public static final long EMPTY = Long.MIN_VALUE;
+
+    private IntMaybe() {
+    }
+
+    // a function returning a maybe int, ex. the primitive version of JavaOptional.optionalMethod
+    @FunctionalInterface
+    public interface IntToMaybeFunction {
+        long apply(int value);
+    }
+
+    public static long of(int value) {
+        return value;
+    }
+
+    public static long empty() {
+        return EMPTY;
+    }
+
+    public static boolean isPresent(long maybe) {
+        return maybe != EMPTY;
+    }
+
+    public static boolean isEmpty(long maybe) {
+        return maybe == EMPTY;
+    }
+
+    public static int get(long maybe) {
+        if (maybe == EMPTY) throw new NoSuchElementException("No value present");
+        return (int) maybe;
+    }
+
+    public static int orElse(long maybe, int other) {
+        return maybe == EMPTY ? other : (int) maybe;
+    }
+
+    public static long map(long maybe, IntUnaryOperator mapper) {
+        return maybe == EMPTY ? EMPTY : mapper.applyAsInt((int) maybe);
+    }
+
+    public static long flatMap(long maybe, IntToMaybeFunction mapper) {
+        return maybe == EMPTY ? EMPTY : mapper.apply((int) maybe);
+    }
+
+    public static long filter(long maybe, IntPredicate predicate) {
+        return maybe != EMPTY && predicate.test((int) maybe) ? maybe : EMPTY;
+    }
+
+    public static OptionalInt toOptionalInt(long maybe) {
+        return maybe == EMPTY ? OptionalInt.empty() : OptionalInt.of((int) maybe);
+    }
+
+    public static long fromOptionalInt(OptionalInt optional) {
+        return optional.isPresent() ? optional.getAsInt() : EMPTY;
+    }
+
+    public static String toString(long maybe) {
+        return maybe == EMPTY ? "IntMaybe.empty" : "IntMaybe[" + maybe + "]";
+    }
+
+    // map() -> filter(isPresent) -> findFirst() -> orElse() over an int[] (JavaOptional 3), as a plain loop:
+    // stops at the first present value, allocates nothing
+    public static int firstPresent(int[] values, IntToMaybeFunction mapper, int other) {
+        for (int value : values) {
+            long maybe = mapper.apply(value);
+            if (maybe != EMPTY) return (int) maybe;
+        }
+        return other;
+    }
+}
@@ -0,0 +1,51 @@
+package reactive;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+// the Scheduler used to offload blocking calls, selectable per pipeline:
+//   Mono.fromCallable(() -> blockingCall.apply(input)).subscribeOn(BlockingSchedulerMode.VIRTUAL_THREAD.scheduler())
+// or for all the pipelines that use BlockingSchedulerMode.configured(), with a system property:
+//   -Dreactive.blocking.scheduler=VIRTUAL_THREAD
+public enum BlockingSchedulerMode {
+    // Schedulers.boundedElastic(): at most 10 x cores threads, the other tasks are queued
+    BOUNDED_ELASTIC {
+        @Override
+        public Scheduler scheduler() {
+            return Schedulers.boundedElastic();
+        }
+    },
+    // one virtual thread per task (JDK 21+): an UnsupportedOperationException on an older JDK (configured() falls
+    // back to BOUNDED_ELASTIC instead)
+    //   no delayed or periodic tasks: schedule(task, delay) and schedulePeriodically() are rejected (a
+    //   RejectedExecutionException), so the time-based operators (ex. delayElements, timeout) keep their own Scheduler
+    VIRTUAL_THREAD {
+        @Override
+        public Scheduler scheduler() {
+            // checked before the holder is initialized: a failed initialization would leave a NoClassDefFoundError
+            if (!VirtualThreadSchedulers.isSupported()) {
+                throw new UnsupportedOperationException("virtual threads are not supported by JDK "
+                    + System.getProperty("java.version") + ", use BOUNDED_ELASTIC");
+            }
+            return VirtualThreadHolder.SCHEDULER;
+        }
+    };
+
+    public static final String PROPERTY = "reactive.blocking.scheduler";
+
+    // the shared Scheduler of this mode (like Schedulers.boundedElastic(), it must not be disposed)
+    public abstract Scheduler scheduler();
+
+    // the mode configured by the reactive.blocking.scheduler system property, BOUNDED_ELASTIC by default
+    //   VIRTUAL_THREAD falls back to BOUNDED_ELASTIC if the JDK does not support virtual threads
+    public static BlockingSchedulerMode configured() {
+        BlockingSchedulerMode mode = valueOf(System.getProperty(PROPERTY, BOUNDED_ELASTIC.name()));
+        if (mode == VIRTUAL_THREAD && !VirtualThreadSchedulers.isSupported()) return BOUNDED_ELASTIC;
+        return mode;
+    }
+
+    // the shared virtual-thread Scheduler is only created on first use (initialization-on-demand holder)
+    private static final class VirtualThreadHolder {
+        static final Scheduler SCHEDULER = VirtualThreadSchedulers.newVirtualThreadPerTask("virtual");
+    }
+}
@@ -0,0 +1,148 @@
+package reactive;
+
+import reactive.metrics.LatencyHistogram;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// hedged requests: cut the tail latency of idempotent calls (ex. the blockingCall of JavaReactor 3.1-3.4)
+//   if the primary call has not completed after the hedge delay (a percentile of the recent latencies, ex. the p95),
+//   a backup call is started on the hedge scheduler, the first result wins and the other call is cancelled
+//   both calls are subscribed on the hedge scheduler, so a blocking call (ex. Mono.fromCallable(blockingCall)) can
+//   be hedged too: the scheduler must then allow blocking (boundedElastic, the default)
+//   i.e. a call is only slow if both the primary and the backup are slow
+// budget: at most maxHedgeRatio extra calls (ex. 0.05 = 5% extra load), so that hedging cannot double the load
+//   on a dependency that is slow because it is overloaded (each call earns maxHedgeRatio of a hedge, up to maxBurst)
+// recent latencies: the latencies of the hedged calls are recorded in a histogram, which is rotated every
+//   `window` calls: the hedge delay is the percentile of the previous window (minDelay until the first window is full)
+// note: only for idempotent calls, as both calls may reach the dependency
+//   an error of the primary call is propagated (the backup is cancelled), an error of the backup call is ignored
+// ref: The Tail at Scale, Jeffrey Dean & Luiz André Barroso (https://research.google/pubs/pub40801/)
+public class Hedger {
+
+    private static final long BUDGET_UNIT = 1_000_000L; // the budget is counted in millionths of a hedge
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long budgetPerCall;
+    private final long maxBudget;
+    private final int window;
+    private final Scheduler scheduler;
+
+    private final AtomicReference<LatencyHistogram> current = new AtomicReference<>(new LatencyHistogram());
+    private final AtomicLong samples = new AtomicLong();
+    private volatile long delayNanos;
+    private final AtomicLong budget = new AtomicLong();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedgesFired = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesDenied = new AtomicLong();
+
+    public Hedger(double percentile, Duration minDelay, double maxHedgeRatio, int maxBurst, int window, Scheduler scheduler) {
+        if (percentile <= 0 || percentile >= 1) throw new IllegalArgumentException("percentile must be in (0, 1)");
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.budgetPerCall = (long) (maxHedgeRatio * BUDGET_UNIT);
+        this.maxBudget = maxBurst * BUDGET_UNIT;
+        this.window = window;
+        this.scheduler = scheduler;
+        this.delayNanos = minDelayNanos;
+    }
+
+    // hedge at the p95, with at most 5% extra calls, on Schedulers.boundedElastic()
+    public Hedger(Duration minDelay) {
+        this(0.95, minDelay, 0.05, 10, 1000, Schedulers.boundedElastic());
+    }
+
+    // the call must return a new (cold) Mono each time it is invoked
+    public <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            calls.incrementAndGet();
+            earnBudget();
+            long start = System.nanoTime();
+            // on the scheduler, not the caller's thread: firstWithSignal subscribes the primary first, and a blocking
+            // (or synchronous) call would complete before the backup's delay is even started, so it would never fire
+            Mono<Result<T>> primary = Mono.defer(call)
+                .subscribeOn(scheduler)
+                .map(value -> new Result<>(value, false));
+            Mono<Result<T>> backup = Mono.delay(Duration.ofNanos(delayNanos), scheduler)
+                .flatMap(tick -> {
+                    if (!spendBudget()) {
+                        hedgesDenied.incrementAndGet();
+                        return Mono.never();
+                    }
+                    hedgesFired.incrementAndGet();
+                    return Mono.defer(call)
+                        .subscribeOn(scheduler)
+                        .map(value -> new Result<>(value, true))
+                        .onErrorResume(e -> Mono.never()); // the primary call decides on errors
+                });
+            return Mono.firstWithSignal(primary, backup)
+                .map(result -> {
+                    if (result.hedge) hedgesWon.incrementAndGet();
+                    record(System.nanoTime() - start);
+                    return result.value;
+                });
+        });
+    }
+
+    private void earnBudget() {
+        budget.accumulateAndGet(budgetPerCall, (b, x) -> Math.min(maxBudget, b + x));
+    }
+
+    private boolean spendBudget() {
+        while (true) {
+            long b = budget.get();
+            if (b < BUDGET_UNIT) return false;
+            if (budget.compareAndSet(b, b - BUDGET_UNIT)) return true;
+        }
+    }
+
+    private void record(long latencyNanos) {
+        current.get().record(latencyNanos);
+        if (samples.incrementAndGet() % window == 0) {
+            LatencyHistogram previous = current.getAndSet(new LatencyHistogram());
+            delayNanos = Math.max(minDelayNanos, previous.snapshot().percentile(percentile));
+        }
+    }
+
+    // the current delay after which a backup call is started
+    public Duration hedgeDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    // backup calls started
+    public long hedgesFired() {
+        return hedgesFired.get();
+    }
+
+    // backup calls that completed before their primary call
+    public long hedgesWon() {
+        return hedgesWon.get();
+    }
+
+    // backup calls not started because the budget was spent
+    public long hedgesDenied() {
+        return hedgesDenied.get();
+    }
+
+    private static final class Result<T> {
+        final T value;
+        final boolean hedge;
+
+        Result(T value, boolean hedge) {
+            this.value = value;
+            this.hedge = hedge;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package reactive;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// an adaptive micro-batching stage: per-element calls are grouped into calls of a user-supplied batch function
+//   JavaReactor 0.9 (and apply(String)) makes one downstream call per element, this stage makes one call per batch:
+//   MicroBatcher<String, String> batcher = MicroBatcher.builder(batchFunction).build();
+//   Mono<String> result = batcher.submit("A");                       // one element
+//   Flux<String> results = flux.transform(batcher::transform);       // a whole Flux, the order is kept
+// batching: (like bufferTimeout) a batch is sent when it holds batchSize elements, or maxWait after its first element
+//   the results are scattered back to the submitters in order: the i-th result completes the i-th submitted element
+//   the batch function must return exactly one result per element, in the same order
+// adaptive batch size: (multiplicative increase by 1/4 / decrease by 1/2) driven by the latency of the batch calls
+//   a batch that completes within targetLatency grows batchSize by 1/4 (at least 1), a slower batch halves it, and so
+//   does a failed batch, however fast (a batch function that fails fast must not make the batches grow)
+//   i.e. the batches grow as long as the downstream amortizes the per-call cost, and shrink when it saturates
+// note: an element whose Mono is cancelled is still sent with its batch (its result is dropped)
+public class MicroBatcher<T, R> implements Disposable {
+
+    private final Function<List<T>, Mono<List<R>>> batchFunction;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final long targetLatencyNanos;
+    private final Scheduler timer;
+
+    // guarded by this
+    private List<T> elements;
+    private List<MonoSink<R>> sinks;
+    private Disposable flushTimer;
+    private boolean disposed;
+
+    private volatile int batchSize;
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong lastBatchLatencyNanos = new AtomicLong();
+
+    private MicroBatcher(Builder<T, R> builder) {
+        this.batchFunction = builder.batchFunction;
+        this.minBatchSize = builder.minBatchSize;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxWait = builder.maxWait;
+        this.targetLatencyNanos = builder.targetLatency.toNanos();
+        this.timer = builder.timer;
+        this.batchSize = builder.minBatchSize;
+        this.elements = new ArrayList<>(batchSize);
+        this.sinks = new ArrayList<>(batchSize);
+    }
+
+    public static <T, R> Builder<T, R> builder(Function<List<T>, Mono<List<R>>> batchFunction) {
+        return new Builder<>(batchFunction);
+    }
+
+    // the result of one element, computed by the batch it is grouped into
+    public Mono<R> submit(T element) {
+        return Mono.create(sink -> enqueue(element, sink));
+    }
+
+    // the results of all the elements, in the order of the elements
+    //   at most maxBatchSize elements are in flight, so that a full batch can always be formed
+    public Flux<R> transform(Flux<T> elements) {
+        return elements.flatMapSequential(this::submit, maxBatchSize);
+    }
+
+    private void enqueue(T element, MonoSink<R> sink) {
+        List<T> batchElements = null;
+        List<MonoSink<R>> batchSinks = null;
+        synchronized (this) {
+            if (disposed) {
+                sink.error(new IllegalStateException("MicroBatcher is disposed"));
+                return;
+            }
+            elements.add(element);
+            sinks.add(sink);
+            submitted.incrementAndGet();
+            if (elements.size() >= batchSize) {
+                batchElements = elements;
+                batchSinks = sinks;
+                reset();
+            } else if (elements.size() == 1) {
+                flushTimer = timer.schedule(this::flush, maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batchElements != null) call(batchElements, batchSinks);
+    }
+
+    // send the pending elements, even if the batch is not full
+    public void flush() {
+        List<T> batchElements;
+        List<MonoSink<R>> batchSinks;
+        synchronized (this) {
+            if (elements.isEmpty()) return;
+            batchElements = elements;
+            batchSinks = sinks;
+            reset();
+        }
+        call(batchElements, batchSinks);
+    }
+
+    // guarded by this
+    private void reset() {
+        if (flushTimer != null) flushTimer.dispose();
+        flushTimer = null;
+        elements = new ArrayList<>(batchSize);
+        sinks = new ArrayList<>(batchSize);
+    }
+
+    private void call(List<T> batchElements, List<MonoSink<R>> batchSinks) {
+        long start = System.nanoTime();
+        batches.incrementAndGet();
+        Mono.defer(() -> batchFunction.apply(batchElements))
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException("the batch function returned no results")))
+            .subscribe(results -> {
+                boolean failed = results.size() != batchSinks.size();
+                adapt(System.nanoTime() - start, failed);
+                if (failed) {
+                    failedBatches.incrementAndGet();
+                    IllegalStateException e = new IllegalStateException(
+                        "the batch function returned " + results.size() + " results for " + batchSinks.size() + " elements");
+                    batchSinks.forEach(sink -> sink.error(e));
+                    return;
+                }
+                for (int i = 0; i < results.size(); i++) {
+                    batchSinks.get(i).success(results.get(i));
+                }
+            }, error -> {
+                adapt(System.nanoTime() - start, true);
+                failedBatches.incrementAndGet();
+                batchSinks.forEach(sink -> sink.error(error));
+            });
+    }
+
+    private void adapt(long latencyNanos, boolean failed) {
+        lastBatchLatencyNanos.set(latencyNanos);
+        int size = batchSize;
+        int next = !failed && latencyNanos <= targetLatencyNanos ? size + Math.max(1, size / 4) : size / 2;
+        batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, next));
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    public long submitted() {
+        return submitted.get();
+    }
+
+    public long batches() {
+        return batches.get();
+    }
+
+    public long failedBatches() {
+        return failedBatches.get();
+    }
+
+    // the number of downstream calls saved compared to one call per element
+    public long callsSaved() {
+        return submitted.get() - batches.get();
+    }
+
+    public Duration lastBatchLatency() {
+        return Duration.ofNanos(lastBatchLatencyNanos.get());
+    }
+
+    // the pending elements are failed, the batches in flight still complete
+    @Override
+    public void dispose() {
+        List<MonoSink<R>> pending;
+        synchronized (this) {
+            disposed = true;
+            pending = sinks;
+            reset();
+        }
+        pending.forEach(sink -> sink.error(new IllegalStateException("MicroBatcher is disposed")));
+    }
+
+    @Override
+    public synchronized boolean isDisposed() {
+        return disposed;
+    }
+
+    public static final class Builder<T, R> {
+
+        private final Function<List<T>, Mono<List<R>>> batchFunction;
+        private int minBatchSize = 1;
+        private int maxBatchSize = 256;
+        private Duration maxWait = Duration.ofMillis(5);
+        private Duration targetLatency = Duration.ofMillis(50);
+        private Scheduler timer = Schedulers.parallel();
+
+        private Builder(Function<List<T>, Mono<List<R>>> batchFunction) {
+            this.batchFunction = batchFunction;
+        }
+
+        public Builder<T, R> minBatchSize(int minBatchSize) {
+            this.minBatchSize = minBatchSize;
+            return this;
+        }
+
+        public Builder<T, R> maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        // the max time the first element of a batch waits for the batch to fill up
+        public Builder<T, R> maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        // the batch latency up to which the batch size keeps growing
+        public Builder<T, R> targetLatency(Duration targetLatency) {
+            this.targetLatency = targetLatency;
+            return this;
+        }
+
+        // the scheduler of the maxWait timers
+        public Builder<T, R> timer(Scheduler timer) {
+            this.timer = timer;
+            return this;
+        }
+
+        public MicroBatcher<T, R> build() {
+            if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+                throw new IllegalArgumentException("invalid batch size range: [" + minBatchSize + ", " + maxBatchSize + "]");
+            }
+            return new MicroBatcher<>(this);
+        }
+    }
+}
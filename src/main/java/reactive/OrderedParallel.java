@@ -0,0 +1,104 @@
+package reactive;
+
+import org.reactivestreams.Publisher;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Function;
+
+// an order-preserving parallel map() for CPU-bound stages (ex. map(String::toUpperCase) in JavaReactor 0.4)
+//   flux.map(f) runs f on one thread, flux.flatMap(x -> Mono.fromCallable(() -> f(x)).subscribeOn(...)) runs it in
+//   parallel but emits in completion order, flatMapSequential keeps the order with one Mono (and one task) per element
+//   flux.transform(OrderedParallel.map(f)) runs f on parallel rails and emits the results in the source order
+// how: the elements are grouped in batches (one task handles a whole batch), each batch gets its index, the batches
+//   are spread over the rails with parallel().runOn(), and merged back in index order with ordered()
+//   parallel() hands out the batches in source order, so the indexes of each rail are increasing: ordered() is a
+//   merge of sorted rails, it emits the smallest head once every rail has a head (or is done)
+// bounded memory: the reorder buffer is the queue of each rail in ordered() (DEFAULT_PREFETCH batches per rail), when
+//   a rail is slow the queues of the other rails fill up, and the other rails wait for it (no unbounded buffering,
+//   unlike a reorder map keyed by index after sequential(), which the other rails can fill without limit)
+// rails: one per core by default; with workStealing() as the scheduler the rails are not pinned to a thread, an idle
+//   thread takes the next rail that has work, so more rails than threads (ex. 2 per core) smooth out slow batches
+// note: f must not block (use publishOn(Schedulers.boundedElastic()) for blocking calls), and an error in f cancels
+//   the whole flux, as with map()
+public final class OrderedParallel {
+
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final int DEFAULT_PREFETCH = 32;  // in batches
+
+    private static final Comparator<Batch<?>> BY_INDEX = Comparator.comparingLong(batch -> batch.index);
+
+    private OrderedParallel() {
+    }
+
+    // one rail per core, batches of DEFAULT_BATCH_SIZE, on Schedulers.parallel()
+    public static <T, R> Function<Flux<T>, Publisher<R>> map(Function<? super T, ? extends R> mapper) {
+        return map(mapper, defaultRails(), DEFAULT_BATCH_SIZE, Schedulers.parallel());
+    }
+
+    public static <T, R> Function<Flux<T>, Publisher<R>> map(Function<? super T, ? extends R> mapper, int rails,
+                                                             int batchSize, Scheduler scheduler) {
+        if (rails <= 0) throw new IllegalArgumentException("rails must be > 0");
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+        return flux -> flux
+            .buffer(batchSize)
+            .index()
+            .parallel(rails, DEFAULT_PREFETCH)
+            .runOn(scheduler, DEFAULT_PREFETCH)
+            .map(batch -> new Batch<R>(batch.getT1(), mapAll(batch.getT2(), mapper)))
+            .ordered(BY_INDEX, DEFAULT_PREFETCH)
+            .onErrorMap(OrderedParallel::distinct)
+            .concatMapIterable(batch -> batch.results);
+    }
+
+    public static int defaultRails() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    // a scheduler on a ForkJoinPool: the workers of runOn() submit their drain tasks to the pool, and the idle threads
+    // of the pool steal them (asyncMode: the tasks are taken in FIFO order, which suits event-style tasks)
+    public static Scheduler workStealing(String name, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName(name + "-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, true);
+        return Schedulers.fromExecutorService(pool, name);
+    }
+
+    private static <T, R> List<R> mapAll(List<T> batch, Function<? super T, ? extends R> mapper) {
+        List<R> results = new ArrayList<>(batch.size());
+        for (T element : batch) {
+            results.add(mapper.apply(element));
+        }
+        return results;
+    }
+
+    // an error of the source reaches every rail, and ordered() reports it once per rail in a CompositeException
+    private static Throwable distinct(Throwable error) {
+        List<Throwable> errors = Exceptions.unwrapMultiple(error);
+        for (Throwable other : errors) {
+            if (other != errors.get(0)) return error;
+        }
+        return errors.get(0);
+    }
+
+    static final class Batch<R> {
+
+        final long index;
+        final List<R> results;
+
+        Batch(long index, List<R> results) {
+            this.index = index;
+            this.results = results;
+        }
+    }
+}
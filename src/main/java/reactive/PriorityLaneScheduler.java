@@ -0,0 +1,409 @@
+package reactive;
+
+import reactive.metrics.LatencyHistogram;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.Exceptions;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// a scheduler whose threads are shared by two lanes, so that bulk work cannot delay the interactive work behind it
+// (in JavaReactor 0.7 and 0.8 the two Flux get the boundedElastic workers in turn, whatever their priority)
+//   PriorityLaneScheduler lanes = new PriorityLaneScheduler("lanes", 4, 8, 1, Duration.ofMillis(100));
+//   interactive.publishOn(lanes.lane(Lane.INTERACTIVE)) ... backfill.publishOn(lanes.lane(Lane.BULK))
+// weighted fairness: when both lanes have queued tasks, the threads run `weight` tasks of a lane before moving to
+//   the other one (weighted round-robin), ex. 8:1 = at most 1 bulk task between 8 interactive ones
+//   a weight of 0 is a strict priority: the lane only runs when the other lanes are empty
+// starvation guard: a task that has been queued for longer than starvationThreshold runs next, whatever its lane
+//   (Duration.ZERO disables it), ex. the bulk lane with weight 0 still progresses under a steady interactive load
+// metrics: the queue time (from schedule() to run) of each lane, and how often the guard promoted a starved task
+// note: a task runs until it returns: a bulk task that is already running is not preempted, so the interactive
+//   latency is at least the duration of the bulk tasks (keep them short, ex. one element per task with publishOn)
+//   the workers created by lane(...).createWorker() run their tasks one at a time and in order (as publishOn expects),
+//   each task takes one turn in the lane, so a worker with many tasks does not monopolize the threads
+public class PriorityLaneScheduler implements Disposable {
+
+    public enum Lane {
+        INTERACTIVE,
+        BULK
+    }
+
+    private static final Lane[] LANES = Lane.values();
+
+    private final String name;
+    private final int[] weights = new int[LANES.length];
+    private final long starvationNanos;
+    private final ScheduledExecutorService timer;
+    private final LaneScheduler[] lanes = new LaneScheduler[LANES.length];
+
+    // guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final ArrayDeque<LaneTask>[] queues;
+    private int current;
+    private int credit;
+    private boolean disposed;
+
+    private final LatencyHistogram[] queueTimes = new LatencyHistogram[LANES.length];
+    private final LongAdder[] executed = new LongAdder[LANES.length];
+    private final LongAdder[] promoted = new LongAdder[LANES.length];
+
+    @SuppressWarnings("unchecked")
+    public PriorityLaneScheduler(String name, int parallelism, int interactiveWeight, int bulkWeight,
+                                 Duration starvationThreshold) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+        if (interactiveWeight < 0 || bulkWeight < 0 || interactiveWeight + bulkWeight == 0) {
+            throw new IllegalArgumentException("the weights must be >= 0, and one of them > 0");
+        }
+        this.name = name;
+        this.weights[Lane.INTERACTIVE.ordinal()] = interactiveWeight;
+        this.weights[Lane.BULK.ordinal()] = bulkWeight;
+        this.starvationNanos = starvationThreshold.toNanos();
+        this.queues = new ArrayDeque[LANES.length];
+        for (Lane lane : LANES) {
+            queues[lane.ordinal()] = new ArrayDeque<>();
+            queueTimes[lane.ordinal()] = new LatencyHistogram();
+            executed[lane.ordinal()] = new LongAdder();
+            promoted[lane.ordinal()] = new LongAdder();
+            lanes[lane.ordinal()] = new LaneScheduler(lane);
+        }
+        this.credit = weights[0];
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + "-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < parallelism; i++) {
+            Thread thread = new Thread(this::runLoop, name + "-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    // interactive:bulk 8:1, starvation guard at 100 ms, one thread per core
+    public PriorityLaneScheduler(String name) {
+        this(name, Runtime.getRuntime().availableProcessors(), 8, 1, Duration.ofMillis(100));
+    }
+
+    // the Reactor scheduler of a lane
+    public Scheduler lane(Lane lane) {
+        return lanes[lane.ordinal()];
+    }
+
+    public LatencyHistogram.Snapshot queueTime(Lane lane) {
+        return queueTimes[lane.ordinal()].snapshot();
+    }
+
+    public long executed(Lane lane) {
+        return executed[lane.ordinal()].sum();
+    }
+
+    // the tasks of the lane that ran before their turn because they waited longer than the starvation threshold
+    public long promoted(Lane lane) {
+        return promoted[lane.ordinal()].sum();
+    }
+
+    public int queued(Lane lane) {
+        lock.lock();
+        try {
+            return queues[lane.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        lock.lock();
+        try {
+            disposed = true;
+            for (ArrayDeque<LaneTask> queue : queues) queue.clear();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        timer.shutdownNow();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        lock.lock();
+        try {
+            return disposed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PriorityLaneScheduler(" + name + ", interactive:bulk " + weights[0] + ":" + weights[1] + ")";
+    }
+
+    private Disposable submit(Lane lane, Runnable task) {
+        LaneTask laneTask = new LaneTask(lane, task);
+        enqueue(laneTask);
+        return laneTask;
+    }
+
+    // the task is queued in its lane when the delay has elapsed
+    private Disposable submit(Lane lane, Runnable task, long delay, TimeUnit unit) {
+        if (delay <= 0) return submit(lane, task);
+        LaneTask laneTask = new LaneTask(lane, task);
+        Future<?> timed = schedule(() -> enqueue(laneTask), delay, unit);
+        return Disposables.composite(laneTask, () -> timed.cancel(false));
+    }
+
+    private void enqueue(LaneTask task) {
+        lock.lock();
+        try {
+            if (disposed) throw Exceptions.failWithRejected();
+            task.queuedAt = System.nanoTime();
+            queues[task.lane.ordinal()].add(task);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        try {
+            return timer.schedule(task, delay, unit);
+        } catch (RejectedExecutionException e) {
+            throw Exceptions.failWithRejected(e);
+        }
+    }
+
+    // like the schedulers of reactor, an error thrown by a task goes to the uncaught exception handler of the thread
+    private static void handleError(Throwable e) {
+        Exceptions.throwIfJvmFatal(e);
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    private void runLoop() {
+        while (true) {
+            LaneTask task;
+            lock.lock();
+            try {
+                while ((task = next()) == null) {
+                    if (disposed) return;
+                    notEmpty.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+            task.run();
+        }
+    }
+
+    // guarded by lock: the starved task if any, otherwise the next task of the weighted round-robin, otherwise the
+    // next task of the lanes of weight 0 (in priority order)
+    private LaneTask next() {
+        if (starvationNanos > 0) {
+            long now = System.nanoTime();
+            for (Lane lane : LANES) {
+                LaneTask head = queues[lane.ordinal()].peek();
+                if (head != null && now - head.queuedAt > starvationNanos) {
+                    promoted[lane.ordinal()].increment();
+                    return queues[lane.ordinal()].poll();
+                }
+            }
+        }
+        for (int i = 0; i <= LANES.length; i++) {
+            if (credit > 0 && !queues[current].isEmpty()) {
+                credit--;
+                return queues[current].poll();
+            }
+            current = (current + 1) % LANES.length;
+            credit = weights[current];
+        }
+        for (ArrayDeque<LaneTask> queue : queues) {
+            if (!queue.isEmpty()) return queue.poll();
+        }
+        return null;
+    }
+
+    final class LaneTask implements Runnable, Disposable {
+
+        private final Lane lane;
+        private final Runnable task;
+        private long queuedAt;  // set by enqueue(), under the lock
+        private volatile boolean disposed;
+
+        LaneTask(Lane lane, Runnable task) {
+            this.lane = lane;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (disposed) return;
+            queueTimes[lane.ordinal()].record(System.nanoTime() - queuedAt);
+            executed[lane.ordinal()].increment();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                handleError(e);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    // the view of one lane, what publishOn / subscribeOn get
+    final class LaneScheduler implements Scheduler {
+
+        private final Lane lane;
+
+        LaneScheduler(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            return submit(lane, task);
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return submit(lane, task, delay, unit);
+        }
+
+        @Override
+        public Worker createWorker() {
+            return new LaneWorker(lane);
+        }
+
+        @Override
+        public void dispose() {
+            // the lanes are disposed with their PriorityLaneScheduler
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return PriorityLaneScheduler.this.isDisposed();
+        }
+
+        @Override
+        public String toString() {
+            return PriorityLaneScheduler.this + "." + lane;
+        }
+    }
+
+    // runs its tasks one at a time and in order: a task is queued in the lane when the previous one is done
+    final class LaneWorker implements Scheduler.Worker, Runnable {
+
+        private final Lane lane;
+        private final Queue<WorkerTask> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Disposable.Composite timed = Disposables.composite();
+        private volatile boolean disposed;
+
+        LaneWorker(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            if (disposed) throw Exceptions.failWithRejected();
+            WorkerTask workerTask = new WorkerTask(task);
+            enqueue(workerTask);
+            return workerTask;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            if (delay <= 0) return schedule(task);
+            if (disposed) throw Exceptions.failWithRejected();
+            WorkerTask workerTask = new WorkerTask(task);
+            Future<?> timed = PriorityLaneScheduler.this.schedule(() -> {
+                if (!disposed) enqueue(workerTask);
+            }, delay, unit);
+            Disposable disposable = Disposables.composite(workerTask, () -> timed.cancel(false));
+            this.timed.add(disposable);
+            return disposable;
+        }
+
+        private void enqueue(WorkerTask task) {
+            tasks.add(task);
+            if (wip.getAndIncrement() == 0) submit(lane, this);
+        }
+
+        // one task per turn in the lane
+        @Override
+        public void run() {
+            WorkerTask task = tasks.poll();
+            if (task != null && !disposed) task.run();
+            if (wip.decrementAndGet() != 0) {
+                if (disposed) {
+                    tasks.clear();
+                } else {
+                    submit(lane, this);
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            timed.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    static final class WorkerTask implements Runnable, Disposable {
+
+        private final Runnable task;
+        private volatile boolean disposed;
+
+        WorkerTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (disposed) return;
+            try {
+                task.run();
+            } catch (Throwable e) {
+                handleError(e);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
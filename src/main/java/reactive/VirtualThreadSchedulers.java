@@ -0,0 +1,85 @@
+package reactive;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+// a Reactor Scheduler backed by a virtual-thread-per-task ExecutorService (JDK 21+)
+//   Schedulers.boundedElastic() caps the number of threads at 10 x cores and queues the rest of the blocking tasks
+//   (up to 100000 tasks per thread), so under load the blocking calls wait in the queue and the p99 latency goes up
+//   a virtual thread is parked (i.e. unmounted from its carrier thread) while it blocks in Thread.sleep() or I/O
+//   so every blocking task can get its own thread, and the number of concurrent blocking calls is not capped
+// note:
+//   the project compiles against older JDKs, so the JDK 21 API (Thread.ofVirtual(), Executors.newThreadPerTaskExecutor())
+//   is looked up reflectively, and isSupported() returns false on a JDK without virtual threads
+//   virtual threads are pinned to their carrier thread while inside a synchronized block, so blocking in a monitor
+//   (ex. JavaThread.SharedSync) still occupies a carrier thread
+// ref: https://openjdk.org/jeps/444
+public final class VirtualThreadSchedulers {
+
+    private static final Method OF_VIRTUAL = method(Thread.class, "ofVirtual");
+    private static final Method BUILDER_NAME = method(builderClass(), "name", String.class, long.class);
+    private static final Method BUILDER_FACTORY = method(builderClass(), "factory");
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR =
+        method(java.util.concurrent.Executors.class, "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    private VirtualThreadSchedulers() {
+    }
+
+    // true if the running JDK supports virtual threads
+    public static boolean isSupported() {
+        if (OF_VIRTUAL == null || BUILDER_NAME == null || BUILDER_FACTORY == null || NEW_THREAD_PER_TASK_EXECUTOR == null) {
+            return false;
+        }
+        try {
+            OF_VIRTUAL.invoke(null);
+            return true;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return false; // ex. JDK 19/20 without --enable-preview
+        }
+    }
+
+    // a virtual-thread-per-task ExecutorService whose threads are named [name]-0, [name]-1, ...
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException(
+                "virtual threads are not supported by JDK " + System.getProperty("java.version"));
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-", 0L);
+            ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("cannot create a virtual thread executor", e);
+        }
+    }
+
+    // a new Scheduler that runs every task on a new virtual thread
+    //   the Scheduler owns the executor: Scheduler.dispose() shuts it down
+    //   Schedulers.fromExecutorService over an executor that is not a ScheduledExecutorService cannot run delayed or
+    //   periodic tasks: schedule(task, delay) and schedulePeriodically() throw a RejectedExecutionException
+    public static Scheduler newVirtualThreadPerTask(String name) {
+        return Schedulers.fromExecutorService(newVirtualThreadPerTaskExecutor(name), name);
+    }
+
+    private static Class<?> builderClass() {
+        try {
+            return Class.forName("java.lang.Thread$Builder");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Method method(Class<?> clazz, String name, Class<?>... parameterTypes) {
+        if (clazz == null) return null;
+        try {
+            return clazz.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package reactive.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import reactive.metrics.LatencyHistogram;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// an async loading cache in front of a Mono-returning call (ex. the blockingCall of JavaReactor 3.1, or a remote
+// lookup): a Caffeine AsyncLoadingCache of the in-flight or completed loads
+//   MonoCache<String, User> users = MonoCache.builder(userService::find)
+//       .maximumSize(10_000).expireAfterWrite(Duration.ofMinutes(5)).refreshAfterWrite(Duration.ofMinutes(4))
+//       .negativeTtl(Duration.ofSeconds(10)).build();
+//   Mono<User> user = users.get("alice");
+// coalescing: the cache holds the future of a load from the moment it starts, so the concurrent misses of a key
+//   share one load (one call of the loader) instead of starting N identical slow calls
+//   the shared load is not cancelled when a subscriber cancels: the other subscribers (and the cache) still need it
+// refresh-ahead: an entry read after refreshAfterWrite (and before expireAfterWrite) is returned as is, and reloaded
+//   in the background; a failed refresh keeps the old value until it expires (the failure is counted)
+// negative caching: a failed load is cached for negativeTtl (usually much shorter than expireAfterWrite), the gets
+//   fail with the same error without calling the loader again; without negativeTtl the errors are not cached
+// an empty Mono is not cached (the get is empty, and the next get loads again)
+// stats: the CacheStats of Caffeine (recordStats()) plus the coalesced gets (joined a load in flight), the refreshes
+//   (count, failures and latency) and the negative hits
+public final class MonoCache<K, V> {
+
+    private final Function<? super K, ? extends Mono<? extends V>> loader;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final Ticker ticker;
+    private final AsyncLoadingCache<K, Outcome<V>> cache;
+
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LatencyHistogram refreshLatency = new LatencyHistogram();
+
+    private MonoCache(Builder<K, V> builder) {
+        this.loader = builder.loader;
+        this.ttlNanos = builder.ttl.toNanos();
+        this.negativeTtlNanos = builder.negativeTtl.toNanos();
+        this.ticker = builder.ticker;
+        Caffeine<K, Outcome<V>> caffeine = Caffeine.newBuilder()
+            .maximumSize(builder.maximumSize)
+            .ticker(ticker)
+            .expireAfter(new OutcomeExpiry());
+        if (builder.refreshAfterWrite != null) {
+            caffeine.refreshAfterWrite(builder.refreshAfterWrite.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (builder.recordStats) caffeine.recordStats();
+        this.cache = caffeine.buildAsync(new OutcomeLoader());
+    }
+
+    public static <K, V> Builder<K, V> builder(Function<? super K, ? extends Mono<? extends V>> loader) {
+        return new Builder<>(loader);
+    }
+
+    public Mono<V> get(K key) {
+        return Mono.defer(() -> {
+            boolean[] started = new boolean[1];
+            CompletableFuture<Outcome<V>> future = cache.get(key, (k, executor) -> {
+                started[0] = true;
+                return load(k);
+            });
+            if (future.isDone()) {
+                if (future.isCompletedExceptionally()) {
+                    // a load that failed synchronously (not cached): its error as is, as when it fails asynchronously
+                    return Mono.fromFuture(future).flatMap(this::result);
+                }
+                Outcome<V> outcome = future.getNow(null);
+                return outcome == null ? Mono.empty() : result(outcome);
+            }
+            if (!started[0]) coalesced.increment();
+            // a dependent future: a cancelled subscriber cannot cancel the shared load
+            return Mono.fromFuture(future.thenApply(Function.identity())).flatMap(this::result);
+        });
+    }
+
+    private Mono<V> result(Outcome<V> outcome) {
+        if (outcome.error != null) {
+            negativeHits.increment();
+            return Mono.error(outcome.error);
+        }
+        return Mono.just(outcome.value);
+    }
+
+    private CompletableFuture<Outcome<V>> load(K key) {
+        Mono<Outcome<V>> load = Mono.defer(() -> loader.apply(key)).map(value -> Outcome.<V>success(value, ticker.read()));
+        if (negativeTtlNanos > 0) load = load.onErrorResume(e -> Mono.just(Outcome.failure(e, ticker.read())));
+        return load.toFuture();
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+
+    public long estimatedSize() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public Stats stats() {
+        return new Stats(cache.synchronous().stats(), coalesced.sum(), refreshes.sum(), refreshFailures.sum(),
+            negativeHits.sum(), refreshLatency.snapshot());
+    }
+
+    // a cached load: a value, or the error of a failed load (a negative entry)
+    private static final class Outcome<V> {
+        final V value;
+        final Throwable error;
+        final long loadedAt; // the ticker time
+
+        private Outcome(V value, Throwable error, long loadedAt) {
+            this.value = value;
+            this.error = error;
+            this.loadedAt = loadedAt;
+        }
+
+        static <V> Outcome<V> success(V value, long loadedAt) {
+            return new Outcome<>(value, null, loadedAt);
+        }
+
+        static <V> Outcome<V> failure(Throwable error, long loadedAt) {
+            return new Outcome<>(null, error, loadedAt);
+        }
+    }
+
+    // a value lives ttl from its load, an error negativeTtl; a refresh that failed keeps the old outcome, so its
+    // remaining time is unchanged (the time is the load time of the outcome, not of the last write)
+    private final class OutcomeExpiry implements Expiry<K, Outcome<V>> {
+
+        @Override
+        public long expireAfterCreate(K key, Outcome<V> outcome, long currentTime) {
+            long ttl = outcome.error == null ? ttlNanos : negativeTtlNanos;
+            return Math.max(0L, ttl - (currentTime - outcome.loadedAt));
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Outcome<V> outcome, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, outcome, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Outcome<V> outcome, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    // the loads of getAll and the refreshes (the gets load with their own mapping function, to detect coalescing)
+    private final class OutcomeLoader implements AsyncCacheLoader<K, Outcome<V>> {
+
+        @Override
+        public CompletableFuture<Outcome<V>> asyncLoad(K key, Executor executor) {
+            return load(key);
+        }
+
+        @Override
+        public CompletableFuture<Outcome<V>> asyncReload(K key, Outcome<V> old, Executor executor) {
+            refreshes.increment();
+            long start = System.nanoTime();
+            return load(key).handle((outcome, error) -> {
+                refreshLatency.record(System.nanoTime() - start); // the latency in real time, not ticker time
+                if (old.error != null) {
+                    // a negative entry is reloaded as a miss would be: its new outcome replaces it
+                    if (error != null) throw new CompletionException(error);
+                    return outcome;
+                }
+                if (error != null || outcome == null || outcome.error != null) {
+                    refreshFailures.increment();
+                    return old;
+                }
+                return outcome;
+            });
+        }
+    }
+
+    // CacheStats is final: the extra counters are kept next to it
+    public static final class Stats {
+
+        private final CacheStats cacheStats;
+        private final long coalescedCount;
+        private final long refreshCount;
+        private final long refreshFailureCount;
+        private final long negativeHitCount;
+        private final LatencyHistogram.Snapshot refreshLatency;
+
+        Stats(CacheStats cacheStats, long coalescedCount, long refreshCount, long refreshFailureCount,
+              long negativeHitCount, LatencyHistogram.Snapshot refreshLatency) {
+            this.cacheStats = cacheStats;
+            this.coalescedCount = coalescedCount;
+            this.refreshCount = refreshCount;
+            this.refreshFailureCount = refreshFailureCount;
+            this.negativeHitCount = negativeHitCount;
+            this.refreshLatency = refreshLatency;
+        }
+
+        // the Caffeine stats: a coalesced get is a hit (the future was in the cache), a load is a miss
+        public CacheStats cacheStats() {
+            return cacheStats;
+        }
+
+        // the gets that joined a load in flight, instead of starting their own
+        public long coalescedCount() {
+            return coalescedCount;
+        }
+
+        public long refreshCount() {
+            return refreshCount;
+        }
+
+        // the refreshes that failed, and kept the old value
+        public long refreshFailureCount() {
+            return refreshFailureCount;
+        }
+
+        // the gets that failed with a cached error
+        public long negativeHitCount() {
+            return negativeHitCount;
+        }
+
+        // in nanoseconds
+        public LatencyHistogram.Snapshot refreshLatency() {
+            return refreshLatency;
+        }
+
+        @Override
+        public String toString() {
+            String stats = cacheStats.toString();
+            return stats.substring(0, stats.length() - 1)
+                + ", coalescedCount=" + coalescedCount
+                + ", refreshCount=" + refreshCount
+                + ", refreshFailureCount=" + refreshFailureCount
+                + ", negativeHitCount=" + negativeHitCount
+                + ", refreshLatencyP50=" + Duration.ofNanos(refreshLatency.percentile(0.5)).toMillis() + "ms"
+                + ", refreshLatencyP99=" + Duration.ofNanos(refreshLatency.percentile(0.99)).toMillis() + "ms"
+                + ", refreshLatencyMax=" + Duration.ofNanos(refreshLatency.max()).toMillis() + "ms}";
+        }
+    }
+
+    public static final class Builder<K, V> {
+
+        private final Function<? super K, ? extends Mono<? extends V>> loader;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(5);
+        private Duration refreshAfterWrite;
+        private Duration negativeTtl = Duration.ZERO;
+        private boolean recordStats;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder(Function<? super K, ? extends Mono<? extends V>> loader) {
+            this.loader = loader;
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize < 0) throw new IllegalArgumentException("maximumSize must be >= 0");
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        // the time a loaded value lives in the cache
+        public Builder<K, V> expireAfterWrite(Duration ttl) {
+            if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be > 0");
+            this.ttl = ttl;
+            return this;
+        }
+
+        // the age after which a read value is reloaded in the background (must be less than the ttl)
+        public Builder<K, V> refreshAfterWrite(Duration refreshAfterWrite) {
+            if (refreshAfterWrite.isNegative() || refreshAfterWrite.isZero()) {
+                throw new IllegalArgumentException("refreshAfterWrite must be > 0");
+            }
+            this.refreshAfterWrite = refreshAfterWrite;
+            return this;
+        }
+
+        // the time a failed load is cached (0: the errors are not cached)
+        public Builder<K, V> negativeTtl(Duration negativeTtl) {
+            if (negativeTtl.isNegative()) throw new IllegalArgumentException("negativeTtl must be >= 0");
+            this.negativeTtl = negativeTtl;
+            return this;
+        }
+
+        public Builder<K, V> recordStats() {
+            this.recordStats = true;
+            return this;
+        }
+
+        // the time source of the expiration and the refreshes (ex. a virtual clock in a test)
+        public Builder<K, V> ticker(Ticker ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public MonoCache<K, V> build() {
+            if (refreshAfterWrite != null && refreshAfterWrite.compareTo(ttl) >= 0) {
+                throw new IllegalArgumentException("refreshAfterWrite must be less than the ttl");
+            }
+            return new MonoCache<>(this);
+        }
+    }
+}
+// ref:
+//   https://github.com/ben-manes/caffeine/wiki/Refresh
+//   https://github.com/ben-manes/caffeine/wiki/Eviction#time-based (Expiry)
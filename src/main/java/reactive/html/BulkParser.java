@@ -0,0 +1,258 @@
+package reactive.html;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// the pages of a PageSource parsed by Jsoup in bulk, the fetches and the parses in two stages
+// (instead of Jsoup.connect(url).get() a page at a time, see JsoupBasics: the thread waits for the page, then
+// parses it, and a single page is in progress)
+//   BulkParser parser = BulkParser.builder(PageSource.files(corpus))
+//       .select("title", "title").selectAttribute("links", "a[href]", "abs:href").build();
+//   parser.extract().subscribe(page -> page.value("title") ...);  // or parser.documents(): the whole trees
+// fetch: up to fetchConcurrency fetches in flight (non-blocking: AsynchronousFileChannel or FetchEngine), the raw
+//   bytes of a fetched page wait for a parse thread (at most fetchConcurrency pages: a fetch starts when a page
+//   goes to the parse stage)
+// parse: CPU-bound, parallelism pages at a time on a Scheduler of parallelism threads (its own newParallel by
+//   default, disposed by close(): not the shared Schedulers.parallel() of the rest of the application), each page
+//   a task, emitted in completion order
+// extract(): the streaming selector mode, the configured fields (CSS queries, checked by select()) are copied
+//   out of the Document on its parse thread, and only the Extracted goes downstream: the tree (several times the
+//   size of the page) is garbage before the next page is parsed on that thread, so at most parallelism trees are
+//   alive, however slow the subscriber or deep its buffers
+//   jsoup 1.8 builds the whole tree of a page before a selector can run (no event parser in its public API), so a
+//   single page still needs its whole tree: the mode bounds the trees in flight, not the tree of a page
+// documents(): the Documents, alive until the subscriber drops them (each queued one holds its whole tree)
+// failures: a page that fails to fetch or to parse is counted (stats()) and skipped, the others go on
+public final class BulkParser implements AutoCloseable {
+
+    public static final int DEFAULT_FETCH_CONCURRENCY = 64;
+
+    private final PageSource source;
+    private final int fetchConcurrency;
+    private final int parallelism;
+    private final Scheduler scheduler;
+    private final boolean ownsScheduler;
+    private final List<Selector> selectors;
+    private final List<String> fields;
+    private final LongAdder fetched = new LongAdder();
+    private final LongAdder fetchedBytes = new LongAdder();
+    private final LongAdder fetchFailures = new LongAdder();
+    private final LongAdder parsed = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+
+    private BulkParser(Builder builder) {
+        this.source = builder.source;
+        this.fetchConcurrency = builder.fetchConcurrency;
+        this.parallelism = builder.parallelism;
+        this.ownsScheduler = builder.scheduler == null;
+        this.scheduler = ownsScheduler ? Schedulers.newParallel("html-parse", parallelism, true) : builder.scheduler;
+        this.selectors = new ArrayList<>(builder.selectors);
+        List<String> fields = new ArrayList<>(selectors.size());
+        for (Selector selector : selectors) {
+            fields.add(selector.field);
+        }
+        this.fields = Collections.unmodifiableList(fields);
+    }
+
+    public static Builder builder(PageSource source) {
+        return new Builder(source);
+    }
+
+    // the configured fields of each page (at least one: Builder.select())
+    public Flux<Extracted> extract() {
+        if (selectors.isEmpty()) return Flux.error(new IllegalStateException("no field to extract: see select()"));
+        return parse(this::extract);
+    }
+
+    // the Document of each page
+    public Flux<Document> documents() {
+        return parse(document -> document);
+    }
+
+    // the pages of the source, each fetched then parsed and read by the reader on a parse thread
+    private <T> Flux<T> parse(Function<Document, T> reader) {
+        return source.uris()
+            .flatMap(uri -> source.fetch(uri)
+                .doOnNext(page -> {
+                    fetched.increment();
+                    fetchedBytes.add(page.length());
+                })
+                .onErrorResume(e -> {
+                    fetchFailures.increment();
+                    return Mono.empty();
+                }), fetchConcurrency, 1)
+            .flatMap(page -> Mono.fromCallable(() -> reader.apply(parse(page)))
+                .subscribeOn(scheduler)
+                .doOnNext(result -> parsed.increment())
+                .onErrorResume(e -> {
+                    parseFailures.increment();
+                    return Mono.empty();
+                }), parallelism, 1);
+    }
+
+    // with a charset: decoded, then parsed; without: Jsoup detects it from the <meta> of the page
+    static Document parse(Page page) throws IOException {
+        if (page.charset() == null) return Jsoup.parse(new ByteArrayInputStream(page.content()), null, page.uri());
+        return Jsoup.parse(new String(page.content(), page.charset()), page.uri());
+    }
+
+    private Extracted extract(Document document) {
+        List<List<String>> values = new ArrayList<>(selectors.size());
+        for (Selector selector : selectors) {
+            Elements elements = document.select(selector.cssQuery);
+            List<String> strings = new ArrayList<>(elements.size());
+            for (Element element : elements) {
+                strings.add(selector.value.apply(element));
+            }
+            values.add(strings);
+        }
+        return new Extracted(document.location(), fields, values);
+    }
+
+    public Stats stats() {
+        return new Stats(fetched.sum(), fetchedBytes.sum(), fetchFailures.sum(), parsed.sum(), parseFailures.sum());
+    }
+
+    // disposes the parse scheduler, unless it was given to the builder
+    @Override
+    public void close() {
+        if (ownsScheduler) scheduler.dispose();
+    }
+
+    // a field: the elements that match a CSS query, and the value of each
+    private static final class Selector {
+
+        final String field;
+        final String cssQuery;
+        final Function<? super Element, String> value;
+
+        Selector(String field, String cssQuery, Function<? super Element, String> value) {
+            this.field = field;
+            this.cssQuery = cssQuery;
+            this.value = value;
+        }
+    }
+
+    public static final class Stats {
+
+        private final long fetchedCount;
+        private final long fetchedBytes;
+        private final long fetchFailureCount;
+        private final long parsedCount;
+        private final long parseFailureCount;
+
+        Stats(long fetchedCount, long fetchedBytes, long fetchFailureCount, long parsedCount, long parseFailureCount) {
+            this.fetchedCount = fetchedCount;
+            this.fetchedBytes = fetchedBytes;
+            this.fetchFailureCount = fetchFailureCount;
+            this.parsedCount = parsedCount;
+            this.parseFailureCount = parseFailureCount;
+        }
+
+        public long fetchedCount() {
+            return fetchedCount;
+        }
+
+        public long fetchedBytes() {
+            return fetchedBytes;
+        }
+
+        public long fetchFailureCount() {
+            return fetchFailureCount;
+        }
+
+        public long parsedCount() {
+            return parsedCount;
+        }
+
+        public long parseFailureCount() {
+            return parseFailureCount;
+        }
+
+        @Override
+        public String toString() {
+            return "BulkParserStats{fetchedCount=" + fetchedCount + ", fetchedBytes=" + fetchedBytes
+                + ", fetchFailureCount=" + fetchFailureCount + ", parsedCount=" + parsedCount
+                + ", parseFailureCount=" + parseFailureCount + '}';
+        }
+    }
+
+    public static final class Builder {
+
+        private final PageSource source;
+        private final List<Selector> selectors = new ArrayList<>();
+        private int fetchConcurrency = DEFAULT_FETCH_CONCURRENCY;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private Scheduler scheduler;
+
+        private Builder(PageSource source) {
+            if (source == null) throw new IllegalArgumentException("source must not be null");
+            this.source = source;
+        }
+
+        // the fetches in flight (also the most fetched pages waiting for a parse thread)
+        public Builder fetchConcurrency(int fetchConcurrency) {
+            if (fetchConcurrency <= 0) throw new IllegalArgumentException("fetchConcurrency must be > 0");
+            this.fetchConcurrency = fetchConcurrency;
+            return this;
+        }
+
+        // the pages parsed at a time, and the threads of the default scheduler
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        // the scheduler the pages are parsed on (not disposed by close()); by default a newParallel of parallelism
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        // the text of the elements that match the CSS query
+        public Builder select(String field, String cssQuery) {
+            return select(field, cssQuery, Element::text);
+        }
+
+        // an attribute of the elements that match the CSS query ("abs:href": the absolute URL of a link)
+        public Builder selectAttribute(String field, String cssQuery, String attribute) {
+            return select(field, cssQuery, element -> element.attr(attribute));
+        }
+
+        // a value of each element that matches the CSS query: a String copied out of the tree (ex. not the Element)
+        public Builder select(String field, String cssQuery, Function<? super Element, String> value) {
+            for (Selector selector : selectors) {
+                if (selector.field.equals(field)) throw new IllegalArgumentException("duplicate field: " + field);
+            }
+            try {
+                new Document("").select(cssQuery);  // jsoup 1.8 parses a query on each select (its parser is not public)
+            } catch (RuntimeException e) {                  // SelectorParseException, or a failed Validate
+                throw new IllegalArgumentException("invalid CSS query for " + field + ": " + cssQuery, e);
+            }
+            selectors.add(new Selector(field, cssQuery, value));
+            return this;
+        }
+
+        public BulkParser build() {
+            return new BulkParser(this);
+        }
+    }
+}
+// ref:
+//   https://jsoup.org/cookbook/extracting-data/selector-syntax
+//   https://projectreactor.io/docs/core/release/reference/#schedulers
@@ -0,0 +1,49 @@
+package reactive.html;
+
+import java.util.List;
+
+// the values of the configured fields of a page (BulkParser.extract()): strings copied out of the Document, which
+// is garbage once they are, so that an Extracted in flight costs its values, not the tree of its page
+//   extracted.value("title"), extracted.values("links")
+public final class Extracted {
+
+    private final String uri;
+    private final List<String> fields;              // shared by the Extracted of a BulkParser
+    private final List<List<String>> values;        // values.get(i): the values of fields.get(i), in document order
+
+    Extracted(String uri, List<String> fields, List<List<String>> values) {
+        this.uri = uri;
+        this.fields = fields;
+        this.values = values;
+    }
+
+    public String uri() {
+        return uri;
+    }
+
+    public List<String> fields() {
+        return fields;
+    }
+
+    // the values of the elements that matched the field, in document order (empty: none matched)
+    public List<String> values(String field) {
+        int index = fields.indexOf(field);
+        if (index < 0) throw new IllegalArgumentException("unknown field: " + field);
+        return values.get(index);
+    }
+
+    // the value of the first element that matched the field, or null
+    public String value(String field) {
+        List<String> values = values(field);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Extracted{uri=").append(uri);
+        for (int i = 0; i < fields.size(); i++) {
+            builder.append(", ").append(fields.get(i)).append('=').append(values.get(i));
+        }
+        return builder.append('}').toString();
+    }
+}
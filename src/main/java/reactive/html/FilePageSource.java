@@ -0,0 +1,109 @@
+package reactive.html;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+// the files under a directory, each read whole by an AsynchronousFileChannel (file: URIs)
+//   the listing is a blocking walk of the directory, on boundedElastic; the reads complete on the channel's thread
+//   pool (the JDK runs the reads of files on its own threads: the caller is not blocked, but the I/O is not
+//   asynchronous in the kernel), no thread of the pipeline waits for the disk
+final class FilePageSource implements PageSource {
+
+    private final Path directory;
+    private final PathMatcher matcher;
+
+    FilePageSource(Path directory, String glob) {
+        this.directory = directory;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    }
+
+    @Override
+    public Flux<String> uris() {
+        return Flux.using(() -> Files.walk(directory), Flux::fromStream, Stream::close)
+            .filter(path -> Files.isRegularFile(path) && matcher.matches(path.getFileName()))
+            .map(path -> path.toUri().toString())
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Page> fetch(String uri) {
+        return Mono.create(sink -> {
+            try {
+                AsynchronousFileChannel channel =
+                    AsynchronousFileChannel.open(Paths.get(URI.create(uri)), StandardOpenOption.READ);
+                sink.onDispose(() -> close(channel));
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE - 8) throw new IOException(uri + " is too large: " + size + " bytes");
+                new Read(uri, channel, ByteBuffer.allocate((int) size), sink).next();
+            } catch (Exception e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    private static void close(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // read-only: nothing to flush
+        }
+    }
+
+    // reads the file into the buffer from its position, a read at a time, then completes the sink
+    private static final class Read implements CompletionHandler<Integer, Void> {
+
+        private final String uri;
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer buffer;
+        private final MonoSink<Page> sink;
+
+        Read(String uri, AsynchronousFileChannel channel, ByteBuffer buffer, MonoSink<Page> sink) {
+            this.uri = uri;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.sink = sink;
+        }
+
+        void next() {
+            if (buffer.hasRemaining()) {
+                channel.read(buffer, buffer.position(), null, this);
+            } else {
+                sink.success(new Page(uri, buffer.array(), null));
+            }
+        }
+
+        @Override
+        public void completed(Integer read, Void attachment) {
+            if (read < 0) {                         // the file was truncated since size()
+                buffer.flip();
+                byte[] content = new byte[buffer.limit()];
+                buffer.get(content);
+                sink.success(new Page(uri, content, null));
+            } else {
+                next();
+            }
+        }
+
+        @Override
+        public void failed(Throwable e, Void attachment) {
+            sink.error(e);
+        }
+    }
+}
+// ref:
+//   https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/nio/channels/AsynchronousFileChannel.html
@@ -0,0 +1,56 @@
+package reactive.html;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.reactivestreams.Publisher;
+import reactive.http.FetchEngine;
+import reactive.http.FetchResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+// GETs of the URIs by a FetchEngine: the body is copied out of the pooled buffers into the Page, then they are
+// released (the page waits for a parse thread, the buffers go back to the I/O of the next responses)
+// a status other than 2xx: an error of the fetch (HttpResponseException), BulkParser counts it and skips the page
+final class HttpPageSource implements PageSource {
+
+    private final FetchEngine engine;
+    private final Publisher<String> uris;
+
+    HttpPageSource(FetchEngine engine, Publisher<String> uris) {
+        this.engine = engine;
+        this.uris = uris;
+    }
+
+    @Override
+    public Flux<String> uris() {
+        return Flux.from(uris);
+    }
+
+    @Override
+    public Mono<Page> fetch(String uri) {
+        return Mono.defer(() -> engine.fetch(new HttpGet(uri), response -> page(uri, response)));
+    }
+
+    private static Page page(String uri, FetchResponse response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new UncheckedIOException(new HttpResponseException(response.statusCode(),
+                uri + ": " + response.statusLine().getReasonPhrase()));
+        }
+        return new Page(uri, response.bodyBytes(), charset(response.header(HttpHeaders.CONTENT_TYPE)));
+    }
+
+    // the charset of the Content-Type, or null (none, or not a valid one): left to the <meta> of the page
+    private static Charset charset(String contentType) {
+        if (contentType == null) return null;
+        try {
+            return ContentType.parse(contentType).getCharset();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
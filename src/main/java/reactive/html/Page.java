@@ -0,0 +1,41 @@
+package reactive.html;
+
+import java.nio.charset.Charset;
+
+// the raw bytes of a fetched page, not parsed yet (the unit between the fetch and the parse stages of BulkParser)
+// charset: from the source (ex. the Content-Type of the response), or null: detected by the parser from the
+//   <meta charset> of the page (UTF-8 without one)
+public final class Page {
+
+    private final String uri;
+    private final byte[] content;
+    private final Charset charset;
+
+    public Page(String uri, byte[] content, Charset charset) {
+        this.uri = uri;
+        this.content = content;
+        this.charset = charset;
+    }
+
+    // also the base URI of the relative links of the page
+    public String uri() {
+        return uri;
+    }
+
+    public byte[] content() {
+        return content;
+    }
+
+    public int length() {
+        return content.length;
+    }
+
+    public Charset charset() {
+        return charset;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{uri=" + uri + ", length=" + content.length + ", charset=" + charset + '}';
+    }
+}
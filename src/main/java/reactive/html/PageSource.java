@@ -0,0 +1,35 @@
+package reactive.html;
+
+import org.reactivestreams.Publisher;
+import reactive.http.FetchEngine;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+
+// where BulkParser gets its pages: the URIs to fetch, and a non-blocking fetch of one
+//   PageSource.files(dir): the HTML files under a directory (a local corpus), read with AsynchronousFileChannel
+//   PageSource.http(engine, uris): the pages of the URIs, by a FetchEngine (ex. against an HttpStub)
+// fetch() must not block the calling thread: BulkParser calls it for up to fetchConcurrency URIs at a time, on the
+//   thread that delivers the URIs or completes a previous fetch
+public interface PageSource {
+
+    Flux<String> uris();
+
+    Mono<Page> fetch(String uri);
+
+    // the *.html and *.htm files under the directory (recursively)
+    static PageSource files(Path directory) {
+        return new FilePageSource(directory, "*.{html,htm}");
+    }
+
+    // the files under the directory whose name matches the glob (ex. "*.xhtml")
+    static PageSource files(Path directory, String glob) {
+        return new FilePageSource(directory, glob);
+    }
+
+    // a GET of each URI by the engine (its per-host limits and queues apply), the charset from the Content-Type
+    static PageSource http(FetchEngine engine, Publisher<String> uris) {
+        return new HttpPageSource(engine, uris);
+    }
+}
@@ -0,0 +1,79 @@
+package reactive.http;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// a pool of ByteBuffers of one size for the response bodies of FetchEngine: a body is read into buffers taken from
+// the pool and given back by FetchResponse.release(), so a steady flow of responses allocates no buffer
+//   direct buffers (the default): the socket reads copy into them without an intermediate heap copy, but their
+//   allocation is slow (zeroed, counted against -XX:MaxDirectMemorySize): pooling is what makes them worth it
+//   at most maxPooled idle buffers are kept, the buffers released over it are left to the GC; a buffer that is never
+//   released (a response that is not released) is not lost either, only not reused
+public final class ByteBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final boolean direct;
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+
+    public ByteBufferPool(int bufferSize, int maxPooled, boolean direct) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("bufferSize must be > 0");
+        if (maxPooled < 0) throw new IllegalArgumentException("maxPooled must be >= 0");
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+    }
+
+    // an empty buffer of bufferSize bytes (position 0, limit bufferSize)
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            reused.increment();
+            buffer.clear();
+            return buffer;
+        }
+        allocated.increment();
+        return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+    }
+
+    // the buffer must not be used after (a buffer of another size is ignored)
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize || buffer.isReadOnly()) return;
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    // the buffers allocated (not taken from the pool)
+    public long allocatedCount() {
+        return allocated.sum();
+    }
+
+    // the buffers taken from the pool
+    public long reusedCount() {
+        return reused.sum();
+    }
+
+    // the idle buffers
+    public int pooledCount() {
+        return pooled.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBufferPool{bufferSize=" + bufferSize + ", allocatedCount=" + allocatedCount() + ", reusedCount="
+            + reusedCount() + ", pooledCount=" + pooledCount() + "}";
+    }
+}
@@ -0,0 +1,323 @@
+package reactive.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.reactivestreams.Publisher;
+import reactive.limit.AdaptiveLimiter;
+import reactive.limit.FixedLimit;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// HTTP requests as Monos on one CloseableHttpAsyncClient, without a thread per request
+// (instead of a client per request and future.get, see HttpAsyncClientTest and HttpAsyncClientTest2)
+//   FetchEngine engine = FetchEngine.builder().maxConnPerRoute(64).build();
+//   Mono<Integer> length = engine.fetch(new HttpGet(uri), response -> response.bodyAsString().length());
+//   Flux<FetchResponse> responses = engine.fetchAll(requests, 1000); // release() each response
+// connections: a PoolingNHttpClientConnectionManager of maxConnTotal connections, maxConnPerRoute per route (the
+//   defaults of HttpAsyncClients.custom() are 20 and 2: 2 requests at a time to a host), reused (keep-alive) by the
+//   requests, with the sockets multiplexed on ioThreads I/O reactor threads
+// per host: at most maxConcurrentPerHost requests in flight to a host (an AdaptiveLimiter with a FixedLimit per
+//   host): the others wait in a queue (no thread blocked) of at most maxQueuedPerHost, then are rejected with a
+//   LimitExceededException; with maxConcurrentPerHost <= maxConnPerRoute a request never waits for a connection in
+//   the pool (where it would hold the connectionRequestTimeout)
+// bodies: read as they arrive into the buffers of a ByteBufferPool (PooledBodyConsumer), the response is emitted
+//   when the body is complete; the subscriber releases it (fetch(request, reader) does)
+// the Monos are lazy: the request is sent on subscription, and cancelled (the connection closed) on cancellation
+public final class FetchEngine implements AutoCloseable {
+
+    private final CloseableHttpAsyncClient client;
+    private final PoolingNHttpClientConnectionManager connections;
+    private final ByteBufferPool bufferPool;
+    private final long maxBodyBytes;
+    private final int maxConcurrentPerHost;
+    private final int maxQueuedPerHost;
+    private final ConcurrentHashMap<HttpHost, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private FetchEngine(Builder builder) throws IOReactorException {
+        IOReactorConfig reactor = IOReactorConfig.custom()
+            .setIoThreadCount(builder.ioThreads)
+            .setConnectTimeout((int) builder.connectTimeout.toMillis())
+            .setSoTimeout((int) builder.socketTimeout.toMillis())
+            .setTcpNoDelay(true)
+            .setSoKeepAlive(true)
+            .build();
+        this.connections = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactor));
+        connections.setMaxTotal(builder.maxConnTotal);
+        connections.setDefaultMaxPerRoute(builder.maxConnPerRoute);
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout((int) builder.connectTimeout.toMillis())
+            .setSocketTimeout((int) builder.socketTimeout.toMillis())
+            .setConnectionRequestTimeout((int) builder.connectionRequestTimeout.toMillis())
+            .build();
+        this.client = HttpAsyncClients.custom()
+            .setConnectionManager(connections)
+            .setDefaultRequestConfig(requestConfig)
+            .build();
+        this.bufferPool = builder.bufferPool;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.maxConcurrentPerHost = builder.maxConcurrentPerHost;
+        this.maxQueuedPerHost = builder.maxQueuedPerHost;
+        client.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Mono<FetchResponse> fetch(String uri) {
+        return Mono.defer(() -> fetch(new HttpGet(uri)));
+    }
+
+    // the response, with its body in pooled buffers: release() it
+    public Mono<FetchResponse> fetch(HttpUriRequest request) {
+        HttpHost host = URIUtils.extractHost(request.getURI());
+        if (host == null) return Mono.error(new IllegalArgumentException("no host in " + request.getURI()));
+        AdaptiveLimiter limiter = limiters.computeIfAbsent(host,
+            h -> new AdaptiveLimiter(new FixedLimit(maxConcurrentPerHost), maxQueuedPerHost));
+        return Mono.from(limiter.run(() -> exchange(request)));
+    }
+
+    // the reader applied to the response, then the response released
+    public <T> Mono<T> fetch(HttpUriRequest request, Function<? super FetchResponse, ? extends T> reader) {
+        return fetch(request).map(response -> {
+            try {
+                return reader.apply(response);
+            } finally {
+                response.release();
+            }
+        });
+    }
+
+    // the responses of the requests, as they complete, at most concurrency in flight (per host limits apply)
+    public Flux<FetchResponse> fetchAll(Publisher<? extends HttpUriRequest> requests, int concurrency) {
+        return Flux.from(requests).flatMap(this::fetch, concurrency);
+    }
+
+    private Mono<FetchResponse> exchange(HttpUriRequest request) {
+        return Mono.<FetchResponse>create(sink -> {
+            requests.increment();
+            AtomicBoolean cancelled = new AtomicBoolean();
+            Future<FetchResponse> future = client.execute(HttpAsyncMethods.create(request),
+                new PooledBodyConsumer(bufferPool, maxBodyBytes), null, new FutureCallback<FetchResponse>() {
+                    @Override
+                    public void completed(FetchResponse response) {
+                        if (cancelled.get()) {
+                            response.release();
+                        } else {
+                            sink.success(response);
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        failures.increment();
+                        sink.error(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        sink.error(new CancellationException(request.getRequestLine().toString()));
+                    }
+                });
+            sink.onCancel(() -> {
+                cancelled.set(true);
+                future.cancel(true);
+            });
+        }).doOnDiscard(FetchResponse.class, FetchResponse::release);  // a response emitted as the subscriber cancels
+    }
+
+    public ByteBufferPool bufferPool() {
+        return bufferPool;
+    }
+
+    // the connections leased, available and the requests waiting for one, over all the routes
+    public PoolStats connectionStats() {
+        return connections.getTotalStats();
+    }
+
+    public Stats stats() {
+        int inFlight = 0;
+        int queued = 0;
+        long rejected = 0;
+        for (AdaptiveLimiter limiter : limiters.values()) {
+            inFlight += limiter.inFlight();
+            queued += limiter.queued();
+            rejected += limiter.rejected();
+        }
+        return new Stats(requests.sum(), failures.sum(), inFlight, queued, rejected, connectionStats());
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+
+    public static final class Stats {
+
+        private final long requestCount;
+        private final long failureCount;
+        private final int inFlight;
+        private final int queued;
+        private final long rejectedCount;
+        private final PoolStats connections;
+
+        Stats(long requestCount, long failureCount, int inFlight, int queued, long rejectedCount,
+              PoolStats connections) {
+            this.requestCount = requestCount;
+            this.failureCount = failureCount;
+            this.inFlight = inFlight;
+            this.queued = queued;
+            this.rejectedCount = rejectedCount;
+            this.connections = connections;
+        }
+
+        // the requests sent
+        public long requestCount() {
+            return requestCount;
+        }
+
+        public long failureCount() {
+            return failureCount;
+        }
+
+        // the requests sent and not completed, over all the hosts
+        public int inFlight() {
+            return inFlight;
+        }
+
+        // the requests waiting for their host's limit
+        public int queued() {
+            return queued;
+        }
+
+        // the requests rejected by their host's full queue
+        public long rejectedCount() {
+            return rejectedCount;
+        }
+
+        public PoolStats connections() {
+            return connections;
+        }
+
+        @Override
+        public String toString() {
+            return "FetchEngineStats{requestCount=" + requestCount + ", failureCount=" + failureCount + ", inFlight="
+                + inFlight + ", queued=" + queued + ", rejectedCount=" + rejectedCount + ", connections="
+                + connections + "}";
+        }
+    }
+
+    public static final class Builder {
+
+        private int maxConnTotal = 1024;
+        private int maxConnPerRoute = 256;
+        private int maxConcurrentPerHost = -1;
+        private int maxQueuedPerHost = 100_000;
+        private int ioThreads = Runtime.getRuntime().availableProcessors();
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration socketTimeout = Duration.ofSeconds(30);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(30);
+        private ByteBufferPool bufferPool;
+        private long maxBodyBytes = 64L * 1024 * 1024;
+
+        private Builder() {
+        }
+
+        // the connections of the pool, over all the routes
+        public Builder maxConnTotal(int maxConnTotal) {
+            if (maxConnTotal <= 0) throw new IllegalArgumentException("maxConnTotal must be > 0");
+            this.maxConnTotal = maxConnTotal;
+            return this;
+        }
+
+        // the connections of the pool to a route (a host, a port and a scheme)
+        public Builder maxConnPerRoute(int maxConnPerRoute) {
+            if (maxConnPerRoute <= 0) throw new IllegalArgumentException("maxConnPerRoute must be > 0");
+            this.maxConnPerRoute = maxConnPerRoute;
+            return this;
+        }
+
+        // the requests in flight to a host (default: maxConnPerRoute)
+        public Builder maxConcurrentPerHost(int maxConcurrentPerHost) {
+            if (maxConcurrentPerHost <= 0) throw new IllegalArgumentException("maxConcurrentPerHost must be > 0");
+            this.maxConcurrentPerHost = maxConcurrentPerHost;
+            return this;
+        }
+
+        // the requests waiting for the limit of a host, before they are rejected
+        public Builder maxQueuedPerHost(int maxQueuedPerHost) {
+            if (maxQueuedPerHost < 0) throw new IllegalArgumentException("maxQueuedPerHost must be >= 0");
+            this.maxQueuedPerHost = maxQueuedPerHost;
+            return this;
+        }
+
+        // the I/O reactor threads (the sockets are multiplexed on them)
+        public Builder ioThreads(int ioThreads) {
+            if (ioThreads <= 0) throw new IllegalArgumentException("ioThreads must be > 0");
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        // the inactivity of a connection in a request
+        public Builder socketTimeout(Duration socketTimeout) {
+            this.socketTimeout = socketTimeout;
+            return this;
+        }
+
+        // the wait for a connection of the pool
+        public Builder connectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+            return this;
+        }
+
+        // the buffers of the bodies (default: 16KB direct buffers, up to 4096 idle ones)
+        public Builder bufferPool(ByteBufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        // a longer body fails the request with a ContentTooLongException
+        public Builder maxBodyBytes(long maxBodyBytes) {
+            if (maxBodyBytes <= 0) throw new IllegalArgumentException("maxBodyBytes must be > 0");
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        public FetchEngine build() throws IOReactorException {
+            if (maxConcurrentPerHost < 0) maxConcurrentPerHost = maxConnPerRoute;
+            if (bufferPool == null) bufferPool = new ByteBufferPool(16 * 1024, 4096, true);
+            return new FetchEngine(this);
+        }
+    }
+}
+// ref:
+//   https://hc.apache.org/httpcomponents-asyncclient-4.1.x/examples.html (ZeroCopyHttpExchange, AsyncClientConfiguration)
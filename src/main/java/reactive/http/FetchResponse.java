@@ -0,0 +1,116 @@
+package reactive.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.StatusLine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// a response of FetchEngine: the status and headers, and the body in buffers of a ByteBufferPool
+//   body(): read-only views of the buffers (no copy), bodyBytes() / bodyAsString(): copies
+//   release() (or close()) gives the buffers back to the pool: the body must not be read after, the views neither
+public final class FetchResponse implements AutoCloseable {
+
+    private final HttpResponse response;
+    private final List<ByteBuffer> buffers;
+    private final long bodyLength;
+    private final Charset charset;
+    private final ByteBufferPool pool;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    FetchResponse(HttpResponse response, List<ByteBuffer> buffers, long bodyLength, Charset charset,
+                  ByteBufferPool pool) {
+        this.response = response;
+        this.buffers = buffers;
+        this.bodyLength = bodyLength;
+        this.charset = charset;
+        this.pool = pool;
+    }
+
+    public int statusCode() {
+        return response.getStatusLine().getStatusCode();
+    }
+
+    public StatusLine statusLine() {
+        return response.getStatusLine();
+    }
+
+    // the first value of the header, or null
+    public String header(String name) {
+        Header header = response.getFirstHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    public Header[] headers() {
+        return response.getAllHeaders();
+    }
+
+    public long bodyLength() {
+        return bodyLength;
+    }
+
+    // the charset of the Content-Type, else UTF-8
+    public Charset charset() {
+        return charset;
+    }
+
+    // the body, as read-only views of the pooled buffers (valid until release())
+    public List<ByteBuffer> body() {
+        checkNotReleased();
+        List<ByteBuffer> views = new ArrayList<>(buffers.size());
+        for (ByteBuffer buffer : buffers) {
+            views.add(buffer.asReadOnlyBuffer());
+        }
+        return Collections.unmodifiableList(views);
+    }
+
+    // a copy of the body
+    public byte[] bodyBytes() {
+        checkNotReleased();
+        if (bodyLength > Integer.MAX_VALUE - 8) throw new IllegalStateException("body of " + bodyLength + " bytes");
+        byte[] bytes = new byte[(int) bodyLength];
+        int position = 0;
+        for (ByteBuffer buffer : buffers) {
+            int length = buffer.remaining();
+            buffer.duplicate().get(bytes, position, length);
+            position += length;
+        }
+        return bytes;
+    }
+
+    public String bodyAsString() {
+        return new String(bodyBytes(), charset);
+    }
+
+    public boolean isReleased() {
+        return released.get();
+    }
+
+    // gives the buffers back to the pool (once)
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            for (ByteBuffer buffer : buffers) {
+                pool.release(buffer);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    private void checkNotReleased() {
+        if (released.get()) throw new IllegalStateException("the response is released");
+    }
+
+    @Override
+    public String toString() {
+        return "FetchResponse(" + response.getStatusLine() + ", " + bodyLength + " bytes)";
+    }
+}
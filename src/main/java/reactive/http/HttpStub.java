@@ -0,0 +1,180 @@
+package reactive.http;
+
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.bootstrap.HttpServer;
+import org.apache.http.impl.nio.bootstrap.ServerBootstrap;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.protocol.BasicAsyncRequestConsumer;
+import org.apache.http.nio.protocol.HttpAsyncExchange;
+import org.apache.http.nio.protocol.HttpAsyncRequestConsumer;
+import org.apache.http.nio.protocol.HttpAsyncRequestHandler;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// an embedded HTTP server on the loopback interface, for the demos and the benchmarks of the HTTP clients
+// (httpcore-nio, the server side of httpasyncclient: non-blocking, thousands of connections on ioThreads threads)
+//   try (HttpStub stub = HttpStub.builder().fixedBody(16 * 1024).latency(Duration.ofMillis(5)).start()) {
+//       engine.fetch(stub.uri("/any")) ...
+//   }
+// content: the body of a GET of a path (null: 404); latency: the responses are sent after it, from a timer (a slow
+//   backend without a thread per request)
+public final class HttpStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ScheduledExecutorService timer;
+    private final InetSocketAddress address;
+    private final LongAdder requests = new LongAdder();
+
+    private HttpStub(Builder builder) throws IOException {
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-stub-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long latencyNanos = builder.latency.toNanos();
+        Function<String, byte[]> content = builder.content;
+        ContentType contentType = builder.contentType;
+        this.server = ServerBootstrap.bootstrap()
+            .setLocalAddress(InetAddress.getLoopbackAddress())
+            .setListenerPort(builder.port)
+            .setIOReactorConfig(IOReactorConfig.custom()
+                .setIoThreadCount(builder.ioThreads)
+                .setSoReuseAddress(true)
+                .setTcpNoDelay(true)
+                .setBacklogSize(16 * 1024)
+                .build())
+            .setServerInfo("HttpStub")
+            .registerHandler("*", new HttpAsyncRequestHandler<HttpRequest>() {
+                @Override
+                public HttpAsyncRequestConsumer<HttpRequest> processRequest(HttpRequest request, HttpContext context) {
+                    return new BasicAsyncRequestConsumer();
+                }
+
+                @Override
+                public void handle(HttpRequest request, HttpAsyncExchange exchange, HttpContext context) {
+                    requests.increment();
+                    byte[] body = content.apply(URI.create(request.getRequestLine().getUri()).getPath());
+                    HttpResponse response = exchange.getResponse();
+                    if (body == null) {
+                        response.setStatusCode(HttpStatus.SC_NOT_FOUND);
+                    } else {
+                        response.setEntity(new NByteArrayEntity(body, contentType));
+                    }
+                    if (latencyNanos == 0) {
+                        exchange.submitResponse();
+                    } else {
+                        timer.schedule(() -> exchange.submitResponse(), latencyNanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+            })
+            .create();
+        server.start();
+        try {
+            server.getEndpoint().waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IOException("interrupted while the stub starts", e);
+        }
+        this.address = (InetSocketAddress) server.getEndpoint().getAddress();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int port() {
+        return address.getPort();
+    }
+
+    // http://127.0.0.1:<port><path>
+    public String uri(String path) {
+        return "http://" + address.getAddress().getHostAddress() + ":" + address.getPort() + path;
+    }
+
+    // the requests received
+    public long requestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    public void close() {
+        server.shutdown(1, TimeUnit.SECONDS);
+        timer.shutdownNow();
+    }
+
+    public static final class Builder {
+
+        private Function<String, byte[]> content = path -> new byte[0];
+        private ContentType contentType = ContentType.TEXT_PLAIN;
+        private Duration latency = Duration.ZERO;
+        private int ioThreads = Runtime.getRuntime().availableProcessors();
+        private int port;
+
+        private Builder() {
+        }
+
+        // the body of a path, or null (404)
+        public Builder content(Function<String, byte[]> content) {
+            this.content = content;
+            return this;
+        }
+
+        // the same ASCII body of bodyBytes for every path
+        public Builder fixedBody(int bodyBytes) {
+            if (bodyBytes < 0) throw new IllegalArgumentException("bodyBytes must be >= 0");
+            byte[] body = new byte[bodyBytes];
+            byte[] alphabet = "abcdefghijklmnopqrstuvwxyz0123456789\n".getBytes(StandardCharsets.US_ASCII);
+            for (int i = 0; i < bodyBytes; i++) {
+                body[i] = alphabet[i % alphabet.length];
+            }
+            this.content = path -> body;
+            return this;
+        }
+
+        public Builder contentType(ContentType contentType) {
+            this.contentType = contentType;
+            return this;
+        }
+
+        // the delay of each response
+        public Builder latency(Duration latency) {
+            if (latency.isNegative()) throw new IllegalArgumentException("latency must be >= 0");
+            this.latency = latency;
+            return this;
+        }
+
+        public Builder ioThreads(int ioThreads) {
+            if (ioThreads <= 0) throw new IllegalArgumentException("ioThreads must be > 0");
+            this.ioThreads = ioThreads;
+            return this;
+        }
+
+        // 0 (the default): an ephemeral port
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        public HttpStub start() throws IOException {
+            return new HttpStub(this);
+        }
+    }
+}
+// ref:
+//   https://hc.apache.org/httpcomponents-core-4.4.x/httpcore-nio/examples/org/apache/http/examples/nio/NHttpFileServer.java
@@ -0,0 +1,93 @@
+package reactive.http;
+
+import org.apache.http.ContentTooLongException;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// reads a response body, as it arrives on the I/O reactor thread, from the decoder into pooled buffers
+// (instead of BasicAsyncResponseConsumer: a heap buffer that grows to the body, then an InputStream over it that is
+// copied again by Source.fromInputStream(...).mkString, see HttpAsyncClientTest)
+final class PooledBodyConsumer extends AbstractAsyncResponseConsumer<FetchResponse> {
+
+    private final ByteBufferPool pool;
+    private final long maxBodyBytes;
+    private HttpResponse response;
+    private Charset charset = StandardCharsets.UTF_8;
+    private List<ByteBuffer> buffers = new ArrayList<>(4);
+    private ByteBuffer current;
+    private long length;
+
+    PooledBodyConsumer(ByteBufferPool pool, long maxBodyBytes) {
+        this.pool = pool;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    @Override
+    protected void onResponseReceived(HttpResponse response) {
+        this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+        if (entity.getContentLength() > maxBodyBytes) {
+            throw new ContentTooLongException("Content-Length " + entity.getContentLength() + " > " + maxBodyBytes);
+        }
+        if (contentType != null && contentType.getCharset() != null) charset = contentType.getCharset();
+    }
+
+    // called each time the socket has data: read it all (a read of 0 bytes: the rest has not arrived yet)
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl control) throws IOException {
+        for (;;) {
+            if (current == null || !current.hasRemaining()) {
+                if (decoder.isCompleted()) return;
+                current = pool.acquire();
+                buffers.add(current);
+            }
+            int read = decoder.read(current);
+            if (read <= 0) return;
+            length += read;
+            if (length > maxBodyBytes) throw new ContentTooLongException("body longer than " + maxBodyBytes);
+        }
+    }
+
+    @Override
+    protected FetchResponse buildResult(HttpContext context) {
+        List<ByteBuffer> body = new ArrayList<>(buffers.size());
+        for (ByteBuffer buffer : buffers) {
+            buffer.flip();
+            if (buffer.hasRemaining()) {
+                body.add(buffer);
+            } else {
+                pool.release(buffer);
+            }
+        }
+        buffers = null;                             // owned by the response
+        response.setEntity(null);
+        return new FetchResponse(response, body, length, charset, pool);
+    }
+
+    // after the result is built, or on a failure or a cancellation (the buffers read so far)
+    @Override
+    protected void releaseResources() {
+        if (buffers != null) {
+            for (ByteBuffer buffer : buffers) {
+                pool.release(buffer);
+            }
+            buffers = null;
+        }
+        current = null;
+    }
+}
@@ -0,0 +1,228 @@
+package reactive.limit;
+
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// an asynchronous concurrency limiter whose limit is controlled by a Limit algorithm (AimdLimit, VegasLimit, FixedLimit)
+//   a call runs as soon as fewer than limit() calls are in flight, otherwise it waits (without blocking a thread)
+//   in a FIFO queue of at most maxQueued calls, and is rejected with a LimitExceededException when the queue is full
+//   the latency of each call (from the subscription to the termination of its inner publisher) is fed back to the Limit
+// as a flatMap() replacement whose concurrency adapts to the latency of the inner publishers:
+//   flux.transform(limiter.flatMap(x -> callDependency(x)))
+//   (instead of flux.flatMap(x -> callDependency(x), 8), see the hard-coded concurrency in JavaReactor 0.9)
+//   the calls of a flatMap() are never rejected: the ones over the limit wait, however many (maxQueued bounds the
+//   callers of run() and acquire(), the concurrency of the flatMap() bounds its own waiters); a failed call is
+//   reported to the Limit first (counted in dropped()), then flatMap(mapper, maxConcurrency, onError) drops its element,
+//   where the plain flatMap() propagates the error as flatMap() does
+public class AdaptiveLimiter {
+
+    public static final int DEFAULT_MAX_QUEUED = 100;
+
+    // the default maxInFlight: the default flatMap() requests the upstream maxInFlight + maxQueued elements ahead (the
+    // default max limit of AimdLimit and VegasLimit is 1000 too)
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1000;
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Limit limit;
+    private final int maxQueued;
+    private final int maxInFlight;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>(); // guarded by this
+    private int inFlight;                                         // guarded by this
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public AdaptiveLimiter(Limit limit) {
+        this(limit, DEFAULT_MAX_QUEUED);
+    }
+
+    public AdaptiveLimiter(Limit limit, int maxQueued) {
+        this(limit, maxQueued, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    // maxInFlight: the elements the default flatMap() requests ahead beyond maxQueued (it does not cap the limit)
+    public AdaptiveLimiter(Limit limit, int maxQueued, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be > 0: " + maxInFlight);
+        this.limit = limit;
+        this.maxQueued = maxQueued;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // a flatMap() whose concurrency is the current limit
+    //   the upstream is requested up to maxConcurrency elements ahead, the ones over the limit wait in the queue (past
+    //   maxQueued too: no element is rejected), a failed call terminates the Flux with its error
+    public <T, R> Function<Flux<T>, Flux<R>> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper,
+                                                     int maxConcurrency) {
+        return flux -> flux.flatMap(t -> run(() -> mapper.apply(t), false), maxConcurrency);
+    }
+
+    // the same, where the error of a failed call goes to onError and its element is dropped: the Flux goes on (the
+    // failure was already fed back to the Limit, an onErrorResume() inside the mapper would hide it)
+    public <T, R> Function<Flux<T>, Flux<R>> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper,
+                                                     int maxConcurrency, Consumer<? super Throwable> onError) {
+        return flux -> flux.flatMap(t -> run(() -> mapper.apply(t), false).onErrorResume(e -> {
+            onError.accept(e);
+            return Flux.empty();
+        }), maxConcurrency);
+    }
+
+    // maxInFlight + maxQueued elements ahead
+    public <T, R> Function<Flux<T>, Flux<R>> flatMap(Function<? super T, ? extends Publisher<? extends R>> mapper) {
+        return flatMap(mapper, maxQueued + maxInFlight);
+    }
+
+    // run the publisher of a call within the limit: it is only subscribed once a permit is acquired
+    public <R> Flux<R> run(Supplier<? extends Publisher<? extends R>> call) {
+        return run(call, true);
+    }
+
+    // bounded: rejected when maxQueued calls are waiting already (false: the caller bounds the waiting calls)
+    private <R> Flux<R> run(Supplier<? extends Publisher<? extends R>> call, boolean bounded) {
+        return Flux.usingWhen(
+            acquire(bounded),
+            permit -> Flux.defer(() -> Flux.<R>from(call.get())),
+            permit -> Mono.fromRunnable(() -> permit.release(false)),
+            (permit, error) -> Mono.fromRunnable(() -> permit.release(true)),
+            permit -> Mono.fromRunnable(permit::ignore)
+        );
+    }
+
+    public Mono<Permit> acquire() {
+        return acquire(true);
+    }
+
+    private Mono<Permit> acquire(boolean bounded) {
+        return Mono.create(sink -> {
+            Permit permit = null;
+            Waiter waiter = null;
+            synchronized (this) {
+                if (inFlight < limit.limit() && waiters.isEmpty()) {
+                    inFlight++;
+                    permit = new Permit();
+                } else if (!bounded || waiters.size() < maxQueued) {
+                    waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                }
+            }
+            if (permit != null) {
+                accepted.incrementAndGet();
+                sink.success(permit);
+            } else if (waiter != null) {
+                Waiter w = waiter;
+                sink.onCancel(() -> cancel(w));
+            } else {
+                rejected.incrementAndGet();
+                sink.error(new LimitExceededException("concurrency limit " + limit.limit() + " and wait queue " + maxQueued + " are full"));
+            }
+        });
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        } else if (waiter.permit != null) {
+            waiter.permit.ignore(); // granted concurrently with the cancellation
+        }
+    }
+
+    private void release(Permit permit, long rttNanos, boolean sample, boolean failed) {
+        synchronized (this) {
+            if (sample) limit.onSample(rttNanos, inFlight, failed);
+            inFlight--;
+        }
+        if (failed) dropped.incrementAndGet();
+        grantWaiters();
+    }
+
+    private void grantWaiters() {
+        while (true) {
+            Waiter waiter;
+            synchronized (this) {
+                if (inFlight >= limit.limit() || waiters.isEmpty()) return;
+                waiter = waiters.poll();
+                inFlight++;
+            }
+            waiter.permit = new Permit();
+            if (waiter.state.compareAndSet(WAITING, GRANTED)) {
+                accepted.incrementAndGet();
+                waiter.sink.success(waiter.permit);
+            } else {
+                waiter.permit.ignore();
+            }
+        }
+    }
+
+    // the current limit of the Limit algorithm
+    public int limit() {
+        return limit.limit();
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized int queued() {
+        return waiters.size();
+    }
+
+    public long accepted() {
+        return accepted.get();
+    }
+
+    // the calls rejected because the limit and the wait queue were full
+    public long rejected() {
+        return rejected.get();
+    }
+
+    // the calls that failed, i.e. were reported to the Limit as dropped
+    public long dropped() {
+        return dropped.get();
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        volatile Permit permit;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    // a slot in the limit: it must be released exactly once (further releases are ignored)
+    public final class Permit {
+
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        // the call completed (failed = true if it failed): its latency is a sample for the Limit
+        public void release(boolean failed) {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveLimiter.this.release(this, System.nanoTime() - startNanos, true, failed);
+            }
+        }
+
+        // the call was cancelled: its latency is not a meaningful sample
+        public void ignore() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveLimiter.this.release(this, 0L, false, false);
+            }
+        }
+    }
+}
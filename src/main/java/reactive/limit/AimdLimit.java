@@ -0,0 +1,44 @@
+package reactive.limit;
+
+import java.time.Duration;
+
+// AIMD: additive increase / multiplicative decrease (the TCP congestion control loss-based algorithm)
+//   a call that fails, or that is slower than the latency threshold, multiplies the limit by backoffRatio
+//   a successful call increases the limit by 1, but only if the limit is actually used (inFlight >= limit / 2),
+//   otherwise a long idle period would grow the limit without any evidence that the dependency can take the load
+public class AimdLimit implements Limit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private volatile int limit;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        if (backoffRatio <= 0 || backoffRatio >= 1) throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = initialLimit;
+    }
+
+    public AimdLimit(Duration latencyThreshold) {
+        this(10, 1, 1000, 0.9, latencyThreshold);
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        int current = limit;
+        if (dropped || rttNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, Math.min(current - 1, (int) (current * backoffRatio)));
+        } else if (inFlight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package reactive.limit;
+
+// a limit that does not adapt, i.e. a plain asynchronous semaphore
+public class FixedLimit implements Limit {
+
+    private final int limit;
+
+    public FixedLimit(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive: " + limit);
+        this.limit = limit;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+    }
+}
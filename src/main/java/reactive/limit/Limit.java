@@ -0,0 +1,12 @@
+package reactive.limit;
+
+// a concurrency limit algorithm: the max number of calls in flight, adjusted from the measured latency of the calls
+//   onSample() is called by the AdaptiveLimiter (under its lock) when a call completes
+public interface Limit {
+
+    int limit();
+
+    // rttNanos: the latency of the call, inFlight: the number of calls in flight when it completed (itself included)
+    // dropped: the call failed or timed out, i.e. the dependency is overloaded
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
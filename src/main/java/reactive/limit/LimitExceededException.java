@@ -0,0 +1,9 @@
+package reactive.limit;
+
+// signalled by AdaptiveLimiter when a call can neither run nor wait (the limit and the wait queue are full)
+public class LimitExceededException extends RuntimeException {
+
+    public LimitExceededException(String message) {
+        super(message, null, false, false); // no stack trace: rejections are expected under load
+    }
+}
@@ -0,0 +1,63 @@
+package reactive.limit;
+
+// TCP Vegas: a delay-based algorithm, it detects the queueing in the dependency before the calls start to fail
+//   minRtt: the lowest latency seen, i.e. the latency without queueing
+//   queue = limit x (1 - minRtt / rtt): the estimated number of calls that are waiting in the dependency's queues
+//   queue < alpha: the dependency has spare capacity, the limit grows by log10(limit)
+//   queue > beta: the calls are queueing, the limit shrinks by log10(limit)
+//   a dropped call halves the limit
+// minRtt is re-probed every probeInterval samples (it is reset, and re-learned from the next samples),
+// so that the algorithm follows a dependency whose no-load latency has increased
+// ref: https://github.com/Netflix/concurrency-limits (VegasLimit)
+public class VegasLimit implements Limit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+    private volatile int limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samples;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit, int probeInterval) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+        this.limit = initialLimit;
+    }
+
+    public VegasLimit() {
+        this(10, 1, 1000, 1000);
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        int current = limit;
+        if (++samples >= probeInterval) {
+            samples = 0;
+            minRttNanos = Long.MAX_VALUE;
+        }
+        if (dropped) {
+            limit = Math.max(minLimit, current / 2);
+            return;
+        }
+        if (rttNanos <= 0) return;
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+        // do not grow a limit that is not used
+        if (inFlight * 2 < current) return;
+
+        double queue = current * (1.0 - (double) minRttNanos / rttNanos);
+        int step = Math.max(1, (int) Math.log10(current));
+        int alpha = 3 * step;
+        int beta = 6 * step;
+        if (queue < alpha) {
+            limit = Math.min(maxLimit, current + step);
+        } else if (queue > beta) {
+            limit = Math.max(minLimit, current - step);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package reactive.metrics;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.function.Function;
+
+// low-overhead instrumentation of Reactor pipelines, a replacement of Flux.log()
+//   log() formats a String and calls the logger for every signal, on the thread that emits it
+//   the instrumentation only updates counters and a lock-free histogram (see StageMetrics), and the metrics are
+//   read with MetricsRegistry.snapshot() and exported with TextExporter
+// 1) instrument one stage:
+//    Flux.just("red", "white", "blue").map(String::toUpperCase).transform(Instrumentation.stage("upper"))
+// 2) instrument every operator of every pipeline (named by Scannable.name(), ex. "map" or a .name("...") given to the flux)
+//    Instrumentation.instrumentAll(); ... Instrumentation.resetAll();
+public final class Instrumentation {
+
+    private static final String HOOK_KEY = "reactive.metrics.Instrumentation";
+
+    private Instrumentation() {
+    }
+
+    public static <T> Function<Publisher<T>, Publisher<T>> stage(String name) {
+        return stage(name, MetricsRegistry.global());
+    }
+
+    public static <T> Function<Publisher<T>, Publisher<T>> stage(String name, MetricsRegistry registry) {
+        StageMetrics metrics = registry.stage(name);
+        Function<? super Publisher<T>, ? extends Publisher<T>> lift =
+            Operators.lift((scannable, actual) -> new InstrumentedSubscriber<T>(actual, metrics));
+        return lift::apply;
+    }
+
+    public static void instrumentAll() {
+        instrumentAll(MetricsRegistry.global());
+    }
+
+    public static void instrumentAll(MetricsRegistry registry) {
+        Hooks.onEachOperator(HOOK_KEY, Operators.lift((scannable, actual) ->
+            new InstrumentedSubscriber<>(actual, registry.stage(scannable.name()))));
+    }
+
+    public static void resetAll() {
+        Hooks.resetOnEachOperator(HOOK_KEY);
+    }
+
+    // it is also a QueueSubscription that refuses fusion (like Flux.hide()): when a Fuseable operator is lifted,
+    // the downstream operator expects a QueueSubscription, but the elements must go through onNext() to be measured
+    static final class InstrumentedSubscriber<T> implements CoreSubscriber<T>, Fuseable.QueueSubscription<T>, Scannable {
+
+        private final CoreSubscriber<? super T> actual;
+        private final StageMetrics metrics;
+        private Subscription s;
+
+        InstrumentedSubscriber(CoreSubscriber<? super T> actual, StageMetrics metrics) {
+            this.actual = actual;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(this.s, s)) {
+                this.s = s;
+                metrics.subscribed(s);
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            long start = System.nanoTime();
+            actual.onNext(t);
+            metrics.recordOnNext(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            metrics.terminated(s);
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            metrics.terminated(s);
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            metrics.recordRequest(n);
+            s.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            metrics.terminated(s);
+            s.cancel();
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.NONE;
+        }
+
+        @Override
+        public T poll() {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.PARENT) return s;
+            if (key == Attr.ACTUAL) return actual;
+            if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package reactive.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// a lock-free latency histogram with log-linear buckets (the HdrHistogram layout)
+//   the values [2^k, 2^(k+1)) are split into SUB_BUCKETS linear sub-buckets, i.e. the relative error of
+//   a recorded value is at most 1 / SUB_BUCKETS (~3%), from 1 ns up to 2^62 ns
+//   record() is one AtomicLongArray increment + one LongAdder add: no lock, no allocation
+//   snapshot() copies the counts, so percentiles are computed without blocking the recording threads
+//   (a snapshot taken while values are recorded may be off by the values recorded during the copy)
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.getAndIncrement(index(value));
+        total.add(value);
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, total.sum());
+    }
+
+    // values below SUB_BUCKETS have their own bucket, larger values share a bucket with the values
+    // that have the same highest bit and the same SUB_BUCKET_BITS following bits
+    static int index(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    // the highest value that is counted in the bucket
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = ((long) (SUB_BUCKETS | (index & (SUB_BUCKETS - 1)))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long total;
+
+        Snapshot(long[] counts, long total) {
+            this.counts = counts;
+            long count = 0;
+            for (long c : counts) count += c;
+            this.count = count;
+            this.total = total;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0.0 : (double) total / count;
+        }
+
+        // ex. percentile(0.99) for the p99: the highest value of the bucket that holds the percentile
+        public long percentile(double percentile) {
+            if (count == 0) return 0L;
+            long rank = Math.max(1L, (long) Math.ceil(percentile * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) return highestValue(i);
+            }
+            return max();
+        }
+
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) return highestValue(i);
+            }
+            return 0L;
+        }
+    }
+}
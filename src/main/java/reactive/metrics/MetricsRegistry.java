@@ -0,0 +1,32 @@
+package reactive.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// the stages instrumented by Instrumentation, by name
+//   pull-based: nothing is pushed or logged, a reporter calls snapshot() whenever it needs the metrics
+public class MetricsRegistry {
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, StageMetrics> stages = new ConcurrentHashMap<>();
+
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    public StageMetrics stage(String name) {
+        return stages.computeIfAbsent(name, StageMetrics::new);
+    }
+
+    public List<StageMetrics.Snapshot> snapshot() {
+        List<StageMetrics.Snapshot> snapshots = new ArrayList<>(stages.size());
+        for (StageMetrics stage : stages.values()) {
+            snapshots.add(stage.snapshot());
+        }
+        snapshots.sort((a, b) -> a.name.compareTo(b.name));
+        return snapshots;
+    }
+}
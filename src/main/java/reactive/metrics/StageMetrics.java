@@ -0,0 +1,95 @@
+package reactive.metrics;
+
+import reactor.core.Scannable;
+import org.reactivestreams.Subscription;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// the metrics of one instrumented stage of a pipeline, shared by all the subscriptions to that stage
+//   onNext: the number of elements emitted by the stage (the rate is the difference between two snapshots)
+//   latency: the time spent in the downstream onNext(), i.e. the time to process an element from this stage
+//            up to the next asynchronous boundary (publishOn, flatMap inner queue, subscriber)
+//   request: the number of request(n) calls and the sum of the bounded demand (request(Long.MAX_VALUE) is unbounded)
+//   queue depth: the elements buffered by the upstream operator (Scannable.Attr.BUFFERED, ex. the publishOn queue)
+//                of the active subscriptions, read when a snapshot is taken
+public class StageMetrics {
+
+    private final String name;
+    private final LongAdder onNext = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder requested = new LongAdder();
+    private final LongAdder unboundedRequests = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Set<Subscription> active = ConcurrentHashMap.newKeySet();
+
+    StageMetrics(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    void recordOnNext(long latencyNanos) {
+        onNext.increment();
+        latency.record(latencyNanos);
+    }
+
+    void recordRequest(long n) {
+        requests.increment();
+        if (n == Long.MAX_VALUE) unboundedRequests.increment();
+        else requested.add(n);
+    }
+
+    void subscribed(Subscription upstream) {
+        active.add(upstream);
+    }
+
+    void terminated(Subscription upstream) {
+        if (upstream != null) active.remove(upstream); // onError can be signalled before onSubscribe
+    }
+
+    public Snapshot snapshot() {
+        long queueDepth = 0;
+        for (Subscription s : active) {
+            Integer buffered = Scannable.from(s).scan(Scannable.Attr.BUFFERED);
+            if (buffered != null) queueDepth += buffered;
+        }
+        return new Snapshot(name, System.nanoTime(), onNext.sum(), requests.sum(), requested.sum(),
+            unboundedRequests.sum(), active.size(), queueDepth, latency.snapshot());
+    }
+
+    public static final class Snapshot {
+
+        public final String name;
+        public final long timestampNanos;
+        public final long onNext;
+        public final long requests;
+        public final long requested;
+        public final long unboundedRequests;
+        public final int subscriptions;
+        public final long queueDepth;
+        public final LatencyHistogram.Snapshot latency;
+
+        Snapshot(String name, long timestampNanos, long onNext, long requests, long requested,
+                 long unboundedRequests, int subscriptions, long queueDepth, LatencyHistogram.Snapshot latency) {
+            this.name = name;
+            this.timestampNanos = timestampNanos;
+            this.onNext = onNext;
+            this.requests = requests;
+            this.requested = requested;
+            this.unboundedRequests = unboundedRequests;
+            this.subscriptions = subscriptions;
+            this.queueDepth = queueDepth;
+            this.latency = latency;
+        }
+
+        // the onNext rate (elements per second) since a previous snapshot of the same stage
+        public double onNextRate(Snapshot previous) {
+            long elapsed = timestampNanos - previous.timestampNanos;
+            return elapsed <= 0 ? 0.0 : (onNext - previous.onNext) * 1e9 / elapsed;
+        }
+    }
+}
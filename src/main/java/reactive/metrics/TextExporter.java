@@ -0,0 +1,43 @@
+package reactive.metrics;
+
+import java.util.List;
+import java.util.Locale;
+
+// exports the snapshots of a MetricsRegistry in a line-oriented text format (the Prometheus exposition format)
+//   ex. reactor_stage_latency_nanos{stage="upper",quantile="0.99"} 1535
+public final class TextExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private TextExporter() {
+    }
+
+    public static String export(MetricsRegistry registry) {
+        return export(registry.snapshot());
+    }
+
+    public static String export(List<StageMetrics.Snapshot> snapshots) {
+        StringBuilder sb = new StringBuilder();
+        for (StageMetrics.Snapshot s : snapshots) {
+            line(sb, "reactor_stage_on_next_total", s.name, null, s.onNext);
+            line(sb, "reactor_stage_requests_total", s.name, null, s.requests);
+            line(sb, "reactor_stage_requested_total", s.name, null, s.requested);
+            line(sb, "reactor_stage_unbounded_requests_total", s.name, null, s.unboundedRequests);
+            line(sb, "reactor_stage_subscriptions", s.name, null, s.subscriptions);
+            line(sb, "reactor_stage_queue_depth", s.name, null, s.queueDepth);
+            for (double q : QUANTILES) {
+                line(sb, "reactor_stage_latency_nanos", s.name, q, s.latency.percentile(q));
+            }
+            line(sb, "reactor_stage_latency_nanos_max", s.name, null, s.latency.max());
+            sb.append(String.format(Locale.ROOT, "reactor_stage_latency_nanos_mean{stage=\"%s\"} %.1f%n",
+                s.name, s.latency.mean()));
+        }
+        return sb.toString();
+    }
+
+    private static void line(StringBuilder sb, String metric, String stage, Double quantile, long value) {
+        sb.append(metric).append("{stage=\"").append(stage).append('"');
+        if (quantile != null) sb.append(",quantile=\"").append(quantile).append('"');
+        sb.append("} ").append(value).append('\n');
+    }
+}
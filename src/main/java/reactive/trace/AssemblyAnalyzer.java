@@ -0,0 +1,118 @@
+package reactive.trace;
+
+import org.reactivestreams.Publisher;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// an assembly-time analyzer of the scheduler boundaries of a pipeline (see JavaReactor 3.4: subscribeOn + publishOn
+// make the Mono hop from main to boundedElastic-1 to boundedElastic-2)
+//   it walks the operators from the last one to the source with Scannable.parents(), so it sees linear chains
+//   (the inner publishers of flatMap & co. are only known at runtime, see ThreadHopAgent for the runtime hop count)
+// it reports:
+//   STACKED_SUBSCRIBE_ON: only the subscribeOn closest to the source decides where the source runs,
+//                         the other ones only add a hop to the subscription
+//   REDUNDANT_PUBLISH_ON: a publishOn right after another async step: the signals are queued twice for one hop
+//   SUBSCRIBE_ON_AND_PUBLISH_ON: the source runs on the subscribeOn scheduler and is handed over to the publishOn one,
+//                                i.e. two schedulers (and one queue) where one would do, unless the source blocks
+//   FUSION_LOST: an operator that is not Fuseable between Fuseable ones (ex. hide()): the operators before and after
+//                it cannot fuse, so a publishOn after it needs its own queue and prefetch requests
+public final class AssemblyAnalyzer {
+
+    private AssemblyAnalyzer() {
+    }
+
+    public static AssemblyReport analyze(Publisher<?> publisher) {
+        Scannable last = Scannable.from(publisher);
+        List<Scannable> chain = new ArrayList<>();
+        chain.add(last);
+        last.parents().forEach(chain::add);
+        chain.removeIf(AssemblyAnalyzer::isLift);
+        Collections.reverse(chain); // source first
+
+        // the source (and everything up to the first publishOn) runs on the subscribeOn closest to the source
+        String thread = "subscriber";
+        int closestSubscribeOn = -1;
+        for (int i = 0; i < chain.size(); i++) {
+            if (kind(chain.get(i)) == AssemblyReport.Kind.SUBSCRIBE_ON) {
+                closestSubscribeOn = i;
+                thread = scheduler(chain.get(i));
+                break;
+            }
+        }
+
+        List<AssemblyReport.Step> steps = new ArrayList<>(chain.size());
+        List<AssemblyReport.Finding> findings = new ArrayList<>();
+        int hops = 0;
+        int previousAsync = -1;
+        int previousPublishOn = -1;
+        for (int i = 0; i < chain.size(); i++) {
+            Scannable step = chain.get(i);
+            AssemblyReport.Kind kind = kind(step);
+            String scheduler = scheduler(step);
+            if (kind == AssemblyReport.Kind.PUBLISH_ON || kind == AssemblyReport.Kind.ASYNC) {
+                thread = scheduler;
+            }
+            steps.add(new AssemblyReport.Step(step.name(), kind, scheduler, step instanceof Fuseable, thread));
+
+            if (kind == AssemblyReport.Kind.SUBSCRIBE_ON && i != closestSubscribeOn) {
+                findings.add(new AssemblyReport.Finding(AssemblyReport.FindingType.STACKED_SUBSCRIBE_ON, i,
+                    "subscribeOn(" + scheduler + ") has no effect on the source, which runs on the subscribeOn at step "
+                        + closestSubscribeOn));
+            }
+            if (kind == AssemblyReport.Kind.PUBLISH_ON) {
+                hops++;
+                if (previousAsync == i - 1 && previousAsync >= 0) {
+                    findings.add(new AssemblyReport.Finding(AssemblyReport.FindingType.REDUNDANT_PUBLISH_ON, i,
+                        "publishOn(" + scheduler + ") right after the async step " + previousAsync
+                            + ": the signals are queued twice"));
+                }
+                if (closestSubscribeOn >= 0 && previousPublishOn < 0) {
+                    findings.add(new AssemblyReport.Finding(AssemblyReport.FindingType.SUBSCRIBE_ON_AND_PUBLISH_ON, i,
+                        "steps 0-" + (i - 1) + " run on " + scheduler(chain.get(closestSubscribeOn)) + " (subscribeOn) and are"
+                            + " handed over to " + scheduler + ": remove the subscribeOn unless the source blocks"));
+                }
+                if (i > 0 && !(chain.get(i - 1) instanceof Fuseable)) {
+                    findings.add(new AssemblyReport.Finding(AssemblyReport.FindingType.FUSION_LOST, i,
+                        "publishOn cannot fuse with " + chain.get(i - 1).name() + ", which is not Fuseable:"
+                            + " it needs its own queue"));
+                }
+                previousPublishOn = i;
+            }
+            // a subscribeOn queues no signals (it only moves the subscription): not an async step for REDUNDANT_PUBLISH_ON
+            if (kind == AssemblyReport.Kind.PUBLISH_ON || kind == AssemblyReport.Kind.ASYNC) previousAsync = i;
+            if (i > 0 && i < chain.size() - 1 && !(step instanceof Fuseable)
+                && chain.get(i - 1) instanceof Fuseable && chain.get(i + 1) instanceof Fuseable) {
+                findings.add(new AssemblyReport.Finding(AssemblyReport.FindingType.FUSION_LOST, i,
+                    step.name() + " is not Fuseable: " + chain.get(i - 1).name() + " and " + chain.get(i + 1).name()
+                        + " cannot fuse through it"));
+            }
+        }
+        return new AssemblyReport(last.name(), steps, findings, hops);
+    }
+
+    // the publishers added by Operators.lift (ex. by a Hooks.onEachOperator, as ThreadHopAgent does) take the name of
+    // the operator they wrap, but none of its attributes: they are skipped so that the operator is only seen once
+    static boolean isLift(Scannable step) {
+        Class<?> type = step.getClass();
+        return type.getName().startsWith("reactor.core.publisher.") && type.getSimpleName().contains("Lift");
+    }
+
+    static AssemblyReport.Kind kind(Scannable step) {
+        String name = step.stepName();
+        if (name.startsWith("subscribeOn")) return AssemblyReport.Kind.SUBSCRIBE_ON;
+        if (name.startsWith("publishOn")) return AssemblyReport.Kind.PUBLISH_ON;
+        if (step.scan(Scannable.Attr.RUN_STYLE) == Scannable.Attr.RunStyle.ASYNC && step.scan(Scannable.Attr.RUN_ON) != null) {
+            return AssemblyReport.Kind.ASYNC;
+        }
+        return AssemblyReport.Kind.SYNC;
+    }
+
+    static String scheduler(Scannable step) {
+        Object runOn = step.scan(Scannable.Attr.RUN_ON);
+        return runOn == null ? null : runOn.toString();
+    }
+}
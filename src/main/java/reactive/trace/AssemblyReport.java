@@ -0,0 +1,121 @@
+package reactive.trace;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// the result of AssemblyAnalyzer.analyze(): the operators of a pipeline (source first), and what was found on them
+public class AssemblyReport {
+
+    public enum Kind {
+        // subscribeOn: the subscription (and the source, if no other subscribeOn is closer to it) moves to a scheduler
+        SUBSCRIBE_ON,
+        // publishOn: the following signals are queued and emitted by a scheduler worker, i.e. one hop per signal
+        PUBLISH_ON,
+        // another operator that emits on a scheduler (ex. delayElements, timeout, flatMap's inner publishers)
+        ASYNC,
+        SYNC
+    }
+
+    public static final class Step {
+        public final String name;
+        public final Kind kind;
+        public final String scheduler;  // the scheduler of an async step, null otherwise
+        public final boolean fuseable;  // the operator supports (micro-)fusion with its neighbours
+        public final String thread;     // where the step's onNext runs: "subscriber" (the subscribing thread) or a scheduler
+
+        Step(String name, Kind kind, String scheduler, boolean fuseable, String thread) {
+            this.name = name;
+            this.kind = kind;
+            this.scheduler = scheduler;
+            this.fuseable = fuseable;
+            this.thread = thread;
+        }
+
+        // the steps of the pipelines assembled by the same code are equal: ThreadHopAgent keys its stats by them
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Step)) return false;
+            Step step = (Step) o;
+            return fuseable == step.fuseable && name.equals(step.name) && kind == step.kind
+                && Objects.equals(scheduler, step.scheduler) && Objects.equals(thread, step.thread);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, kind, scheduler, fuseable, thread);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-24s %-12s fuseable=%-5s on %s", name, kind, fuseable, thread);
+        }
+    }
+
+    public enum FindingType {
+        STACKED_SUBSCRIBE_ON,
+        REDUNDANT_PUBLISH_ON,
+        SUBSCRIBE_ON_AND_PUBLISH_ON,
+        FUSION_LOST
+    }
+
+    public static final class Finding {
+        public final FindingType type;
+        public final int step;           // the index of the step in steps()
+        public final String message;
+
+        Finding(FindingType type, int step, String message) {
+            this.type = type;
+            this.step = step;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return type + " at step " + step + ": " + message;
+        }
+    }
+
+    private final String pipeline;
+    private final List<Step> steps;
+    private final List<Finding> findings;
+    private final int hopsPerSignal;
+
+    AssemblyReport(String pipeline, List<Step> steps, List<Finding> findings, int hopsPerSignal) {
+        this.pipeline = pipeline;
+        this.steps = Collections.unmodifiableList(steps);
+        this.findings = Collections.unmodifiableList(findings);
+        this.hopsPerSignal = hopsPerSignal;
+    }
+
+    public String pipeline() {
+        return pipeline;
+    }
+
+    public List<Step> steps() {
+        return steps;
+    }
+
+    public List<Finding> findings() {
+        return findings;
+    }
+
+    // the thread hops of each onNext signal predicted from the assembly (one per publishOn)
+    public int hopsPerSignal() {
+        return hopsPerSignal;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("pipeline ").append(pipeline).append(": ").append(hopsPerSignal).append(" hop(s) per signal\n");
+        for (int i = 0; i < steps.size(); i++) {
+            sb.append(String.format("  %2d) ", i)).append(steps.get(i)).append('\n');
+        }
+        for (Finding finding : findings) {
+            sb.append("  ").append(finding).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package reactive.trace;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// a blocking call found by BlockingDetector on a thread that must not block
+public final class BlockingCall {
+
+    public final String thread;
+    // the blocking method (ex. "java.lang.Thread.sleep"), "monitor enter" for a thread BLOCKED on a synchronized block,
+    // or "off-cpu" when the task was found waiting from its wall vs. cpu time only (no stack was sampled)
+    public final String method;
+    public final StackTraceElement[] stack;  // empty when method is "off-cpu"
+    public final String stage;               // strict mode: the operator that emitted the signal being processed
+    public final String scheduledFrom;       // strict mode: where the task was submitted to the scheduler
+    public final long offCpuNanos;           // wall time - cpu time of the task, -1 when unknown
+
+    BlockingCall(String thread, String method, StackTraceElement[] stack, String stage, String scheduledFrom,
+                 long offCpuNanos) {
+        this.thread = thread;
+        this.method = method;
+        this.stack = stack;
+        this.stage = stage;
+        this.scheduledFrom = scheduledFrom;
+        this.offCpuNanos = offCpuNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("blocking call ").append(method).append(" on ").append(thread);
+        if (offCpuNanos >= 0) {
+            sb.append(" (").append(TimeUnit.NANOSECONDS.toMillis(offCpuNanos)).append(" ms off-cpu)");
+        }
+        sb.append('\n');
+        if (stage != null) sb.append("  in the subscriber of ").append(stage).append('\n');
+        if (scheduledFrom != null) sb.append("  scheduled from ").append(scheduledFrom).append('\n');
+        Arrays.stream(stack).limit(12).forEach(frame -> sb.append("    at ").append(frame).append('\n'));
+        if (stack.length > 12) sb.append("    ... ").append(stack.length - 12).append(" more\n");
+        return sb.toString();
+    }
+}
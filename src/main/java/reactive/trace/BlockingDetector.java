@@ -0,0 +1,439 @@
+package reactive.trace;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// finds the blocking calls (sleep, socket/file I/O, Mono.block(), lock/monitor waits) made on the threads that must not
+// block: the workers of Schedulers.parallel(), single() and newParallel() (ex. pub-1 in JavaReactor 0.4), where one
+// blocked task stalls every pipeline scheduled on the same worker
+// like BlockHound, but without a java agent: instead of instrumenting the blocking methods, it samples the threads
+//   Schedulers.onScheduleHook wraps every task, and a task that starts on a non-blocking thread is tracked
+//   a daemon sampler walks the stack of the threads running a tracked task, and reports the blocking method found on top
+//   (the JDK and reactor frames above the caller), or "monitor enter" for a thread BLOCKED on a synchronized block
+//   when a tracked task ends, its wall time - cpu time above offCpuThreshold is reported as "off-cpu", to catch the
+//   blocking calls that are shorter than the sampling period
+// 1) strict, in tests: every task is tracked, the threads are sampled every millisecond, and each call is reported with
+//    the operator whose signal was being processed (and where it was assembled) and where the task was scheduled
+//      BlockingDetector detector = BlockingDetector.installStrict(System.out::println);
+//      ... run the pipelines ...
+//      detector.uninstall();
+//      detector.assertNoBlockingCalls();
+// 2) canary, under real load: only sampleRate of the tasks are tracked (the others only pay for a random number), the
+//    threads are sampled every 10 ms, only the waiting threads are walked, and no operator is wrapped
+//      BlockingDetector.installCanary(0.01, call -> logger.warning(call.toString()));
+// note: a call is only found if it lasts long enough to be sampled (or off-cpu), and a RUNNABLE thread in a native
+//   read is only walked in strict mode (in canary mode it shows as off-cpu)
+public final class BlockingDetector {
+
+    public enum Mode {
+        STRICT,
+        CANARY
+    }
+
+    private static final String HOOK_KEY = "reactive.trace.BlockingDetector";
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    // the blocking methods, by class: the name of a method must start with one of these
+    private static final Map<String, Set<String>> BLOCKING_METHODS = Map.ofEntries(
+        Map.entry("java.lang.Thread", Set.of("sleep", "join")),
+        Map.entry("java.lang.Object", Set.of("wait")),
+        Map.entry("java.util.concurrent.locks.LockSupport", Set.of("park")),
+        Map.entry("jdk.internal.misc.Unsafe", Set.of("park")),
+        Map.entry("java.net.Socket", Set.of("connect")),
+        Map.entry("java.net.SocketInputStream", Set.of("read", "socketRead")),
+        Map.entry("java.net.SocketOutputStream", Set.of("write", "socketWrite")),
+        Map.entry("sun.nio.ch.NioSocketImpl", Set.of("read", "timedRead", "write", "connect", "park")),
+        Map.entry("sun.nio.ch.SocketDispatcher", Set.of("read", "write")),
+        Map.entry("sun.nio.ch.FileDispatcherImpl", Set.of("read", "pread", "write", "pwrite")),
+        Map.entry("java.io.FileInputStream", Set.of("read")),
+        Map.entry("java.io.FileOutputStream", Set.of("write")),
+        Map.entry("java.io.RandomAccessFile", Set.of("read", "write")),
+        Map.entry("reactor.core.publisher.BlockingSingleSubscriber", Set.of("blockingGet")),
+        Map.entry("reactor.core.publisher.BlockingIterable$SubscriberIterator", Set.of("hasNext"))
+    );
+
+    private final Mode mode;
+    private final double sampleRate;
+    private final long samplePeriodNanos;
+    private final long offCpuThresholdNanos;
+    private final Predicate<Thread> nonBlocking;
+    private final Consumer<BlockingCall> reporter;
+    private final Map<Thread, Watch> watches = new ConcurrentHashMap<>();
+    private final ThreadLocal<Watch> currentWatch = ThreadLocal.withInitial(this::register);
+    private final List<BlockingCall> calls = Collections.synchronizedList(new ArrayList<>());
+    private final LongAdder trackedTasks = new LongAdder();
+    private final Thread sampler;
+    private volatile boolean running = true;
+
+    private BlockingDetector(Mode mode, double sampleRate, Duration samplePeriod, Duration offCpuThreshold,
+                             Predicate<Thread> nonBlocking, Consumer<BlockingCall> reporter) {
+        this.mode = mode;
+        this.sampleRate = sampleRate;
+        this.samplePeriodNanos = samplePeriod.toNanos();
+        this.offCpuThresholdNanos = offCpuThreshold.toNanos();
+        this.nonBlocking = nonBlocking;
+        this.reporter = reporter;
+        this.sampler = new Thread(this::sample, "blocking-detector");
+        this.sampler.setDaemon(true);
+    }
+
+    public static BlockingDetector installStrict(Consumer<BlockingCall> reporter) {
+        return install(Mode.STRICT, 1.0, Duration.ofMillis(1), Duration.ofMillis(50),
+            Schedulers::isNonBlockingThread, reporter);
+    }
+
+    public static BlockingDetector installCanary(double sampleRate, Consumer<BlockingCall> reporter) {
+        return install(Mode.CANARY, sampleRate, Duration.ofMillis(10), Duration.ofMillis(50),
+            Schedulers::isNonBlockingThread, reporter);
+    }
+
+    // nonBlocking: the threads that must not block, ex. thread -> Schedulers.isNonBlockingThread(thread)
+    //   || thread.getName().startsWith("event-loop")
+    // offCpuThreshold: Duration.ZERO disables the wall vs. cpu time check
+    public static BlockingDetector install(Mode mode, double sampleRate, Duration samplePeriod, Duration offCpuThreshold,
+                                           Predicate<Thread> nonBlocking, Consumer<BlockingCall> reporter) {
+        BlockingDetector detector =
+            new BlockingDetector(mode, sampleRate, samplePeriod, offCpuThreshold, nonBlocking, reporter);
+        Schedulers.onScheduleHook(HOOK_KEY, task ->
+            detector.new TrackedTask(task, mode == Mode.STRICT ? callSite(new Throwable().getStackTrace()) : null));
+        if (mode == Mode.STRICT) {
+            Hooks.onEachOperator(HOOK_KEY, detector::stage);
+        }
+        detector.sampler.start();
+        return detector;
+    }
+
+    public void uninstall() {
+        running = false;
+        Schedulers.resetOnScheduleHook(HOOK_KEY);
+        if (mode == Mode.STRICT) Hooks.resetOnEachOperator(HOOK_KEY);
+        sampler.interrupt();
+    }
+
+    public List<BlockingCall> calls() {
+        synchronized (calls) {
+            return new ArrayList<>(calls);
+        }
+    }
+
+    public long trackedTasks() {
+        return trackedTasks.sum();
+    }
+
+    public void assertNoBlockingCalls() {
+        List<BlockingCall> found = calls();
+        if (!found.isEmpty()) {
+            throw new IllegalStateException(found.size() + " blocking call(s) on non-blocking threads, the first one:\n"
+                + found.get(0));
+        }
+    }
+
+    private Watch register() {
+        Watch watch = new Watch(Thread.currentThread());
+        watches.put(watch.thread, watch);
+        return watch;
+    }
+
+    private void report(BlockingCall call) {
+        calls.add(call);
+        reporter.accept(call);
+    }
+
+    // the operator whose signals are processed is recorded in the Watch of the thread: the subscriber of an operator
+    // runs the next operator, so a blocking map() is found "in the subscriber of" the operator before it
+    private Publisher<Object> stage(Publisher<Object> publisher) {
+        Stage stage = new Stage(Scannable.from(publisher).name(), callSite(new Throwable().getStackTrace()));
+        Function<? super Publisher<Object>, ? extends Publisher<Object>> lift =
+            Operators.lift((scannable, actual) -> new StageSubscriber<>(actual, stage, currentWatch));
+        return lift.apply(publisher);
+    }
+
+    private void sample() {
+        while (running) {
+            for (Iterator<Watch> it = watches.values().iterator(); it.hasNext(); ) {
+                Watch watch = it.next();
+                if (!watch.thread.isAlive()) {
+                    it.remove();
+                } else if (watch.depth > 0) {
+                    inspect(watch);
+                }
+            }
+            LockSupport.parkNanos(samplePeriodNanos);
+        }
+    }
+
+    private void inspect(Watch watch) {
+        long task = watch.task;
+        Thread.State state = watch.thread.getState();
+        if (state == Thread.State.RUNNABLE && mode == Mode.CANARY) return; // getStackTrace() stops the thread
+        StackTraceElement[] stack = watch.thread.getStackTrace();
+        // the task may have ended while the stack was taken, ex. the worker is now parked waiting for the next task
+        if (watch.depth == 0 || watch.task != task || !inTrackedTask(stack)) return;
+        String method = state == Thread.State.BLOCKED ? "monitor enter" : blockingMethod(stack);
+        if (method != null && watch.claim(task)) {
+            report(new BlockingCall(watch.thread.getName(), method, stack, Stage.name(watch.stage), watch.scheduledFrom, -1));
+        }
+    }
+
+    private static boolean inTrackedTask(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().equals(TrackedTask.class.getName())) return true;
+        }
+        return false;
+    }
+
+    // the outermost blocking method of the JDK / reactor frames on top of the stack (ex. LockSupport.park, not
+    // Unsafe.park), null if the caller is reached first
+    static String blockingMethod(StackTraceElement[] stack) {
+        StackTraceElement found = null;
+        for (StackTraceElement frame : stack) {
+            if (isBlocking(frame)) {
+                found = frame;
+            } else if (!isInternal(frame.getClassName())) {
+                break;
+            }
+        }
+        return found == null ? null : found.getClassName() + "." + found.getMethodName();
+    }
+
+    private static boolean isBlocking(StackTraceElement frame) {
+        Set<String> methods = BLOCKING_METHODS.get(frame.getClassName());
+        if (methods == null) return false;
+        for (String method : methods) {
+            if (frame.getMethodName().startsWith(method)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isInternal(String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("sun.")
+            || className.startsWith("reactor.core.publisher.Blocking");
+    }
+
+    // the first frame outside of reactor, the JDK and this package: where the operator was assembled / the task scheduled
+    private static String callSite(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (!className.startsWith("reactor.") && !className.startsWith("reactive.trace.") && !isInternal(className)) {
+                return frame.toString();
+            }
+        }
+        return null;
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    // the tracking state of a thread: written by the thread itself, read by the sampler
+    static final class Watch {
+
+        final Thread thread;
+        volatile int depth;          // > 0 while a tracked task runs
+        volatile long task;          // incremented for each tracked task
+        volatile Stage stage;
+        volatile String scheduledFrom;
+        private long reportedTask = -1;
+
+        Watch(Thread thread) {
+            this.thread = thread;
+        }
+
+        // one report per task: the sampler and the off-cpu check may both find the same call
+        synchronized boolean claim(long task) {
+            if (reportedTask == task) return false;
+            reportedTask = task;
+            return true;
+        }
+    }
+
+    static final class Stage {
+
+        final String operator;
+        final String assembledAt;
+
+        Stage(String operator, String assembledAt) {
+            this.operator = operator;
+            this.assembledAt = assembledAt;
+        }
+
+        static String name(Stage stage) {
+            if (stage == null) return null;
+            return stage.assembledAt == null ? stage.operator : stage.operator + " (assembled at " + stage.assembledAt + ")";
+        }
+    }
+
+    final class TrackedTask implements Runnable {
+
+        private final Runnable task;
+        private final String scheduledFrom;
+
+        TrackedTask(Runnable task, String scheduledFrom) {
+            this.task = task;
+            this.scheduledFrom = scheduledFrom;
+        }
+
+        @Override
+        public void run() {
+            Thread thread = Thread.currentThread();
+            if (!running || !nonBlocking.test(thread)
+                || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+                task.run();
+                return;
+            }
+            Watch watch = currentWatch.get();
+            if (watch.depth > 0) { // a task run by another tracked task
+                task.run();
+                return;
+            }
+            trackedTasks.increment();
+            watch.scheduledFrom = scheduledFrom;
+            watch.stage = null;
+            watch.task++;
+            watch.depth = 1;
+            long start = System.nanoTime();
+            long startCpu = cpuTime();
+            try {
+                task.run();
+            } finally {
+                watch.depth = 0;
+                long offCpu = (System.nanoTime() - start) - (cpuTime() - startCpu);
+                if (startCpu >= 0 && offCpuThresholdNanos > 0 && offCpu > offCpuThresholdNanos && watch.claim(watch.task)) {
+                    report(new BlockingCall(thread.getName(), "off-cpu", new StackTraceElement[0], Stage.name(watch.stage),
+                        scheduledFrom, offCpu));
+                }
+            }
+        }
+    }
+
+    // it is also a QueueSubscription that refuses fusion (like Flux.hide()), so that every signal goes through it
+    static final class StageSubscriber<T> implements CoreSubscriber<T>, Fuseable.QueueSubscription<T>, Scannable {
+
+        private final CoreSubscriber<? super T> actual;
+        private final Stage stage;
+        private final ThreadLocal<Watch> currentWatch;
+        private Subscription s;
+
+        StageSubscriber(CoreSubscriber<? super T> actual, Stage stage, ThreadLocal<Watch> currentWatch) {
+            this.actual = actual;
+            this.stage = stage;
+            this.currentWatch = currentWatch;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(this.s, s)) {
+                this.s = s;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(T t) {
+            Watch watch = currentWatch.get();
+            Stage previous = watch.stage;
+            watch.stage = stage;
+            try {
+                actual.onNext(t);
+            } finally {
+                watch.stage = previous;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            Watch watch = currentWatch.get();
+            Stage previous = watch.stage;
+            watch.stage = stage;
+            try {
+                actual.onError(t);
+            } finally {
+                watch.stage = previous;
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            Watch watch = currentWatch.get();
+            Stage previous = watch.stage;
+            watch.stage = stage;
+            try {
+                actual.onComplete();
+            } finally {
+                watch.stage = previous;
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            s.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            s.cancel();
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.NONE;
+        }
+
+        @Override
+        public T poll() {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.PARENT) return s;
+            if (key == Attr.ACTUAL) return actual;
+            if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+            return null;
+        }
+    }
+}
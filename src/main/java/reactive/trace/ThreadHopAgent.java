@@ -0,0 +1,257 @@
+package reactive.trace;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Operators;
+import reactor.util.context.Context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// a Hooks-based agent that analyzes every pipeline when it is subscribed, and counts its actual thread hops
+//   ThreadHopAgent agent = ThreadHopAgent.install(report -> System.out.println(report));
+//   ... run the pipelines ...
+//   agent.stats().forEach(System.out::println); // the actual hops per signal of each pipeline
+//   agent.uninstall();
+// assembly: Hooks.onLastOperator analyzes the pipeline with AssemblyAnalyzer (once per assembled pipeline, when it is
+//   first subscribed), and reports it once per assembly site: the pipelines of the same steps (the same code assembled
+//   again, ex. per request) share their HopStats, and at most MAX_SITES sites are kept (the pipelines of the other
+//   sites are counted, but not listed by stats()), so the agent does not grow with the number of pipelines
+// runtime: Hooks.onEachOperator wraps the subscriber of every operator, and counts a hop whenever an operator emits
+//   an onNext on another thread than its upstream operator's last onNext (the hops of the inner publishers of a
+//   flatMap are counted as well), the last operator counts the signals
+//   the actual hops can be fewer than predicted: a synchronous source (ex. Flux.range) emits on the thread that
+//   requests, and publishOn requests its next batches from its worker, so the source ends up on that worker too
+// note: a diagnostic tool, not for production: the wrapping subscribers refuse fusion (so the pipeline does not run
+//   exactly as without the agent) and each onNext reads the current thread
+public final class ThreadHopAgent {
+
+    private static final String HOOK_KEY = "reactive.trace.ThreadHopAgent";
+    private static final String CONTEXT_KEY = HOOK_KEY + ".stats";
+    private static final int MAX_SITES = 1000;
+
+    private final Consumer<AssemblyReport> reporter;
+    private final Map<Publisher<?>, HopStats> pipelines = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<List<AssemblyReport.Step>, HopStats> sites = new LinkedHashMap<>(); // guarded by sites
+
+    private ThreadHopAgent(Consumer<AssemblyReport> reporter) {
+        this.reporter = reporter;
+    }
+
+    public static ThreadHopAgent install(Consumer<AssemblyReport> reporter) {
+        ThreadHopAgent agent = new ThreadHopAgent(reporter);
+        Hooks.onEachOperator(HOOK_KEY, Operators.lift((scannable, actual) -> new HopSubscriber<>(actual, scannable.name())));
+        Hooks.onLastOperator(HOOK_KEY, agent::onLastOperator);
+        return agent;
+    }
+
+    public void uninstall() {
+        Hooks.resetOnEachOperator(HOOK_KEY);
+        Hooks.resetOnLastOperator(HOOK_KEY);
+    }
+
+    // the runtime hop counts of the pipelines subscribed so far, per assembly site
+    public List<HopStats> stats() {
+        synchronized (sites) {
+            return new ArrayList<>(sites.values());
+        }
+    }
+
+    // the last operator is also seen when subscribeOn subscribes to its upstream part of the pipeline, and for the
+    // inner publishers of a flatMap: there the stats of the outer pipeline are already in the context, so only the
+    // pipelines subscribed by a "real" subscriber are analyzed
+    private Publisher<Object> onLastOperator(Publisher<Object> publisher) {
+        Function<? super Publisher<Object>, ? extends Publisher<Object>> terminal =
+            Operators.lift((scannable, actual) -> {
+                if (actual.currentContext().hasKey(CONTEXT_KEY)) return actual;
+                return new HopSubscriber<>(actual, pipelines.computeIfAbsent(publisher, this::analyze));
+            });
+        return terminal.apply(publisher);
+    }
+
+    private HopStats analyze(Publisher<?> publisher) {
+        AssemblyReport report = AssemblyAnalyzer.analyze(publisher);
+        HopStats hopStats;
+        synchronized (sites) {
+            hopStats = sites.get(report.steps());
+            if (hopStats != null) return hopStats;
+            hopStats = new HopStats(report);
+            if (sites.size() < MAX_SITES) sites.put(report.steps(), hopStats);
+        }
+        reporter.accept(report);
+        return hopStats;
+    }
+
+    // the actual hops of a pipeline: hops per boundary ("upstream -> operator"), and signals received by the subscriber
+    public static final class HopStats {
+
+        private final AssemblyReport report;
+        private final LongAdder signals = new LongAdder();
+        private final Map<String, LongAdder> hops = new ConcurrentHashMap<>();
+
+        HopStats(AssemblyReport report) {
+            this.report = report;
+        }
+
+        public AssemblyReport report() {
+            return report;
+        }
+
+        public long signals() {
+            return signals.sum();
+        }
+
+        public long hops() {
+            return hops.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public double hopsPerSignal() {
+            long s = signals();
+            return s == 0 ? 0.0 : (double) hops() / s;
+        }
+
+        void hop(String boundary) {
+            hops.computeIfAbsent(boundary, b -> new LongAdder()).increment();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("pipeline %s: %d signals, %.2f hops per signal (predicted %d)",
+                report.pipeline(), signals(), hopsPerSignal(), report.hopsPerSignal()));
+            hops.forEach((boundary, count) -> sb.append("\n  ").append(boundary).append(": ").append(count.sum()));
+            return sb.toString();
+        }
+    }
+
+    // refuses fusion (like Flux.hide()), so that every signal goes through onNext
+    static final class HopSubscriber<T> implements CoreSubscriber<T>, Fuseable.QueueSubscription<T>, Scannable {
+
+        private final CoreSubscriber<? super T> actual;
+        private final String name;
+        private final HopStats terminalStats; // only set on the subscriber of the last operator
+        private final Context context;
+        private HopStats stats;
+        private HopSubscriber<?> upstream;
+        private Subscription s;
+        private volatile Thread lastThread;
+
+        HopSubscriber(CoreSubscriber<? super T> actual, String name) {
+            this.actual = actual;
+            this.name = name;
+            this.terminalStats = null;
+            this.context = actual.currentContext();
+        }
+
+        HopSubscriber(CoreSubscriber<? super T> actual, HopStats terminalStats) {
+            this.actual = actual;
+            this.name = "subscriber";
+            this.terminalStats = terminalStats;
+            this.context = actual.currentContext().put(CONTEXT_KEY, terminalStats);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(this.s, s)) {
+                this.s = s;
+                this.stats = context.getOrDefault(CONTEXT_KEY, null);
+                this.upstream = findUpstream(s);
+                actual.onSubscribe(this);
+            }
+        }
+
+        // the closest HopSubscriber upstream: the operator's subscriber is the subscription of this subscriber,
+        // and its PARENT is the subscription given by the upstream operator (wrapped by its HopSubscriber)
+        private static HopSubscriber<?> findUpstream(Subscription s) {
+            Object current = s;
+            for (int depth = 0; depth < 8 && current != null; depth++) {
+                if (current instanceof HopSubscriber) return (HopSubscriber<?>) current;
+                Scannable scannable = Scannable.from(current);
+                if (!scannable.isScanAvailable()) return null;
+                current = scannable.scan(Attr.PARENT);
+            }
+            return null;
+        }
+
+        @Override
+        public void onNext(T t) {
+            Thread thread = Thread.currentThread();
+            HopSubscriber<?> up = upstream;
+            if (stats != null && up != null && up.lastThread != null && up.lastThread != thread) {
+                stats.hop(up.name + " -> " + name);
+            }
+            lastThread = thread;
+            if (terminalStats != null) terminalStats.signals.increment();
+            actual.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            s.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            s.cancel();
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.NONE;
+        }
+
+        @Override
+        public T poll() {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public Context currentContext() {
+            return context;
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.PARENT) return s;
+            if (key == Attr.ACTUAL) return actual;
+            if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package sbe.cache;
+
+import org.agrona.BitUtil;
+import org.agrona.BufferUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// a map of long keys to encoded values outside of the Java heap: the entries are not objects, the GC neither traces
+// nor copies them (the second tier of TieredCache, for the entries that do not fit in the on-heap tier)
+//   OffHeapStore<SampleMessage> store = OffHeapStore.builder(SampleMessageCodec::new)
+//       .capacity(10_000_000).maxValueLength(240).segments(16).build();
+//   store.put(42L, message);  SampleMessage copy = store.get(42L);
+// segments: the keys are spread over segments by hash, each segment has its own lock and memory (an arena of at most
+//   2GB, the limit of a ByteBuffer), i.e. 16 segments for up to 32GB
+// arena: the slots of a segment, either a direct ByteBuffer (counted in -XX:MaxDirectMemorySize) or a memory-mapped
+//   file (mapped(directory): the page cache holds it, the OS can page it out); the file is scratch space, it is deleted
+//   on close and not reloaded
+//   slot: 0: key (long), 8: value length (int), 12: referenced (byte, the clock bit), 16: the encoded value
+//   the slots have a fixed size (maxValueLength + 16, 8-byte aligned): a value longer than maxValueLength is rejected
+// index: an open-addressing hash table (linear probing) of slot numbers in a direct buffer, 2x the slots rounded up to
+//   a power of 2, the key of a bucket is read from its slot; a removal shifts the following buckets back (no tombstone)
+// eviction: CLOCK, when a segment is full the hand sweeps its slots, clears the referenced bits it passes, and evicts
+//   the first slot that was not referenced since the last sweep (get() and touch() set the bit: a second chance)
+// zero-copy: the values are encoded in their slot and decoded from it (the codec works on a view of the slot, there is
+//   no byte[] in between)
+public final class OffHeapStore<V> implements AutoCloseable {
+
+    static final int KEY_OFFSET = 0;
+    static final int LENGTH_OFFSET = 8;
+    static final int REFERENCED_OFFSET = 12;
+    static final int VALUE_OFFSET = 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int slotSize;
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private OffHeapStore(Builder<V> builder) {
+        this.slotSize = BitUtil.align(VALUE_OFFSET + builder.maxValueLength, 8);
+        int count = builder.segments;
+        int slots = (int) Math.min((builder.capacity + count - 1) / count, Integer.MAX_VALUE / slotSize);
+        this.segments = (Segment[]) new OffHeapStore.Segment[count];
+        this.segmentMask = count - 1;
+        for (int i = 0; i < count; i++) {
+            Path file = builder.directory == null ? null : builder.directory.resolve("segment-" + i + ".offheap");
+            segments[i] = new Segment(builder.codecs.get(), slots, slotSize, file);
+        }
+    }
+
+    public static <V> Builder<V> builder(Supplier<? extends ValueCodec<V>> codecs) {
+        return new Builder<>(codecs);
+    }
+
+    // murmur3 fmix64: the low bits pick the bucket, the high bits the segment
+    static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private Segment segment(long hash) {
+        return segments[(int) (hash >>> 40) & segmentMask];
+    }
+
+    // stores the value (replaces the value of the key), false if its encoding is longer than maxValueLength
+    public boolean put(long key, V value) {
+        long hash = hash(key);
+        return segment(hash).put(key, hash, value);
+    }
+
+    // decodes the value of the key (null if absent) and marks it referenced
+    public V get(long key) {
+        long hash = hash(key);
+        return segment(hash).get(key, hash);
+    }
+
+    // marks the value of the key referenced without decoding it, false if absent
+    public boolean touch(long key) {
+        long hash = hash(key);
+        return segment(hash).touch(key, hash);
+    }
+
+    public boolean remove(long key) {
+        long hash = hash(key);
+        return segment(hash).remove(key, hash);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) size += segment.size();
+        return size;
+    }
+
+    // the number of slots
+    public long capacity() {
+        return (long) segments.length * segments[0].slots;
+    }
+
+    public int maxValueLength() {
+        return slotSize - VALUE_OFFSET;
+    }
+
+    // the off-heap bytes of the arenas and the indexes
+    public long memoryBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) bytes += segment.arena.capacity() + segment.index.capacity();
+        return bytes;
+    }
+
+    // the entries evicted by the clock to make room for new ones
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    // the puts of values longer than maxValueLength
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void close() {
+        for (Segment segment : segments) segment.close();
+    }
+
+    private final class Segment {
+
+        private final ValueCodec<V> codec;
+        private final int slots;
+        private final int slotSize;
+        private final ByteBuffer memory;
+        private final Path file;
+        private final UnsafeBuffer arena;
+        private final ByteBuffer indexMemory;
+        private final UnsafeBuffer index;            // slot + 1 per bucket, 0: empty bucket
+        private final int indexMask;
+        private final UnsafeBuffer valueView = new UnsafeBuffer(0, 0);
+        private int allocated;                       // the slots used at least once
+        private int freeHead = -1;                   // the free slots, linked through their key field
+        private int hand;
+        private int size;
+
+        Segment(ValueCodec<V> codec, int slots, int slotSize, Path file) {
+            this.codec = codec;
+            this.slots = slots;
+            this.slotSize = slotSize;
+            this.file = file;
+            long length = (long) slots * slotSize;
+            this.memory = file == null ? ByteBuffer.allocateDirect((int) length)
+                : IoUtil.mapNewFile(file.toFile(), length, false);
+            this.arena = new UnsafeBuffer(memory);
+            int buckets = BitUtil.findNextPositivePowerOfTwo(Math.max(2, slots * 2));
+            this.indexMemory = ByteBuffer.allocateDirect(buckets * Integer.BYTES);
+            this.index = new UnsafeBuffer(indexMemory);
+            this.index.setMemory(0, index.capacity(), (byte) 0);
+            this.indexMask = buckets - 1;
+        }
+
+        private int offset(int slot) {
+            return slot * slotSize;
+        }
+
+        private int slotAt(int bucket) {
+            return index.getInt(bucket * Integer.BYTES) - 1;
+        }
+
+        private void setSlotAt(int bucket, int slot) {
+            index.putInt(bucket * Integer.BYTES, slot + 1);
+        }
+
+        // the bucket of the key, or -1
+        private int find(long key, long hash) {
+            for (int bucket = (int) hash & indexMask; ; bucket = (bucket + 1) & indexMask) {
+                int slot = slotAt(bucket);
+                if (slot < 0) return -1;
+                if (arena.getLong(offset(slot) + KEY_OFFSET) == key) return bucket;
+            }
+        }
+
+        private void insert(long hash, int slot) {
+            int bucket = (int) hash & indexMask;
+            while (slotAt(bucket) >= 0) bucket = (bucket + 1) & indexMask;
+            setSlotAt(bucket, slot);
+        }
+
+        // backward-shift deletion: the following buckets of the run move back if the emptied bucket is on their probe
+        // path (between their home bucket and their bucket, cyclically)
+        private void deleteBucket(int bucket) {
+            int empty = bucket;
+            for (int next = (empty + 1) & indexMask; ; next = (next + 1) & indexMask) {
+                int slot = slotAt(next);
+                if (slot < 0) break;
+                int home = (int) hash(arena.getLong(offset(slot) + KEY_OFFSET)) & indexMask;
+                boolean movable = empty <= next ? home <= empty || home > next : home <= empty && home > next;
+                if (movable) {
+                    setSlotAt(empty, slot);
+                    empty = next;
+                }
+            }
+            index.putInt(empty * Integer.BYTES, 0);
+        }
+
+        private void free(int slot) {
+            arena.putLong(offset(slot) + KEY_OFFSET, freeHead);
+            arena.putInt(offset(slot) + LENGTH_OFFSET, -1);
+            freeHead = slot;
+        }
+
+        // a free slot, or the slot of the entry evicted by the clock
+        private int allocate() {
+            if (freeHead >= 0) {
+                int slot = freeHead;
+                freeHead = (int) arena.getLong(offset(slot) + KEY_OFFSET);
+                return slot;
+            }
+            if (allocated < slots) return allocated++;
+            for (;;) {
+                int slot = hand;
+                hand = hand + 1 == slots ? 0 : hand + 1;
+                int referenced = offset(slot) + REFERENCED_OFFSET;
+                if (arena.getByte(referenced) != 0) {
+                    arena.putByte(referenced, (byte) 0);
+                    continue;
+                }
+                long key = arena.getLong(offset(slot) + KEY_OFFSET);
+                deleteBucket(find(key, hash(key)));
+                size--;
+                evictions.increment();
+                return slot;
+            }
+        }
+
+        synchronized boolean put(long key, long hash, V value) {
+            int bucket = find(key, hash);
+            int slot = bucket >= 0 ? slotAt(bucket) : allocate();
+            int offset = offset(slot);
+            valueView.wrap(arena, offset + VALUE_OFFSET, slotSize - VALUE_OFFSET);
+            int length;
+            try {
+                length = codec.encode(value, valueView, 0);
+            } catch (IndexOutOfBoundsException e) {
+                length = -1;
+            }
+            if (length < 0) {
+                rejected.increment();
+                if (bucket >= 0) {
+                    deleteBucket(bucket); // its old value was overwritten
+                    size--;
+                }
+                free(slot);
+                return false;
+            }
+            arena.putLong(offset + KEY_OFFSET, key);
+            arena.putInt(offset + LENGTH_OFFSET, length);
+            arena.putByte(offset + REFERENCED_OFFSET, (byte) 0);
+            if (bucket < 0) {
+                insert(hash, slot);
+                size++;
+            }
+            return true;
+        }
+
+        synchronized V get(long key, long hash) {
+            int bucket = find(key, hash);
+            if (bucket < 0) return null;
+            int offset = offset(slotAt(bucket));
+            arena.putByte(offset + REFERENCED_OFFSET, (byte) 1);
+            valueView.wrap(arena, offset + VALUE_OFFSET, slotSize - VALUE_OFFSET);
+            return codec.decode(valueView, 0, arena.getInt(offset + LENGTH_OFFSET));
+        }
+
+        synchronized boolean touch(long key, long hash) {
+            int bucket = find(key, hash);
+            if (bucket < 0) return false;
+            arena.putByte(offset(slotAt(bucket)) + REFERENCED_OFFSET, (byte) 1);
+            return true;
+        }
+
+        synchronized boolean remove(long key, long hash) {
+            int bucket = find(key, hash);
+            if (bucket < 0) return false;
+            int slot = slotAt(bucket);
+            deleteBucket(bucket);
+            free(slot);
+            size--;
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void close() {
+            if (file != null) {
+                IoUtil.unmap((MappedByteBuffer) memory);
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                BufferUtil.free(memory);
+            }
+            BufferUtil.free(indexMemory);
+        }
+    }
+
+    public static final class Builder<V> {
+
+        private final Supplier<? extends ValueCodec<V>> codecs;
+        private long capacity = 1 << 20;
+        private int maxValueLength = 240;
+        private int segments = 16;
+        private Path directory;
+
+        private Builder(Supplier<? extends ValueCodec<V>> codecs) {
+            this.codecs = codecs;
+        }
+
+        // the number of entries (slots), split evenly over the segments
+        public Builder<V> capacity(long capacity) {
+            if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+            this.capacity = capacity;
+            return this;
+        }
+
+        // the longest encoded value: the slot size is maxValueLength + 16 bytes
+        public Builder<V> maxValueLength(int maxValueLength) {
+            if (maxValueLength <= 0) throw new IllegalArgumentException("maxValueLength must be > 0");
+            this.maxValueLength = maxValueLength;
+            return this;
+        }
+
+        // a power of 2: the segments lock independently, and each holds at most 2GB of slots
+        public Builder<V> segments(int segments) {
+            if (segments <= 0 || !BitUtil.isPowerOfTwo(segments)) {
+                throw new IllegalArgumentException("segments must be a power of 2");
+            }
+            this.segments = segments;
+            return this;
+        }
+
+        // the arenas as memory-mapped files in directory, instead of direct buffers
+        public Builder<V> mapped(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public OffHeapStore<V> build() {
+            return new OffHeapStore<>(this);
+        }
+    }
+}
+// ref:
+//   https://en.wikipedia.org/wiki/Page_replacement_algorithm#Clock
+//   https://en.wikipedia.org/wiki/Linear_probing#Deletion
@@ -0,0 +1,30 @@
+package sbe.cache;
+
+import com.my.sbe.MessageHeaderDecoder;
+import com.my.sbe.MessageHeaderEncoder;
+import com.my.sbe.SampleMessageDecoder;
+import com.my.sbe.SampleMessageEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import sbe.codec.SampleMessage;
+import sbe.codec.SbeCodec;
+
+// the SampleMessages of example-schema.xml as the values of an OffHeapStore, with the encode/decode of SbeCodec
+// not thread-safe (its flyweights are reused): one per segment, ex. OffHeapStore.builder(SampleMessageCodec::new)
+public final class SampleMessageCodec implements ValueCodec<SampleMessage> {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final SampleMessageEncoder encoder = new SampleMessageEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final SampleMessageDecoder decoder = new SampleMessageDecoder();
+
+    @Override
+    public int encode(SampleMessage value, MutableDirectBuffer buffer, int offset) {
+        return SbeCodec.encode(value, buffer, offset, headerEncoder, encoder);
+    }
+
+    @Override
+    public SampleMessage decode(DirectBuffer buffer, int offset, int length) {
+        return SbeCodec.decode(buffer, offset, headerDecoder, decoder);
+    }
+}
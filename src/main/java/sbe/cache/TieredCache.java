@@ -0,0 +1,210 @@
+package sbe.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+// a two-tier cache: a Caffeine cache on the heap for the hot entries (tier 1), and an OffHeapStore for the entries
+// evicted from it (tier 2), so that a cache of tens of GB keeps only its hot part in the heap (a GC traces and copies
+// the tier 1 entries, not the tier 2 ones)
+//   TieredCache<SampleMessage> cache = TieredCache.of(Caffeine.newBuilder().maximumSize(100_000), store);
+//   (from Scala: TieredCache.of(Scaffeine().maximumSize(100000).underlying, store))
+//   cache.put(42L, message);  cache.getIfPresent(42L);  cache.get(42L, key -> load(key));
+// spill: an entry evicted from tier 1 by size is encoded into tier 2 (a CacheWriter: in the eviction, atomically for
+//   the key); an entry that still has its tier 2 copy is only marked referenced (no encoding)
+// promotion: a tier 1 miss decodes the entry from tier 2 (from the off-heap slot, no copy) and loads it into tier 1,
+//   in the computation of the key in tier 1 (the concurrent gets of the key wait for it, instead of decoding it again)
+//   the tier 2 copy is kept (inclusive tiers): when the entry is evicted again, it is not encoded again
+// put() and invalidate() remove the tier 2 copy, so the values must not be mutated after put() (the tier 2 copy would
+// be stale); the tier 1 entries that expire or are invalidated are removed from tier 2 too
+public final class TieredCache<V> implements AutoCloseable {
+
+    private final Cache<Long, V> tier1;
+    private final OffHeapStore<V> tier2;
+
+    private final LongAdder tier1Hits = new LongAdder();
+    private final LongAdder tier2Hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder spills = new LongAdder();
+    private final LongAdder spillsRejected = new LongAdder();
+
+    private TieredCache(Caffeine<Object, Object> tier1, OffHeapStore<V> tier2) {
+        this.tier2 = tier2;
+        this.tier1 = tier1.writer(new Spiller()).build();
+    }
+
+    // tier1: a Caffeine builder without a writer (its maximumSize or maximumWeight bounds tier 1)
+    public static <V> TieredCache<V> of(Caffeine<Object, Object> tier1, OffHeapStore<V> tier2) {
+        return new TieredCache<>(tier1, tier2);
+    }
+
+    public V getIfPresent(long key) {
+        return get(key, null);
+    }
+
+    // the value of the key from tier 1, else from tier 2, else from the loader (null: not cached)
+    public V get(long key, LongFunction<? extends V> loader) {
+        boolean[] missed = new boolean[1];
+        V value = tier1.get(key, k -> {
+            missed[0] = true;
+            V promoted = tier2.get(k);
+            if (promoted != null) {
+                tier2Hits.increment();
+                return promoted;
+            }
+            misses.increment();
+            return loader == null ? null : loader.apply(k);
+        });
+        if (!missed[0]) tier1Hits.increment();
+        return value;
+    }
+
+    public void put(long key, V value) {
+        tier1.put(key, value);
+    }
+
+    public void invalidate(long key) {
+        tier1.asMap().compute(key, (k, value) -> {
+            tier2.remove(k);
+            return null;
+        });
+    }
+
+    // performs the pending evictions of tier 1 (and their spills)
+    public void cleanUp() {
+        tier1.cleanUp();
+    }
+
+    public long tier1Size() {
+        return tier1.estimatedSize();
+    }
+
+    public long tier2Size() {
+        return tier2.size();
+    }
+
+    public Cache<Long, V> tier1() {
+        return tier1;
+    }
+
+    public OffHeapStore<V> tier2() {
+        return tier2;
+    }
+
+    public Stats stats() {
+        return new Stats(tier1Hits.sum(), tier2Hits.sum(), misses.sum(), spills.sum(), spillsRejected.sum(),
+            tier2.evictionCount());
+    }
+
+    @Override
+    public void close() {
+        tier1.invalidateAll();
+        tier2.close();
+    }
+
+    private final class Spiller implements CacheWriter<Long, V> {
+
+        @Override
+        public void write(Long key, V value) {
+            tier2.remove(key); // a new value: the tier 2 copy is stale
+        }
+
+        @Override
+        public void delete(Long key, V value, RemovalCause cause) {
+            if (cause != RemovalCause.SIZE) {
+                tier2.remove(key);
+            } else if (!tier2.touch(key)) {
+                if (tier2.put(key, value)) {
+                    spills.increment();
+                } else {
+                    spillsRejected.increment();
+                }
+            }
+        }
+    }
+
+    public static final class Stats {
+
+        private final long tier1HitCount;
+        private final long tier2HitCount;
+        private final long missCount;
+        private final long spillCount;
+        private final long spillRejectedCount;
+        private final long tier2EvictionCount;
+
+        Stats(long tier1HitCount, long tier2HitCount, long missCount, long spillCount, long spillRejectedCount,
+              long tier2EvictionCount) {
+            this.tier1HitCount = tier1HitCount;
+            this.tier2HitCount = tier2HitCount;
+            this.missCount = missCount;
+            this.spillCount = spillCount;
+            this.spillRejectedCount = spillRejectedCount;
+            this.tier2EvictionCount = tier2EvictionCount;
+        }
+
+        public long requestCount() {
+            return tier1HitCount + tier2HitCount + missCount;
+        }
+
+        public long tier1HitCount() {
+            return tier1HitCount;
+        }
+
+        // the hits of tier 2 (promoted to tier 1)
+        public long tier2HitCount() {
+            return tier2HitCount;
+        }
+
+        // not in tier 1 nor in tier 2
+        public long missCount() {
+            return missCount;
+        }
+
+        // the entries evicted from tier 1 and encoded into tier 2
+        public long spillCount() {
+            return spillCount;
+        }
+
+        // the entries evicted from tier 1 whose encoding is longer than the maxValueLength of tier 2 (dropped)
+        public long spillRejectedCount() {
+            return spillRejectedCount;
+        }
+
+        // the entries evicted from tier 2 (dropped)
+        public long tier2EvictionCount() {
+            return tier2EvictionCount;
+        }
+
+        // of all the requests
+        public double tier1HitRate() {
+            return rate(tier1HitCount, requestCount());
+        }
+
+        // of the requests that missed tier 1
+        public double tier2HitRate() {
+            return rate(tier2HitCount, tier2HitCount + missCount);
+        }
+
+        public double hitRate() {
+            return rate(tier1HitCount + tier2HitCount, requestCount());
+        }
+
+        private static double rate(long count, long total) {
+            return total == 0 ? 1.0 : (double) count / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("TieredCacheStats{tier1HitCount=%d, tier2HitCount=%d, missCount=%d, tier1HitRate=%.3f, "
+                    + "tier2HitRate=%.3f, hitRate=%.3f, spillCount=%d, spillRejectedCount=%d, tier2EvictionCount=%d}",
+                tier1HitCount, tier2HitCount, missCount, tier1HitRate(), tier2HitRate(), hitRate(), spillCount,
+                spillRejectedCount, tier2EvictionCount);
+        }
+    }
+}
+// ref:
+//   https://github.com/ben-manes/caffeine/wiki/Writer (CacheWriter: the write-through of the evictions)
@@ -0,0 +1,17 @@
+package sbe.cache;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+// the encoding of the values of an OffHeapStore (ex. SampleMessageCodec: the SBE codec of example-schema.xml)
+// a codec may hold flyweights: the store uses one codec per segment, under the lock of the segment
+public interface ValueCodec<V> {
+
+    // encodes value at offset of buffer and returns its length; a value that does not fit in the buffer throws
+    // IndexOutOfBoundsException (the bounds checks of the Agrona buffers)
+    int encode(V value, MutableDirectBuffer buffer, int offset);
+
+    // decodes the value of length bytes at offset of buffer: buffer is a view of the store's memory, the value must not
+    // keep a reference to it
+    V decode(DirectBuffer buffer, int offset, int length);
+}
@@ -0,0 +1,29 @@
+package sbe.codec;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// a buffer of a BufferPool that was not released within the leak threshold
+public final class BufferLeak {
+
+    public final BufferPool pool;
+    public final int index;
+    public final long heldNanos;
+    public final StackTraceElement[] acquiredAt;  // empty unless the pool tracks the acquire sites
+
+    BufferLeak(BufferPool pool, int index, long heldNanos, Throwable acquiredAt) {
+        this.pool = pool;
+        this.index = index;
+        this.heldNanos = heldNanos;
+        this.acquiredAt = acquiredAt == null ? new StackTraceElement[0] : acquiredAt.getStackTrace();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("buffer ").append(index).append(" of ").append(pool).append(" held for ")
+            .append(TimeUnit.NANOSECONDS.toMillis(heldNanos)).append(" ms\n");
+        Arrays.stream(acquiredAt).limit(12).forEach(frame -> sb.append("    at ").append(frame).append('\n'));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,174 @@
+package sbe.codec;
+
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// a bounded pool of direct buffers of the same capacity, carved out of one ByteBuffer.allocateDirect
+//   the free buffers are in a lock-free array queue (Agrona ManyToManyConcurrentArrayQueue): acquire and release
+//   allocate nothing
+// reservations: SbeCodec reserves buffers before it requests the messages to encode (reserve()), so that the pool
+//   bounds the buffers in flight: when the pool is empty the encoder stops requesting, and resumes when a buffer is
+//   released (the waiters registered with await() are run by release())
+// leak detection: leaks(threshold) lists the buffers held for longer than threshold, detectLeaks() reports them
+//   periodically, once per acquisition; with trackAcquireSites the stack trace of each acquisition is recorded
+//   (a Throwable per acquire(): only for debugging)
+public final class BufferPool {
+
+    private final String name;
+    private final int capacity;
+    private final PooledBuffer[] buffers;
+    private final ManyToManyConcurrentArrayQueue<PooledBuffer> free;
+    private final AtomicInteger available;      // the free buffers that are not reserved
+    private final Queue<Runnable> waiters = new ConcurrentLinkedQueue<>();
+    private final boolean trackAcquireSites;
+
+    public BufferPool(String name, int buffers, int capacity) {
+        this(name, buffers, capacity, false);
+    }
+
+    public BufferPool(String name, int buffers, int capacity, boolean trackAcquireSites) {
+        if (buffers <= 0) throw new IllegalArgumentException("buffers must be > 0");
+        if (capacity <= 0 || (long) buffers * capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity must be > 0, and buffers * capacity < 2GB");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.trackAcquireSites = trackAcquireSites;
+        this.buffers = new PooledBuffer[buffers];
+        this.free = new ManyToManyConcurrentArrayQueue<>(buffers);
+        ByteBuffer memory = ByteBuffer.allocateDirect(buffers * capacity);
+        for (int i = 0; i < buffers; i++) {
+            this.buffers[i] = new PooledBuffer(this, i, memory, i * capacity, capacity);
+            free.offer(this.buffers[i]);
+        }
+        this.available = new AtomicInteger(buffers);
+    }
+
+    // a free buffer, or null when all the buffers are in use or reserved
+    public PooledBuffer acquire() {
+        return reserve(1) == 1 ? acquireReserved() : null;
+    }
+
+    // reserves up to max buffers, returns how many
+    int reserve(int max) {
+        for (;;) {
+            int current = available.get();
+            int reserved = Math.min(current, max);
+            if (reserved == 0 || available.compareAndSet(current, current - reserved)) return reserved;
+        }
+    }
+
+    void unreserve(int reserved) {
+        if (reserved <= 0) return;
+        available.addAndGet(reserved);
+        wakeUp();
+    }
+
+    // a buffer of a reservation: release() offers the buffer before it makes it available, so there is one, but
+    // poll() can still miss it: an offer claims its slot of the queue before it publishes the buffer in it, and poll()
+    // returns null for a claimed slot that is not published yet; the offer is in progress, so spin until it is
+    PooledBuffer acquireReserved() {
+        PooledBuffer buffer;
+        while ((buffer = free.poll()) == null) {
+            Thread.onSpinWait();
+        }
+        buffer.length(0);
+        buffer.reported = false;
+        buffer.acquiredAt = trackAcquireSites ? new Throwable("acquired by " + Thread.currentThread().getName()) : null;
+        buffer.acquiredNanos = System.nanoTime();
+        buffer.markInUse();
+        return buffer;
+    }
+
+    void release(PooledBuffer buffer) {
+        free.offer(buffer);
+        available.incrementAndGet();
+        wakeUp();
+    }
+
+    // runs waiter once, on the thread of a later release (or unreserve)
+    void await(Runnable waiter) {
+        waiters.offer(waiter);
+    }
+
+    // the waiters run while there are buffers available: a waiter that takes the last one and still has demand
+    // registers again, and is run by the next release
+    private void wakeUp() {
+        Runnable waiter;
+        while (available.get() > 0 && (waiter = waiters.poll()) != null) {
+            waiter.run();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return buffers.length;
+    }
+
+    // the buffers that are neither free nor reserved
+    public int inUse() {
+        int inUse = 0;
+        for (PooledBuffer buffer : buffers) {
+            if (buffer.isInUse()) inUse++;
+        }
+        return inUse;
+    }
+
+    public int available() {
+        return available.get();
+    }
+
+    // the buffers held for longer than threshold
+    public List<BufferLeak> leaks(Duration threshold) {
+        List<BufferLeak> leaks = new ArrayList<>();
+        long now = System.nanoTime();
+        for (PooledBuffer buffer : buffers) {
+            // inUse is read first: it is set after acquiredNanos
+            if (buffer.isInUse() && now - buffer.acquiredNanos > threshold.toNanos()) {
+                long held = now - buffer.acquiredNanos;
+                leaks.add(new BufferLeak(this, buffer.index, held, buffer.acquiredAt));
+            }
+        }
+        return leaks;
+    }
+
+    // checks the pool every period, and reports each buffer held for longer than threshold once
+    public Disposable detectLeaks(Duration threshold, Duration period, Consumer<BufferLeak> reporter) {
+        return Schedulers.parallel().schedulePeriodically(() -> {
+            for (BufferLeak leak : leaks(threshold)) {
+                PooledBuffer buffer = buffers[leak.index];
+                if (!buffer.reported) {
+                    buffer.reported = true;
+                    reporter.accept(leak);
+                }
+            }
+        }, period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    public void assertNoLeaks() {
+        List<BufferLeak> leaks = leaks(Duration.ZERO);
+        if (!leaks.isEmpty()) {
+            throw new IllegalStateException(leaks.size() + " buffer(s) of " + this + " not released, first: "
+                + leaks.get(0));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BufferPool(" + name + ", " + buffers.length + " x " + capacity + " bytes)";
+    }
+}
@@ -0,0 +1,59 @@
+package sbe.codec;
+
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+// a direct buffer borrowed from a BufferPool: a window of `capacity` bytes over the pool's memory
+//   length(): the bytes written to it (ex. the encoded message, SBE header included)
+//   release(): gives it back to the pool, once; it must not be used afterwards, and must not be wrap()ped
+public final class PooledBuffer extends UnsafeBuffer {
+
+    private static final AtomicIntegerFieldUpdater<PooledBuffer> IN_USE =
+        AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "inUse");
+
+    final BufferPool pool;
+    final int index;
+    private volatile int inUse;
+    private int length;
+
+    // set by BufferPool.acquire(), read by the leak detector
+    volatile long acquiredNanos;
+    volatile Throwable acquiredAt;
+    volatile boolean reported;
+
+    PooledBuffer(BufferPool pool, int index, ByteBuffer memory, int offset, int capacity) {
+        super(memory, offset, capacity);
+        this.pool = pool;
+        this.index = index;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void length(int length) {
+        this.length = length;
+    }
+
+    public void release() {
+        if (!IN_USE.compareAndSet(this, 1, 0)) {
+            throw new IllegalStateException("buffer " + index + " of " + pool + " is already released");
+        }
+        pool.release(this);
+    }
+
+    boolean isInUse() {
+        return inUse == 1;
+    }
+
+    void markInUse() {
+        inUse = 1;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledBuffer(" + index + ", length=" + length + ")";
+    }
+}
@@ -0,0 +1,91 @@
+package sbe.codec;
+
+import com.my.sbe.SampleEnum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+// the object form of the SampleMessage of example-schema.xml, encoded and decoded by SbeCodec
+//   public fields and a no-arg constructor, so that Jackson can (de)serialize it too (see SbeCodecBenchmark)
+public final class SampleMessage {
+
+    public long sequence;
+    public SampleEnum enumField;
+    public int field1;                          // composite.field1 (uint16)
+    public int field2;                          // composite.field2 (uint16)
+    public List<Entry> group = new ArrayList<>();
+    public String message;
+
+    // an element of the repeating group
+    public static final class Entry {
+
+        public int groupField1;                 // uint16
+        public int groupField2;                 // uint16
+        public String groupField3;
+
+        public Entry() {
+        }
+
+        public Entry(int groupField1, int groupField2, String groupField3) {
+            this.groupField1 = groupField1;
+            this.groupField2 = groupField2;
+            this.groupField3 = groupField3;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Entry)) return false;
+            Entry entry = (Entry) o;
+            return groupField1 == entry.groupField1 && groupField2 == entry.groupField2
+                && Objects.equals(groupField3, entry.groupField3);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupField1, groupField2, groupField3);
+        }
+
+        @Override
+        public String toString() {
+            return "Entry(" + groupField1 + ", " + groupField2 + ", " + groupField3 + ")";
+        }
+    }
+
+    public SampleMessage() {
+    }
+
+    public SampleMessage(long sequence, SampleEnum enumField, int field1, int field2, String message) {
+        this.sequence = sequence;
+        this.enumField = enumField;
+        this.field1 = field1;
+        this.field2 = field2;
+        this.message = message;
+    }
+
+    public SampleMessage add(int groupField1, int groupField2, String groupField3) {
+        group.add(new Entry(groupField1, groupField2, groupField3));
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SampleMessage)) return false;
+        SampleMessage that = (SampleMessage) o;
+        return sequence == that.sequence && field1 == that.field1 && field2 == that.field2
+            && enumField == that.enumField && group.equals(that.group) && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, enumField, field1, field2, group, message);
+    }
+
+    @Override
+    public String toString() {
+        return "SampleMessage(" + sequence + ", " + enumField + ", " + field1 + ", " + field2 + ", " + group + ", "
+            + message + ")";
+    }
+}
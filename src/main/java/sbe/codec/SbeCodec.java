@@ -0,0 +1,367 @@
+package sbe.codec;
+
+import com.my.sbe.MessageHeaderDecoder;
+import com.my.sbe.MessageHeaderEncoder;
+import com.my.sbe.SampleMessageDecoder;
+import com.my.sbe.SampleMessageEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import reactor.core.CoreSubscriber;
+import reactor.core.Exceptions;
+import reactor.core.Fuseable;
+import reactor.core.Scannable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Operators;
+import reactor.core.publisher.ParallelFlux;
+import reactor.util.context.Context;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Reactor operators between SampleMessage objects and SBE-encoded direct buffers (example-schema.xml)
+//   Flux<SampleMessage> -> Flux<PooledBuffer>: messages.transform(SbeCodec.encode(pool))
+//   Flux<DirectBuffer> -> Flux<SampleMessage>: buffers.transform(SbeCodec.decode())
+//   per rail: parallelFlux.transform(SbeCodec.encodeRails(pool)), parallelFlux.transform(SbeCodec.decodeRails())
+// flyweights: each subscriber (i.e. each subscription, each rail of a ParallelFlux) owns its encoder or decoder and
+//   reuses it for every message, the strings are written without String.getBytes() when they are ASCII: the steady
+//   state of encode() allocates nothing (decode() allocates the SampleMessage and its strings, nothing else)
+// pooled buffers: encode() writes each message into a buffer of the pool, the downstream must release() it
+//   the encoder reserves a buffer before it requests a message, so the pool bounds the buffers in flight: with all the
+//   buffers held downstream, the encoder stops requesting until one is released (backpressure, no error)
+//   decode() releases the PooledBuffers it has decoded, and the PooledBuffers discarded before it (ex. by a filter,
+//   or in the queue of a cancelled publishOn); add .doOnDiscard(PooledBuffer.class, PooledBuffer::release) after
+//   encode() when the buffers are not decoded
+public final class SbeCodec {
+
+    private SbeCodec() {
+    }
+
+    public static Function<Flux<SampleMessage>, Flux<PooledBuffer>> encode(BufferPool pool) {
+        Function<? super Publisher<SampleMessage>, ? extends Publisher<PooledBuffer>> lift = encoder(pool);
+        return flux -> Flux.from(lift.apply(flux));
+    }
+
+    public static Function<ParallelFlux<SampleMessage>, ParallelFlux<PooledBuffer>> encodeRails(BufferPool pool) {
+        Function<? super Publisher<SampleMessage>, ? extends Publisher<PooledBuffer>> lift = encoder(pool);
+        return rails -> (ParallelFlux<PooledBuffer>) lift.apply(rails);
+    }
+
+    public static Function<Flux<? extends DirectBuffer>, Flux<SampleMessage>> decode() {
+        Function<? super Publisher<DirectBuffer>, ? extends Publisher<SampleMessage>> lift = decoder();
+        return flux -> Flux.from(lift.apply(Flux.<DirectBuffer>from(flux)
+            .doOnDiscard(PooledBuffer.class, PooledBuffer::release)));
+    }
+
+    // note: on rails only the decoded PooledBuffers are released (ParallelFlux has no doOnDiscard)
+    @SuppressWarnings("unchecked")
+    public static Function<ParallelFlux<? extends DirectBuffer>, ParallelFlux<SampleMessage>> decodeRails() {
+        Function<? super Publisher<DirectBuffer>, ? extends Publisher<SampleMessage>> lift = decoder();
+        return rails -> (ParallelFlux<SampleMessage>) lift.apply((ParallelFlux<DirectBuffer>) rails);
+    }
+
+    private static Function<? super Publisher<SampleMessage>, ? extends Publisher<PooledBuffer>> encoder(
+        BufferPool pool) {
+        return Operators.<SampleMessage, PooledBuffer>lift((scannable, actual) -> new EncodeSubscriber(actual, pool));
+    }
+
+    private static Function<? super Publisher<DirectBuffer>, ? extends Publisher<SampleMessage>> decoder() {
+        return Operators.<DirectBuffer, SampleMessage>lift((scannable, actual) -> new DecodeSubscriber(actual));
+    }
+
+    // encodes message at offset of buffer (SBE header included), and returns its length
+    public static int encode(SampleMessage message, MutableDirectBuffer buffer, int offset,
+                             MessageHeaderEncoder headerEncoder, SampleMessageEncoder encoder) {
+        encoder.wrapAndApplyHeader(buffer, offset, headerEncoder)
+            .sequence(message.sequence)
+            .enumField(message.enumField);
+        encoder.composite().field1(message.field1).field2(message.field2);
+        SampleMessageEncoder.GroupEncoder group = encoder.groupCount(message.group.size());
+        for (int i = 0; i < message.group.size(); i++) {
+            SampleMessage.Entry entry = message.group.get(i);
+            group.next().groupField1(entry.groupField1).groupField2(entry.groupField2);
+            if (!putAscii(encoder, entry.groupField3)) group.groupField3(entry.groupField3);
+        }
+        if (!putAscii(encoder, message.message)) encoder.message(message.message);
+        return MessageHeaderEncoder.ENCODED_LENGTH + encoder.encodedLength();
+    }
+
+    // writes an ASCII string as the next var data field (uint32 length + bytes, as the generated message(String)
+    // does, without its String.getBytes()), returns false when the string is not ASCII
+    private static boolean putAscii(SampleMessageEncoder encoder, String value) {
+        if (value == null) return false;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) return false;
+        }
+        int limit = encoder.limit();
+        encoder.buffer().putInt(limit, value.length(), ByteOrder.LITTLE_ENDIAN);
+        encoder.buffer().putStringWithoutLengthAscii(limit + 4, value);
+        encoder.limit(limit + 4 + value.length());
+        return true;
+    }
+
+    // decodes the SampleMessage at offset of buffer (SBE header included)
+    public static SampleMessage decode(DirectBuffer buffer, int offset, MessageHeaderDecoder headerDecoder,
+                                       SampleMessageDecoder decoder) {
+        headerDecoder.wrap(buffer, offset);
+        if (headerDecoder.templateId() != SampleMessageDecoder.TEMPLATE_ID
+            || headerDecoder.schemaId() != SampleMessageDecoder.SCHEMA_ID) {
+            throw new IllegalArgumentException("not a SampleMessage: templateId=" + headerDecoder.templateId()
+                + ", schemaId=" + headerDecoder.schemaId());
+        }
+        decoder.wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+            headerDecoder.version());
+        SampleMessage message = new SampleMessage();
+        message.sequence = decoder.sequence();
+        message.enumField = decoder.enumField();
+        message.field1 = decoder.composite().field1();
+        message.field2 = decoder.composite().field2();
+        SampleMessageDecoder.GroupDecoder group = decoder.group();
+        while (group.hasNext()) {
+            group.next();
+            message.add(group.groupField1(), group.groupField2(), group.groupField3());
+        }
+        message.message = decoder.message();
+        return message;
+    }
+
+    // a QueueSubscription that refuses fusion (see Instrumentation.InstrumentedSubscriber)
+    abstract static class CodecSubscriber<I, O> implements CoreSubscriber<I>, Fuseable.QueueSubscription<O>, Scannable {
+
+        final CoreSubscriber<? super O> actual;
+        Subscription s;
+
+        CodecSubscriber(CoreSubscriber<? super O> actual) {
+            this.actual = actual;
+        }
+
+        @Override
+        public int requestFusion(int requestedMode) {
+            return Fuseable.NONE;
+        }
+
+        @Override
+        public O poll() {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return 0;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return true;
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public Context currentContext() {
+            return actual.currentContext();
+        }
+
+        @Override
+        public Object scanUnsafe(Attr key) {
+            if (key == Attr.PARENT) return s;
+            if (key == Attr.ACTUAL) return actual;
+            if (key == Attr.RUN_STYLE) return Attr.RunStyle.SYNC;
+            return null;
+        }
+    }
+
+    // the downstream demand is turned into upstream requests as buffers are reserved: requested is the demand not
+    // requested upstream yet, reserved the buffers reserved for the requested messages not received yet
+    static final class EncodeSubscriber extends CodecSubscriber<SampleMessage, PooledBuffer> implements Runnable {
+
+        private final BufferPool pool;
+        private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        private final SampleMessageEncoder encoder = new SampleMessageEncoder();
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger reserved = new AtomicInteger();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean waiting = new AtomicBoolean();
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        EncodeSubscriber(CoreSubscriber<? super PooledBuffer> actual, BufferPool pool) {
+            super(actual);
+            this.pool = pool;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(this.s, s)) {
+                this.s = s;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(SampleMessage message) {
+            if (done) {
+                Operators.onNextDropped(message, actual.currentContext());
+                return;
+            }
+            if (reserved.getAndDecrement() <= 0) {
+                if (cancelled) {
+                    Operators.onDiscard(message, actual.currentContext());
+                    return;
+                }
+                onError(Operators.onOperatorError(s, Exceptions.failWithOverflow(), message, actual.currentContext()));
+                return;
+            }
+            PooledBuffer buffer = pool.acquireReserved();
+            try {
+                buffer.length(encode(message, buffer, 0, headerEncoder, encoder));
+            } catch (Throwable e) {
+                buffer.release();
+                onError(Operators.onOperatorError(s, e, message, actual.currentContext()));
+                return;
+            }
+            actual.onNext(buffer);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                Operators.onErrorDropped(t, actual.currentContext());
+                return;
+            }
+            done = true;
+            drain();
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) return;
+            done = true;
+            drain();
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            if (Operators.validate(n)) {
+                requested.getAndUpdate(r -> Operators.addCap(r, n));
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            s.cancel();
+            drain();
+        }
+
+        // run by the pool when a buffer is released after this subscriber found it empty
+        @Override
+        public void run() {
+            waiting.set(false);
+            drain();
+        }
+
+        // serialized by wip: once done or cancelled, the reservations are returned to the pool (including those made by
+        // a drain() running concurrently with the termination, which loops again)
+        private void drain() {
+            if (wip.getAndIncrement() != 0) return;
+            int missed = 1;
+            for (;;) {
+                if (done || cancelled) {
+                    pool.unreserve(Math.max(0, reserved.getAndSet(0)));
+                    missed = wip.addAndGet(-missed);
+                    if (missed == 0) break;
+                    continue;
+                }
+                long r = requested.get();
+                while (r > 0 && !done && !cancelled) {
+                    int n = pool.reserve((int) Math.min(r, Integer.MAX_VALUE));
+                    if (n == 0) {
+                        // registered before the second attempt, so that a release in between is not missed
+                        if (waiting.compareAndSet(false, true)) pool.await(this);
+                        n = pool.reserve((int) Math.min(r, Integer.MAX_VALUE));
+                        if (n == 0) break;
+                    }
+                    r = requested.addAndGet(-n);
+                    reserved.addAndGet(n);
+                    s.request(n);
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) break;
+            }
+        }
+    }
+
+    static final class DecodeSubscriber extends CodecSubscriber<DirectBuffer, SampleMessage> {
+
+        private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+        private final SampleMessageDecoder decoder = new SampleMessageDecoder();
+        private boolean done;
+
+        DecodeSubscriber(CoreSubscriber<? super SampleMessage> actual) {
+            super(actual);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            if (Operators.validate(this.s, s)) {
+                this.s = s;
+                actual.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(DirectBuffer buffer) {
+            if (done) {
+                Operators.onDiscard(buffer, actual.currentContext());
+                return;
+            }
+            SampleMessage message;
+            try {
+                message = decode(buffer, 0, headerDecoder, decoder);
+            } catch (Throwable e) {
+                onError(Operators.onOperatorError(s, e, buffer, actual.currentContext()));
+                return;
+            } finally {
+                if (buffer instanceof PooledBuffer) ((PooledBuffer) buffer).release();
+            }
+            actual.onNext(message);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (done) {
+                Operators.onErrorDropped(t, actual.currentContext());
+                return;
+            }
+            done = true;
+            actual.onError(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) return;
+            done = true;
+            actual.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            s.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            s.cancel();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package sbe.group;
+
+import com.my.sbe.GroupSizeEncodingDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.UnsafeAccess;
+
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+// bulk decode of an SBE repeating group into columns: one field of every entry into a long[]/int[] (or an off-heap
+// column, a MutableDirectBuffer), instead of one flyweight next() and one accessor call per entry and field
+//   int count = columns.wrap(decoder.buffer(), decoder.limit());        // the group header is at the decoder's limit
+//   columns.readLongs(RowsDecoder.priceEncodingOffset(), prices);       // prices[i] = price of entry i
+//   decoder.limit(columns.limit());                                     // the decoder continues after the group
+// layout: a group is a dimension header (blockLength, numInGroup: groupSizeEncoding) followed by numInGroup entries
+//   fixed-width group (no var data in the entries, ex. SampleColumns.rows): entry i is at first + i * blockLength,
+//     a field is a strided array; a group of a single field is a contiguous array, copied with one memory copy
+//   group with var data (ex. SampleMessage.group): each entry is its block followed by its var data fields
+//     (uint32 length + bytes), wrap() scans the entries once to find their offsets, the reads gather from them
+// the bounds are checked once per group in wrap(), the reads use Unsafe (no bounds check per field), and the byte
+// order of the schema (littleEndian) is the native order of x86 and aarch64: no byte swap on those
+// note: the Vector API (jdk.incubator.vector) would need --add-modules at compile and run time; the strided loops
+//   are left to the JIT (they are unrolled, the loads are not vectorized: a gather)
+public final class GroupColumns {
+
+    // Unsafe through the field of Agrona (UnsafeAccess.UNSAFE): its type is not imported, no proprietary API warning
+    private static final long LONG_ARRAY_OFFSET = UnsafeAccess.UNSAFE.arrayBaseOffset(long[].class);
+    private static final long INT_ARRAY_OFFSET = UnsafeAccess.UNSAFE.arrayBaseOffset(int[].class);
+    private static final boolean NATIVE_LITTLE_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+    private final int varDataFields;
+    private DirectBuffer buffer;
+    private byte[] byteArray;                    // the array of a heap buffer, null for a direct buffer
+    private long address;                        // the address (or array offset) of the buffer
+    private int blockLength;
+    private int count;
+    private int first;                           // the offset of the first entry
+    private int limit;                           // the offset after the last entry
+    private int[] offsets = new int[16];         // the offsets of the entries of a group with var data
+
+    // varDataFields: the var data fields of each entry (0 for a fixed-width group)
+    public GroupColumns(int varDataFields) {
+        if (varDataFields < 0) throw new IllegalArgumentException("varDataFields must be >= 0");
+        this.varDataFields = varDataFields;
+    }
+
+    public static GroupColumns fixedWidth() {
+        return new GroupColumns(0);
+    }
+
+    // wraps the group whose dimension header is at offset, and returns its number of entries
+    public int wrap(DirectBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.byteArray = buffer.byteArray();
+        this.address = buffer.addressOffset();
+        checkRange(buffer, offset, GroupSizeEncodingDecoder.ENCODED_LENGTH);
+        blockLength = buffer.getShort(offset + GroupSizeEncodingDecoder.blockLengthEncodingOffset(),
+            ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        count = buffer.getShort(offset + GroupSizeEncodingDecoder.numInGroupEncodingOffset(),
+            ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        first = offset + GroupSizeEncodingDecoder.ENCODED_LENGTH;
+        if (varDataFields == 0) {
+            checkRange(buffer, first, (long) count * blockLength);
+            limit = first + count * blockLength;
+        } else {
+            scan();
+        }
+        return count;
+    }
+
+    private void scan() {
+        if (offsets.length < count) offsets = Arrays.copyOf(offsets, Math.max(count, offsets.length * 2));
+        int position = first;
+        for (int i = 0; i < count; i++) {
+            offsets[i] = position;
+            position += blockLength;
+            for (int field = 0; field < varDataFields; field++) {
+                long length = buffer.getInt(position, ByteOrder.LITTLE_ENDIAN) & 0xFFFF_FFFFL;
+                checkRange(buffer, position, 4 + length);
+                position += 4 + (int) length;
+            }
+        }
+        limit = position;
+    }
+
+    private static void checkRange(DirectBuffer buffer, int index, long length) {
+        if (index < 0 || index + length > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("index=" + index + " length=" + length + " capacity=" + buffer.capacity());
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int blockLength() {
+        return blockLength;
+    }
+
+    // the offset after the group: the position of the next group or var data field of the message
+    public int limit() {
+        return limit;
+    }
+
+    public boolean isFixedWidth() {
+        return varDataFields == 0;
+    }
+
+    // the offset of the field of entry i
+    private long fieldAddress(int i, int fieldOffset) {
+        int entry = varDataFields == 0 ? first + i * blockLength : offsets[i];
+        return address + entry + fieldOffset;
+    }
+
+    private void checkField(int fieldOffset, int fieldLength, int dstLength) {
+        if (fieldOffset < 0 || fieldOffset + fieldLength > blockLength) {
+            throw new IndexOutOfBoundsException("field at " + fieldOffset + " is not in the block of " + blockLength);
+        }
+        if (dstLength < count) throw new IndexOutOfBoundsException("column of " + dstLength + " < " + count);
+    }
+
+    // int64 / uint64 fields
+    public void readLongs(int fieldOffset, long[] dst) {
+        checkField(fieldOffset, Long.BYTES, dst.length);
+        if (NATIVE_LITTLE_ENDIAN && varDataFields == 0 && blockLength == Long.BYTES) {
+            UnsafeAccess.UNSAFE.copyMemory(byteArray, address + first, dst, LONG_ARRAY_OFFSET,
+                (long) count * Long.BYTES);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            long value = UnsafeAccess.UNSAFE.getLong(byteArray, fieldAddress(i, fieldOffset));
+            dst[i] = NATIVE_LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+        }
+    }
+
+    // int32 fields (uint32: & 0xFFFF_FFFFL)
+    public void readInts(int fieldOffset, int[] dst) {
+        checkField(fieldOffset, Integer.BYTES, dst.length);
+        if (NATIVE_LITTLE_ENDIAN && varDataFields == 0 && blockLength == Integer.BYTES) {
+            UnsafeAccess.UNSAFE.copyMemory(byteArray, address + first, dst, INT_ARRAY_OFFSET,
+                (long) count * Integer.BYTES);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int value = UnsafeAccess.UNSAFE.getInt(byteArray, fieldAddress(i, fieldOffset));
+            dst[i] = NATIVE_LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+        }
+    }
+
+    // uint16 fields, widened to int (as the generated accessors do)
+    public void readUint16(int fieldOffset, int[] dst) {
+        checkField(fieldOffset, Short.BYTES, dst.length);
+        for (int i = 0; i < count; i++) {
+            short value = UnsafeAccess.UNSAFE.getShort(byteArray, fieldAddress(i, fieldOffset));
+            dst[i] = (NATIVE_LITTLE_ENDIAN ? value : Short.reverseBytes(value)) & 0xFFFF;
+        }
+    }
+
+    // int64 fields into an off-heap column: count little-endian longs at dstOffset of dst
+    public void readLongs(int fieldOffset, MutableDirectBuffer dst, int dstOffset) {
+        checkField(fieldOffset, Long.BYTES, Integer.MAX_VALUE);
+        checkRange(dst, dstOffset, (long) count * Long.BYTES);
+        if (varDataFields == 0 && blockLength == Long.BYTES) {
+            dst.putBytes(dstOffset, buffer, first, count * Long.BYTES);
+            return;
+        }
+        byte[] dstArray = dst.byteArray();
+        long dstAddress = dst.addressOffset() + dstOffset;
+        for (int i = 0; i < count; i++) {
+            UnsafeAccess.UNSAFE.putLong(dstArray, dstAddress + (long) i * Long.BYTES,
+                UnsafeAccess.UNSAFE.getLong(byteArray, fieldAddress(i, fieldOffset)));
+        }
+    }
+
+    // int32 fields into an off-heap column: count little-endian ints at dstOffset of dst
+    public void readInts(int fieldOffset, MutableDirectBuffer dst, int dstOffset) {
+        checkField(fieldOffset, Integer.BYTES, Integer.MAX_VALUE);
+        checkRange(dst, dstOffset, (long) count * Integer.BYTES);
+        if (varDataFields == 0 && blockLength == Integer.BYTES) {
+            dst.putBytes(dstOffset, buffer, first, count * Integer.BYTES);
+            return;
+        }
+        byte[] dstArray = dst.byteArray();
+        long dstAddress = dst.addressOffset() + dstOffset;
+        for (int i = 0; i < count; i++) {
+            UnsafeAccess.UNSAFE.putInt(dstArray, dstAddress + (long) i * Integer.BYTES,
+                UnsafeAccess.UNSAFE.getInt(byteArray, fieldAddress(i, fieldOffset)));
+        }
+    }
+}
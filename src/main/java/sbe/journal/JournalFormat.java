@@ -0,0 +1,115 @@
+package sbe.journal;
+
+import com.my.sbe.MessageHeaderDecoder;
+import org.agrona.BitUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// the layout of the journal files, shared by JournalWriter and JournalReader
+// segment: a file of segmentLength bytes, named after its index (00000000000000000000.journal, ...)
+//   0: magic (int, written last: a segment without it is still being created), 4: format version (int),
+//   8: segment index (long), 16: segment length (int), the frames start at SEGMENT_HEADER_LENGTH
+// frame: an 8-byte aligned SBE message with an 8-byte frame header (SBE assumes the messages are framed on 8 byte
+//   boundaries, see SBEBasics "Word Aligned Access")
+//   0: frame length (int, header + message, unaligned), 4: CRC32C of the message (int), 8: the SBE message header, ...
+//   the frame length is written last with an ordered store: 0 means "not written yet", a reader never sees a frame
+//   whose length is set before its bytes
+//   a negative frame length is a padding frame: the rest of the segment is unused, the next frame is in the next segment
+// valid frame: the length fits in the segment, the SBE header has the schema id of example-schema.xml and a block
+//   length that fits in the frame, and the checksum matches (a torn frame, ex. the last frame of a crashed writer whose
+//   pages were only partly written back, fails one of them)
+final class JournalFormat {
+
+    static final int MAGIC = 0x4A454253;  // "SBEJ"
+    static final int FORMAT_VERSION = 1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int FORMAT_VERSION_OFFSET = 4;
+    static final int SEGMENT_INDEX_OFFSET = 8;
+    static final int SEGMENT_LENGTH_OFFSET = 16;
+    static final int SEGMENT_HEADER_LENGTH = 64;
+
+    static final int FRAME_LENGTH_OFFSET = 0;
+    static final int CHECKSUM_OFFSET = 4;
+    static final int FRAME_HEADER_LENGTH = 8;
+    static final int FRAME_ALIGNMENT = 8;
+
+    static final String SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static int aligned(int frameLength) {
+        return BitUtil.align(frameLength, FRAME_ALIGNMENT);
+    }
+
+    static Path segmentFile(Path directory, long index) {
+        return directory.resolve(String.format("%020d%s", index, SUFFIX));
+    }
+
+    static List<Long> segmentIndexes(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(SUFFIX))
+                .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static boolean isSegmentHeaderValid(UnsafeBuffer buffer, long index) {
+        return buffer.getIntVolatile(MAGIC_OFFSET) == MAGIC
+            && buffer.getInt(FORMAT_VERSION_OFFSET) == FORMAT_VERSION
+            && buffer.getLong(SEGMENT_INDEX_OFFSET) == index
+            && buffer.getInt(SEGMENT_LENGTH_OFFSET) == buffer.capacity();
+    }
+
+    static void writeSegmentHeader(UnsafeBuffer buffer, long index) {
+        buffer.putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+        buffer.putLong(SEGMENT_INDEX_OFFSET, index);
+        buffer.putInt(SEGMENT_LENGTH_OFFSET, buffer.capacity());
+        buffer.putIntOrdered(MAGIC_OFFSET, MAGIC);
+    }
+
+    // the CRC32C of the message of the frame at offset: view is a duplicate of the mapped ByteBuffer (reused, so that
+    // no slice is allocated per frame), CRC32C is an intrinsic on x86 and aarch64
+    static int checksum(CRC32C crc, ByteBuffer view, int offset, int frameLength) {
+        view.clear().position(offset + FRAME_HEADER_LENGTH).limit(offset + frameLength);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    static boolean isValidFrame(UnsafeBuffer buffer, ByteBuffer view, CRC32C crc, int offset, int frameLength,
+                                boolean verifyChecksum) {
+        int messageLength = frameLength - FRAME_HEADER_LENGTH;
+        if (messageLength < MessageHeaderDecoder.ENCODED_LENGTH) return false;
+        if ((long) offset + aligned(frameLength) > buffer.capacity()) return false;
+        int header = offset + FRAME_HEADER_LENGTH;
+        int schemaId = buffer.getShort(header + MessageHeaderDecoder.schemaIdEncodingOffset(), ByteOrder.LITTLE_ENDIAN)
+            & 0xFFFF;
+        int blockLength = buffer.getShort(header + MessageHeaderDecoder.blockLengthEncodingOffset(),
+            ByteOrder.LITTLE_ENDIAN) & 0xFFFF;
+        if (schemaId != MessageHeaderDecoder.SCHEMA_ID) return false;
+        if (blockLength > messageLength - MessageHeaderDecoder.ENCODED_LENGTH) return false;
+        return !verifyChecksum || buffer.getInt(offset + CHECKSUM_OFFSET) == checksum(crc, view, offset, frameLength);
+    }
+
+    // padding frames cover the rest of their segment exactly
+    static boolean isValidPadding(UnsafeBuffer buffer, int offset, int frameLength) {
+        return -frameLength == buffer.capacity() - offset;
+    }
+}
@@ -0,0 +1,160 @@
+package sbe.journal;
+
+import com.my.sbe.MessageHeaderDecoder;
+import com.my.sbe.SampleMessageDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static sbe.journal.JournalFormat.FRAME_HEADER_LENGTH;
+import static sbe.journal.JournalFormat.FRAME_LENGTH_OFFSET;
+import static sbe.journal.JournalFormat.SEGMENT_HEADER_LENGTH;
+import static sbe.journal.JournalFormat.aligned;
+
+// a tailing reader of a JournalWriter's journal: poll() hands the frames written since the last poll to a handler,
+// in place (the handler gets the mapped segment, no copy), and returns 0 when it has caught up with the writer
+// the SampleMessage frames can be decoded in place: poll(MessageHandler) wraps one reused SampleMessageDecoder over
+//   each frame (the decoder is only valid during the callback)
+// the reader stops at an invalid frame (isTorn()): a journal that was not reopened by a writer since a crash is
+//   replayed up to its last valid frame, the frames a recovering writer keeps
+// verifyChecksums: checks the CRC32C of each frame (the frame length and SBE header are always checked), it can be
+//   turned off when tailing a live writer, whose frames are complete once their length is visible
+public final class JournalReader implements AutoCloseable {
+
+    // the message starts at offset in buffer (SBE header included), position is the position of its frame
+    @FunctionalInterface
+    public interface FrameHandler {
+        void onFrame(DirectBuffer buffer, int offset, int length, long position);
+    }
+
+    @FunctionalInterface
+    public interface MessageHandler {
+        void onMessage(SampleMessageDecoder message, long position);
+    }
+
+    private final Path directory;
+    private final boolean verifyChecksums;
+    private final CRC32C crc = new CRC32C();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+    private final UnsafeBuffer probe = new UnsafeBuffer(0, 0);
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final SampleMessageDecoder messageDecoder = new SampleMessageDecoder();
+    private final FrameHandler decoding = this::decode;
+    private MessageHandler messageHandler;
+    private MappedByteBuffer mapped;
+    private ByteBuffer view;
+    private long segmentIndex;
+    private int segmentLength;
+    private int offset;
+    private boolean torn;
+
+    public JournalReader(Path directory) {
+        this(directory, true);
+    }
+
+    public JournalReader(Path directory, boolean verifyChecksums) {
+        this.directory = directory;
+        this.verifyChecksums = verifyChecksums;
+        List<Long> indexes = JournalFormat.segmentIndexes(directory);
+        this.segmentIndex = indexes.isEmpty() ? 0 : indexes.get(0);
+    }
+
+    // hands up to limit frames to the handler, and returns how many
+    public int poll(FrameHandler handler, int limit) {
+        int frames = 0;
+        while (frames < limit && !torn) {
+            if (mapped == null && !map(segmentIndex)) break;
+            if (offset == buffer.capacity()) {
+                if (!next()) break;
+                continue;
+            }
+            int frameLength = buffer.getIntVolatile(offset + FRAME_LENGTH_OFFSET);
+            if (frameLength == 0) break;
+            if (frameLength < 0) {
+                if (!JournalFormat.isValidPadding(buffer, offset, frameLength)) {
+                    torn = true;
+                    break;
+                }
+                if (!next()) break;
+                continue;
+            }
+            if (!JournalFormat.isValidFrame(buffer, view, crc, offset, frameLength, verifyChecksums)) {
+                torn = true;
+                break;
+            }
+            handler.onFrame(buffer, offset + FRAME_HEADER_LENGTH, frameLength - FRAME_HEADER_LENGTH, position());
+            offset += aligned(frameLength);
+            frames++;
+        }
+        return frames;
+    }
+
+    // hands up to limit SampleMessage frames to the handler, decoded in place; the frames of other templates are
+    // skipped (they count in the returned number of frames)
+    public int poll(MessageHandler handler, int limit) {
+        messageHandler = handler;
+        try {
+            return poll(decoding, limit);
+        } finally {
+            messageHandler = null;
+        }
+    }
+
+    private void decode(DirectBuffer buffer, int offset, int length, long position) {
+        headerDecoder.wrap(buffer, offset);
+        if (headerDecoder.templateId() != SampleMessageDecoder.TEMPLATE_ID) return;
+        messageDecoder.wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength(),
+            headerDecoder.version());
+        messageHandler.onMessage(messageDecoder, position);
+    }
+
+    // maps the segment, once the writer has completed its header
+    private boolean map(long index) {
+        File file = JournalFormat.segmentFile(directory, index).toFile();
+        if (!file.exists() || file.length() < SEGMENT_HEADER_LENGTH) return false;
+        MappedByteBuffer segment = IoUtil.mapExistingFile(file, FileChannel.MapMode.READ_ONLY, file.toString());
+        probe.wrap(segment);
+        if (!JournalFormat.isSegmentHeaderValid(probe, index)) {
+            IoUtil.unmap(segment);
+            return false;
+        }
+        if (mapped != null) IoUtil.unmap(mapped);
+        mapped = segment;
+        buffer.wrap(segment);
+        view = segment.duplicate();
+        segmentIndex = index;
+        segmentLength = segment.capacity();
+        offset = SEGMENT_HEADER_LENGTH;
+        return true;
+    }
+
+    // moves to the next segment, if the writer has created it
+    private boolean next() {
+        return map(segmentIndex + 1);
+    }
+
+    // the position of the next frame
+    public long position() {
+        return segmentIndex * segmentLength + offset;
+    }
+
+    // the reader stopped at an invalid frame
+    public boolean isTorn() {
+        return torn;
+    }
+
+    @Override
+    public void close() {
+        if (mapped == null) return;
+        IoUtil.unmap(mapped);
+        mapped = null;
+    }
+}
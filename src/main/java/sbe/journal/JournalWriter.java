@@ -0,0 +1,217 @@
+package sbe.journal;
+
+import com.my.sbe.MessageHeaderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static sbe.journal.JournalFormat.CHECKSUM_OFFSET;
+import static sbe.journal.JournalFormat.FRAME_ALIGNMENT;
+import static sbe.journal.JournalFormat.FRAME_HEADER_LENGTH;
+import static sbe.journal.JournalFormat.FRAME_LENGTH_OFFSET;
+import static sbe.journal.JournalFormat.SEGMENT_HEADER_LENGTH;
+import static sbe.journal.JournalFormat.aligned;
+
+// an append-only journal of SBE messages in memory-mapped segment files (see JournalFormat for the layout)
+// zero-copy append: claim() returns an offset in buffer() (the mapped segment), the message is encoded there by the
+//   generated encoder (encoder.wrapAndApplyHeader(writer.buffer(), offset, headerEncoder)), and commit() publishes it
+//   append() copies an already encoded message instead
+// rolling: when a claim does not fit in the segment, the rest of the segment is padded and the next segment is created
+// recovery: opening a journal scans the frames of the last segment, the first invalid frame (ex. a torn frame of a
+//   crashed writer) and everything after it is zeroed, and the appends continue from the last valid frame
+// durability: a committed frame is in the page cache, it survives a crash of the process; force() writes the dirty
+//   pages of the segment to the disk, which is required to survive a crash of the OS
+// single writer: the writer is not thread-safe, readers can tail the journal from other threads or processes
+public final class JournalWriter implements AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_LENGTH = 64 << 20;
+
+    private final Path directory;
+    private final CRC32C crc = new CRC32C();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+    private int segmentLength;
+    private MappedByteBuffer mapped;
+    private ByteBuffer view;
+    private long segmentIndex;
+    private int tail;
+    private int claimLength = -1;
+    private int recoveredFrames;
+    private long truncatedBytes;
+
+    public JournalWriter(Path directory) {
+        this(directory, DEFAULT_SEGMENT_LENGTH);
+    }
+
+    // segmentLength: the length of the new segments, the segments of an existing journal keep their length
+    public JournalWriter(Path directory, int segmentLength) {
+        if (segmentLength % FRAME_ALIGNMENT != 0 || segmentLength < SEGMENT_HEADER_LENGTH + 2 * FRAME_ALIGNMENT) {
+            throw new IllegalArgumentException("segmentLength must be a multiple of " + FRAME_ALIGNMENT
+                + " and > " + SEGMENT_HEADER_LENGTH);
+        }
+        this.directory = directory;
+        this.segmentLength = segmentLength;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<Long> indexes = JournalFormat.segmentIndexes(directory);
+        if (indexes.isEmpty()) {
+            createSegment(0);
+        } else {
+            recover(indexes.get(indexes.size() - 1));
+        }
+    }
+
+    private void recover(long index) {
+        Path file = JournalFormat.segmentFile(directory, index);
+        mapped = IoUtil.mapExistingFile(file.toFile(), FileChannel.MapMode.READ_WRITE, file.toString());
+        map(index);
+        segmentLength = buffer.capacity();
+        if (!JournalFormat.isSegmentHeaderValid(buffer, index)) {
+            // the writer crashed while it created the segment: no frame was written to it
+            buffer.setMemory(0, buffer.capacity(), (byte) 0);
+            JournalFormat.writeSegmentHeader(buffer, index);
+        }
+        tail = SEGMENT_HEADER_LENGTH;
+        while (tail < buffer.capacity()) {
+            int frameLength = buffer.getIntVolatile(tail + FRAME_LENGTH_OFFSET);
+            if (frameLength == 0) break;
+            if (frameLength < 0) {
+                if (!JournalFormat.isValidPadding(buffer, tail, frameLength)) break;
+                // the writer crashed after the padding and before the next segment was created
+                tail = buffer.capacity();
+                break;
+            }
+            if (!JournalFormat.isValidFrame(buffer, view, crc, tail, frameLength, true)) break;
+            tail += aligned(frameLength);
+            recoveredFrames++;
+        }
+        truncate();
+        if (tail == buffer.capacity()) roll();
+    }
+
+    // zeroes the bytes after the last valid frame: the torn frame, and the message of an uncommitted claim (a frame
+    // length of 0 with a message after it) whose bytes would look like frames once the appends continue
+    // the segment is scanned for its last non-zero word first, so that the untouched (sparse) end is not written
+    private void truncate() {
+        int end = buffer.capacity();
+        while (end > tail && buffer.getLong(end - 8) == 0) end -= 8;
+        truncatedBytes = end - tail;
+        if (truncatedBytes > 0) buffer.setMemory(tail, end - tail, (byte) 0);
+    }
+
+    private void createSegment(long index) {
+        Path file = JournalFormat.segmentFile(directory, index);
+        mapped = IoUtil.mapNewFile(file.toFile(), segmentLength, false);
+        map(index);
+        JournalFormat.writeSegmentHeader(buffer, index);
+        tail = SEGMENT_HEADER_LENGTH;
+    }
+
+    private void map(long index) {
+        buffer.wrap(mapped);
+        view = mapped.duplicate();
+        segmentIndex = index;
+    }
+
+    private void roll() {
+        if (tail < buffer.capacity()) {
+            buffer.putIntOrdered(tail + FRAME_LENGTH_OFFSET, -(buffer.capacity() - tail));
+        }
+        IoUtil.unmap(mapped);
+        createSegment(segmentIndex + 1);
+    }
+
+    // reserves a frame for a message of up to maxLength bytes (SBE header included), and returns the offset of the
+    // message in buffer(): encode the message there, then commit() or abort()
+    public int claim(int maxLength) {
+        if (claimLength >= 0) throw new IllegalStateException("the previous claim is not committed");
+        if (maxLength < MessageHeaderEncoder.ENCODED_LENGTH
+            || aligned(FRAME_HEADER_LENGTH + maxLength) > segmentLength - SEGMENT_HEADER_LENGTH) {
+            throw new IllegalArgumentException("maxLength " + maxLength + " does not fit in a segment of "
+                + segmentLength + " bytes");
+        }
+        if (tail + aligned(FRAME_HEADER_LENGTH + maxLength) > buffer.capacity()) roll();
+        claimLength = maxLength;
+        return tail + FRAME_HEADER_LENGTH;
+    }
+
+    // the mapped segment of the current claim (it changes when the journal rolls: call it after claim())
+    public UnsafeBuffer buffer() {
+        return buffer;
+    }
+
+    // publishes the claimed frame with the length of the encoded message (SBE header included), and returns the
+    // position of the frame
+    public long commit(int length) {
+        if (claimLength < 0) throw new IllegalStateException("nothing claimed");
+        if (length < MessageHeaderEncoder.ENCODED_LENGTH || length > claimLength) {
+            abort();
+            throw new IllegalArgumentException("length " + length + " is not within the claimed " + claimLength);
+        }
+        int frameLength = FRAME_HEADER_LENGTH + length;
+        long position = position();
+        buffer.putInt(tail + CHECKSUM_OFFSET, JournalFormat.checksum(crc, view, tail, frameLength));
+        buffer.putIntOrdered(tail + FRAME_LENGTH_OFFSET, frameLength);
+        tail += aligned(frameLength);
+        claimLength = -1;
+        return position;
+    }
+
+    // drops the claim, and zeroes what was encoded into it
+    public void abort() {
+        if (claimLength < 0) return;
+        buffer.setMemory(tail, Math.min(aligned(FRAME_HEADER_LENGTH + claimLength), buffer.capacity() - tail), (byte) 0);
+        claimLength = -1;
+    }
+
+    // appends a copy of an encoded message (SBE header included), and returns the position of its frame
+    public long append(DirectBuffer message, int offset, int length) {
+        int messageOffset = claim(length);
+        buffer.putBytes(messageOffset, message, offset, length);
+        return commit(length);
+    }
+
+    // the position of the next frame: segment index * segment length + offset in the segment
+    public long position() {
+        return segmentIndex * segmentLength + tail;
+    }
+
+    public int segmentLength() {
+        return segmentLength;
+    }
+
+    // the valid frames found in the last segment when the journal was opened
+    public int recoveredFrames() {
+        return recoveredFrames;
+    }
+
+    // the bytes zeroed after the last valid frame when the journal was opened (0 after a clean close)
+    public long truncatedBytes() {
+        return truncatedBytes;
+    }
+
+    public void force() {
+        mapped.force();
+    }
+
+    @Override
+    public void close() {
+        if (mapped == null) return;
+        abort();
+        IoUtil.unmap(mapped);
+        mapped = null;
+        buffer.wrap(0, 0);
+    }
+}
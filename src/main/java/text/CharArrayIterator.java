@@ -0,0 +1,78 @@
+package text;
+
+import java.text.CharacterIterator;
+
+// a CharacterIterator over a range of a char[] (StringCharacterIterator needs a String: a copy of the window)
+final class CharArrayIterator implements CharacterIterator {
+
+    private final char[] chars;
+    private final int begin;
+    private final int end;
+    private int position;
+
+    CharArrayIterator(char[] chars, int begin, int end) {
+        this.chars = chars;
+        this.begin = begin;
+        this.end = end;
+        this.position = begin;
+    }
+
+    @Override
+    public char first() {
+        position = begin;
+        return current();
+    }
+
+    @Override
+    public char last() {
+        position = end > begin ? end - 1 : end;
+        return current();
+    }
+
+    @Override
+    public char current() {
+        return position >= begin && position < end ? chars[position] : DONE;
+    }
+
+    @Override
+    public char next() {
+        if (position < end - 1) return chars[++position];
+        position = end;
+        return DONE;
+    }
+
+    @Override
+    public char previous() {
+        if (position <= begin) return DONE;
+        return chars[--position];
+    }
+
+    @Override
+    public char setIndex(int position) {
+        if (position < begin || position > end) throw new IllegalArgumentException("invalid position " + position);
+        this.position = position;
+        return current();
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return begin;
+    }
+
+    @Override
+    public int getEndIndex() {
+        return end;
+    }
+
+    @Override
+    public int getIndex() {
+        return position;
+    }
+
+    @Override
+    public Object clone() {
+        CharArrayIterator clone = new CharArrayIterator(chars, begin, end);
+        clone.position = position;
+        return clone;
+    }
+}
@@ -0,0 +1,115 @@
+package text;
+
+import org.agrona.DirectBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+// a line of a MappedLineReader chunk, as a view of its UTF-8 bytes in the mapped file: no String, no copy
+//   bytes: byteLength(), byteAt(i), buffer() + offset() (ex. to parse a field in place), fileOffset()
+//   chars (CharSequence): an ASCII line (the common case of logs) is read byte by byte as chars; a line with non-ASCII
+//     bytes is decoded once (on the first char access) into a char buffer reused by the following lines
+// a flyweight: the reader wraps the same view around each line of a chunk, so a view (and a subSequence() or the chars
+// of a decoded line) is only valid in the callback that received it; toString() copies the line
+public final class LineView implements CharSequence {
+
+    private DirectBuffer buffer;
+    private ByteBuffer window;                  // the mapped chunk, for the decoder
+    private int offset;
+    private int length;
+    private boolean ascii;
+    private long fileOffset;
+    private boolean decoded;
+    private CharBuffer chars = CharBuffer.allocate(256);
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    void wrap(DirectBuffer buffer, ByteBuffer window, int offset, int length, boolean ascii, long fileOffset) {
+        this.buffer = buffer;
+        this.window = window;
+        this.offset = offset;
+        this.length = length;
+        this.ascii = ascii;
+        this.fileOffset = fileOffset;
+        this.decoded = false;
+    }
+
+    // a line of ASCII bytes only: its chars are its bytes
+    public boolean isAscii() {
+        return ascii;
+    }
+
+    // the bytes of the line, without its line terminator (\n or \r\n)
+    public int byteLength() {
+        return length;
+    }
+
+    public byte byteAt(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("index=" + index + " length=" + length);
+        return buffer.getByte(offset + index);
+    }
+
+    // the mapped chunk: the line is the byteLength() bytes at offset()
+    public DirectBuffer buffer() {
+        return buffer;
+    }
+
+    public int offset() {
+        return offset;
+    }
+
+    // the offset of the line in the file
+    public long fileOffset() {
+        return fileOffset;
+    }
+
+    @Override
+    public int length() {
+        return ascii ? length : decode().remaining();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (ascii) return (char) (byteAt(index) & 0xFF);
+        return decode().get(index);
+    }
+
+    // an ASCII line: a view of the sub-range (no copy), otherwise a String
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("start=" + start + " end=" + end + " length=" + length());
+        }
+        if (!ascii) return decode().subSequence(start, end).toString();
+        LineView view = new LineView();
+        view.wrap(buffer, window, offset + start, end - start, true, fileOffset + start);
+        return view;
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        buffer.getBytes(offset, bytes);
+        return new String(bytes, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    // the UTF-16 chars of a non-ASCII line (a line has at most as many chars as bytes)
+    private CharBuffer decode() {
+        if (decoded) return chars;
+        if (chars.capacity() < length) chars = CharBuffer.allocate(Math.max(length, chars.capacity() * 2));
+        chars.clear();
+        window.clear();
+        window.limit(offset + length);
+        window.position(offset);
+        decoder.reset();
+        decoder.decode(window, chars, true);
+        decoder.flush(chars);
+        chars.flip();
+        decoded = true;
+        return chars;
+    }
+}
@@ -0,0 +1,297 @@
+package text;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// the lines of a large local file, read from a memory-mapped file in newline-aligned chunks processed in parallel
+// (instead of Source.fromFile(path).mkString, one String of the whole file, or getLines(), one thread decoding through
+// a small buffer, see ReadLocalFile)
+//   try (MappedLineReader reader = MappedLineReader.open(path)) {
+//       List<Long> counts = reader.mapChunks(chunk -> chunk.count(line -> line.byteLength() > 0)); // ForkJoinPool
+//       Flux<Long> flux = reader.flux(chunk -> chunk.count(line -> true));                        // backpressured
+//   }
+// chunks: the file is cut every chunkSize bytes, each cut is moved after the next '\n', so no line spans two chunks;
+//   a chunk is mapped (FileChannel.map, at most 2GB) when it is processed, its mapping is released by the GC
+// lines: the chunk is scanned 8 bytes at a time for '\n' (a SWAR test on a long, no per-byte branch), the same word
+//   tells whether the line is ASCII; each line is handed to the callback as a LineView (the bytes in place, no String)
+//   a \r before the \n is dropped, as getLines() does, and a last line without \n is a line
+// parallel: mapChunks() runs one task per chunk on a ForkJoinPool and returns the results in the file order;
+//   flux() maps parallelism chunks at a time on a Scheduler, with the downstream demand (at most parallelism results
+//   in flight), in the file order (ordered(true), flatMapSequential) or as they complete (ordered(false), flatMap)
+//   lines() is flux() with the lines as Strings, for the code that needs them
+// the views are flyweights: a LineView is only valid in the callback, copy it (toString()) to keep it
+public final class MappedLineReader implements AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final List<Chunk> chunks;
+    private final boolean ordered;
+    private final int parallelism;
+    private final Scheduler scheduler;
+    private final ForkJoinPool pool;
+
+    private MappedLineReader(Builder builder) throws IOException {
+        this.channel = FileChannel.open(builder.path, StandardOpenOption.READ);
+        this.ordered = builder.ordered;
+        this.parallelism = builder.parallelism;
+        this.scheduler = builder.scheduler;
+        this.pool = builder.pool;
+        try {
+            this.chunks = Collections.unmodifiableList(split(builder.chunkSize));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static MappedLineReader open(Path path) throws IOException {
+        return builder(path).build();
+    }
+
+    public static Builder builder(Path path) {
+        return new Builder(path);
+    }
+
+    // the chunk boundaries: after the first '\n' at or after each multiple of chunkSize
+    private List<Chunk> split(int chunkSize) throws IOException {
+        long size = channel.size();
+        List<Chunk> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            if (end < size) end = afterNewline(end - 1, size, probe);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("a line of more than 2GB at offset " + start + " cannot be mapped");
+            }
+            chunks.add(new Chunk(chunks.size(), start, (int) (end - start)));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long afterNewline(long from, long size, ByteBuffer probe) throws IOException {
+        long position = from;
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    public List<Chunk> chunks() {
+        return chunks;
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    // mapper applied to every chunk on the ForkJoinPool, the results in the file order
+    public <R> List<R> mapChunks(Function<? super Chunk, ? extends R> mapper) {
+        List<ForkJoinTask<? extends R>> tasks = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            tasks.add(pool.submit(() -> mapper.apply(chunk)));
+        }
+        List<R> results = new ArrayList<>(chunks.size());
+        for (ForkJoinTask<? extends R> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    // mapper applied to parallelism chunks at a time on the scheduler, the results in the file order if ordered
+    public <R> Flux<R> flux(Function<? super Chunk, ? extends R> mapper) {
+        Function<Chunk, Mono<R>> map = chunk -> Mono.<R>fromCallable(() -> mapper.apply(chunk)).subscribeOn(scheduler);
+        return ordered ? Flux.fromIterable(chunks).flatMapSequential(map, parallelism, 1)
+            : Flux.fromIterable(chunks).flatMap(map, parallelism, 1);
+    }
+
+    // the lines as Strings (copies), decoded in parallel
+    public Flux<String> lines() {
+        return flux(Chunk::strings).flatMapIterable(Function.identity());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // a range of whole lines of the file
+    public final class Chunk {
+
+        private static final long NEWLINES = 0x0A0A0A0A0A0A0A0AL;
+        private static final long ONES = 0x0101010101010101L;
+        private static final long HIGH_BITS = 0x8080808080808080L;
+
+        private final int index;
+        private final long start;
+        private final int length;
+
+        Chunk(int index, long start, int length) {
+            this.index = index;
+            this.start = start;
+            this.length = length;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        // the offset of the chunk in the file
+        public long start() {
+            return start;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        private MappedByteBuffer map() {
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // each line of the chunk, in order, as the same LineView
+        public void forEachLine(Consumer<? super LineView> action) {
+            MappedByteBuffer mapped = map();
+            UnsafeBuffer buffer = new UnsafeBuffer(mapped);
+            LineView line = new LineView();
+            int position = 0;
+            while (position < length) {
+                int lineStart = position;
+                long bits = 0;                      // the bytes of the line, or-ed: the ASCII test
+                int newline = -1;
+                int i = position;
+                for (; i + Long.BYTES <= length; i += Long.BYTES) {
+                    long word = buffer.getLong(i, ByteOrder.LITTLE_ENDIAN);
+                    long x = word ^ NEWLINES;
+                    long found = (x - ONES) & ~x & HIGH_BITS; // the lowest set high bit is the first '\n'
+                    if (found != 0) {
+                        int before = Long.numberOfTrailingZeros(found) >>> 3;
+                        newline = i + before;
+                        bits |= word & ((1L << (before << 3)) - 1);
+                        break;
+                    }
+                    bits |= word;
+                }
+                if (newline < 0) {
+                    for (; i < length; i++) {
+                        byte b = buffer.getByte(i);
+                        if (b == '\n') {
+                            newline = i;
+                            break;
+                        }
+                        bits |= b & 0xFF;
+                    }
+                }
+                int lineEnd = newline < 0 ? length : newline;
+                if (lineEnd > lineStart && buffer.getByte(lineEnd - 1) == '\r') lineEnd--;
+                line.wrap(buffer, mapped, lineStart, lineEnd - lineStart, (bits & HIGH_BITS) == 0, start + lineStart);
+                action.accept(line);
+                position = newline < 0 ? length : newline + 1;
+            }
+        }
+
+        // the lines that match
+        public long count(Predicate<? super LineView> predicate) {
+            long[] count = new long[1];
+            forEachLine(line -> {
+                if (predicate.test(line)) count[0]++;
+            });
+            return count[0];
+        }
+
+        public List<String> strings() {
+            List<String> strings = new ArrayList<>();
+            forEachLine(line -> strings.add(line.toString()));
+            return strings;
+        }
+
+        @Override
+        public String toString() {
+            return "Chunk(" + index + ", " + start + ", " + length + ")";
+        }
+    }
+
+    public static final class Builder {
+
+        private final Path path;
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private boolean ordered = true;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private Scheduler scheduler = Schedulers.parallel();
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        private Builder(Path path) {
+            this.path = path;
+        }
+
+        // the bytes of a chunk (before its end moves to the next line): the unit of parallel work
+        public Builder chunkSize(int chunkSize) {
+            if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be > 0");
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        // flux(): the results in the file order (true), or as the chunks complete (false)
+        public Builder ordered(boolean ordered) {
+            this.ordered = ordered;
+            return this;
+        }
+
+        // flux(): the chunks mapped at a time
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        // flux(): the scheduler the chunks are mapped on
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        // mapChunks(): the pool the chunks are mapped on
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public MappedLineReader build() throws IOException {
+            return new MappedLineReader(this);
+        }
+    }
+}
+// ref:
+//   https://graphics.stanford.edu/~seander/bithacks.html#ValueInWord (the SWAR byte search)
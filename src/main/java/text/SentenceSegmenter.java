@@ -0,0 +1,365 @@
+package text;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.BreakIterator;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+// the sentences of a text of any size, as offset ranges, segmented by BreakIterator in windows processed in parallel
+// (instead of one BreakIterator.getSentenceInstance over the whole text in a String, see BreakIteratorTest)
+//   SentenceSegmenter segmenter = SentenceSegmenter.builder(Locale.US).parallelism(4).build();
+//   segmenter.segment(path).subscribe(sentences -> sentences.forEach((start, end) -> ...)); // chars [start, end)
+// windows: the text is read windowChars at a time, each window prefixed with the last overlap chars of the previous
+//   one; a window is segmented from its first char, which is not a sentence boundary in general (a speculative start)
+// stitching: the boundaries found from a wrong start soon fall on the true ones (the rules restart at each boundary),
+//   and from the first boundary that a window shares with the true boundaries of the previous one (in the overlap),
+//   its boundaries are those of one BreakIterator over the whole text; a boundary of a window is only trusted with
+//   lookahead chars after it (the rules that look ahead of a period, "Dr. in", "T.L.A. test": no boundary before a
+//   lowercase word, need to see the following text)
+//   no shared boundary (a sentence longer than the overlap): the window is segmented again from the last true
+//   boundary, by the stitching thread (a sentence longer than a window is copied into one array)
+// parallel: the windows are read by the subscriber's demand (a copy of the chars, no segmentation), segmented
+//   parallelism at a time on the Scheduler, each by the BreakIterator of its worker thread (a BreakIterator is not
+//   thread-safe: one per thread, never shared), then stitched in the text order (flatMapSequential)
+// BreakIterator.preceding() would find an exact cut for the next window without the speculation, but the JDK
+// implementation backs up far (to a safe point of its backward rules) and costs about as much as the segmentation
+// the sentences are ranges of the window's chars (no substring): text(i) is a view, valid as long as the Sentences
+public final class SentenceSegmenter {
+
+    public static final int DEFAULT_WINDOW_CHARS = 1 << 20;
+    public static final int DEFAULT_OVERLAP = 4096;
+    public static final int DEFAULT_LOOKAHEAD = 1024;
+
+    private final Locale locale;
+    private final int windowChars;
+    private final int overlap;
+    private final int lookahead;
+    private final int parallelism;
+    private final Scheduler scheduler;
+    private final ThreadLocal<BreakIterator> iterators;
+
+    private SentenceSegmenter(Builder builder) {
+        this.locale = builder.locale;
+        this.windowChars = builder.windowChars;
+        this.overlap = builder.overlap;
+        this.lookahead = builder.lookahead;
+        this.parallelism = builder.parallelism;
+        this.scheduler = builder.scheduler;
+        this.iterators = ThreadLocal.withInitial(() -> BreakIterator.getSentenceInstance(locale));
+    }
+
+    public static SentenceSegmenter create() {
+        return builder(Locale.US).build();
+    }
+
+    public static Builder builder(Locale locale) {
+        return new Builder(locale);
+    }
+
+    // the sentences of a UTF-8 file
+    public Flux<Sentences> segment(Path path) {
+        return segment(() -> Files.newBufferedReader(path, StandardCharsets.UTF_8));
+    }
+
+    // the sentences of the text of the reader (opened on subscription, closed on completion, error or cancellation)
+    public Flux<Sentences> segment(Callable<? extends Reader> reader) {
+        return Flux.defer(() -> {
+            Stitcher stitcher = new Stitcher();
+            return Flux.<Window, Windows>generate(() -> new Windows(reader.call()), Windows::next, Windows::close)
+                .flatMapSequential(window -> Mono.fromCallable(() -> segment(window, iterators.get(), 0))
+                    .subscribeOn(scheduler), parallelism, 1)
+                .<Sentences>handle(stitcher::next)
+                .concatWith(Mono.fromSupplier(stitcher::last));
+        });
+    }
+
+    // the boundaries of the window from its char at from (the first one is from)
+    private static Window segment(Window window, BreakIterator iterator, int from) {
+        iterator.setText(new CharArrayIterator(window.chars, from, window.length));
+        int[] boundaries = new int[Math.max(16, (window.length - from) / 64)];
+        int count = 0;
+        for (int boundary = iterator.first(); boundary != BreakIterator.DONE; boundary = iterator.next()) {
+            if (count == boundaries.length) boundaries = Arrays.copyOf(boundaries, count * 2);
+            boundaries[count++] = boundary;
+        }
+        window.boundaries = boundaries;
+        window.count = count;
+        return window;
+    }
+
+    // chars of the text from offset, and their boundaries once segmented (indexes in chars, ascending)
+    private static final class Window {
+
+        final char[] chars;
+        final int length;
+        final long offset;
+        int[] boundaries;
+        int count;
+
+        Window(char[] chars, int length, long offset) {
+            this.chars = chars;
+            this.length = length;
+            this.offset = offset;
+        }
+
+        long end() {
+            return offset + length;
+        }
+    }
+
+    // the reading state of a segment() subscription (the generator is called serially)
+    private final class Windows {
+
+        private final Reader reader;
+        private Window last;
+        private boolean done;
+
+        Windows(Reader reader) {
+            this.reader = reader;
+        }
+
+        Windows next(SynchronousSink<Window> sink) {
+            if (done) {
+                sink.complete();
+                return this;
+            }
+            try {
+                int prefix = last == null ? 0 : Math.min(overlap, last.length);
+                char[] chars = new char[prefix + windowChars];
+                if (prefix > 0) System.arraycopy(last.chars, last.length - prefix, chars, 0, prefix);
+                int length = prefix;
+                int read = 0;
+                while (length < chars.length && (read = reader.read(chars, length, chars.length - length)) >= 0) {
+                    length += read;
+                }
+                done = read < 0;
+                if (length == prefix) {             // the end of the text, at the end of the last window
+                    sink.complete();
+                    return this;
+                }
+                last = new Window(chars, length, last == null ? 0 : last.end() - prefix);
+                sink.next(last);
+            } catch (IOException e) {
+                sink.error(new UncheckedIOException(e));
+            }
+            return this;
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // the stitching state of a segment() subscription: the last window, whose boundaries from the index from are true
+    // (called serially, so its BreakIterator is confined)
+    private final class Stitcher {
+
+        private Window previous;
+        private int from;
+        private BreakIterator iterator;
+
+        // the sentences of the previous window, up to the first true boundary of this one
+        void next(Window window, SynchronousSink<Sentences> sink) {
+            if (previous == null) {                 // the first window starts at the start of the text
+                previous = window;
+                from = 0;
+                return;
+            }
+            // the true boundaries of the previous window: from, up to lookahead chars before its end
+            int trusted = from;
+            long limit = previous.end() - lookahead;
+            while (trusted + 1 < previous.count && previous.offset + previous.boundaries[trusted + 1] <= limit) {
+                trusted++;
+            }
+            int shared = shared(previous, from, trusted, window);
+            if (shared >= 0) {
+                long boundary = window.offset + window.boundaries[shared];
+                emit(previous, from, indexOf(previous, from, trusted, boundary), sink);
+                previous = window;
+                from = shared;
+                return;
+            }
+            long last = previous.offset + previous.boundaries[trusted];
+            emit(previous, from, trusted, sink);
+            if (last >= window.offset) {            // segment the window again from the last true boundary
+                previous = segment(window, iterator(), (int) (last - window.offset));
+            } else {                                // a long sentence: its chars, then the window's
+                int head = (int) (window.offset - last);
+                char[] chars = new char[head + window.length];
+                System.arraycopy(previous.chars, (int) (last - previous.offset), chars, 0, head);
+                System.arraycopy(window.chars, 0, chars, head, window.length);
+                previous = segment(new Window(chars, chars.length, last), iterator(), 0);
+            }
+            from = 0;
+        }
+
+        // the sentences of the last window, up to the end of the text
+        Sentences last() {
+            if (previous == null || previous.count - 1 <= from) return null;
+            return new Sentences(previous.chars, previous.offset, previous.boundaries, from, previous.count - 1 - from);
+        }
+
+        private void emit(Window window, int from, int to, SynchronousSink<Sentences> sink) {
+            if (to > from) sink.next(new Sentences(window.chars, window.offset, window.boundaries, from, to - from));
+        }
+
+        // the index of the first boundary of the window that is one of the true boundaries [from, to] of the
+        // previous window, or -1
+        private int shared(Window previous, int from, int to, Window window) {
+            int i = from;
+            for (int j = 0; j < window.count && i <= to; j++) {
+                long boundary = window.offset + window.boundaries[j];
+                while (i <= to && previous.offset + previous.boundaries[i] < boundary) i++;
+                if (i <= to && previous.offset + previous.boundaries[i] == boundary) return j;
+            }
+            return -1;
+        }
+
+        private int indexOf(Window window, int from, int to, long boundary) {
+            return Arrays.binarySearch(window.boundaries, from, to + 1, (int) (boundary - window.offset));
+        }
+
+        private BreakIterator iterator() {
+            if (iterator == null) iterator = BreakIterator.getSentenceInstance(locale);
+            return iterator;
+        }
+    }
+
+    // consecutive sentences of the text: count() ranges of chars, at offsets of the whole text
+    public static final class Sentences {
+
+        private final char[] chars;
+        private final long offset;
+        private final int[] boundaries;
+        private final int from;
+        private final int count;
+
+        Sentences(char[] chars, long offset, int[] boundaries, int from, int count) {
+            this.chars = chars;
+            this.offset = offset;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.count = count;
+        }
+
+        public int count() {
+            return count;
+        }
+
+        // the offset of the first sentence in the text
+        public long offset() {
+            return offset + boundaries[from];
+        }
+
+        public long start(int index) {
+            return offset + boundaries[from + checkIndex(index)];
+        }
+
+        public long end(int index) {
+            return offset + boundaries[from + checkIndex(index) + 1];
+        }
+
+        // the chars of the sentence, a view of the window (no copy)
+        public CharSequence text(int index) {
+            int start = boundaries[from + checkIndex(index)];
+            return CharBuffer.wrap(chars, start, boundaries[from + index + 1] - start);
+        }
+
+        public void forEach(RangeConsumer action) {
+            for (int i = from; i < from + count; i++) {
+                action.accept(offset + boundaries[i], offset + boundaries[i + 1]);
+            }
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0 || index >= count) throw new IndexOutOfBoundsException("index=" + index + " count=" + count);
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return "Sentences(" + offset() + ", " + count + ")";
+        }
+    }
+
+    @FunctionalInterface
+    public interface RangeConsumer {
+        // a sentence: the chars [start, end) of the text
+        void accept(long start, long end);
+    }
+
+    public static final class Builder {
+
+        private final Locale locale;
+        private int windowChars = DEFAULT_WINDOW_CHARS;
+        private int overlap = DEFAULT_OVERLAP;
+        private int lookahead = DEFAULT_LOOKAHEAD;
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private Scheduler scheduler = Schedulers.parallel();
+
+        private Builder(Locale locale) {
+            this.locale = locale;
+        }
+
+        // the chars read at a time (a window is this plus the overlap): the unit of parallel work
+        public Builder windowChars(int windowChars) {
+            if (windowChars <= 0) throw new IllegalArgumentException("windowChars must be > 0");
+            this.windowChars = windowChars;
+            return this;
+        }
+
+        // the chars of the previous window at the start of a window: where the boundaries of the two must meet
+        public Builder overlap(int overlap) {
+            if (overlap <= 0) throw new IllegalArgumentException("overlap must be > 0");
+            this.overlap = overlap;
+            return this;
+        }
+
+        // the chars after a boundary at the end of a window for it to be trusted: more than the context the sentence
+        // rules look ahead of a boundary
+        public Builder lookahead(int lookahead) {
+            if (lookahead <= 0) throw new IllegalArgumentException("lookahead must be > 0");
+            this.lookahead = lookahead;
+            return this;
+        }
+
+        // the windows segmented at a time
+        public Builder parallelism(int parallelism) {
+            if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be > 0");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        // the scheduler the windows are segmented on
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        public SentenceSegmenter build() {
+            if (lookahead >= overlap) throw new IllegalArgumentException("lookahead must be < overlap");
+            if (overlap > windowChars) throw new IllegalArgumentException("overlap must be <= windowChars");
+            return new SentenceSegmenter(this);
+        }
+    }
+}
+// ref:
+//   https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/text/BreakIterator.html
+//   https://unicode.org/reports/tr29/#Sentence_Boundaries
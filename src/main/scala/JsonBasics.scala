@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.{DeserializationFeature, ObjectMapper}
 import com.fasterxml.jackson.module.scala.DefaultScalaModule
 import com.fasterxml.jackson.module.scala.experimental.ScalaObjectMapper
 
+import json.JsonArrayReader
+import java.io.ByteArrayInputStream
 import scala.reflect.ClassTag
 
 object JsonBasics extends App {
@@ -135,4 +137,18 @@ object JsonBasics extends App {
   println(tree.findValue("field_name1").asText()) // value_string1
   println(tree.findValue("unknown_field_name")) // null
 
+  println
+
+  // streaming a (large) JSON array: JsonArrayReader emits each element as a typed object into a Flux, the document is
+  // never held as a whole (readTree / readValue[Seq[JsonItem]] would build it in the heap before returning anything)
+  //   parallelism(n): the reader thread only finds the bytes of each element, n threads bind them (in order)
+  val arrayString = (1 to 5).map(i => s"""{"id": $i, "name": "item$i"}""").mkString("[", ",", "]")
+  val items = JsonArrayReader.builder(mapper, classOf[JsonItem])
+    .readAhead(2) // at most 2 items parsed ahead of the consumer
+    .parallelism(2)
+    .build()
+    .read(() => new ByteArrayInputStream(arrayString.getBytes))
+  println(items.map[String](_.name).collectList().block()) // [item1, item2, item3, item4, item5]
 }
+
+case class JsonItem(id: Int, name: String)
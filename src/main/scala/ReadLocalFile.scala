@@ -19,6 +19,21 @@ object ReadLocalFile {
     //    in case of large files, get an iterator and read the lines one by one
     val lines2 = Source.fromFile(filepath).getLines().mkString(sep="\n")
     println(lines2) // scala2
+    // 3.1) text.MappedLineReader:
+    //    in case of very large files (GBs), map the file and scan its lines in newline-aligned chunks in parallel;
+    //    each line is a LineView over the mapped bytes (a CharSequence, no String), only valid in the callback
+    //    (see benchmark.MappedLineReaderBenchmark: mkString vs getLines() vs the mapped chunks)
+    val reader = text.MappedLineReader.builder(java.nio.file.Paths.get(filepath)).chunkSize(1024).build()
+    try {
+      val counts = reader.mapChunks(chunk => chunk.count(line => line.byteLength() > 0)) // ForkJoinPool, in order
+      println(s"${reader.chunks().size} chunks, ${counts.stream().mapToLong(_.longValue).sum} non-empty lines")
+      val headings = reader.flux(chunk => { // backpressured, ordered
+        val found = new java.util.ArrayList[String]()
+        chunk.forEachLine(line => if (line.length > 0 && line.charAt(0) == '#') found.add(line.toString))
+        found
+      }).flatMapIterable(identity(_)).collectList().block()
+      println(headings) // the Markdown headings of the README
+    } finally reader.close()
 
     // 4) scala.io.Source.fromURL([url])
     val source = Source.fromURL("http://example.com")
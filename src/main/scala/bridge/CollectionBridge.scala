@@ -0,0 +1,192 @@
+package bridge
+
+import java.util.function.{ Consumer, DoubleConsumer, IntConsumer, LongConsumer }
+import java.util.{ AbstractList, RandomAccess, Iterator => JIterator, List => JList }
+
+import scala.collection.immutable.{ AbstractSeq, ArraySeq, IndexedSeq }
+
+// CollectionBridge: Java <-> Scala sequences as views, without copying the elements
+//   ScalaListInJava: JavaConverters.asScalaBuffer(javaList).toList() wraps the list (no copy), then toList() copies
+//   every element into a new List (and toSeq() too): the wrapper is a mutable.Buffer, and an API that takes an
+//   immutable Seq needs the copy; the other way, seq.asJava of a List is a java.util.List whose get(i) walks i cells
+//   the views here are O(1) to create and O(1) to index (a RandomAccess list, an array, a Vector or an ArraySeq):
+//     Java -> Scala (an immutable.IndexedSeq):
+//       asScala(java.util.List): JavaListSeq, apply(i) = list.get(i) (a list without RandomAccess, ex. a LinkedList,
+//         is copied once into an ArraySeq: a view of it would make every apply(i) O(i))
+//       asScala(array): the ArraySeq of the array (ArraySeq.unsafeWrapArray, ofInt / ofLong / ofDouble for the
+//         primitive arrays: Seq[Int] over an int[], the ints stay unboxed in the array)
+//       asScalaInts / Longs / Doubles(java.util.List[Integer / Long / Double]): a Seq[Int] / [Long] / [Double] over
+//         the boxes of the list (Scala stores the Int of a Seq[Int] as an Integer: the view is the same, typed)
+//     Scala -> Java (a read-only java.util.List with RandomAccess, its mutators throw UnsupportedOperationException):
+//       asJava(Vector / ArraySeq / any immutable.IndexedSeq): SeqJavaList, get(i) = seq(i)
+//       asJavaInts / Longs / Doubles(IndexedSeq[Int] / ...): IntSeqList / ..., a List[Integer] with getInt(i) and
+//         forEachInt(consumer): no box per element (read straight from the array of an ArraySeq.ofInt)
+//         from Java: the overloads of ArraySeq.ofInt / ofLong / ofDouble and int[] / long[] / double[] (a Seq[Int] is
+//         an IndexedSeq<Object> to Java, the IndexedSeq[Int] one needs an unchecked cast there)
+//     a round trip gives the original back: asJava(asScala(list)) eq list for a RandomAccess list (the other lists are
+//     copied, see above), asScala(asJava(seq)) eq seq
+// views, not copies: a view of a java.util.List is immutable only as long as no one changes the list (the Scala
+// side cannot), so hand over lists that are no longer written (ex. built then returned), or copy them as before
+// usage (Java):
+//   scala.collection.immutable.IndexedSeq<String> seq = CollectionBridge.asScala(javaList); // no copy
+//   java.util.List<String> list = CollectionBridge.asJava(scalaVector);                     // no copy
+object CollectionBridge {
+
+  def asScala[A](list: JList[A]): IndexedSeq[A] = list match {
+    case seqList: SeqJavaList[A @unchecked] => seqList.underlying
+    case _: RandomAccess                    => new JavaListSeq(list)
+    case _                                  => ArraySeq.unsafeWrapArray(list.toArray).asInstanceOf[ArraySeq[A]]
+  }
+
+  def asScala[A <: AnyRef](array: Array[A]): ArraySeq[A] = ArraySeq.unsafeWrapArray(array)
+
+  def asScala(array: Array[Int]): ArraySeq.ofInt = new ArraySeq.ofInt(array)
+
+  def asScala(array: Array[Long]): ArraySeq.ofLong = new ArraySeq.ofLong(array)
+
+  def asScala(array: Array[Double]): ArraySeq.ofDouble = new ArraySeq.ofDouble(array)
+
+  // a null element reads as 0 (the unboxing of Scala), as with asScala(list).map(_.toInt)
+  def asScalaInts(list: JList[Integer]): IndexedSeq[Int] = asScala(list).asInstanceOf[IndexedSeq[Int]]
+
+  def asScalaLongs(list: JList[java.lang.Long]): IndexedSeq[Long] = asScala(list).asInstanceOf[IndexedSeq[Long]]
+
+  def asScalaDoubles(list: JList[java.lang.Double]): IndexedSeq[Double] =
+    asScala(list).asInstanceOf[IndexedSeq[Double]]
+
+  def asJava[A](seq: IndexedSeq[A]): JList[A] = seq match {
+    case listSeq: JavaListSeq[A @unchecked] => listSeq.underlying
+    case _                                  => new SeqJavaList(seq)
+  }
+
+  def asJavaInts(seq: IndexedSeq[Int]): IntSeqList = new IntSeqList(seq)
+
+  def asJavaInts(seq: ArraySeq.ofInt): IntSeqList = new IntSeqList(seq)
+
+  def asJavaInts(array: Array[Int]): IntSeqList = new IntSeqList(new ArraySeq.ofInt(array))
+
+  def asJavaLongs(seq: IndexedSeq[Long]): LongSeqList = new LongSeqList(seq)
+
+  def asJavaLongs(seq: ArraySeq.ofLong): LongSeqList = new LongSeqList(seq)
+
+  def asJavaLongs(array: Array[Long]): LongSeqList = new LongSeqList(new ArraySeq.ofLong(array))
+
+  def asJavaDoubles(seq: IndexedSeq[Double]): DoubleSeqList = new DoubleSeqList(seq)
+
+  def asJavaDoubles(seq: ArraySeq.ofDouble): DoubleSeqList = new DoubleSeqList(seq)
+
+  def asJavaDoubles(array: Array[Double]): DoubleSeqList = new DoubleSeqList(new ArraySeq.ofDouble(array))
+}
+
+// an immutable.IndexedSeq over a RandomAccess java.util.List: apply(i) is list.get(i), nothing is copied
+// (the operations that build a collection, ex. map or appended, build a Vector as for any IndexedSeq)
+final class JavaListSeq[A] private[bridge] (private[bridge] val underlying: JList[A])
+    extends AbstractSeq[A] with IndexedSeq[A] {
+
+  override def apply(i: Int): A = underlying.get(i)
+
+  override def length: Int = underlying.size
+
+  override protected[this] def className: String = "JavaListSeq"
+}
+
+// a read-only java.util.List over an immutable.IndexedSeq: get(i) is seq(i), iterator() the iterator of the seq
+// (a Vector walks its leaves, instead of a lookup per index)
+final class SeqJavaList[A] private[bridge] (private[bridge] val underlying: IndexedSeq[A])
+    extends AbstractList[A] with RandomAccess {
+
+  override def get(index: Int): A = underlying(index)
+
+  override def size(): Int = underlying.length
+
+  override def iterator(): JIterator[A] = new JIterator[A] {
+    private[this] val elements = underlying.iterator
+    override def hasNext: Boolean = elements.hasNext
+    override def next(): A = elements.next()
+  }
+
+  override def forEach(action: Consumer[_ >: A]): Unit = underlying.foreach(action.accept)
+}
+
+// SeqJavaList of Ints: getInt(i) and forEachInt without a box (get(i) boxes, as any List[Integer])
+//   over an ArraySeq.ofInt (ex. asScala(int[])) the ints are read from its array, over a Vector[Int] they are
+//   unboxed from its elements
+final class IntSeqList private[bridge] (seq: IndexedSeq[Int]) extends AbstractList[Integer] with RandomAccess {
+
+  private[this] val array: Array[Int] = seq match {
+    case ints: ArraySeq.ofInt => ints.unsafeArray
+    case _                    => null
+  }
+
+  def getInt(index: Int): Int = if (array ne null) array(index) else seq(index)
+
+  def forEachInt(action: IntConsumer): Unit =
+    if (array ne null) {
+      var i = 0
+      while (i < array.length) {
+        action.accept(array(i))
+        i += 1
+      }
+    } else {
+      seq.foreach(action.accept)
+    }
+
+  override def get(index: Int): Integer = Integer.valueOf(getInt(index))
+
+  override def size(): Int = seq.length
+}
+
+final class LongSeqList private[bridge] (seq: IndexedSeq[Long])
+    extends AbstractList[java.lang.Long] with RandomAccess {
+
+  private[this] val array: Array[Long] = seq match {
+    case longs: ArraySeq.ofLong => longs.unsafeArray
+    case _                      => null
+  }
+
+  def getLong(index: Int): Long = if (array ne null) array(index) else seq(index)
+
+  def forEachLong(action: LongConsumer): Unit =
+    if (array ne null) {
+      var i = 0
+      while (i < array.length) {
+        action.accept(array(i))
+        i += 1
+      }
+    } else {
+      seq.foreach(action.accept)
+    }
+
+  override def get(index: Int): java.lang.Long = java.lang.Long.valueOf(getLong(index))
+
+  override def size(): Int = seq.length
+}
+
+final class DoubleSeqList private[bridge] (seq: IndexedSeq[Double])
+    extends AbstractList[java.lang.Double] with RandomAccess {
+
+  private[this] val array: Array[Double] = seq match {
+    case doubles: ArraySeq.ofDouble => doubles.unsafeArray
+    case _                          => null
+  }
+
+  def getDouble(index: Int): Double = if (array ne null) array(index) else seq(index)
+
+  def forEachDouble(action: DoubleConsumer): Unit =
+    if (array ne null) {
+      var i = 0
+      while (i < array.length) {
+        action.accept(array(i))
+        i += 1
+      }
+    } else {
+      seq.foreach(action.accept)
+    }
+
+  override def get(index: Int): java.lang.Double = java.lang.Double.valueOf(getDouble(index))
+
+  override def size(): Int = seq.length
+}
+// ref:
+//   https://docs.scala-lang.org/overviews/collections-2.13/conversions-between-java-and-scala-collections.html
+//   https://www.scala-lang.org/api/2.13.6/scala/collection/immutable/ArraySeq$.html#unsafeWrapArray[T](x:Array[T]):scala.collection.immutable.ArraySeq[T]
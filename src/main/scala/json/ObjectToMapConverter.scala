@@ -0,0 +1,315 @@
+package json
+
+import com.fasterxml.jackson.annotation.{ JsonInclude, JsonProperty, JsonPropertyDescription, JsonPropertyOrder }
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase
+import com.fasterxml.jackson.databind.{ BeanDescription, DeserializationFeature, JavaType, JsonSerializer, MapperFeature, ObjectMapper, SerializationFeature, SerializerProvider }
+
+import java.lang.invoke.{ LambdaMetafactory, MethodHandle, MethodHandles, MethodType }
+import java.lang.reflect.{ Field, Method }
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.{ Function => JFunction }
+import scala.jdk.CollectionConverters._
+import scala.util.control.NonFatal
+
+// ObjectToMapConverter: objectMapper.convertValue[Map[String, Any]](obj) without the round trip through JSON tokens
+//   convertValue serializes obj into a TokenBuffer (reflective bean serializer: one Method.invoke / Field.get per
+//   property), then deserializes the tokens back into a Map[String, Any] (the untyped deserializer of the Scala module)
+//   the converter builds the map directly, with one plan per class computed once (a ClassValue):
+//     beans: the properties of the Jackson bean serializer of the class (so the same names, order, @JsonProperty,
+//       @JsonIgnore, mix-ins, NON_NULL as convertValue), read with accessors generated once:
+//         getter: LambdaMetafactory spins a Function[AnyRef, AnyRef] calling it (invokevirtual, inlined by the JIT)
+//         field: a MethodHandle getter (ex. the public fields of a Java class, the private fields of Scala vals)
+//     values: the same types as the untyped deserializer produces
+//       String, Boolean, Integer, Long, Short, Float, Double as is, Byte -> Integer, Char -> String
+//       Option -> its value or null, Scala Iterable / java.util.Collection / Object[] -> List
+//       Scala Map / java.util.Map with String keys -> Map (same builder, so the same Map1..Map4 / HashMap)
+//     anything else falls back to convertValue for that value (ex. Date -> Long, BigInt -> Long, enums -> their name,
+//       cached per constant), and so does a class whose serialization the plan does not reproduce: a custom or
+//       annotated (@JsonSerialize, @JsonFormat, @JsonView, ...) property, a type id, an object id, @JsonAnyGetter, a
+//       filter, NON_EMPTY / NON_DEFAULT inclusion
+//   the mapper must not change after the converter is created: its features are checked once, and with a
+//   non-default feature that changes the output (ex. ORDER_MAP_ENTRIES_BY_KEYS, USE_BIG_DECIMAL_FOR_FLOATS) every
+//   conversion falls back to convertValue
+//   a cyclic object graph overflows the stack (convertValue fails on it too, with a JsonMappingException)
+// usage:
+//   val converter = new ObjectToMapConverter(objectMapper) // objectMapper with DefaultScalaModule registered
+//   val map: Map[String, Any] = converter.convert(obj)     // == objectMapper.convertValue[Map[String, Any]](obj)
+final class ObjectToMapConverter(mapper: ObjectMapper) {
+  import ObjectToMapConverter._
+
+  private val mapType: JavaType =
+    mapper.getTypeFactory.constructMapLikeType(classOf[Map[_, _]], classOf[String], classOf[Object])
+  private val enabled: Boolean = hasDefaultFeatures(mapper)
+  private val enumValues = new ConcurrentHashMap[Enum[_], Any]()
+
+  private val plans = new ClassValue[Plan] {
+    override def computeValue(cls: Class[_]): Plan = planFor(cls)
+  }
+
+  // objectMapper.convertValue[Map[String, Any]](value)
+  def convert(value: AnyRef): Map[String, Any] = {
+    if (value == null) return null
+    if (enabled) {
+      plans.get(value.getClass) match {
+        case bean: BeanPlan => return bean.toMap(value)
+        case ScalaMapPlan | JavaMapPlan =>
+          convertValue(value) match {
+            case map: Map[String, Any] @unchecked => return map
+            case _ =>
+          }
+        case _ =>
+      }
+    }
+    mapper.convertValue[Map[String, Any]](value, mapType)
+  }
+
+  // value as it would be in a map returned by convert (ex. a bean -> Map[String, Any], a java.util.List -> List)
+  def convertValue(value: Any): Any = {
+    if (value == null) return null
+    val ref = value.asInstanceOf[AnyRef]
+    if (enabled) plans.get(ref.getClass).convert(ref) else fallback(ref)
+  }
+
+  // the value converted by Jackson: inside a map, so that it goes through the untyped deserializer like a property
+  private def fallback(value: AnyRef): Any =
+    mapper.convertValue[Map[String, Any]](java.util.Collections.singletonMap("v", value), mapType).apply("v")
+
+  private def planFor(cls: Class[_]): Plan = {
+    val provider = mapper.getSerializerProviderInstance // an instance per lookup: it is not thread-safe
+    val serializer: JsonSerializer[AnyRef] =
+      try provider.findValueSerializer(cls) catch { case NonFatal(_) => return FallbackPlan }
+    serializer match {
+      case bean: BeanSerializerBase => beanPlan(cls, bean, provider)
+      case _ if !isJacksonSerializer(serializer) => FallbackPlan // registered by a module or @JsonSerialize
+      case _ if IdentityTypes.contains(cls) => IdentityPlan
+      case _ if cls == classOf[java.lang.Byte] => BytePlan
+      case _ if cls == classOf[java.lang.Character] => CharPlan
+      case _ if classOf[Option[_]].isAssignableFrom(cls) => OptionPlan
+      case _ if classOf[scala.collection.Map[_, _]].isAssignableFrom(cls) => ScalaMapPlan
+      case _ if classOf[java.util.Map[_, _]].isAssignableFrom(cls) => JavaMapPlan
+      case _ if classOf[Iterable[_]].isAssignableFrom(cls) => IterablePlan
+      case _ if classOf[java.util.Collection[_]].isAssignableFrom(cls) => CollectionPlan
+      case _ if cls.isArray && !cls.getComponentType.isPrimitive => ArrayPlan
+      case _ if cls.isEnum || (cls.getSuperclass != null && cls.getSuperclass.isEnum) => EnumPlan
+      case _ => FallbackPlan
+    }
+  }
+
+  private def beanPlan(cls: Class[_], serializer: BeanSerializerBase, provider: SerializerProvider): Plan = {
+    if (serializer.getClass != classOf[com.fasterxml.jackson.databind.ser.BeanSerializer] || serializer.usesObjectId) {
+      return FallbackPlan // ex. UnwrappingBeanSerializer, @JsonIdentityInfo
+    }
+    val javaType = mapper.constructType(cls)
+    val config = mapper.getSerializationConfig
+    val description = config.introspect[BeanDescription](javaType)
+    if (provider.findTypeSerializer(javaType) != null || description.findAnyGetter() != null ||
+      config.getAnnotationIntrospector.findFilterId(description.getClassInfo) != null ||
+      !isSupported(description.findPropertyInclusion(config.getDefaultPropertyInclusion(cls)))) {
+      return FallbackPlan
+    }
+    val properties = Array.newBuilder[Property]
+    val writers = serializer.properties()
+    while (writers.hasNext) {
+      writers.next() match {
+        case writer: BeanPropertyWriter if isSupported(writer) =>
+          properties += new Property(writer.getName, accessor(writer.getMember), writer.willSuppressNulls)
+        case _ => return FallbackPlan
+      }
+    }
+    new BeanPlan(properties.result())
+  }
+
+  private def isSupported(writer: BeanPropertyWriter): Boolean =
+    writer.getClass == classOf[BeanPropertyWriter] &&
+      (!writer.hasSerializer || isJacksonSerializer(writer.getSerializer)) &&
+      writer.getTypeSerializer == null && writer.getViews == null &&
+      !(writer.willSuppressNulls && writer.getType.isReferenceType) && // NON_NULL on an Option
+      writer.getMember.getAllAnnotations.annotations.asScala
+        .forall(a => !isJacksonAnnotation(a) || SupportedAnnotations(a.annotationType)) && // mix-ins included
+      isSupported(writer.getAnnotation(classOf[JsonInclude]))
+
+  private def isSupported(include: JsonInclude.Value): Boolean =
+    include == null || (SupportedInclusions(include.getValueInclusion) && SupportedInclusions(include.getContentInclusion))
+
+  private def isSupported(include: JsonInclude): Boolean =
+    include == null || (SupportedInclusions(include.value) && SupportedInclusions(include.content))
+
+  private sealed trait Plan {
+    def convert(value: AnyRef): Any
+  }
+
+  private final class BeanPlan(properties: Array[Property]) extends Plan {
+    def toMap(bean: AnyRef): Map[String, Any] = {
+      val builder = Map.newBuilder[String, Any]
+      var i = 0
+      while (i < properties.length) {
+        val property = properties(i)
+        val value = property.accessor.apply(bean)
+        if (value != null || !property.suppressNulls) builder.addOne(property.name, convertValue(value))
+        i += 1
+      }
+      builder.result()
+    }
+
+    override def convert(value: AnyRef): Any = toMap(value)
+  }
+
+  private object IdentityPlan extends Plan {
+    override def convert(value: AnyRef): Any = value
+  }
+
+  private object BytePlan extends Plan {
+    override def convert(value: AnyRef): Any = Integer.valueOf(value.asInstanceOf[java.lang.Byte].intValue)
+  }
+
+  private object CharPlan extends Plan {
+    override def convert(value: AnyRef): Any = value.toString
+  }
+
+  private object OptionPlan extends Plan {
+    override def convert(value: AnyRef): Any = value.asInstanceOf[Option[Any]] match {
+      case Some(content) => convertValue(content)
+      case None => null
+    }
+  }
+
+  private object IterablePlan extends Plan {
+    override def convert(value: AnyRef): Any = {
+      val builder = List.newBuilder[Any]
+      value.asInstanceOf[Iterable[Any]].foreach(element => builder.addOne(convertValue(element)))
+      builder.result()
+    }
+  }
+
+  private object CollectionPlan extends Plan {
+    override def convert(value: AnyRef): Any = {
+      val builder = List.newBuilder[Any]
+      val iterator = value.asInstanceOf[java.util.Collection[Any]].iterator()
+      while (iterator.hasNext) builder.addOne(convertValue(iterator.next()))
+      builder.result()
+    }
+  }
+
+  private object ArrayPlan extends Plan {
+    override def convert(value: AnyRef): Any = {
+      val array = value.asInstanceOf[Array[AnyRef]]
+      val builder = List.newBuilder[Any]
+      var i = 0
+      while (i < array.length) {
+        builder.addOne(convertValue(array(i)))
+        i += 1
+      }
+      builder.result()
+    }
+  }
+
+  // the keys are written with their key serializer (ex. 1 -> "1"): only String keys are converted here
+  private object ScalaMapPlan extends Plan {
+    override def convert(value: AnyRef): Any = {
+      val map = value.asInstanceOf[scala.collection.Map[Any, Any]]
+      if (!map.keysIterator.forall(_.isInstanceOf[String])) return fallback(value)
+      val builder = Map.newBuilder[String, Any]
+      map.foreachEntry((key, content) => builder.addOne(key.asInstanceOf[String], convertValue(content)))
+      builder.result()
+    }
+  }
+
+  private object JavaMapPlan extends Plan {
+    override def convert(value: AnyRef): Any = {
+      val map = value.asInstanceOf[java.util.Map[Any, Any]]
+      if (!map.keySet.asScala.forall(_.isInstanceOf[String])) return fallback(value)
+      val builder = Map.newBuilder[String, Any]
+      map.forEach((key, content) => builder.addOne(key.asInstanceOf[String], convertValue(content)))
+      builder.result()
+    }
+  }
+
+  // enums are written with their name, toString, index or @JsonValue depending on the mapper: converted once
+  private object EnumPlan extends Plan {
+    override def convert(value: AnyRef): Any = enumValues.computeIfAbsent(value.asInstanceOf[Enum[_]], fallback(_))
+  }
+
+  private object FallbackPlan extends Plan {
+    override def convert(value: AnyRef): Any = fallback(value)
+  }
+}
+
+object ObjectToMapConverter {
+
+  private final class Property(val name: String, val accessor: JFunction[AnyRef, AnyRef], val suppressNulls: Boolean)
+
+  private val IdentityTypes: Set[Class[_]] = Set(classOf[String], classOf[java.lang.Boolean], classOf[java.lang.Integer],
+    classOf[java.lang.Long], classOf[java.lang.Short], classOf[java.lang.Float], classOf[java.lang.Double])
+
+  private val SupportedInclusions: Set[JsonInclude.Include] =
+    Set(JsonInclude.Include.ALWAYS, JsonInclude.Include.USE_DEFAULTS, JsonInclude.Include.NON_NULL)
+
+  // the annotations that only name, order, document or include (NON_NULL) a property
+  private val SupportedAnnotations: Set[Class[_]] =
+    Set(classOf[JsonProperty], classOf[JsonPropertyDescription], classOf[JsonPropertyOrder], classOf[JsonInclude])
+
+  // the features of the mapper that change the output of convertValue
+  private def hasDefaultFeatures(mapper: ObjectMapper): Boolean = {
+    val serialization = mapper.getSerializationConfig
+    val deserialization = mapper.getDeserializationConfig
+    val inclusion = serialization.getDefaultPropertyInclusion
+    isJacksonSerializer(mapper.getSerializerProviderInstance.getDefaultNullValueSerializer) && // not setNullValueSerializer
+      !serialization.isEnabled(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS) &&
+      writesNullMapValues(mapper) &&
+      !serialization.isEnabled(SerializationFeature.WRAP_ROOT_VALUE) &&
+      !serialization.isEnabled(MapperFeature.USE_STATIC_TYPING) &&
+      SupportedInclusions(inclusion.getValueInclusion) && inclusion.getValueInclusion != JsonInclude.Include.NON_NULL &&
+      SupportedInclusions(inclusion.getContentInclusion) && inclusion.getContentInclusion != JsonInclude.Include.NON_NULL &&
+      !deserialization.isEnabled(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS) &&
+      !deserialization.isEnabled(DeserializationFeature.USE_LONG_FOR_INTS) &&
+      !deserialization.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS) &&
+      !deserialization.isEnabled(DeserializationFeature.USE_JAVA_ARRAY_FOR_JSON_ARRAY)
+  }
+
+  // the null values of maps are written: probed with a map, as WRITE_NULL_MAP_VALUES is deprecated (the map content
+  // inclusion, ex. configOverride(classOf[java.util.Map[_, _]]).setInclude, decides as well)
+  private def writesNullMapValues(mapper: ObjectMapper): Boolean =
+    mapper.writeValueAsString(java.util.Collections.singletonMap("k", null)) == "{\"k\":null}" &&
+      mapper.writeValueAsString(Map("k" -> null)) == "{\"k\":null}"
+
+  private def isJacksonSerializer(serializer: JsonSerializer[_]): Boolean =
+    serializer.getClass.getName.startsWith("com.fasterxml.jackson.")
+
+  private def isJacksonAnnotation(annotation: java.lang.annotation.Annotation): Boolean = {
+    val name = annotation.annotationType.getName
+    name.startsWith("com.fasterxml.jackson.annotation.") || name.startsWith("com.fasterxml.jackson.databind.annotation.")
+  }
+
+  private val ApplyType = MethodType.methodType(classOf[Object], classOf[Object])
+
+  // the accessor of a property: the getter (or field) Jackson reads, or the member itself for any other member
+  // (ex. an AnnotatedMember of a custom introspector, not backed by a Field or a Method): AnnotatedMember.getValue
+  private def accessor(member: AnnotatedMember): JFunction[AnyRef, AnyRef] = member.getMember match {
+    case method: Method =>
+      val lookup = MethodHandles.privateLookupIn(method.getDeclaringClass, MethodHandles.lookup())
+      val getter = lookup.unreflect(method)
+      try {
+        val site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(classOf[JFunction[_, _]]),
+          ApplyType, getter, getter.`type`.wrap) // (DeclaringClass)boxed return type
+        site.getTarget.invokeWithArguments().asInstanceOf[JFunction[AnyRef, AnyRef]]
+      } catch {
+        case NonFatal(_) => handleAccessor(getter) // ex. the class is not visible from its own loader
+      }
+    case field: Field =>
+      val lookup = MethodHandles.privateLookupIn(field.getDeclaringClass, MethodHandles.lookup())
+      handleAccessor(lookup.unreflectGetter(field))
+    case _ =>
+      bean => member.getValue(bean)
+  }
+
+  private def handleAccessor(getter: MethodHandle): JFunction[AnyRef, AnyRef] = {
+    val handle = getter.asType(ApplyType)
+    bean => (handle.invokeExact(bean): AnyRef)
+  }
+}
+// ref:
+//   https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/lang/invoke/LambdaMetafactory.html
+//   https://github.com/FasterXML/jackson-modules-base/tree/2.10/afterburner (the same idea, as a Jackson module:
+//   generated accessors for the serializer, but still through the TokenBuffer)
@@ -2,7 +2,12 @@ package sbe
 
 import com.my.sbe._
 import org.agrona.concurrent.UnsafeBuffer
+import sbe.codec.{ BufferPool, PooledBuffer, SampleMessage, SbeCodec }
+import sbe.group.GroupColumns
+import sbe.journal.{ JournalReader, JournalWriter }
+import reactor.core.publisher.Flux
 import java.nio.ByteBuffer
+import java.nio.file.Files
 import scala.collection.JavaConverters._
 
 // https://aeroncookbook.com/simple-binary-encoding/basic-sample/
@@ -128,4 +133,66 @@ object SBEBasics extends App {
     // g.groupField2=4
     // g.groupField3=group2
   }
+
+  // 3) Journal: persist the messages in memory-mapped segment files, and replay them
+  //    the encoder writes directly into the mapped file (no ByteBuffer.allocateDirect and no copy)
+  //    each message is a frame: length + CRC32C + the message, on 8 byte boundaries (see sbe.journal.JournalFormat)
+  val journalDirectory = Files.createTempDirectory("sbe-journal")
+  val writer = new JournalWriter(journalDirectory, 1 << 20) // 1MB segments
+  for (i <- 1 to 3) {
+    val offset = writer.claim(128) // reserve a frame for a message of up to 128 bytes
+    encoder.wrapAndApplyHeader(writer.buffer, offset, headerEncoder)
+      .sequence(i)
+      .enumField(SampleEnum.VALUE_2)
+    encoder.groupCount(0)
+    encoder.message(s"journal message $i")
+    val position = writer.commit(MessageHeaderEncoder.ENCODED_LENGTH + encoder.encodedLength)
+    println(s"message $i at position $position")
+    // message 1 at position 64
+    // message 2 at position 128
+    // message 3 at position 192
+  }
+  writer.close()
+
+  // 3.1) replay: the decoder wraps the mapped file in place, poll() returns 0 once it has caught up with the writer
+  val reader = new JournalReader(journalDirectory)
+  val replayed = reader.poll((message: SampleMessageDecoder, position: Long) => {
+    message.group() // the group must be read (or skipped) before the var data that follows it
+    println(s"replayed sequence=${message.sequence} message=${message.message} from position $position")
+  }, Int.MaxValue)
+  println(s"replayed=$replayed, torn=${reader.isTorn}") // replayed=3, torn=false
+  // replayed sequence=1 message=journal message 1 from position 64
+  // replayed sequence=2 message=journal message 2 from position 128
+  // replayed sequence=3 message=journal message 3 from position 192
+  reader.close()
+
+  // 4) Reactor codec: Flux[SampleMessage] <-> Flux[PooledBuffer], with the buffers borrowed from a bounded pool
+  //    each subscriber reuses its own encoder/decoder flyweights, the decoder releases the buffers to the pool
+  val pool = new BufferPool("demo", 4, 256) // 4 direct buffers of 256 bytes: at most 4 messages in flight
+  val decoded = Flux.range(1, 10)
+    .map[SampleMessage](i => new SampleMessage(i.toLong, SampleEnum.VALUE_3, i, i * 2, s"reactive message $i").add(1, 2, "group1"))
+    .transform[PooledBuffer](SbeCodec.encode(pool))
+    .transform[SampleMessage](SbeCodec.decode())
+    .collectList()
+    .block()
+  println(decoded.get(0)) // SampleMessage(1, VALUE_3, 1, 2, [Entry(1, 2, group1)], reactive message 1)
+  println(s"decoded=${decoded.size}, buffers available=${pool.available}") // decoded=10, buffers available=4
+  pool.assertNoLeaks() // throws if a buffer was not released (pool.detectLeaks(...) reports them periodically)
+
+  // 5) Bulk decode of a repeating group into columns: one read per field instead of next() + accessors per entry
+  //    SampleColumns.rows is fixed-width (no var data): each field is a strided array in the buffer
+  val columnsEncoder = new SampleColumnsEncoder().wrapAndApplyHeader(directBuffer, 0, headerEncoder).timestamp(1L)
+  val rows = columnsEncoder.rowsCount(3)
+  for (i <- 1 to 3) rows.next().id(i).price(100L * i).quantity(10 * i).venue(1).side(i % 2)
+  headerDecoder.wrap(directBuffer, 0)
+  val columnsDecoder = new SampleColumnsDecoder()
+    .wrap(directBuffer, MessageHeaderDecoder.ENCODED_LENGTH, headerDecoder.blockLength, headerDecoder.version)
+  val columns = GroupColumns.fixedWidth() // new GroupColumns(n) for a group with n var data fields per entry
+  val count = columns.wrap(directBuffer, columnsDecoder.limit) // the group header is at the decoder's limit
+  val prices = new Array[Long](count)
+  val quantities = new Array[Int](count)
+  columns.readLongs(SampleColumnsDecoder.RowsDecoder.priceEncodingOffset, prices)
+  columns.readInts(SampleColumnsDecoder.RowsDecoder.quantityEncodingOffset, quantities)
+  columnsDecoder.limit(columns.limit) // the decoder continues after the group
+  println(s"prices=${prices.mkString(",")} quantities=${quantities.mkString(",")}") // prices=100,200,300 quantities=10,20,30
 }
@@ -25,5 +25,19 @@ public class ScalaListInJava {
         for (String str : stringList) {
             System.out.println(str); // e d c b a
         }
+
+        // 3) bridge.CollectionBridge: views instead of copies (toList() above copies every element)
+        // 3.1) Java List -> scala.collection.immutable.IndexedSeq, O(1) apply(i), nothing copied
+        scala.collection.immutable.IndexedSeq<String> seqView = bridge.CollectionBridge.asScala(javaList);
+        System.out.println(seqView);                                                   // JavaListSeq(abc, def, gh)
+        System.out.println(seqView.equals(scalaList));                                 // true
+        // 3.2) and back: the original list (asJava of a Vector or an ArraySeq: a read-only RandomAccess view)
+        System.out.println(bridge.CollectionBridge.asJava(seqView) == javaList);       // true
+        // 3.3) int[] -> Seq[Int] without boxing, and the ints of a Seq[Int] read from Java with getInt
+        scala.collection.immutable.ArraySeq.ofInt ints = bridge.CollectionBridge.asScala(new int[]{1, 2, 3});
+        System.out.println(ints.apply(2));                                                                // 3
+        bridge.IntSeqList intList = bridge.CollectionBridge.asJavaInts(ints);
+        System.out.println(intList.getInt(0) + " " + intList);                                            // 1 [1, 2, 3]
+        System.out.println(bridge.CollectionBridge.asJavaInts(new int[]{4, 5}).getInt(1));                // 5
     }
 }
@@ -0,0 +1,28 @@
+import java.time.Duration
+
+import reactive.limit.{ AdaptiveLimiter, VegasLimit }
+import reactor.core.publisher.{ Flux, Mono }
+
+// reactive.limit.AdaptiveLimiter as a flatMap() over more elements than the limit and the wait queue hold: the calls
+// over the limit wait for a permit, none is rejected (the default flatMap() requests 1100 elements ahead, the Vegas
+// limit starts at 10 with the default queue of 100)
+object AdaptiveLimiterTest extends App {
+
+  val limiter = new AdaptiveLimiter(new VegasLimit())
+  val start = System.nanoTime()
+  val emitted = Flux.range(0, 2000)
+    .transform(limiter.flatMap[Integer, Integer]((i: Integer) => Mono.delay(Duration.ofMillis(5)).thenReturn(i)))
+    .count()
+    .block()
+  println(s"$emitted emitted in ${(System.nanoTime() - start) / 1000000} ms") // 2000 emitted in ~800 ms
+  println(s"rejected=${limiter.rejected()}, limit=${limiter.limit()}")        // rejected=0, limit=~90 (grown from 10)
+
+  // run() keeps its bounded queue: a call that finds the limit and the queue full is rejected
+  val bounded = new AdaptiveLimiter(new VegasLimit(), 10)
+  val completed = Flux.range(0, 100)
+    .flatMap((i: Integer) => bounded.run(() => Mono.delay(Duration.ofMillis(5)).thenReturn(i))
+      .onErrorResume(_ => Mono.empty()), 100)
+    .count()
+    .block()
+  println(s"run(): $completed of 100 completed, rejected=${bounded.rejected()}") // run(): ~50 of 100 completed, rejected=~50
+}
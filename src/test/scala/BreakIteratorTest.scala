@@ -18,5 +18,16 @@ object BreakIteratorTest {
     // (0, 16): This is a test.
     // (16, 39): This is a T.L.A. test.
     // (39, 60): Now with a Dr. in it.
+
+    // the same sentences from text.SentenceSegmenter: the text is streamed in windows (here 16 chars, each starting
+    // with the last 12 chars of the previous one), segmented in parallel and stitched where their boundaries meet;
+    // the sentences are offset ranges (no substring)
+    val segmenter = text.SentenceSegmenter.builder(Locale.US).windowChars(16).overlap(12).lookahead(8).build()
+    segmenter.segment(() => new java.io.StringReader(source)).toIterable().forEach { sentences =>
+      sentences.forEach((start, end) => println(s"($start, $end): ${source.substring(start.toInt, end.toInt)}"))
+    }
+    // (0, 16): This is a test.
+    // (16, 39): This is a T.L.A. test.
+    // (39, 60): Now with a Dr. in it.
   }
 }
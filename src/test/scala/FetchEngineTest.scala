@@ -0,0 +1,30 @@
+import java.time.Duration
+
+import org.apache.http.client.methods.HttpGet
+import reactive.http.{FetchEngine, FetchResponse, HttpStub}
+import reactor.core.publisher.Flux
+
+// the requests of HttpAsyncClientTest without a client per request and without blocking a thread per request:
+// reactive.http.FetchEngine (Mono/Flux over one pooled CloseableHttpAsyncClient), against a local HttpStub
+object FetchEngineTest extends App {
+
+  val stub = HttpStub.builder().fixedBody(16 * 1024).latency(Duration.ofMillis(20)).start()
+  val engine = FetchEngine.builder().maxConnPerRoute(32).build()
+
+  // one request: the body is read into pooled buffers, the reader runs on it, then the buffers go back to the pool
+  val length = engine.fetch(new HttpGet(stub.uri("/hello")), (response: FetchResponse) => response.bodyLength()).block()
+  println(s"GET /hello: $length bytes") // GET /hello: 16384 bytes
+
+  // 1000 requests at once: 32 in flight (maxConnPerRoute), the others wait in the per-host queue, no thread blocked
+  val start = System.nanoTime()
+  val total = Flux.range(0, 1000)
+    .flatMap((i: Integer) => engine.fetch(new HttpGet(stub.uri(s"/page/$i")), (response: FetchResponse) => response.bodyLength()), 1000)
+    .reduce(0L, (sum: Long, bytes: Long) => sum + bytes)
+    .block()
+  println(s"1000 requests, $total bytes in ${(System.nanoTime() - start) / 1000000} ms") // 1000 / 32 x 20 ms = 625 ms at best
+  println(engine.stats())      // FetchEngineStats{requestCount=1001, ..., connections=[leased: 0; pending: 0; available: 32; max: 1024]}
+  println(engine.bufferPool()) // ByteBufferPool{bufferSize=16384, allocatedCount=2, reusedCount=999, pooledCount=2}: the buffers are reused
+
+  engine.close()
+  stub.close()
+}
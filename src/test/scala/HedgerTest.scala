@@ -0,0 +1,37 @@
+import java.time.Duration
+import java.util.concurrent.ThreadLocalRandom
+
+import reactive.Hedger
+import reactor.core.publisher.Mono
+import reactor.core.scheduler.Schedulers
+
+// reactive.Hedger around a blocking call (the blockingCall of JavaReactor 3.1): Mono.fromCallable of a client that
+// sleeps 5ms, and 200ms for 1 call in 10
+// the primary call is subscribed on the hedge scheduler, so the backup is started after the hedge delay even though
+// the call blocks the thread that runs it
+object HedgerTest extends App {
+
+  def blockingCall(): Mono[Integer] = Mono.fromCallable(() => {
+    Thread.sleep(if (ThreadLocalRandom.current().nextInt(10) == 0) 200 else 5)
+    Integer.valueOf(1)
+  })
+
+  def timeMillis(call: () => Mono[Integer]): Long = {
+    val start = System.nanoTime()
+    call().block()
+    (System.nanoTime() - start) / 1000000
+  }
+
+  def p95(latencies: Seq[Long]): Long = latencies.sorted.apply(latencies.size * 95 / 100)
+
+  // hedge at the p80 (20ms at least), with up to 20% extra calls
+  val hedger = new Hedger(0.8, Duration.ofMillis(20), 0.2, 10, 100, Schedulers.boundedElastic())
+
+  val plain = (1 to 200).map(_ => timeMillis(() => blockingCall()))
+  val hedged = (1 to 200).map(_ => timeMillis(() => hedger.hedge(() => blockingCall())))
+  println(s"plain:  p95 ${p95(plain)} ms, ${plain.count(_ > 100)} calls > 100 ms")   // plain:  p95 200 ms, ~20 calls > 100 ms
+  println(s"hedged: p95 ${p95(hedged)} ms, ${hedged.count(_ > 100)} calls > 100 ms") // hedged: p95 ~25 ms, ~3 calls > 100 ms
+  // (a slow call is only slow if its backup is slow too, or the budget denied it one)
+  println(s"calls=${hedger.calls()}, hedges fired=${hedger.hedgesFired()}, won=${hedger.hedgesWon()}, " +
+    s"denied=${hedger.hedgesDenied()}") // calls=200, hedges fired=~20, won=~17, denied=~1
+}
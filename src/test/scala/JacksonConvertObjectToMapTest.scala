@@ -3,6 +3,7 @@ import java.util
 import com.fasterxml.jackson.databind.{DeserializationFeature, JsonNode, ObjectMapper}
 import com.fasterxml.jackson.module.scala.DefaultScalaModule
 import com.fasterxml.jackson.module.scala.experimental.ScalaObjectMapper
+import json.ObjectToMapConverter
 
 import scala.collection.mutable
 import scala.collection.JavaConverters._
@@ -29,6 +30,17 @@ object JacksonConvertObjectToMapTest {
       println(map1) // Map(num -> 0, str -> default, list -> List())
       println(map2) // Map(num -> 0, str -> default, list -> List())
 
+      // 1.1) ObjectToMapConverter.convert(obj): the same Map[String, Any] as convertValue[Map[String, Any]](obj)
+      //      without serializing obj to JSON tokens and deserializing them back: the properties are read with
+      //      accessors generated once per class (see json.ObjectToMapConverter)
+      val converter = new ObjectToMapConverter(objectMapper)
+      println(converter.convert(mapObj1)) // Map(num -> 0, str -> default, list -> List())
+      println(converter.convert(mapObj2) == map2) // true
+      // nested beans and lists are converted like convertValue does: beans -> Map, lists (and arrays) -> List
+      val nested = Map("objects" -> List(mapObj1, mapObj2), "lists" -> List(List(1, 2), List()))
+      println(converter.convert(nested)) // Map(objects -> List(Map(num -> 0, str -> default, list -> List()), Map(num -> 0, str -> default, list -> List())), lists -> List(List(1, 2), List()))
+      println(converter.convert(nested) == objectMapper.convertValue[Map[String, Any]](nested)) // true
+
       // 2) Convert between Mutable and Immutable
       // 2.1) from mutable to immutable, use toXXX series methods:
       //      ex. mList.toList, mMap.toMap
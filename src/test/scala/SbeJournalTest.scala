@@ -0,0 +1,113 @@
+import com.my.sbe._
+import sbe.journal.{ JournalReader, JournalWriter }
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.{ Files, Path, StandardOpenOption }
+import scala.collection.mutable.ArrayBuffer
+import scala.jdk.CollectionConverters._
+
+// crash recovery of the sbe.journal journal: a crashed writer leaves its last frame torn (only some of its bytes reached
+// the file), the journal is replayed up to the last valid frame, and a new writer truncates the torn frame and
+// continues after it
+// the crashes are simulated by editing the segment file after a clean close, at the position of the last frame
+object SbeJournalTest {
+
+  private val headerEncoder = new MessageHeaderEncoder
+  private val encoder = new SampleMessageEncoder
+  private val SegmentLength = 4096
+
+  private def append(writer: JournalWriter, sequence: Long): Long = {
+    val offset = writer.claim(128)
+    encoder.wrapAndApplyHeader(writer.buffer, offset, headerEncoder).sequence(sequence).enumField(SampleEnum.VALUE_1)
+    encoder.groupCount(0)
+    encoder.message(s"message $sequence")
+    writer.commit(MessageHeaderEncoder.ENCODED_LENGTH + encoder.encodedLength)
+  }
+
+  // the sequences of the valid frames, and whether the reader stopped at a torn frame
+  private def replay(directory: Path): (Seq[Long], Boolean) = {
+    val reader = new JournalReader(directory)
+    val sequences = ArrayBuffer[Long]()
+    reader.poll((message: SampleMessageDecoder, _: Long) => sequences += message.sequence, Int.MaxValue)
+    reader.close()
+    (sequences.toSeq, reader.isTorn)
+  }
+
+  // writes bytes at a position of the journal (position = segment index * segment length + offset)
+  private def overwrite(directory: Path, position: Long, bytes: Array[Byte]): Unit = {
+    val file = directory.resolve(f"${position / SegmentLength}%020d.journal")
+    val channel = FileChannel.open(file, StandardOpenOption.WRITE)
+    channel.write(ByteBuffer.wrap(bytes), position % SegmentLength)
+    channel.close()
+  }
+
+  private def intBytes(value: Int): Array[Byte] =
+    ByteBuffer.allocate(4).order(java.nio.ByteOrder.LITTLE_ENDIAN).putInt(value).array()
+
+  // writes 100 messages (a few segments of 4KB), crashes the writer with `crash` (given the position of the last
+  // frame and the position after it), then checks the replay before and after a new writer recovered the journal
+  private def scenario(name: String, expectedBeforeRecovery: Int)(crash: (Path, Long, Long) => Unit): Unit = {
+    val directory = Files.createTempDirectory("sbe-journal-test")
+    val writer = new JournalWriter(directory, SegmentLength)
+    val positions = (1L to 100L).map(append(writer, _))
+    val end = writer.position
+    writer.close()
+    crash(directory, positions.last, end)
+
+    val (beforeRecovery, tornBeforeRecovery) = replay(directory)
+    require(beforeRecovery == (1L to expectedBeforeRecovery), s"$name: replayed ${beforeRecovery.size} frames")
+
+    val recovered = new JournalWriter(directory, SegmentLength)
+    println(s"$name: replayed=${beforeRecovery.size} torn=$tornBeforeRecovery, " +
+      s"recoveredFrames=${recovered.recoveredFrames} truncatedBytes=${recovered.truncatedBytes}")
+    append(recovered, 1000)
+    recovered.close()
+
+    val (afterRecovery, tornAfterRecovery) = replay(directory)
+    require(!tornAfterRecovery, s"$name: torn after recovery")
+    require(afterRecovery == (1L to expectedBeforeRecovery) :+ 1000L, s"$name: replayed $afterRecovery")
+    Files.list(directory).iterator().asScala.foreach(Files.delete)
+    Files.delete(directory)
+  }
+
+  def main(args: Array[String]): Unit = {
+    // 1) a clean close: nothing to truncate
+    scenario("clean", 100)((_, _, _) => ())
+    // clean: replayed=100 torn=false, recoveredFrames=30 truncatedBytes=0
+
+    // 2) torn payload: the frame length and checksum reached the file, the end of the message did not
+    scenario("torn payload", 99) { (directory, last, _) =>
+      overwrite(directory, last + 40, Array.fill[Byte](16)(0))
+    }
+    // torn payload: replayed=99 torn=true, recoveredFrames=29 truncatedBytes=40
+
+    // 3) torn header: a garbage frame length (ex. the page of the frame length was written back, not the others)
+    scenario("torn header", 99) { (directory, last, _) =>
+      overwrite(directory, last, intBytes(0x7fff0000))
+    }
+    // torn header: replayed=99 torn=true, recoveredFrames=29 truncatedBytes=56
+
+    // 4) wrong schema: a frame with a valid length over bytes that are not an SBE message of example-schema.xml
+    scenario("wrong schema", 99) { (directory, last, _) =>
+      overwrite(directory, last + 8 + 4, Array[Byte](1, 2))
+    }
+    // wrong schema: replayed=99 torn=true, recoveredFrames=29 truncatedBytes=56
+
+    // 5) uncommitted claim: the writer crashed while encoding, the frame length is still 0 but the message bytes are
+    //    in the file; the reader sees the end of the journal, the recovery zeroes the message bytes
+    scenario("uncommitted claim", 99) { (directory, last, _) =>
+      overwrite(directory, last, intBytes(0))
+    }
+    // uncommitted claim: replayed=99 torn=false, recoveredFrames=29 truncatedBytes=56
+
+    // 6) crash while rolling: the segment was padded, the next segment was created, and its header was not written
+    scenario("torn segment", 100) { (directory, _, end) =>
+      val offset = (end % SegmentLength).toInt
+      if (offset != 0) overwrite(directory, end, intBytes(offset - SegmentLength))
+      val next = directory.resolve(f"${(end + SegmentLength - 1) / SegmentLength}%020d.journal")
+      Files.write(next, new Array[Byte](SegmentLength))
+    }
+    // torn segment: replayed=100 torn=false, recoveredFrames=0 truncatedBytes=0
+    println("all scenarios passed")
+  }
+}
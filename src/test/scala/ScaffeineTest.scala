@@ -1,4 +1,12 @@
 import com.github.blemale.scaffeine.{ Cache, Scaffeine }
+import com.my.sbe.SampleEnum
+import reactive.cache.MonoCache
+import reactor.core.publisher.{ Flux, Mono }
+import sbe.cache.{ OffHeapStore, SampleMessageCodec, TieredCache }
+import sbe.codec.SampleMessage
+
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
 import scala.concurrent.duration._
 
 object ScaffeineTest {
@@ -47,5 +55,67 @@ object ScaffeineTest {
     // requries: Scaffeine().recordStats()
     // CacheStats{hitCount=1, missCount=3, loadSuccessCount=0, loadFailureCount=0, totalLoadTime=0, evictionCount=0, evictionWeight=0}
 
+    println
+    monoCache()
+
+    println
+    tieredCache()
+  }
+
+  // 2. an async loading cache in front of a slow Mono (see reactive.cache.MonoCache)
+  //   with the cache above, 100 concurrent misses of a key would start 100 identical slow calls: MonoCache shares one
+  def monoCache(): Unit = {
+    val calls = new AtomicInteger()
+    def slowCall(key: Int): Mono[String] = Mono.fromCallable { () =>
+      calls.incrementAndGet()
+      if (key < 0) throw new IllegalArgumentException(s"bad key $key")
+      s"value-$key"
+    }.delayElement(Duration.ofMillis(100)) // a 100ms remote call
+
+    val cache: MonoCache[Int, String] =
+      MonoCache.builder[Int, String](key => slowCall(key))
+        .maximumSize(100)
+        .expireAfterWrite(Duration.ofSeconds(2))
+        .refreshAfterWrite(Duration.ofSeconds(1)) // refresh-ahead: read after 1s, reloaded in the background
+        .negativeTtl(Duration.ofMillis(500)) // the errors are cached for 500ms
+        .recordStats()
+        .build()
+
+    val values = Flux.range(0, 100).flatMap(_ => cache.get(1), 100).collectList().block()
+    println(s"${values.size} gets, ${calls.get} call") // 100 gets, 1 call: 99 gets coalesced into the first load
+
+    println(cache.get(-1).onErrorResume(e => Mono.just(e.getMessage)).block()) // bad key -1
+    println(cache.get(-1).onErrorResume(e => Mono.just(e.getMessage)).block()) // bad key -1 (cached error, no call)
+    println(calls.get) // 2
+
+    Thread.sleep(1200)
+    println(cache.get(1).block()) // value-1: the old value, a refresh is started
+    Thread.sleep(300)
+    println(calls.get) // 3: refreshed in the background
+    println(cache.stats())
+    // CacheStats{hitCount=101, missCount=2, ..., coalescedCount=99, refreshCount=1, refreshFailureCount=0,
+    //   negativeHitCount=2, refreshLatencyP50=100ms, refreshLatencyP99=100ms, refreshLatencyMax=100ms}
+  }
+
+  // 3. a two-tier cache: the entries evicted from the on-heap cache (maximumSize(3)) spill to an off-heap store, where
+  //   they are SBE-encoded (see sbe.cache.TieredCache and OffHeapStore), instead of being dropped
+  def tieredCache(): Unit = {
+    val store = OffHeapStore.builder[SampleMessage](() => new SampleMessageCodec()).capacity(1000).segments(1).build()
+    val cache = TieredCache.of(Scaffeine().maximumSize(3).executor(_.run()).underlying, store)
+
+    for (key <- 1L to 5L) cache.put(key, new SampleMessage(key, SampleEnum.VALUE_1, 1, 2, s"message $key"))
+    cache.cleanUp()
+    println(s"${cache.tier1Size} on heap, ${cache.tier2Size} off heap") // 3 on heap, 2 off heap
+
+    println(cache.getIfPresent(1L).message) // message 1: decoded from tier 2 (no copy), promoted to tier 1
+    println(cache.getIfPresent(6L)) // null: in neither tier
+    println(cache.get(6L, key => new SampleMessage(key, SampleEnum.VALUE_2, 1, 2, s"loaded $key")).message) // loaded 6
+    cache.cleanUp()
+    println(cache.stats())
+    // TieredCacheStats{tier1HitCount=0, tier2HitCount=1, missCount=2, tier1HitRate=0.000, tier2HitRate=0.333,
+    //   hitRate=0.333, spillCount=3, spillRejectedCount=0, tier2EvictionCount=0}
+    // spillCount: the entries encoded into tier 2; 1 was promoted, then evicted again by the admission policy of
+    //   Caffeine (TinyLFU: a new entry that is less frequent than the victim is evicted), it still had its tier 2 copy
+    cache.close()
   }
 }